@@ -0,0 +1,98 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.persistence.ColdStore;
+import com.workflow.services.TaskArchiver;
+import com.workflow.services.TaskStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Looking up a task by ID in a store where every other one of {@code tasks} tasks has been archived to a
+ * {@link ColdStore}: a resident task, an archived task that is in the {@link TaskArchiver}'s cache, and one
+ * that has to be read back from the run files. IDs are spread with a multiplicative step so consecutive
+ * lookups hit different blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ArchiveBenchmark {
+    private static final long FIRST_ID = 1L << 22;
+    private static final int CACHE_SIZE = 1024;
+
+    @Param({"1000000"})
+    public int tasks;
+
+    private TaskStore store;
+    private TaskArchiver archiver;
+    private Path directory;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void archiveHalf() throws IOException {
+        Fixtures.silenceLogging();
+        directory = Files.createTempDirectory("archive-bench");
+        store = new TaskStore();
+        archiver = new TaskArchiver(store, ColdStore.open(directory), () -> 0, 0, CACHE_SIZE);
+        store.setColdTier(archiver::get);
+        long approved = StateWord.pack(TaskState.APPROVED, "Senior");
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task(FIRST_ID + i, "Benchmark task " + i, 1 + i % 3, "bench", 1_700_000_000_000L + i);
+            store.add(task, store.newCaretaker(task.getPriority()));
+            if (i % 2 == 1) {
+                task.restoreStateWord(approved);
+                archiver.closed(task);
+            }
+        }
+        archiver.archive();
+    }
+
+    @Benchmark
+    public Task resident() {
+        return store.get(FIRST_ID + 2 * spread(tasks / 2));
+    }
+
+    @Benchmark
+    public Task archivedCached() {
+        return store.get(FIRST_ID + 2 * spread(CACHE_SIZE / 2) + 1);
+    }
+
+    @Benchmark
+    public Task archivedCold() {
+        return store.get(FIRST_ID + 2 * spread(tasks / 2) + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private long spread(int range) {
+        return ((next++ * 0x9E3779B1L) & 0xFFFFFFFFL) % range;
+    }
+}
@@ -0,0 +1,75 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.User;
+import com.workflow.services.AccessControl;
+import com.workflow.services.AccessPolicy;
+import com.workflow.services.Permission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one approval check: the cached per-user decision of {@link AccessControl}, a lookup in the compiled
+ * {@link AccessPolicy} table, and the string comparison chain the console used before.
+ * Users and priorities rotate so no branch is always taken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+    private static final String[] ROLES = {"Junior", "Manager", "Senior"};
+
+    private AccessControl access;
+    private AccessPolicy policy;
+    private User[] users;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        access = new AccessControl();
+        policy = access.getPolicy();
+        users = new User[64];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new User("user" + i, "unused-hash", ROLES[i % ROLES.length]);
+        }
+        access.setUsers(username -> users[Integer.parseInt(username.substring(4))]);
+        // A few delegations, so some users hold more than one role
+        for (int i = 0; i < users.length; i += 8) {
+            access.delegate(users[i], users[i + 1].getUsername());
+        }
+    }
+
+    @Benchmark
+    public boolean accessControl() {
+        int i = next++;
+        return access.isAllowed(users[i & 63], Permission.APPROVE, 1 + i % 3);
+    }
+
+    @Benchmark
+    public boolean policyTable() {
+        int i = next++;
+        return policy.isAllowed(users[i & 63].getRole(), Permission.APPROVE, 1 + i % 3);
+    }
+
+    @Benchmark
+    public boolean stringChain() {
+        int i = next++;
+        User user = users[i & 63];
+        int priority = 1 + i % 3;
+        return (priority == 1 && user.getRole().equals("Junior"))
+                || (priority == 2 && user.getRole().equals("Manager"))
+                || (priority == 3 && user.getRole().equals("Senior"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.workflow.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks twice, single-threaded and with one thread per core, and writes each run's
+ * results as JSON ({@code jmh-result-1t.json} and {@code jmh-result-<n>t.json}) for comparison between runs.
+ * <p>
+ * Usage: {@code java -jar target/benchmarks.jar [regex]}. For any other JMH option use
+ * {@code java -cp target/benchmarks.jar org.openjdk.jmh.Main} directly.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com\\.workflow\\.benchmarks\\..*";
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-" + threads + "t.json");
+            if (threads > 1) {
+                // Recovery is a single-threaded startup path, and concurrent opens would race on the log directory.
+                // Bulk processing sizes its own pool and is destructive, so shared invocations would collide.
+                // Snapshot dumps rewrite one shared file.
+                options.exclude(JournalRecoveryBenchmark.class.getSimpleName());
+                options.exclude(BulkProcessBenchmark.class.getSimpleName());
+                options.exclude(SnapshotBenchmark.class.getSimpleName());
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.services.BulkResult;
+import com.workflow.services.Decision;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link WorkflowService#processTasks} with the size of the fork-join pool: approves every
+ * pending task of a freshly filled store. Parallelism above the machine's core count only adds contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BulkProcessBenchmark {
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private WorkflowService workflow;
+    private TaskQuery pending;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        Fixtures.silenceLogging();
+        pool = new ForkJoinPool(parallelism);
+        pending = TaskQuery.builder().status(TaskState.PENDING).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void fillStore() {
+        workflow = Fixtures.workflow(0);
+        workflow.setBulkPool(pool);
+        User creator = Fixtures.user("creator", "Senior");
+        for (int i = 0; i < tasks; i++) {
+            workflow.createTask("Benchmark task " + i, 1 + i % 3, creator);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BulkResult approveAllPending() {
+        return workflow.processTasks(pending, Decision.approve());
+    }
+}
@@ -0,0 +1,87 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.patterns.memento.HistoryPolicy;
+import com.workflow.services.ColumnarTaskStore;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The object-per-task {@link TaskStore} against a {@link ColumnarTaskStore} without a text index: counting the
+ * tasks that match a query no index narrows down, taking the first page of the newest pending tasks of one
+ * creator, and fetching a task by ID. A third of the tasks are approved and a third rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "-XX:MaxDirectMemorySize=1g"})
+public class ColumnarStoreBenchmark {
+    @Param({"objects", "columnar"})
+    public String store;
+
+    @Param({"1000000"})
+    public int tasks;
+
+    private WorkflowService workflow;
+    private TaskQuery pendingHighPriority;
+    private TaskQuery newestPendingPage;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures.silenceLogging();
+        TaskStore taskStore = "columnar".equals(store)
+                ? new ColumnarTaskStore(TaskStore.DEFAULT_STRIPES, new HistoryPolicy(), false) : new TaskStore();
+        workflow = new WorkflowService(taskStore, new SnowflakeIdGenerator(0));
+        User[] creators = {Fixtures.user("mia", "Senior"), Fixtures.user("sam", "Senior"),
+                Fixtures.user("joe", "Senior"), Fixtures.user("dee", "Senior")};
+        ids = new long[tasks];
+        for (int i = 0; i < tasks; i++) {
+            Task task = workflow.createTask("Benchmark task " + i, 1 + i % 3, creators[i % 4]);
+            if (i % 3 != 0) {
+                workflow.processTask(task, i % 3 == 1, "Benchmark");
+            }
+            ids[i] = task.getNumericId();
+        }
+        pendingHighPriority = TaskQuery.builder().status(TaskState.PENDING).priority(3).creator("sam").build();
+        newestPendingPage = TaskQuery.builder().status(TaskState.PENDING).creator("sam")
+                .sort(TaskQuery.Sort.NEWEST_FIRST).limit(100).build();
+    }
+
+    @Benchmark
+    public long countPendingHighPriority() {
+        return workflow.query(pendingHighPriority).count();
+    }
+
+    @Benchmark
+    public List<Task> newestPendingPage() {
+        return workflow.query(newestPendingPage).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Task getTask() {
+        return workflow.getTask(ids[(int) (((next++ * 0x9E3779B1L) & 0xFFFFFFFFL) % ids.length)]);
+    }
+}
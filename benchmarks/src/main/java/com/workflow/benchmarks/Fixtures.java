@@ -0,0 +1,34 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowService;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Turns logging off in the forked benchmark JVM, so the services' per-call INFO lines are never even queued.
+     */
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    /**
+     * Returns a workflow service over an empty in-memory store, assigning IDs as node {@code nodeId}.
+     */
+    static WorkflowService workflow(int nodeId) {
+        return new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(nodeId));
+    }
+
+    static User user(String username, String role) {
+        return new User(username, "unused-hash", role);
+    }
+}
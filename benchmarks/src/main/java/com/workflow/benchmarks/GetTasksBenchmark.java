@@ -0,0 +1,64 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Listing tasks: the full copy made by {@link WorkflowService#getTasks()} against an indexed, paged query.
+ * A third of the tasks are approved and a third rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class GetTasksBenchmark {
+    @Param({"10000", "1000000"})
+    public int tasks;
+
+    private WorkflowService workflow;
+    private TaskQuery firstPendingPage;
+
+    @Setup
+    public void setUp() {
+        Fixtures.silenceLogging();
+        workflow = Fixtures.workflow(0);
+        User creator = Fixtures.user("creator", "Senior");
+        for (int i = 0; i < tasks; i++) {
+            Task task = workflow.createTask("Benchmark task " + i, 1 + i % 3, creator);
+            if (i % 3 != 0) {
+                workflow.processTask(task, i % 3 == 1, "Benchmark");
+            }
+        }
+        firstPendingPage = TaskQuery.builder().status(TaskState.PENDING).limit(100).build();
+    }
+
+    @Benchmark
+    public List<Task> getTasks() {
+        return workflow.getTasks();
+    }
+
+    @Benchmark
+    public List<Task> queryPendingPage() {
+        return workflow.query(firstPendingPage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.persistence.WorkflowJournal;
+import com.workflow.persistence.WriteAheadLog;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.PasswordHasher;
+import com.workflow.services.SessionCache;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowService;
+import com.workflow.core.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup recovery from the write-ahead log: replaying {@code events} raw events, or the checkpoint
+ * written from the same state. Run with {@code -p events=10000000} for the 10M-event case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class JournalRecoveryBenchmark {
+    @Param({"1000000"})
+    public int events;
+
+    @Param({"false", "true"})
+    public boolean checkpointed;
+
+    private Path directory;
+    private AuthenticationService auth;
+    private TaskStore store;
+
+    @Setup(Level.Trial)
+    public void writeLog() throws IOException {
+        Fixtures.silenceLogging();
+        directory = Files.createTempDirectory("wal-bench");
+        // Asynchronous commits so writing the fixture does not wait for an fsync per event
+        WorkflowJournal journal = new WorkflowJournal(new WriteAheadLog(directory, 64L << 20, 5), false);
+        AuthenticationService writerAuth = newAuthenticationService();
+        writerAuth.setJournal(journal);
+        writerAuth.register("bench", "bench-password", "Senior");
+        TaskStore writerStore = new TaskStore();
+        WorkflowService workflow = new WorkflowService(writerStore, new SnowflakeIdGenerator(0));
+        workflow.setJournal(journal);
+        // Each processed task logs three events: created, snapshot saved, status changed
+        for (int i = 0; i < events / 3; i++) {
+            Task task = workflow.createTask("Benchmark task " + i, 1 + i % 3, writerAuth.getUsers().iterator().next());
+            workflow.processTask(task, i % 2 == 0, "Benchmark");
+        }
+        if (checkpointed) {
+            journal.checkpoint(writerAuth, writerStore);
+        }
+        journal.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyServices() {
+        auth = newAuthenticationService();
+        store = new TaskStore();
+    }
+
+    @Benchmark
+    public long recover() {
+        try (WorkflowJournal journal = WorkflowJournal.open(directory)) {
+            return journal.recover(auth, store);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLog() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static AuthenticationService newAuthenticationService() {
+        return new AuthenticationService(new PasswordHasher(1_000), new SessionCache(16, 60_000));
+    }
+}
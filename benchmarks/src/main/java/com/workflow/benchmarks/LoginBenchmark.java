@@ -0,0 +1,53 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.User;
+import com.workflow.services.AuthenticationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password login, which runs the full PBKDF2 hash, against validating a cached session token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+    private AuthenticationService auth;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        Fixtures.silenceLogging();
+        auth = new AuthenticationService();
+        auth.register("bench", "bench-password", "Manager");
+        token = auth.createSession("bench", "bench-password");
+    }
+
+    @Benchmark
+    public User login() {
+        return auth.login("bench", "bench-password");
+    }
+
+    @Benchmark
+    public User loginUnknownUser() {
+        return auth.login("nobody", "bench-password");
+    }
+
+    @Benchmark
+    public User validateSession() {
+        return auth.validateSession(token);
+    }
+}
@@ -0,0 +1,60 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.patterns.observer.TaskObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out cost of {@link Task#notifyObservers} with the default synchronous dispatcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotifyObserversBenchmark {
+    @Param({"1", "10", "1000"})
+    public int observers;
+
+    private Task task;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        task = new Task(1L, "Benchmark task", 2);
+        for (int i = 0; i < observers; i++) {
+            task.attach(new ConsumingObserver(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        task.notifyObservers("Task status updated");
+    }
+
+    private static final class ConsumingObserver implements TaskObserver {
+        private final Blackhole blackhole;
+
+        ConsumingObserver(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void update(String event) {
+            blackhole.consume(event);
+        }
+    }
+}
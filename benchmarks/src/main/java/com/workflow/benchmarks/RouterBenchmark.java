@@ -0,0 +1,101 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.patterns.chainofresponsibility.ApprovalRouter;
+import com.workflow.patterns.chainofresponsibility.ApproverHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch cost of a linked handler chain against the compiled {@link ApprovalRouter} table.
+ * Of the {@code handlers}, all but the last three match priorities no task has, so tasks of priority 3
+ * walk the whole chain. Handlers only consume the task; no state changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+    @Param({"3", "10", "50"})
+    public int handlers;
+
+    private ApproverHandler chain;
+    private ApprovalRouter router;
+    private Task[] tasks;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        ApprovalRouter.Builder builder = ApprovalRouter.builder();
+        ApproverHandler previous = null;
+        for (int i = 0; i < handlers; i++) {
+            int priority = i < handlers - 3 ? 100 + i : i - (handlers - 3) + 1;
+            PriorityHandler handler = new PriorityHandler(priority, blackhole);
+            builder.route(priority, handler);
+            if (previous == null) {
+                chain = handler;
+            } else {
+                previous.setNext(handler);
+            }
+            previous = handler;
+        }
+        router = builder.build();
+        tasks = new Task[]{new Task(1L, "Low", 1), new Task(2L, "Medium", 2), new Task(3L, "High", 3)};
+    }
+
+    @Benchmark
+    public void chainWorstCase() {
+        chain.handle(tasks[2]);
+    }
+
+    @Benchmark
+    public void tableWorstCase() {
+        router.handle(tasks[2]);
+    }
+
+    @Benchmark
+    public void chainMixed() {
+        for (Task task : tasks) {
+            chain.handle(task);
+        }
+    }
+
+    @Benchmark
+    public void tableMixed() {
+        for (Task task : tasks) {
+            router.handle(task);
+        }
+    }
+
+    private static final class PriorityHandler extends ApproverHandler {
+        private final int priority;
+        private final Blackhole blackhole;
+
+        PriorityHandler(int priority, Blackhole blackhole) {
+            this.priority = priority;
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void handle(Task task) {
+            if (task.getPriority() == priority) {
+                blackhole.consume(task);
+            } else if (next != null) {
+                next.handle(task);
+            }
+        }
+    }
+}
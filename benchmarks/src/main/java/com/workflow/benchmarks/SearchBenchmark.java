@@ -0,0 +1,126 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.services.SearchResult;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskSearch;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over {@code tasks} descriptions of eight words drawn from a skewed 4096-word vocabulary,
+ * so a few words are in most tasks and most words in few: two rare words ANDed, a rare word ANDed with a
+ * common one, an OR, a prefix, a status filter, and a single common word, against a linear scan of every
+ * description for the two rare words. A third of the tasks are approved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchBenchmark {
+    private static final int VOCABULARY = 4096;
+    private static final int WORDS_PER_TASK = 8;
+
+    @Param({"1000000"})
+    public int tasks;
+
+    private WorkflowService workflow;
+    private TaskSearch rareAnd;
+    private TaskSearch rareAndCommon;
+    private TaskSearch either;
+    private TaskSearch prefix;
+    private TaskSearch pendingOnly;
+    private TaskSearch common;
+    private TaskQuery everything;
+
+    @Setup
+    public void setUp() {
+        Fixtures.silenceLogging();
+        workflow = Fixtures.workflow(0);
+        User creator = Fixtures.user("creator", "Senior");
+        Random random = new Random(42);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < tasks; i++) {
+            description.setLength(0);
+            for (int w = 0; w < WORDS_PER_TASK; w++) {
+                // Cubing skews the draw towards the first words of the vocabulary
+                double r = random.nextDouble();
+                description.append(word((int) (r * r * r * VOCABULARY))).append(' ');
+            }
+            Task task = workflow.createTask(description.toString(), 1 + i % 3, creator);
+            if (i % 3 == 0) {
+                workflow.processTask(task, true, null);
+            }
+        }
+        rareAnd = TaskSearch.builder(word(2000) + " " + word(3000)).build();
+        rareAndCommon = TaskSearch.builder(word(3000) + " " + word(1)).build();
+        either = TaskSearch.builder(word(2000) + " OR " + word(3000)).build();
+        prefix = TaskSearch.builder("w30*").build();
+        pendingOnly = TaskSearch.builder(word(3000)).status(TaskState.PENDING).build();
+        common = TaskSearch.builder(word(1)).build();
+        everything = TaskQuery.builder().build();
+    }
+
+    private static String word(int index) {
+        return "w" + index;
+    }
+
+    @Benchmark
+    public SearchResult rareAnd() {
+        return workflow.search(rareAnd);
+    }
+
+    @Benchmark
+    public SearchResult rareAndCommon() {
+        return workflow.search(rareAndCommon);
+    }
+
+    @Benchmark
+    public SearchResult either() {
+        return workflow.search(either);
+    }
+
+    @Benchmark
+    public SearchResult prefix() {
+        return workflow.search(prefix);
+    }
+
+    @Benchmark
+    public SearchResult pendingOnly() {
+        return workflow.search(pendingOnly);
+    }
+
+    @Benchmark
+    public SearchResult common() {
+        return workflow.search(common);
+    }
+
+    @Benchmark
+    public long linearScan() {
+        String first = " " + word(2000) + " ";
+        String second = " " + word(3000) + " ";
+        return workflow.query(everything)
+                .filter(task -> {
+                    String text = " " + task.getDescription();
+                    return text.contains(first) && text.contains(second);
+                })
+                .count();
+    }
+}
@@ -0,0 +1,120 @@
+package com.workflow.benchmarks;
+
+import com.workflow.cluster.LocalTransport;
+import com.workflow.cluster.ShardServer;
+import com.workflow.cluster.ShardTransport;
+import com.workflow.cluster.ShardedWorkflowService;
+import com.workflow.cluster.TcpTransport;
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Throughput of a {@link ShardedWorkflowService} by shard count, over the in-process and the loopback TCP
+ * transport. Creating and approving a task touches one shard, so it scales with shards as long as every shard
+ * gets its own cores; the top-priority page is scattered to every shard and merged, so its cost grows with them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ShardingBenchmark {
+    static final int PREFILL = 20_000;
+    static final int PAGE = 50;
+
+    @State(Scope.Benchmark)
+    public static class Cluster {
+        @Param({"1", "2", "4"})
+        int shards;
+
+        @Param({"local", "tcp"})
+        String transport;
+
+        ShardedWorkflowService workflow;
+        List<ShardServer> servers;
+        User creator;
+        TaskQuery topPage;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Fixtures.silenceLogging();
+            List<WorkflowService> services = new ArrayList<>();
+            for (int i = 0; i < shards; i++) {
+                services.add(Fixtures.workflow(i));
+            }
+            servers = new ArrayList<>();
+            creator = Fixtures.user("creator", "Senior");
+            ShardTransport shardTransport;
+            if ("tcp".equals(transport)) {
+                AuthenticationService auth = new AuthenticationService();
+                auth.recoverUser(creator);
+                byte[] secret = "benchmark-shard-secret".getBytes(StandardCharsets.UTF_8);
+                List<InetSocketAddress> addresses = new ArrayList<>();
+                for (WorkflowService service : services) {
+                    ShardServer server = new ShardServer(service, auth,
+                            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), secret);
+                    server.start();
+                    servers.add(server);
+                    addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+                }
+                shardTransport = new TcpTransport(addresses, secret);
+            } else {
+                shardTransport = new LocalTransport(services);
+            }
+            workflow = new ShardedWorkflowService(shardTransport, new SnowflakeIdGenerator(shards));
+            for (int i = 0; i < PREFILL; i++) {
+                workflow.createTask("Benchmark task " + i, 1 + i % 3, creator);
+            }
+            topPage = TaskQuery.builder()
+                    .status(TaskState.PENDING)
+                    .sort(TaskQuery.Sort.PRIORITY)
+                    .limit(PAGE)
+                    .build();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            workflow.close();
+            for (ShardServer server : servers) {
+                server.stop();
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean createAndApprove(Cluster cluster) {
+        Task task = cluster.workflow.createTask("Benchmark task", 2, cluster.creator);
+        return cluster.workflow.processTask(cluster.creator, task, true, null);
+    }
+
+    @Benchmark
+    public List<Task> topPriorityPage(Cluster cluster) {
+        return cluster.workflow.query(cluster.topPage).collect(Collectors.toList());
+    }
+}
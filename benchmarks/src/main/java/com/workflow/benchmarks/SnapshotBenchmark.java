@@ -0,0 +1,180 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.patterns.memento.MementoCaretaker;
+import com.workflow.patterns.memento.TaskMemento;
+import com.workflow.persistence.Snapshot;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.PasswordHasher;
+import com.workflow.services.SessionCache;
+import com.workflow.services.TaskStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dumping and loading {@code tasks} tasks with their memento histories, as a memory-mapped {@link Snapshot}
+ * or with plain Java serialization of equivalent records. A snapshot load only indexes the tasks and leaves
+ * them to be materialized on first access; a serialized load has to rebuild every task up front.
+ * Run with {@code -p tasks=10000000} for the 10M-task case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class SnapshotBenchmark {
+    @Param({"1000000"})
+    public int tasks;
+
+    @Param({"snapshot", "serialization"})
+    public String format;
+
+    private AuthenticationService auth;
+    private TaskStore store;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void fillStore() throws IOException {
+        Fixtures.silenceLogging();
+        auth = newAuthenticationService();
+        auth.register("bench", "bench-password", "Senior");
+        store = new TaskStore();
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task((1L << 22) + i, "Benchmark task " + i, 1 + i % 3, "bench", 1_700_000_000_000L + i);
+            MementoCaretaker caretaker = store.newCaretaker(task.getPriority());
+            if (i % 2 == 0) {
+                caretaker.push(new TaskMemento(StateWord.PENDING));
+                task.approve("Senior");
+            }
+            store.add(task, caretaker);
+        }
+        file = Files.createTempFile("snapshot-bench", ".bin");
+        if (format.equals("snapshot")) {
+            Snapshot.write(file, auth, store, null);
+        } else {
+            serialize();
+        }
+    }
+
+    @Benchmark
+    public Object dump() throws IOException {
+        if (format.equals("snapshot")) {
+            return Snapshot.write(file, auth, store, null);
+        }
+        serialize();
+        return file;
+    }
+
+    @Benchmark
+    public TaskStore load() throws IOException, ClassNotFoundException {
+        TaskStore loaded = new TaskStore();
+        if (format.equals("snapshot")) {
+            // Left open: the loaded store keeps reading from the mapping
+            Snapshot.open(file).restore(newAuthenticationService(), loaded, null);
+            return loaded;
+        }
+        try (ObjectInputStream in =
+                     new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            @SuppressWarnings("unchecked")
+            List<TaskRecord> records = (List<TaskRecord>) in.readObject();
+            for (TaskRecord record : records) {
+                record.addTo(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void serialize() throws IOException {
+        List<TaskRecord> records = new ArrayList<>(tasks);
+        for (Task task : store.values()) {
+            records.add(new TaskRecord(task, store.getCaretaker(task.getNumericId())));
+        }
+        try (ObjectOutputStream out =
+                     new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeObject(records);
+        }
+    }
+
+    private static AuthenticationService newAuthenticationService() {
+        return new AuthenticationService(new PasswordHasher(1_000), new SessionCache(16, 60_000));
+    }
+
+    /**
+     * What the snapshot stores for one task, as a plain serializable object.
+     */
+    private static final class TaskRecord implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long id;
+        private final String description;
+        private final int priority;
+        private final String creator;
+        private final long createdAt;
+        private final byte state;
+        private final String approver;
+        private final String reason;
+        private final byte[] historyStates;
+        private final String[] historyApprovers;
+
+        TaskRecord(Task task, MementoCaretaker caretaker) {
+            id = task.getNumericId();
+            description = task.getDescription();
+            priority = task.getPriority();
+            creator = task.getCreator();
+            createdAt = task.getCreatedAt();
+            state = task.getState().code();
+            approver = task.getApprover();
+            reason = task.getReason();
+            List<TaskMemento> history = caretaker.history();
+            historyStates = new byte[history.size()];
+            historyApprovers = new String[history.size()];
+            for (int i = 0; i < history.size(); i++) {
+                long word = history.get(i).getStateWord();
+                historyStates[i] = StateWord.state(word).code();
+                historyApprovers[i] = StateWord.approver(word);
+            }
+        }
+
+        void addTo(TaskStore store) {
+            Task task = new Task(id, description, priority, creator, createdAt);
+            task.restore(TaskState.fromCode(state), approver, reason, 0);
+            MementoCaretaker caretaker = store.newCaretaker(priority);
+            for (int i = 0; i < historyStates.length; i++) {
+                caretaker.push(new TaskMemento(StateWord.pack(TaskState.fromCode(historyStates[i]),
+                        historyApprovers[i])));
+            }
+            store.add(task, caretaker);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.TaskObserver;
+import com.workflow.patterns.observer.Topic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of notifying through a {@link SubscriptionRegistry} as the number of subscribed tasks grows.
+ * Every task has its own subscriber and there is one priority and one wildcard subscriber, so each
+ * event resolves to three observers whatever the registry size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscriptionRegistryBenchmark {
+    @Param({"1000", "100000"})
+    public int subscribedTasks;
+
+    private Task[] tasks;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        tasks = new Task[subscribedTasks];
+        for (int i = 0; i < subscribedTasks; i++) {
+            tasks[i] = new Task(i + 1, "Benchmark task " + i, 2);
+            tasks[i].setSubscriptions(registry);
+            registry.subscribe(Topic.task(i + 1), new ConsumingObserver(blackhole));
+        }
+        registry.subscribe(Topic.priority(2), new ConsumingObserver(blackhole));
+        registry.subscribe(Topic.all(), new ConsumingObserver(blackhole));
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        tasks[ThreadLocalRandom.current().nextInt(tasks.length)].notifyObservers("Task status updated");
+    }
+
+    private static final class ConsumingObserver implements TaskObserver {
+        private final Blackhole blackhole;
+
+        ConsumingObserver(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void update(String event) {
+            blackhole.consume(event);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.workflow.benchmarks;
+
+import com.workflow.concurrent.Clock;
+import com.workflow.concurrent.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling and cancelling one SLA timer while many others are outstanding: the {@link TimingWheel}
+ * against one {@link ScheduledThreadPoolExecutor} entry per task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TimingWheelBenchmark {
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    @Param({"10000", "1000000"})
+    public int outstanding;
+
+    private TimingWheel<Object> wheel;
+    private ScheduledThreadPoolExecutor executor;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        now = System.currentTimeMillis();
+        wheel = new TimingWheel<>(1000, Clock.SYSTEM);
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Runnable noop = () -> { };
+        for (int i = 0; i < outstanding; i++) {
+            long delay = HOUR_MILLIS + random.nextLong(24 * HOUR_MILLIS);
+            wheel.schedule(noop, now + delay);
+            executor.schedule(noop, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean wheelScheduleAndCancel() {
+        long delay = HOUR_MILLIS + ThreadLocalRandom.current().nextLong(24 * HOUR_MILLIS);
+        return wheel.schedule(this, now + delay).cancel();
+    }
+
+    @Benchmark
+    public boolean executorScheduleAndCancel() {
+        long delay = HOUR_MILLIS + ThreadLocalRandom.current().nextLong(24 * HOUR_MILLIS);
+        ScheduledFuture<?> future = executor.schedule(() -> { }, delay, TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+}
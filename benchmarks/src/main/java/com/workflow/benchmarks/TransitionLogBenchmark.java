@@ -0,0 +1,101 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.TaskState;
+import com.workflow.services.Transition;
+import com.workflow.services.TransitionLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History queries over about a day of transitions: a task's state at a point in time, and approval counts for the
+ * last hour through the time index and chunk summaries, against filtering every recorded transition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TransitionLogBenchmark {
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final String[] ROLES = {"Junior", "Manager", "Senior"};
+    private static final int USERS = 300;
+
+    @Param({"100000", "10000000"})
+    public int transitions;
+
+    private TransitionLog log;
+    private long start;
+    private long end;
+    private int tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long[] now = {System.currentTimeMillis() - DAY_MILLIS};
+        start = now[0];
+        log = new TransitionLog(() -> now[0]);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Each task is created, approved and rolled back, one task after another
+        tasks = transitions / 3;
+        long step = DAY_MILLIS / transitions;
+        for (int i = 0; i < transitions; i++) {
+            long task = i / 3;
+            switch (i % 3) {
+                case 0:
+                    log.record(task, Transition.Kind.CREATED, null, TaskState.PENDING, "creator", "Junior", null);
+                    break;
+                case 1:
+                    int user = (int) (task % USERS);
+                    log.record(task, Transition.Kind.DECIDED, TaskState.PENDING, TaskState.APPROVED,
+                            "user" + user, ROLES[user % ROLES.length], null);
+                    break;
+                default:
+                    log.record(task, Transition.Kind.ROLLED_BACK, TaskState.APPROVED, TaskState.PENDING, null, null,
+                            null);
+            }
+            now[0] += random.nextLong(2 * step + 1);
+        }
+        end = now[0];
+    }
+
+    @Benchmark
+    public TaskState stateAt() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return log.stateAt(random.nextInt(tasks), start + random.nextLong(end - start));
+    }
+
+    @Benchmark
+    public long countLastHour() {
+        return log.count(end - HOUR_MILLIS, end, Transition.Kind.DECIDED, TaskState.APPROVED, null, "Manager");
+    }
+
+    @Benchmark
+    public Map<String, Long> countByActorLastHour() {
+        return log.countByActor(end - HOUR_MILLIS, end, Transition.Kind.DECIDED, TaskState.APPROVED);
+    }
+
+    @Benchmark
+    public long countLastHourByScan() {
+        long from = end - HOUR_MILLIS;
+        return log.between(Long.MIN_VALUE, Long.MAX_VALUE)
+                .filter(t -> t.getTime() >= from && t.getTime() < end
+                        && t.getKind() == Transition.Kind.DECIDED && t.getTo() == TaskState.APPROVED
+                        && "Manager".equals(t.getRole()))
+                .count();
+    }
+}
@@ -0,0 +1,63 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.User;
+import com.workflow.services.Lease;
+import com.workflow.services.WorkQueueService;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claiming and releasing a task from shared work queues. Run by {@link BenchmarkRunner} with one thread
+ * and with one thread per core to show how claims scale as approvers are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkQueueBenchmark {
+    @Param({"100000"})
+    public int tasks;
+
+    private WorkQueueService queues;
+    private User approver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.silenceLogging();
+        WorkflowService workflow = Fixtures.workflow(0);
+        queues = new WorkQueueService();
+        workflow.setWorkQueues(queues);
+        User creator = Fixtures.user("creator", "Senior");
+        for (int i = 0; i < tasks; i++) {
+            workflow.createTask("Benchmark task " + i, 1, creator);
+        }
+        approver = Fixtures.user("approver", "Junior");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queues.stop();
+    }
+
+    @Benchmark
+    public boolean claimAndRelease() {
+        Lease lease = queues.claimNext(approver);
+        return lease != null && queues.release(lease);
+    }
+}
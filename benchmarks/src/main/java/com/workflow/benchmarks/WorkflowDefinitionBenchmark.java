@@ -0,0 +1,71 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.services.WorkflowDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying one approval event to one of {@code tasks} running workflow instances, each at a random point of its
+ * {@link WorkflowDefinition}: a three-step definition and a twelve-step one with a k-of-n and a conditional
+ * stage. Instances are visited with a multiplicative step so consecutive events hit different tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class WorkflowDefinitionBenchmark {
+    private static final String[] ROLES = {"Manager", "Senior", "Junior", "Director"};
+
+    @Param({"Manager+Senior>Junior",
+            "Manager>Senior>2/Manager+Senior+Director>p3:Senior>Junior>Manager+Junior>Senior>Director"})
+    public String definition;
+
+    @Param({"1000000"})
+    public int tasks;
+
+    private WorkflowDefinition workflow;
+    private Task[] instances;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures.silenceLogging();
+        workflow = WorkflowDefinition.parse(definition);
+        instances = new Task[tasks];
+        Random random = new Random(42);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task(i + 1, "Benchmark task " + i, 1 + i % 3);
+            int progress = 0;
+            for (int steps = random.nextInt(workflow.getStepCount()); steps > 0; steps--) {
+                int advanced = workflow.approve(task, progress, ROLES[random.nextInt(ROLES.length)]);
+                if (advanced != WorkflowDefinition.REFUSED && !workflow.isComplete(advanced)) {
+                    progress = advanced;
+                }
+            }
+            task.advance(progress);
+            instances[i] = task;
+        }
+    }
+
+    @Benchmark
+    public int approve() {
+        int event = next++;
+        Task task = instances[(int) (((event * 0x9E3779B1L) & 0xFFFFFFFFL) % instances.length)];
+        return workflow.approve(task, task.getProgress(), ROLES[event & 3]);
+    }
+}
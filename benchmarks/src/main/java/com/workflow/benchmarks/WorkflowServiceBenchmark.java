@@ -0,0 +1,110 @@
+package com.workflow.benchmarks;
+
+import com.workflow.core.Task;
+import com.workflow.core.User;
+import com.workflow.services.WorkflowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create, process and roll back through {@link WorkflowService}.
+ * Processing and rollback consume their task, so each measured invocation is a batch of {@value #BATCH}
+ * operations over tasks prepared before the iteration; scores are milliseconds per batch.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20, batchSize = WorkflowServiceBenchmark.BATCH)
+@Measurement(iterations = 30, batchSize = WorkflowServiceBenchmark.BATCH)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class WorkflowServiceBenchmark {
+    static final int BATCH = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Service {
+        WorkflowService workflow;
+        User creator;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Fixtures.silenceLogging();
+            workflow = Fixtures.workflow(0);
+            creator = Fixtures.user("creator", "Senior");
+        }
+    }
+
+    /**
+     * Pending tasks for one thread, used up one per invocation.
+     */
+    @State(Scope.Thread)
+    public static class PendingTasks {
+        Task[] tasks;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(Service service) {
+            tasks = new Task[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                tasks[i] = service.workflow.createTask("Benchmark task " + i, 1 + i % 3, service.creator);
+            }
+            next = 0;
+        }
+
+        Task next() {
+            return tasks[next++];
+        }
+    }
+
+    /**
+     * Processed tasks with one saved snapshot each, ready to be rolled back.
+     */
+    @State(Scope.Thread)
+    public static class ProcessedTasks {
+        Task[] tasks;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(Service service) {
+            tasks = new Task[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                tasks[i] = service.workflow.createTask("Benchmark task " + i, 1 + i % 3, service.creator);
+                service.workflow.processTask(tasks[i], i % 2 == 0, "Benchmark");
+            }
+            next = 0;
+        }
+
+        Task next() {
+            return tasks[next++];
+        }
+    }
+
+    @Benchmark
+    public Task createTask(Service service) {
+        return service.workflow.createTask("Benchmark task", 2, service.creator);
+    }
+
+    @Benchmark
+    public boolean processApprove(Service service, PendingTasks pending) {
+        return service.workflow.processTask(pending.next(), true, null);
+    }
+
+    @Benchmark
+    public boolean processReject(Service service, PendingTasks pending) {
+        return service.workflow.processTask(pending.next(), false, "Not needed");
+    }
+
+    @Benchmark
+    public boolean rollbackTask(Service service, ProcessedTasks processed) {
+        return service.workflow.rollbackTask(processed.next());
+    }
+}
@@ -1,13 +1,258 @@
 package com.workflow;
 
+import com.workflow.cluster.LocalTransport;
+import com.workflow.cluster.ShardServer;
+import com.workflow.cluster.ShardTransport;
+import com.workflow.cluster.ShardedWorkflowService;
+import com.workflow.cluster.TcpTransport;
+import com.workflow.concurrent.Clock;
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.metrics.Metrics;
+import com.workflow.patterns.memento.HistoryPolicy;
+import com.workflow.persistence.ColdStore;
+import com.workflow.persistence.Snapshot;
+import com.workflow.persistence.WorkflowJournal;
+import com.workflow.server.ApiServer;
+import com.workflow.services.AccessControl;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.ColumnarTaskStore;
+import com.workflow.services.NotificationService;
+import com.workflow.services.SlaMonitor;
+import com.workflow.services.SlaPolicy;
+import com.workflow.services.TaskArchiver;
+import com.workflow.services.TaskStore;
+import com.workflow.services.TransitionLog;
+import com.workflow.services.Workflow;
+import com.workflow.services.WorkflowDefinition;
+import com.workflow.services.WorkQueueService;
+import com.workflow.services.WorkflowService;
 import com.workflow.ui.ConsoleInterface;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Entry point for the Decentralized Workflow Automation console application.
+ * Set the {@code workflow.dataDir} system property to persist state in a write-ahead log, and
+ * {@code workflow.server.port} (plus optionally {@code workflow.server.threads}) to serve the HTTP/JSON API
+ * instead of the console. Metrics are published over JMX; set {@code workflow.metrics.file} to also dump
+ * them to a file every {@code workflow.metrics.intervalMillis} (default 10 s). Set {@code workflow.sla}
+ * (e.g. {@code 1:PT4H:escalate,3:P1D:reject}, see {@link SlaPolicy#parse}) to enforce approval deadlines.
+ * Set {@code workflow.snapshot} to a file to start from that {@link Snapshot} when there is no journaled
+ * state, and to write a fresh snapshot there on shutdown.
+ * Set {@code workflow.shards} to partition tasks across that many shards behind a {@link ShardedWorkflowService},
+ * reached in-process or, with {@code workflow.shards.transport=tcp}, through loopback {@link ShardServer}s that
+ * authenticate the router with {@code workflow.shards.secret} (at least 16 bytes; a random one by default); each
+ * shard then journals to its own {@code shard-N} subdirectory and snapshots to {@code <snapshot>.shard-N}.
+ * Task transitions made since startup are kept in a {@link TransitionLog} for the history views.
+ * Set {@code workflow.archive.ageMillis} to move tasks decided that long ago into a {@link ColdStore} under
+ * {@code workflow.archive.dir} (default {@code <dataDir>/archive}, per shard), checked every
+ * {@code workflow.archive.intervalMillis} (default 1 min); {@code workflow.archive.cacheSize} (default 10000)
+ * archived tasks stay cached after a lookup.
+ * Set {@code workflow.definition} (e.g. {@code Manager+Senior>Junior}, see {@link WorkflowDefinition#parse}) to
+ * approve tasks through multi-stage workflows instead of a single approval by priority.
+ * Set {@code workflow.storage=columnar} to keep tasks in a {@link ColumnarTaskStore}, for very large task counts;
+ * {@code workflow.storage.search=false} then also drops its full-text index.
  */
 public class Main {
+    private static final Logger LOG = Log.getLogger(Main.class);
+
     public static void main(String[] args) {
-        ConsoleInterface console = new ConsoleInterface();
+        AuthenticationService authService = new AuthenticationService();
+        NotificationService notificationService = new NotificationService();
+        int shardCount = Integer.getInteger("workflow.shards", 1);
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("workflow.shards must be at least 1");
+        }
+        boolean columnar = "columnar".equals(System.getProperty("workflow.storage", "objects"));
+        boolean textSearch = !"false".equals(System.getProperty("workflow.storage.search"));
+        TaskStore[] stores = new TaskStore[shardCount];
+        WorkflowService[] services = new WorkflowService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            stores[i] = columnar ? new ColumnarTaskStore(TaskStore.DEFAULT_STRIPES, new HistoryPolicy(), textSearch)
+                    : new TaskStore();
+            services[i] = new WorkflowService(stores[i], new SnowflakeIdGenerator(i));
+        }
+
+        String snapshotFile = System.getProperty("workflow.snapshot");
+        Path[] snapshotPaths = new Path[shardCount];
+        String dataDir = System.getProperty("workflow.dataDir");
+        WorkflowJournal[] journals = new WorkflowJournal[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String suffix = shardCount == 1 ? "" : "shard-" + i;
+            if (snapshotFile != null) {
+                snapshotPaths[i] = Paths.get(snapshotFile + (suffix.isEmpty() ? "" : "." + suffix));
+            }
+            long events = 0;
+            if (dataDir != null) {
+                journals[i] = WorkflowJournal.open(Paths.get(dataDir, suffix));
+                long start = System.nanoTime();
+                events = journals[i].recover(authService, stores[i]);
+                LOG.info("Recovered {} events in {} ms", events, (System.nanoTime() - start) / 1_000_000);
+            }
+            Path snapshotPath = snapshotPaths[i];
+            if (snapshotPath != null && Files.exists(snapshotPath)) {
+                if (events > 0) {
+                    LOG.warn("Ignoring snapshot {}: the journal already holds state", snapshotPath);
+                } else {
+                    long start = System.nanoTime();
+                    // Stays mapped for the life of the process since tasks are materialized from it on demand
+                    Snapshot snapshot = Snapshot.open(snapshotPath);
+                    // Subscriptions are kept in the first shard's snapshot only, as the registry is shared
+                    snapshot.restore(authService, stores[i], i == 0 ? notificationService.getRegistry() : null);
+                    LOG.info("Loaded snapshot of {} tasks in {} ms", snapshot.size(),
+                            (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+        }
+        for (int i = 0; i < shardCount; i++) {
+            if (journals[i] != null) {
+                journals[i].checkpoint(authService, stores[i]);
+                services[i].setJournal(journals[i]);
+            }
+        }
+        if (journals[0] != null) {
+            authService.setJournal(journals[0]);
+        }
+
+        AccessControl access = new AccessControl();
+        authService.setAccessControl(access);
+        WorkQueueService workQueues = new WorkQueueService();
+        workQueues.setAccessControl(access);
+        TransitionLog transitions = new TransitionLog();
+        for (WorkflowService service : services) {
+            service.setSubscriptionRegistry(notificationService.getRegistry());
+            service.setWorkQueues(workQueues);
+            service.setTransitionLog(transitions);
+            service.setAccessControl(access);
+        }
+        workQueues.start();
+
+        String definition = System.getProperty("workflow.definition");
+        WorkflowDefinition stages = definition == null ? null : WorkflowDefinition.parse(definition);
+        if (stages != null) {
+            for (WorkflowService service : services) {
+                service.setWorkflowDefinition(stages);
+            }
+            workQueues.setWorkflowDefinition(stages);
+        }
+
+        String sla = System.getProperty("workflow.sla");
+        SlaMonitor[] slaMonitors = new SlaMonitor[sla == null ? 0 : shardCount];
+        for (int i = 0; i < slaMonitors.length; i++) {
+            slaMonitors[i] = new SlaMonitor(services[i], SlaPolicy.parse(sla), Clock.SYSTEM,
+                    Long.getLong("workflow.sla.tickMillis", 1000));
+            services[i].setSlaMonitor(slaMonitors[i]);
+            slaMonitors[i].start();
+        }
+
+        String archiveAge = System.getProperty("workflow.archive.ageMillis");
+        String archiveDir = System.getProperty("workflow.archive.dir",
+                dataDir == null ? null : Paths.get(dataDir, "archive").toString());
+        TaskArchiver[] archivers = new TaskArchiver[archiveAge == null || archiveDir == null ? 0 : shardCount];
+        if (archiveAge != null && archiveDir == null) {
+            LOG.warn("Not archiving tasks: set workflow.archive.dir or workflow.dataDir");
+        }
+        for (int i = 0; i < archivers.length; i++) {
+            ColdStore coldStore = ColdStore.open(Paths.get(archiveDir, shardCount == 1 ? "" : "shard-" + i));
+            archivers[i] = new TaskArchiver(stores[i], coldStore, Long.parseLong(archiveAge),
+                    Integer.getInteger("workflow.archive.cacheSize", 10_000));
+            if (journals[i] != null) {
+                archivers[i].setJournal(journals[i]);
+            }
+            services[i].setTaskArchiver(archivers[i]);
+            archivers[i].start(Long.getLong("workflow.archive.intervalMillis", 60_000));
+        }
+
+        Workflow workflow = services[0];
+        List<ShardServer> shardServers = new ArrayList<>();
+        if (shardCount > 1) {
+            ShardTransport transport;
+            if ("tcp".equals(System.getProperty("workflow.shards.transport", "local"))) {
+                String configured = System.getProperty("workflow.shards.secret");
+                byte[] secret = new byte[32];
+                if (configured != null) {
+                    secret = configured.getBytes(StandardCharsets.UTF_8);
+                } else {
+                    new SecureRandom().nextBytes(secret);
+                }
+                List<InetSocketAddress> addresses = new ArrayList<>();
+                for (WorkflowService service : services) {
+                    ShardServer shardServer = new ShardServer(service, authService,
+                            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), secret);
+                    shardServer.start();
+                    shardServers.add(shardServer);
+                    addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), shardServer.getPort()));
+                }
+                transport = new TcpTransport(addresses, secret);
+            } else {
+                transport = new LocalTransport(Arrays.asList(services));
+            }
+            workflow = new ShardedWorkflowService(transport, new SnowflakeIdGenerator(shardCount));
+            LOG.info("Partitioned tasks across {} shards", shardCount);
+        }
+
+        String metricsFile = System.getProperty("workflow.metrics.file");
+        if (metricsFile != null && Metrics.ENABLED) {
+            Metrics.startDump(Paths.get(metricsFile), Long.getLong("workflow.metrics.intervalMillis", 10_000));
+        }
+
+        String port = System.getProperty("workflow.server.port");
+        ApiServer server = null;
+        if (port != null) {
+            int threads = Integer.getInteger("workflow.server.threads", Runtime.getRuntime().availableProcessors() * 2);
+            server = new ApiServer(authService, workflow, notificationService,
+                    new InetSocketAddress(Integer.parseInt(port)), threads);
+            server.setTransitionLog(transitions);
+            server.setAccessControl(access);
+            if (stages != null) {
+                server.setWorkflowDefinition(stages);
+            }
+        }
+
+        ApiServer runningServer = server;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Stop taking requests and escalating before the final checkpoint so nothing is journaled after it
+            if (runningServer != null) {
+                runningServer.stop(1);
+            }
+            for (ShardServer shardServer : shardServers) {
+                shardServer.stop();
+            }
+            for (SlaMonitor slaMonitor : slaMonitors) {
+                slaMonitor.stop();
+            }
+            for (TaskArchiver archiver : archivers) {
+                archiver.stop();
+            }
+            for (int i = 0; i < shardCount; i++) {
+                if (snapshotPaths[i] != null) {
+                    int tasks = Snapshot.write(snapshotPaths[i], authService, stores[i],
+                            i == 0 ? notificationService.getRegistry() : null);
+                    LOG.info("Wrote snapshot of {} tasks to {}", tasks, snapshotPaths[i]);
+                }
+                if (journals[i] != null) {
+                    journals[i].checkpoint(authService, stores[i]);
+                    journals[i].close();
+                }
+            }
+        }));
+        if (server != null) {
+            server.start();
+            return;
+        }
+        ConsoleInterface console = new ConsoleInterface(authService, workflow, notificationService, workQueues);
+        console.setTransitionLog(transitions);
         console.displayMainMenu();
     }
-}
\ No newline at end of file
+}
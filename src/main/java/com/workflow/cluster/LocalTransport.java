@@ -0,0 +1,37 @@
+package com.workflow.cluster;
+
+import com.workflow.services.WorkflowService;
+
+import java.util.List;
+
+/**
+ * Transport to shards in the same process: requests are plain method calls and replies carry the live tasks.
+ */
+public class LocalTransport implements ShardTransport {
+    private final ShardHandler[] handlers;
+
+    public LocalTransport(List<WorkflowService> shards) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        handlers = new ShardHandler[shards.size()];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = new ShardHandler(shards.get(i));
+        }
+    }
+
+    @Override
+    public int getShardCount() {
+        return handlers.length;
+    }
+
+    @Override
+    public ShardReply call(int shard, ShardRequest request) {
+        return handlers[shard].handle(request);
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release: the shards belong to the caller
+    }
+}
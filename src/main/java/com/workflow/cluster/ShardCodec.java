@@ -0,0 +1,205 @@
+package com.workflow.cluster;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.BulkResult;
+import com.workflow.services.SearchResult;
+import com.workflow.services.TaskQuery;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of {@link ShardRequest}s and {@link ShardReply}s for {@link TcpTransport} and {@link ShardServer}.
+ * Approvers and reasons travel as strings, since state word codes are only meaningful within one process.
+ * Users travel as their name alone; the receiving shard looks up who they are and what role they have.
+ */
+final class ShardCodec {
+    private static final ShardRequest.Op[] OPS = ShardRequest.Op.values();
+    private static final TaskQuery.Sort[] SORTS = TaskQuery.Sort.values();
+    private static final BulkResult.Outcome[] OUTCOMES = BulkResult.Outcome.values();
+
+    private ShardCodec() {
+    }
+
+    static void writeRequest(DataOutputStream out, ShardRequest request) throws IOException {
+        out.writeByte(request.getOp().ordinal());
+        out.writeLong(request.getTaskId());
+        writeString(out, request.getText());
+        writeString(out, request.getActor() == null ? null : request.getActor().getUsername());
+        out.writeInt(request.getNumber());
+        out.writeBoolean(request.isApprove());
+        out.writeBoolean(request.getQuery() != null);
+        if (request.getQuery() != null) {
+            writeQuery(out, request.getQuery());
+        }
+        String[] taskIds = request.getTaskIds();
+        out.writeInt(taskIds == null ? -1 : taskIds.length);
+        if (taskIds != null) {
+            for (String taskId : taskIds) {
+                writeString(out, taskId);
+            }
+        }
+    }
+
+    /**
+     * Reads a request, resolving its user through {@code auth}; a user it does not know becomes null.
+     */
+    static ShardRequest readRequest(DataInputStream in, AuthenticationService auth) throws IOException {
+        ShardRequest.Op op = OPS[in.readUnsignedByte()];
+        long taskId = in.readLong();
+        String text = readString(in);
+        User actor = auth.getUser(readString(in));
+        int number = in.readInt();
+        boolean approve = in.readBoolean();
+        TaskQuery query = in.readBoolean() ? readQuery(in) : null;
+        int count = in.readInt();
+        String[] taskIds = count < 0 ? null : new String[count];
+        for (int i = 0; i < count; i++) {
+            taskIds[i] = readString(in);
+        }
+        return new ShardRequest(op, taskId, text, actor, number, approve, query, taskIds);
+    }
+
+    static void writeReply(DataOutputStream out, ShardReply reply) throws IOException {
+        out.writeBoolean(reply.isSuccess());
+        out.writeInt(reply.getTasks().size());
+        for (Task task : reply.getTasks()) {
+            writeTask(out, task);
+        }
+        BulkResult result = reply.getBulkResult();
+        out.writeInt(result == null ? -1 : result.size());
+        if (result != null) {
+            for (int i = 0; i < result.size(); i++) {
+                writeString(out, result.getTaskId(i));
+                out.writeByte(result.getOutcome(i).ordinal());
+            }
+            out.writeLong(result.getElapsedNanos());
+        }
+        SearchResult search = reply.getSearchResult();
+        out.writeInt(search == null ? -1 : search.getTotalHits());
+        if (search != null) {
+            for (int i = 0; i < search.getTasks().size(); i++) {
+                out.writeFloat(search.getScore(i));
+            }
+        }
+    }
+
+    static ShardReply readReply(DataInputStream in) throws IOException {
+        boolean success = in.readBoolean();
+        int taskCount = in.readInt();
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(readTask(in));
+        }
+        int resultSize = in.readInt();
+        BulkResult result = null;
+        if (resultSize >= 0) {
+            String[] taskIds = new String[resultSize];
+            BulkResult.Outcome[] outcomes = new BulkResult.Outcome[resultSize];
+            for (int i = 0; i < resultSize; i++) {
+                taskIds[i] = readString(in);
+                outcomes[i] = OUTCOMES[in.readUnsignedByte()];
+            }
+            result = new BulkResult(taskIds, outcomes, in.readLong());
+        }
+        int totalHits = in.readInt();
+        float[] scores = null;
+        if (totalHits >= 0) {
+            scores = new float[taskCount];
+            for (int i = 0; i < taskCount; i++) {
+                scores[i] = in.readFloat();
+            }
+        }
+        return new ShardReply(success, tasks, result, scores, Math.max(totalHits, 0));
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        long word = task.getStateWord();
+        out.writeLong(task.getNumericId());
+        writeString(out, task.getDescription());
+        out.writeByte(task.getPriority());
+        writeString(out, task.getCreator());
+        out.writeLong(task.getCreatedAt());
+        out.writeByte(StateWord.state(word).code());
+        writeString(out, task.approverOf(word));
+        writeString(out, task.reasonOf(word));
+        out.writeInt(StateWord.progress(word));
+    }
+
+    /**
+     * Rebuilds a detached copy of a remote task; it has no observers and changes to it stay local.
+     */
+    private static Task readTask(DataInputStream in) throws IOException {
+        Task task = new Task(in.readLong(), readString(in), in.readByte(), readString(in), in.readLong());
+        TaskState state = TaskState.fromCode(in.readUnsignedByte());
+        String approver = readString(in);
+        String reason = readString(in);
+        int progress = in.readInt();
+        if (state != TaskState.PENDING || progress != 0) {
+            task.restore(state, approver, reason, progress);
+        }
+        return task;
+    }
+
+    private static void writeQuery(DataOutputStream out, TaskQuery query) throws IOException {
+        out.writeByte(query.getStatus() == null ? -1 : query.getStatus().code());
+        out.writeInt(query.getPriority());
+        writeString(out, query.getCreator());
+        out.writeLong(query.getCreatedFrom());
+        out.writeLong(query.getCreatedTo());
+        out.writeBoolean(query.getAfterId() != null);
+        if (query.getAfterId() != null) {
+            out.writeLong(query.getAfterId());
+            out.writeInt(query.getAfterPriority());
+        }
+        out.writeByte(query.getSort().ordinal());
+        out.writeInt(query.getLimit());
+    }
+
+    private static TaskQuery readQuery(DataInputStream in) throws IOException {
+        TaskQuery.Builder query = TaskQuery.builder();
+        byte status = in.readByte();
+        if (status >= 0) {
+            query.status(TaskState.fromCode(status));
+        }
+        query.priority(in.readInt()).creator(readString(in)).createdBetween(in.readLong(), in.readLong());
+        if (in.readBoolean()) {
+            long afterId = in.readLong();
+            int afterPriority = in.readInt();
+            if (afterPriority > 0) {
+                query.after(afterId, afterPriority);
+            } else {
+                query.after(afterId);
+            }
+        }
+        return query.sort(SORTS[in.readUnsignedByte()]).limit(in.readInt()).build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package com.workflow.cluster;
+
+import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.services.BulkResult;
+import com.workflow.services.WorkflowService;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Executes {@link ShardRequest}s against the {@link WorkflowService} of one shard. Every transport ends here,
+ * whether the request arrived as a method call or over a socket.
+ */
+public class ShardHandler {
+    private static final Logger LOG = Log.getLogger(ShardHandler.class);
+
+    private final WorkflowService service;
+    private final boolean trustsSystemCalls;
+
+    /**
+     * Creates a handler for requests from the same process, where a request without a user is a system call.
+     */
+    public ShardHandler(WorkflowService service) {
+        this(service, true);
+    }
+
+    /**
+     * @param trustsSystemCalls whether a change requested on behalf of no user is allowed; false for requests
+     *                          from other processes
+     */
+    ShardHandler(WorkflowService service, boolean trustsSystemCalls) {
+        if (service == null) {
+            throw new IllegalArgumentException("Workflow service cannot be null");
+        }
+        this.service = service;
+        this.trustsSystemCalls = trustsSystemCalls;
+    }
+
+    public ShardReply handle(ShardRequest request) {
+        if (request.getActor() == null && !trustsSystemCalls && changesTasks(request.getOp())) {
+            return deny(request);
+        }
+        switch (request.getOp()) {
+            case CREATE: {
+                Task task = service.createTask(request.getTaskId(), request.getText(), request.getNumber(),
+                        request.getActor());
+                return ShardReply.of(task != null, task);
+            }
+            case GET: {
+                Task task = service.getTask(request.getTaskId());
+                return ShardReply.of(task != null, task);
+            }
+            case PROCESS: {
+                Task task = service.getTask(request.getTaskId());
+                return ShardReply.of(task != null
+                        && service.processTask(request.getActor(), task, request.isApprove(), request.getText()), task);
+            }
+            case ESCALATE: {
+                Task task = service.getTask(request.getTaskId());
+                return ShardReply.of(task != null && service.escalateTask(task), task);
+            }
+            case ROLLBACK: {
+                Task task = service.getTask(request.getTaskId());
+                boolean rolledBack = task != null
+                        && service.rollbackTask(request.getActor(), task, request.getNumber());
+                return ShardReply.of(rolledBack, task);
+            }
+            case QUERY:
+                return ShardReply.of(service.query(request.getQuery()).collect(Collectors.toList()));
+            case PROCESS_IDS:
+                return ShardReply.of(service.processTasks(request.getActor(), Arrays.asList(request.getTaskIds()),
+                        request.getDecision()));
+            case PROCESS_QUERY:
+                return ShardReply.of(service.processTasks(request.getActor(), request.getQuery(),
+                        request.getDecision()));
+            case SEARCH:
+                return ShardReply.of(service.search(request.getSearch()));
+            default:
+                throw new IllegalArgumentException("Unknown shard operation " + request.getOp());
+        }
+    }
+
+    private static boolean changesTasks(ShardRequest.Op op) {
+        return op != ShardRequest.Op.GET && op != ShardRequest.Op.QUERY && op != ShardRequest.Op.SEARCH;
+    }
+
+    /**
+     * Refuses a change without a known user, answering as the service answers a user without permission.
+     */
+    private ShardReply deny(ShardRequest request) {
+        LOG.warn("Permission denied: {} from a remote peer names no known user", request);
+        switch (request.getOp()) {
+            case PROCESS_IDS: {
+                String[] taskIds = request.getTaskIds();
+                BulkResult.Outcome[] outcomes = new BulkResult.Outcome[taskIds.length];
+                Arrays.fill(outcomes, BulkResult.Outcome.FORBIDDEN);
+                return ShardReply.of(new BulkResult(taskIds, outcomes, 0));
+            }
+            case PROCESS_QUERY:
+                return ShardReply.of(new BulkResult(new String[0], new BulkResult.Outcome[0], 0));
+            case CREATE:
+                return ShardReply.of(false, null);
+            default:
+                return ShardReply.of(false, service.getTask(request.getTaskId()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.workflow.cluster;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Mutual challenge-response authentication of a {@link TcpTransport} and a {@link ShardServer} that share a
+ * secret. Each side sends a random nonce and proves it knows the secret with an HMAC-SHA256 over both nonces,
+ * so the secret never crosses the wire and a recorded handshake cannot be replayed.
+ */
+final class ShardHandshake {
+    /** The shortest secret accepted, in bytes. */
+    static final int MIN_SECRET_BYTES = 16;
+
+    private static final int NONCE_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ShardHandshake() {
+    }
+
+    static byte[] checkSecret(byte[] secret) {
+        if (secret == null || secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Shard secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return secret.clone();
+    }
+
+    /**
+     * Runs the server side; returns false if the client does not know the secret.
+     */
+    static boolean accept(DataInputStream in, DataOutputStream out, byte[] secret) throws IOException {
+        byte[] serverNonce = nonce();
+        out.write(serverNonce);
+        out.flush();
+        byte[] clientNonce = new byte[NONCE_BYTES];
+        in.readFully(clientNonce);
+        byte[] proof = new byte[NONCE_BYTES];
+        in.readFully(proof);
+        if (!MessageDigest.isEqual(proof, mac(secret, 'C', serverNonce, clientNonce))) {
+            return false;
+        }
+        out.write(mac(secret, 'S', serverNonce, clientNonce));
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Runs the client side; returns false if the server does not know the secret.
+     */
+    static boolean connect(DataInputStream in, DataOutputStream out, byte[] secret) throws IOException {
+        byte[] serverNonce = new byte[NONCE_BYTES];
+        in.readFully(serverNonce);
+        byte[] clientNonce = nonce();
+        out.write(clientNonce);
+        out.write(mac(secret, 'C', serverNonce, clientNonce));
+        out.flush();
+        byte[] proof = new byte[NONCE_BYTES];
+        in.readFully(proof);
+        return MessageDigest.isEqual(proof, mac(secret, 'S', serverNonce, clientNonce));
+    }
+
+    private static byte[] nonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * The side's tag keeps a server's proof from being reflected back to it as a client's.
+     */
+    private static byte[] mac(byte[] secret, char side, byte[] serverNonce, byte[] clientNonce) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            mac.update((byte) side);
+            mac.update(serverNonce);
+            mac.update(clientNonce);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.workflow.cluster;
+
+import com.workflow.core.Task;
+import com.workflow.services.BulkResult;
+import com.workflow.services.SearchResult;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A shard's answer to a {@link ShardRequest}: whether the operation changed anything, plus the affected task,
+ * the matching tasks of a query, the ranked matches of a search, or the outcome of a bulk operation.
+ * Tasks from an in-process shard are the live objects; tasks from a remote shard are detached copies.
+ */
+public final class ShardReply {
+    private final boolean success;
+    private final List<Task> tasks;
+    private final BulkResult bulkResult;
+    private final float[] scores;
+    private final int totalHits;
+
+    ShardReply(boolean success, List<Task> tasks, BulkResult bulkResult) {
+        this(success, tasks, bulkResult, null, 0);
+    }
+
+    ShardReply(boolean success, List<Task> tasks, BulkResult bulkResult, float[] scores, int totalHits) {
+        this.success = success;
+        this.tasks = tasks;
+        this.bulkResult = bulkResult;
+        this.scores = scores;
+        this.totalHits = totalHits;
+    }
+
+    /**
+     * @param task the task the operation was applied to, or null if it was not found
+     */
+    public static ShardReply of(boolean success, Task task) {
+        return new ShardReply(success, task == null ? Collections.emptyList() : Collections.singletonList(task), null);
+    }
+
+    public static ShardReply of(List<Task> tasks) {
+        return new ShardReply(true, tasks, null);
+    }
+
+    public static ShardReply of(BulkResult bulkResult) {
+        return new ShardReply(bulkResult != null, Collections.emptyList(), bulkResult);
+    }
+
+    public static ShardReply of(SearchResult result) {
+        float[] scores = new float[result.getTasks().size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = result.getScore(i);
+        }
+        return new ShardReply(true, result.getTasks(), null, scores, result.getTotalHits());
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Returns the single task the request was about, or null if the shard does not have it.
+     */
+    public Task getTask() {
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the outcome of a bulk operation, or null if the request was not one or was invalid.
+     */
+    public BulkResult getBulkResult() {
+        return bulkResult;
+    }
+
+    /**
+     * Returns the shard's matches of a search, or null if the request was not one.
+     */
+    public SearchResult getSearchResult() {
+        return scores == null ? null : new SearchResult(tasks, scores, totalHits);
+    }
+}
@@ -0,0 +1,153 @@
+package com.workflow.cluster;
+
+import com.workflow.core.User;
+import com.workflow.services.Decision;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskSearch;
+
+/**
+ * One operation sent by a {@link ShardedWorkflowService} to a shard through a {@link ShardTransport}.
+ * Tasks are always referred to by numeric ID, so a request means the same thing in any process.
+ */
+public final class ShardRequest {
+    /**
+     * The shard operations, mirroring {@link com.workflow.services.Workflow}.
+     */
+    public enum Op {
+        CREATE,
+        GET,
+        PROCESS,
+        ESCALATE,
+        ROLLBACK,
+        QUERY,
+        PROCESS_IDS,
+        PROCESS_QUERY,
+        SEARCH
+    }
+
+    private final Op op;
+    private final long taskId;
+    private final String text;
+    private final User actor;
+    private final int number;
+    private final boolean approve;
+    private final TaskQuery query;
+    private final String[] taskIds;
+
+    ShardRequest(Op op, long taskId, String text, User actor, int number, boolean approve, TaskQuery query,
+                 String[] taskIds) {
+        this.op = op;
+        this.taskId = taskId;
+        this.text = text;
+        this.actor = actor;
+        this.number = number;
+        this.approve = approve;
+        this.query = query;
+        this.taskIds = taskIds;
+    }
+
+    public static ShardRequest create(long taskId, String description, int priority, User creator) {
+        return new ShardRequest(Op.CREATE, taskId, description, creator, priority, false, null, null);
+    }
+
+    public static ShardRequest get(long taskId) {
+        return new ShardRequest(Op.GET, taskId, null, null, 0, false, null, null);
+    }
+
+    public static ShardRequest process(long taskId, boolean approve, String rejectionReason, User actor) {
+        return new ShardRequest(Op.PROCESS, taskId, rejectionReason, actor, 0, approve, null, null);
+    }
+
+    public static ShardRequest escalate(long taskId) {
+        return new ShardRequest(Op.ESCALATE, taskId, null, null, 0, false, null, null);
+    }
+
+    public static ShardRequest rollback(long taskId, int steps, User actor) {
+        return new ShardRequest(Op.ROLLBACK, taskId, null, actor, steps, false, null, null);
+    }
+
+    public static ShardRequest query(TaskQuery query) {
+        return new ShardRequest(Op.QUERY, 0, null, null, 0, false, query, null);
+    }
+
+    public static ShardRequest process(String[] taskIds, Decision decision, User actor) {
+        return new ShardRequest(Op.PROCESS_IDS, 0, decision.getReason(), actor, 0, decision.isApprove(), null, taskIds);
+    }
+
+    public static ShardRequest process(TaskQuery query, Decision decision, User actor) {
+        return new ShardRequest(Op.PROCESS_QUERY, 0, decision.getReason(), actor, 0, decision.isApprove(), query,
+                null);
+    }
+
+    /**
+     * Carries the search text, the filters as a query and the limit as the number.
+     */
+    public static ShardRequest search(TaskSearch search) {
+        TaskQuery filters = TaskQuery.builder().status(search.getStatus()).priority(search.getPriority()).build();
+        return new ShardRequest(Op.SEARCH, 0, search.getText(), null, search.getLimit(), false, filters, null);
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * Returns the description for {@link Op#CREATE}, the text for {@link Op#SEARCH}, otherwise the rejection
+     * reason, if any.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the creator for {@link Op#CREATE}, otherwise the user the operation is made on behalf of, or null
+     * for a trusted system call made within the process.
+     */
+    public User getActor() {
+        return actor;
+    }
+
+    /**
+     * Returns the priority for {@link Op#CREATE}, the number of steps for {@link Op#ROLLBACK} or the limit for
+     * {@link Op#SEARCH}.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    public boolean isApprove() {
+        return approve;
+    }
+
+    public Decision getDecision() {
+        return approve ? Decision.approve() : Decision.reject(text);
+    }
+
+    public TaskQuery getQuery() {
+        return query;
+    }
+
+    public TaskSearch getSearch() {
+        return TaskSearch.builder(text)
+                .status(query.getStatus())
+                .priority(query.getPriority())
+                .limit(number)
+                .build();
+    }
+
+    public String[] getTaskIds() {
+        return taskIds;
+    }
+
+    @Override
+    public String toString() {
+        if (taskIds != null) {
+            return op + " " + taskIds.length + " tasks";
+        }
+        return query != null ? op.toString() : op + " " + taskId;
+    }
+}
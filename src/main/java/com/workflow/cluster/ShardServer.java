@@ -0,0 +1,154 @@
+package com.workflow.cluster;
+
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.WorkflowService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves one shard's {@link WorkflowService} to {@link TcpTransport} clients. Each connection gets its own
+ * thread and carries one request at a time; clients open more connections for concurrency.
+ * <p>
+ * A connection is only served once the client proves it knows the shared secret. Requests name their user,
+ * whose role is then looked up in this shard's {@link AuthenticationService}; a change made on behalf of no
+ * user, or of one the shard does not know, is denied, so system calls such as SLA escalation stay local.
+ */
+public class ShardServer {
+    private static final Logger LOG = Log.getLogger(ShardServer.class);
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5_000;
+
+    private final ShardHandler handler;
+    private final AuthenticationService auth;
+    private final byte[] secret;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean running;
+
+    /**
+     * @param auth resolves the users requests are made on behalf of
+     * @param address where to listen; port 0 picks a free port
+     * @param secret shared with the clients, at least {@value ShardHandshake#MIN_SECRET_BYTES} bytes
+     */
+    public ShardServer(WorkflowService service, AuthenticationService auth, InetSocketAddress address, byte[] secret) {
+        if (auth == null) {
+            throw new IllegalArgumentException("Authentication service cannot be null");
+        }
+        this.handler = new ShardHandler(service, false);
+        this.auth = auth;
+        this.secret = ShardHandshake.checkSecret(secret);
+        try {
+            this.serverSocket = new ServerSocket();
+            serverSocket.bind(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on " + address, e);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        int port = serverSocket.getLocalPort();
+        this.connections = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "shard-" + port + "-connection-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptor = new Thread(this::acceptLoop, "shard-" + port + "-acceptor");
+        acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        acceptor.start();
+        LOG.info("Shard server listening on port {}", getPort());
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones; requests in flight fail on the client side.
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOG.warn("Cannot close shard server socket: {}", e.getMessage());
+        }
+        for (Socket socket : open) {
+            closeQuietly(socket);
+        }
+        connections.shutdown();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                open.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    LOG.warn("Shard server accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES))) {
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            if (!ShardHandshake.accept(in, out, secret)) {
+                LOG.warn("Rejected shard connection from {}: wrong secret", socket.getRemoteSocketAddress());
+                return;
+            }
+            socket.setSoTimeout(0);
+            while (running) {
+                ShardRequest request;
+                try {
+                    request = ShardCodec.readRequest(in, auth);
+                } catch (EOFException e) {
+                    return;
+                }
+                ShardCodec.writeReply(out, handler.handle(request));
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // Closed by the client or by stop()
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Shard connection from {} failed: {}", socket.getRemoteSocketAddress(), e.toString());
+        } finally {
+            open.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closing
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.workflow.cluster;
+
+import java.io.Closeable;
+
+/**
+ * How a {@link ShardedWorkflowService} reaches its shards, e.g. {@link LocalTransport} for shards in the same
+ * process or {@link TcpTransport} for shards behind a {@link ShardServer}. Implementations must be safe for
+ * concurrent calls.
+ */
+public interface ShardTransport extends Closeable {
+    int getShardCount();
+
+    /**
+     * Sends a request to one shard and waits for its reply. Failures to reach the shard are thrown as
+     * unchecked exceptions; failures of the operation itself are reported in the reply.
+     */
+    ShardReply call(int shard, ShardRequest request);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,384 @@
+package com.workflow.cluster;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskIdCodec;
+import com.workflow.core.TaskIdGenerator;
+import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.services.BulkResult;
+import com.workflow.services.Decision;
+import com.workflow.services.SearchResult;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskSearch;
+import com.workflow.services.Workflow;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link Workflow} facade over tasks hash-partitioned by ID across several shards, each a
+ * {@link com.workflow.services.WorkflowService} reached through a {@link ShardTransport}.
+ * The router assigns task IDs itself, so every operation on a task goes to exactly one shard; queries and
+ * query-based bulk operations are scattered to all shards in parallel and the results merged in query order.
+ * Tasks returned over a remote transport are detached copies: this router refreshes the copy it is given after
+ * each operation, but they do not follow later changes made elsewhere.
+ */
+public class ShardedWorkflowService implements Workflow, Closeable {
+    private static final Logger LOG = Log.getLogger(ShardedWorkflowService.class);
+
+    private final ShardTransport transport;
+    private final TaskIdGenerator idGenerator;
+    private final int shards;
+    private final ExecutorService scatterPool;
+
+    /**
+     * @param idGenerator generator for new task IDs; must be unique across every router sharing the shards
+     */
+    public ShardedWorkflowService(ShardTransport transport, TaskIdGenerator idGenerator) {
+        if (transport == null) {
+            throw new IllegalArgumentException("Transport cannot be null");
+        }
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("ID generator cannot be null");
+        }
+        this.transport = transport;
+        this.idGenerator = idGenerator;
+        this.shards = transport.getShardCount();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scatterPool = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "shard-scatter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shard that owns a task ID.
+     */
+    public int shardFor(long taskId) {
+        long h = taskId * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 33) % shards);
+    }
+
+    public int getShardCount() {
+        return shards;
+    }
+
+    @Override
+    public Task createTask(String description, int priority, User creator) {
+        if (creator == null) {
+            LOG.warn("Creator cannot be null");
+            return null;
+        }
+        long id = idGenerator.nextId();
+        return call(id, ShardRequest.create(id, description, priority, creator)).getTask();
+    }
+
+    @Override
+    public boolean processTask(Task task, boolean approve, String rejectionReason) {
+        return processTask(null, task, approve, rejectionReason);
+    }
+
+    @Override
+    public boolean processTask(User actor, Task task, boolean approve, String rejectionReason) {
+        if (task == null) {
+            LOG.warn("Task cannot be null");
+            return false;
+        }
+        return refresh(task, call(task.getNumericId(),
+                ShardRequest.process(task.getNumericId(), approve, rejectionReason, actor)));
+    }
+
+    @Override
+    public boolean escalateTask(Task task) {
+        if (task == null) {
+            LOG.warn("Task cannot be null");
+            return false;
+        }
+        return refresh(task, call(task.getNumericId(), ShardRequest.escalate(task.getNumericId())));
+    }
+
+    @Override
+    public boolean rollbackTask(Task task) {
+        return rollbackTask(task, 1);
+    }
+
+    @Override
+    public boolean rollbackTask(Task task, int steps) {
+        return rollbackTask(null, task, steps);
+    }
+
+    @Override
+    public boolean rollbackTask(User actor, Task task, int steps) {
+        if (task == null) {
+            LOG.warn("Task cannot be null");
+            return false;
+        }
+        return refresh(task, call(task.getNumericId(), ShardRequest.rollback(task.getNumericId(), steps, actor)));
+    }
+
+    @Override
+    public BulkResult processTasks(Collection<String> taskIds, Decision decision) {
+        return processTasks(null, taskIds, decision);
+    }
+
+    /**
+     * Splits the IDs by owning shard, processes each part on its shard in parallel and reassembles the outcomes
+     * in the order given. IDs that cannot be decoded are reported as not found.
+     */
+    @Override
+    public BulkResult processTasks(User actor, Collection<String> taskIds, Decision decision) {
+        if (taskIds == null || decision == null) {
+            LOG.warn("Task IDs and decision cannot be null");
+            return null;
+        }
+        long start = System.nanoTime();
+        String[] ids = taskIds.toArray(new String[0]);
+        BulkResult.Outcome[] outcomes = new BulkResult.Outcome[ids.length];
+        List<List<Integer>> positions = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            positions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < ids.length; i++) {
+            Long id = decode(ids[i]);
+            if (id == null) {
+                outcomes[i] = BulkResult.Outcome.NOT_FOUND;
+            } else {
+                positions.get(shardFor(id)).add(i);
+            }
+        }
+        List<ShardReply> replies = scatter(shard -> {
+            List<Integer> owned = positions.get(shard);
+            if (owned.isEmpty()) {
+                return null;
+            }
+            String[] part = new String[owned.size()];
+            for (int i = 0; i < part.length; i++) {
+                part[i] = ids[owned.get(i)];
+            }
+            return ShardRequest.process(part, decision, actor);
+        });
+        for (int shard = 0; shard < shards; shard++) {
+            ShardReply reply = replies.get(shard);
+            if (reply != null) {
+                BulkResult part = reply.getBulkResult();
+                List<Integer> owned = positions.get(shard);
+                for (int i = 0; i < owned.size(); i++) {
+                    outcomes[owned.get(i)] = part.getOutcome(i);
+                }
+            }
+        }
+        return new BulkResult(ids, outcomes, System.nanoTime() - start);
+    }
+
+    @Override
+    public BulkResult processTasks(TaskQuery query, Decision decision) {
+        return processTasks(null, query, decision);
+    }
+
+    /**
+     * Has every shard apply the decision to its own matching tasks, in parallel.
+     */
+    @Override
+    public BulkResult processTasks(User actor, TaskQuery query, Decision decision) {
+        if (query == null || decision == null) {
+            LOG.warn("Query and decision cannot be null");
+            return null;
+        }
+        long start = System.nanoTime();
+        List<String> ids = new ArrayList<>();
+        List<BulkResult.Outcome> outcomes = new ArrayList<>();
+        for (ShardReply reply : scatter(shard -> ShardRequest.process(query, decision, actor))) {
+            BulkResult part = reply.getBulkResult();
+            for (int i = 0; i < part.size(); i++) {
+                ids.add(part.getTaskId(i));
+                outcomes.add(part.getOutcome(i));
+            }
+        }
+        return new BulkResult(ids.toArray(new String[0]), outcomes.toArray(new BulkResult.Outcome[0]),
+                System.nanoTime() - start);
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return query(TaskQuery.all()).collect(Collectors.toList());
+    }
+
+    /**
+     * Sends the query to every shard in parallel and merges the per-shard pages in the query's sort order.
+     * Each shard returns at most the query's limit, so a page costs up to shards times limit transferred tasks;
+     * an unlimited query copies every match.
+     */
+    @Override
+    public Stream<Task> query(TaskQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        TaskQuery shardQuery = withCursorPriority(query);
+        List<Task> merged = new ArrayList<>();
+        for (ShardReply reply : scatter(shard -> ShardRequest.query(shardQuery))) {
+            merged.addAll(reply.getTasks());
+        }
+        merged.sort(order(query.getSort()));
+        Stream<Task> tasks = merged.stream();
+        return query.getLimit() > 0 ? tasks.limit(query.getLimit()) : tasks;
+    }
+
+    /**
+     * Sends the search to every shard in parallel and merges their best matches by score. Each shard scores with
+     * its own token statistics, which are close to the global ones when tasks are spread evenly.
+     */
+    @Override
+    public SearchResult search(TaskSearch search) {
+        if (search == null) {
+            throw new IllegalArgumentException("Search cannot be null");
+        }
+        List<Task> tasks = new ArrayList<>();
+        List<Float> scores = new ArrayList<>();
+        int totalHits = 0;
+        for (ShardReply reply : scatter(shard -> ShardRequest.search(search))) {
+            SearchResult result = reply.getSearchResult();
+            for (int i = 0; i < result.getTasks().size(); i++) {
+                tasks.add(result.getTasks().get(i));
+                scores.add(result.getScore(i));
+            }
+            totalHits += result.getTotalHits();
+        }
+        // Best score first and, as within a shard, the newer task on a tie
+        Integer[] order = new Integer[tasks.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -scores.get(i))
+                .thenComparing(i -> tasks.get(i).getNumericId(), Comparator.reverseOrder()));
+        int count = Math.min(order.length, search.getLimit());
+        List<Task> best = new ArrayList<>(count);
+        float[] bestScores = new float[count];
+        for (int i = 0; i < count; i++) {
+            best.add(tasks.get(order[i]));
+            bestScores[i] = scores.get(order[i]);
+        }
+        return new SearchResult(best, bestScores, totalHits);
+    }
+
+    @Override
+    public Task getTask(String taskId) {
+        if (taskId == null || taskId.trim().isEmpty()) {
+            LOG.warn("Task ID cannot be empty");
+            return null;
+        }
+        Long id = decode(taskId);
+        return id == null ? null : getTask(id);
+    }
+
+    @Override
+    public Task getTask(long taskId) {
+        return call(taskId, ShardRequest.get(taskId)).getTask();
+    }
+
+    /**
+     * Closes the transport and stops the scatter threads.
+     */
+    @Override
+    public void close() {
+        scatterPool.shutdown();
+        transport.close();
+    }
+
+    private ShardReply call(long taskId, ShardRequest request) {
+        return transport.call(shardFor(taskId), request);
+    }
+
+    /**
+     * Sends each shard the request built for it (skipping nulls) in parallel, returning replies by shard index.
+     */
+    private List<ShardReply> scatter(IntFunction<ShardRequest> requestFor) {
+        List<CompletableFuture<ShardReply>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            ShardRequest request = requestFor.apply(shard);
+            int target = shard;
+            futures.add(request == null ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.supplyAsync(() -> transport.call(target, request), scatterPool));
+        }
+        List<ShardReply> replies = new ArrayList<>(shards);
+        try {
+            for (CompletableFuture<ShardReply> future : futures) {
+                replies.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return replies;
+    }
+
+    /**
+     * A priority-ordered page resumes by the cursor task's priority, which only its own shard could look up.
+     */
+    private TaskQuery withCursorPriority(TaskQuery query) {
+        Long cursor = query.getAfterId();
+        if (query.getSort() != TaskQuery.Sort.PRIORITY || cursor == null || query.getAfterPriority() != 0) {
+            return query;
+        }
+        Task cursorTask = getTask(cursor);
+        if (cursorTask == null) {
+            return query;
+        }
+        TaskQuery.Builder builder = TaskQuery.builder()
+                .status(query.getStatus())
+                .priority(query.getPriority())
+                .creator(query.getCreator())
+                .createdBetween(query.getCreatedFrom(), query.getCreatedTo())
+                .after(cursor, cursorTask.getPriority())
+                .sort(query.getSort())
+                .limit(query.getLimit());
+        return builder.build();
+    }
+
+    private static Comparator<Task> order(TaskQuery.Sort sort) {
+        Comparator<Task> byId = Comparator.comparingLong(Task::getNumericId);
+        switch (sort) {
+            case NEWEST_FIRST:
+                return byId.reversed();
+            case PRIORITY:
+                return Comparator.comparingInt(Task::getPriority).reversed().thenComparing(byId);
+            default:
+                return byId;
+        }
+    }
+
+    /**
+     * Copies the outcome of a remote operation into the caller's detached copy; in-process shards already
+     * returned the caller's own object. The shard already notified the task's subscribers, so the copy does not.
+     */
+    private static boolean refresh(Task task, ShardReply reply) {
+        Task latest = reply.getTask();
+        if (latest != null && latest != task) {
+            task.copyStateOf(latest);
+        }
+        return reply.isSuccess();
+    }
+
+    private static Long decode(String taskId) {
+        try {
+            return TaskIdCodec.decode(taskId.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
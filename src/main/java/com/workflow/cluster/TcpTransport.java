@@ -0,0 +1,125 @@
+package com.workflow.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Transport to shards served by {@link ShardServer}s, e.g. on loopback to test a multi-node layout on one machine.
+ * Each shard has a pool of kept-alive connections; a call borrows one for its request and reply, so concurrent
+ * callers open as many connections as they need. A connection that fails is discarded.
+ * <p>
+ * Client and server authenticate each other with a shared secret as a connection opens. Requests carry only the
+ * acting user's name, never their password hash or role.
+ */
+public class TcpTransport implements ShardTransport {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+
+    private final List<InetSocketAddress> addresses;
+    private final byte[] secret;
+    private final List<Queue<Connection>> idle = new ArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * @param secret shared with the shard servers, at least {@value ShardHandshake#MIN_SECRET_BYTES} bytes
+     */
+    public TcpTransport(List<InetSocketAddress> addresses, byte[] secret) {
+        if (addresses == null || addresses.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard address is required");
+        }
+        this.addresses = new ArrayList<>(addresses);
+        this.secret = ShardHandshake.checkSecret(secret);
+        for (int i = 0; i < addresses.size(); i++) {
+            idle.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public int getShardCount() {
+        return addresses.size();
+    }
+
+    @Override
+    public ShardReply call(int shard, ShardRequest request) {
+        if (closed) {
+            throw new IllegalStateException("Transport is closed");
+        }
+        Connection connection = idle.get(shard).poll();
+        try {
+            if (connection == null) {
+                connection = new Connection(addresses.get(shard), secret);
+            }
+            ShardCodec.writeRequest(connection.out, request);
+            connection.out.flush();
+            ShardReply reply = ShardCodec.readReply(connection.in);
+            idle.get(shard).offer(connection);
+            if (closed) {
+                drain(idle.get(shard));
+            }
+            return reply;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new UncheckedIOException(
+                    "Shard " + shard + " at " + addresses.get(shard) + " failed on " + request, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Queue<Connection> connections : idle) {
+            drain(connections);
+        }
+    }
+
+    private static void drain(Queue<Connection> connections) {
+        Connection connection;
+        while ((connection = connections.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(InetSocketAddress address, byte[] secret) throws IOException {
+            socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+                socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+                if (!ShardHandshake.connect(in, out, secret)) {
+                    throw new IOException("Shard at " + address + " does not know the shared secret");
+                }
+                socket.setSoTimeout(0);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already broken
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.workflow.concurrent;
+
+/**
+ * Source of the current time in epoch milliseconds, so time-driven components can be run against a
+ * controlled clock.
+ */
+public interface Clock {
+    Clock SYSTEM = System::currentTimeMillis;
+
+    long millis();
+}
@@ -0,0 +1,92 @@
+package com.workflow.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer/multi-consumer ring buffer.
+ * Each slot carries a sequence number that tells producers and consumers whose turn it is.
+ */
+public class RingBuffer<E> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an element, or returns false without blocking if the buffer is full.
+     */
+    public boolean offer(E element) {
+        long pos;
+        int index;
+        while (true) {
+            pos = tail.get();
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+        slots[index] = element;
+        sequences.lazySet(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element, or returns null if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos;
+        int index;
+        while (true) {
+            pos = head.get();
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, pos + mask + 1);
+        return element;
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
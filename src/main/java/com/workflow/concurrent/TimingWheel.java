@@ -0,0 +1,249 @@
+package com.workflow.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding millions of timers with O(1) schedule and cancel.
+ * Level 0 has one slot per tick; each higher level has slots {@value #SLOTS} times wider. A timer is placed
+ * on the lowest level whose span covers its deadline and is cascaded down one level as its slot comes up,
+ * so every timer is moved at most {@value #LEVELS} times. Timers further out than the top level can cover
+ * wait in the top level and are re-placed each time their slot comes round. Advancing skips straight over
+ * stretches of ticks in which no occupied slot comes up.
+ * <p>
+ * Time only moves when {@link #advance()} is called, against the injected {@link Clock}. Expired timers
+ * are returned rather than run, so the caller decides which thread handles them. All methods are
+ * thread-safe; each holds the wheel's lock for O(1) work, except {@code advance} which is proportional
+ * to the ticks passed and the timers expired or cascaded.
+ */
+public class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Clock clock;
+    private final Bucket<T>[][] buckets;
+    private final int[] levelSizes = new int[LEVELS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis resolution of the wheel; deadlines fire up to one tick late
+     */
+    public TimingWheel(long tickMillis, Clock clock) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Bucket<T>[][] created = new Bucket[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                created[level][slot] = new Bucket<>(level);
+            }
+        }
+        buckets = created;
+        currentTick = clock.millis() / tickMillis;
+    }
+
+    /**
+     * Schedules {@code payload} to expire at {@code deadlineMillis} (epoch milliseconds).
+     * A deadline in the past expires on the first {@link #advance()} after the next tick.
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, payload, deadlineMillis, deadlineMillis / tickMillis);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timer; returns false if it already expired or was cancelled.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.owner != this || timeout.bucket == null) {
+            return false;
+        }
+        levelSizes[timeout.bucket.level]--;
+        timeout.bucket.unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to the clock's current time and returns every timer that expired, in no particular order.
+     */
+    public synchronized List<Timeout<T>> advance() {
+        long target = clock.millis() / tickMillis;
+        List<Timeout<T>> expired = new ArrayList<>();
+        while (currentTick < target) {
+            int lowest = lowestOccupiedLevel();
+            if (lowest < 0) {
+                currentTick = target;
+                break;
+            }
+            if (lowest > 0) {
+                // Nothing happens below the lowest occupied level, so jump to just before its next slot boundary
+                long lastBeforeBoundary = currentTick | ((1L << (BITS * lowest)) - 1);
+                currentTick = Math.min(target, lastBeforeBoundary);
+                if (currentTick == target) {
+                    break;
+                }
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][(int) (currentTick >>> (BITS * level)) & MASK]);
+                }
+            }
+            Bucket<T> due = buckets[0][(int) currentTick & MASK];
+            levelSizes[0] -= due.size;
+            for (Timeout<T> timeout = due.drain(); timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                timeout.next = null;
+                if (timeout.expiryTick <= currentTick) {
+                    size--;
+                    expired.add(timeout);
+                } else {
+                    place(timeout);
+                }
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private int lowestOccupiedLevel() {
+        for (int level = 0; level < LEVELS; level++) {
+            if (levelSizes[level] > 0) {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+    private void cascade(Bucket<T> bucket) {
+        levelSizes[bucket.level] -= bucket.size;
+        for (Timeout<T> timeout = bucket.drain(); timeout != null; ) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long expiryTick = Math.max(timeout.expiryTick, currentTick + 1);
+        long delta = expiryTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        long slotTick = expiryTick;
+        if (delta >= 1L << (BITS * LEVELS)) {
+            // Beyond the wheel's span: park in the top-level slot that comes up last and re-place from there
+            slotTick = currentTick + ((long) MASK << (BITS * (LEVELS - 1)));
+        }
+        buckets[level][(int) (slotTick >>> (BITS * level)) & MASK].link(timeout);
+        levelSizes[level]++;
+    }
+
+    /**
+     * Handle for a scheduled timer.
+     */
+    public static final class Timeout<T> {
+        private final TimingWheel<T> owner;
+        private final T payload;
+        private final long deadlineMillis;
+        private final long expiryTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> owner, T payload, long deadlineMillis, long expiryTick) {
+            this.owner = owner;
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.expiryTick = expiryTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean cancel() {
+            return owner.cancel(this);
+        }
+    }
+
+    /**
+     * Intrusive doubly-linked list of the timers in one slot.
+     */
+    private static final class Bucket<T> {
+        private final int level;
+        private Timeout<T> head;
+        private int size;
+
+        Bucket(int level) {
+            this.level = level;
+        }
+
+        void link(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+            size++;
+        }
+
+        void unlink(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+            size--;
+        }
+
+        /**
+         * Empties the slot and returns its timers as a chain linked through {@code next}.
+         */
+        Timeout<T> drain() {
+            Timeout<T> first = head;
+            head = null;
+            size = 0;
+            for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.prev = null;
+            }
+            return first;
+        }
+    }
+}
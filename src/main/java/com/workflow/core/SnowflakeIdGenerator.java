@@ -0,0 +1,65 @@
+package com.workflow.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style ID generator producing monotonic 64-bit IDs.
+ * Layout (high to low): 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node ID, 12 bits of sequence.
+ */
+public class SnowflakeIdGenerator implements TaskIdGenerator {
+    public static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeBits;
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public long nextId() {
+        long candidate = ((System.currentTimeMillis() - EPOCH) << TIMESTAMP_SHIFT) | nodeBits;
+        while (true) {
+            long prev = last.get();
+            long next;
+            if (candidate > prev) {
+                next = candidate;
+            } else if ((prev & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                // Sequence exhausted for this millisecond: borrow the next one
+                next = (((prev >>> TIMESTAMP_SHIFT) + 1) << TIMESTAMP_SHIFT) | nodeBits;
+            } else {
+                next = prev + 1;
+            }
+            if (last.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public long creationTimeOf(long id) {
+        return timestampOf(id);
+    }
+
+    @Override
+    public long lowestIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH) << TIMESTAMP_SHIFT;
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+}
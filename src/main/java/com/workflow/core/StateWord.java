@@ -0,0 +1,123 @@
+package com.workflow.core;
+
+/**
+ * Packs a task's state, approver and details into one {@code long} so they can be swapped atomically.
+ * Layout: bits 0-7 state code, bits 8-31 interned approver (0 = none), bits 32-63 the handle of details kept
+ * with the task (0 = none). Details hold a rejection's reason, and the approver itself once the process-wide
+ * table of approvers is full, so no text a user types ends up in a table that is never cleared; see
+ * {@link Task#storeDetails}. A pending task has no details, so there bits 32-63 instead hold its progress
+ * through a multi-stage workflow (0 = not started), which is saved, journaled and rolled back along with its
+ * state.
+ */
+public final class StateWord {
+    private static final StringInterner APPROVERS = new StringInterner();
+
+    /** The approver code of a word whose approver is kept in its task's details. */
+    public static final int APPROVER_KEPT = (1 << 24) - 1;
+
+    public static final long PENDING = pending(0);
+
+    private StateWord() {
+    }
+
+    /**
+     * Returns the code an approver is stored under in a word: 0 for none, or {@link #APPROVER_KEPT} once no
+     * more approvers can be interned.
+     */
+    public static int approverCode(String approver) {
+        if (approver == null) {
+            return 0;
+        }
+        int code = APPROVERS.intern(approver, APPROVER_KEPT - 1);
+        return code < 0 ? APPROVER_KEPT : code + 1;
+    }
+
+    /**
+     * Packs a word whose reason, and approver if kept, are stored with its task under the {@code details}
+     * handle.
+     */
+    public static long pack(TaskState state, int approverCode, int details) {
+        if (approverCode < 0 || approverCode > APPROVER_KEPT) {
+            throw new IllegalArgumentException("Invalid approver code: " + approverCode);
+        }
+        return ((details & 0xFFFFFFFFL) << 32) | ((long) approverCode << 8) | (state.code() & 0xFFL);
+    }
+
+    /**
+     * Packs a word without details, such as a memento's. Throws if the approver would have to be kept with a
+     * task.
+     */
+    public static long pack(TaskState state, String approver) {
+        int code = approverCode(approver);
+        if (code == APPROVER_KEPT) {
+            throw new IllegalStateException("Too many distinct approvers");
+        }
+        return pack(state, code, 0);
+    }
+
+    /**
+     * Returns a decided word with its details moved to another handle, e.g. when another task takes them over.
+     */
+    public static long withDetails(long word, int details) {
+        return ((details & 0xFFFFFFFFL) << 32) | (word & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the word of a pending task that has made the given progress.
+     */
+    public static long pending(int progress) {
+        return ((progress & 0xFFFFFFFFL) << 32) | (TaskState.PENDING.code() & 0xFFL);
+    }
+
+    public static TaskState state(long word) {
+        return TaskState.fromCode((int) (word & 0xFF));
+    }
+
+    /**
+     * Returns the interned approver, or null if there is none or it is kept with the task; see
+     * {@link Task#approverOf}.
+     */
+    public static String approver(long word) {
+        int bits = (int) ((word >>> 8) & APPROVER_KEPT);
+        return bits == 0 || bits == APPROVER_KEPT ? null : APPROVERS.lookup(bits - 1);
+    }
+
+    public static boolean isApproverKept(long word) {
+        return ((word >>> 8) & APPROVER_KEPT) == APPROVER_KEPT;
+    }
+
+    /**
+     * Returns the handle of the details kept with a decided task, or 0 if it has none.
+     */
+    public static int details(long word) {
+        return state(word) == TaskState.PENDING ? 0 : (int) (word >>> 32);
+    }
+
+    /**
+     * Returns a pending task's workflow progress, or 0 if the task is decided or has made none.
+     */
+    public static int progress(long word) {
+        return state(word) == TaskState.PENDING ? (int) (word >>> 32) : 0;
+    }
+
+    /**
+     * Renders a word without details, such as a memento's; see {@link #describe(TaskState, String, String)}.
+     */
+    public static String describe(long word) {
+        return describe(state(word), approver(word), null);
+    }
+
+    /**
+     * Renders a status the way it is shown to users, e.g. "Approved by Senior" or "Rejected: Too vague".
+     */
+    public static String describe(TaskState state, String approver, String reason) {
+        StringBuilder text = new StringBuilder(state.getLabel());
+        if (approver != null) {
+            text.append(" by ").append(approver);
+        }
+        if (reason != null) {
+            text.append(": ").append(reason);
+        }
+        return text.toString();
+    }
+}
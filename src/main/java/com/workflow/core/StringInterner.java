@@ -0,0 +1,69 @@
+package com.workflow.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps strings to dense int codes and back, so repeated values can be stored as primitives.
+ * Lookups are lock-free; only the first intern of a new value takes a lock.
+ */
+public class StringInterner {
+    private final ConcurrentMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    public int intern(String value) {
+        return intern(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Interns a value unless that would take more than {@code capacity} codes; returns -1 if so.
+     */
+    public int intern(String value, int capacity) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size >= capacity) {
+                return -1;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Returns the code of a value interned before, or -1, without interning it.
+     */
+    public int find(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String lookup(int code) {
+        String[] current = values;
+        if (code < 0 || code >= current.length || current[code] == null) {
+            throw new IllegalArgumentException("Unknown code: " + code);
+        }
+        return current[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -1,39 +1,96 @@
 package com.workflow.core;
 
+import com.workflow.metrics.Histogram;
+import com.workflow.metrics.Metrics;
+import com.workflow.patterns.observer.EventDispatcher;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.SynchronousEventDispatcher;
 import com.workflow.patterns.observer.TaskObserver;
 import com.workflow.patterns.observer.TaskSubject;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Represents a task with description, priority, and state, implementing Observer pattern.
+ * The state and approver live in one packed {@link StateWord}, which also carries the handle of the task's
+ * details: a rejection's reason, kept with the task rather than in a process-wide table. Transitions are checked
+ * against {@link TaskState}'s transition table and applied with compare-and-set, so of two racing transitions
+ * out of the same state only one can succeed.
+ * Events go to the task's {@link SubscriptionRegistry} subscribers, if it has one, and to any observers
+ * attached directly.
+ * <p>
+ * A subclass may keep the description, priority, creator, creation time, state word and details elsewhere, e.g.
+ * as a flyweight view of one row of a columnar store, by overriding their getters and the hooks that write them.
  */
 public class Task implements TaskSubject {
-    private String id;
+    private static final AtomicLongFieldUpdater<Task> STATE =
+            AtomicLongFieldUpdater.newUpdater(Task.class, "stateWord");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Task, CopyOnWriteArrayList> OBSERVERS =
+            AtomicReferenceFieldUpdater.newUpdater(Task.class, CopyOnWriteArrayList.class, "observers");
+    private static final AtomicReferenceFieldUpdater<Task, String[]> DETAILS =
+            AtomicReferenceFieldUpdater.newUpdater(Task.class, String[].class, "details");
+    private static final Histogram DISPATCH_LATENCY = Metrics.latency("Task.notifyObservers");
+    private static final Histogram FAN_OUT = Metrics.sizes("Task.observerFanOut");
+
+    private final long numericId;
+    private final String id;
     private String description;
-    private int priority; // 1 (low) to 3 (high)
-    private String status; // e.g., Pending, Approved, Rejected
-    private List<TaskObserver> observers = new ArrayList<>();
+    private volatile int priority; // 1 (low) to 3 (high)
+    private final String creator;
+    private final long createdAt;
+    private volatile long stateWord = StateWord.PENDING;
+    /** Approver and reason pairs, appended and never overwritten; most tasks never have any. */
+    private volatile String[] details;
+    /** Observers attached directly; created on the first attach, since most tasks never have any. */
+    private volatile CopyOnWriteArrayList<TaskObserver> observers;
+    private volatile EventDispatcher dispatcher = SynchronousEventDispatcher.INSTANCE;
+    private volatile SubscriptionRegistry subscriptions;
+
+    public Task(long numericId, String description, int priority) {
+        this(numericId, description, priority, null, System.currentTimeMillis());
+    }
 
-    public Task(String description, int priority) {
+    public Task(long numericId, String description, int priority, String creator, long createdAt) {
         if (description == null || description.trim().isEmpty()) {
             throw new IllegalArgumentException("Task description cannot be empty");
         }
         if (priority < 1 || priority > 3) {
             throw new IllegalArgumentException("Priority must be between 1 and 3");
         }
-        this.id = UUID.randomUUID().toString().substring(0, 8);
+        this.numericId = numericId;
+        this.id = TaskIdCodec.encode(numericId);
         this.description = description;
         this.priority = priority;
-        this.status = "Pending";
+        this.creator = creator;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Creates a task whose other fields live outside this object; the subclass overrides their accessors.
+     */
+    protected Task(long numericId) {
+        this.numericId = numericId;
+        this.id = TaskIdCodec.encode(numericId);
+        this.creator = null;
+        this.createdAt = 0;
     }
 
     public String getId() {
         return id;
     }
 
+    public long getNumericId() {
+        return numericId;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -42,34 +99,294 @@ public class Task implements TaskSubject {
         return priority;
     }
 
+    /**
+     * Changes the priority, e.g. when an overdue task is escalated to the next approver level.
+     * Callers hold the task's stripe lock and update the store's indexes.
+     */
+    public void setPriority(int priority) {
+        if (priority < 1 || priority > 3) {
+            throw new IllegalArgumentException("Priority must be between 1 and 3");
+        }
+        storePriority(priority);
+        notifyObservers("Task " + id + " escalated to priority " + priority);
+    }
+
+    /**
+     * Returns the username of the user who created the task, or null if unknown.
+     */
+    public String getCreator() {
+        return creator;
+    }
+
+    /**
+     * Returns the creation time in epoch milliseconds.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the status as shown to users, e.g. "Pending", "Approved by Senior" or "Rejected: Too vague".
+     */
     public String getStatus() {
-        return status;
+        return describe(getStateWord());
+    }
+
+    public TaskState getState() {
+        return StateWord.state(getStateWord());
+    }
+
+    public String getApprover() {
+        return approverOf(getStateWord());
     }
 
-    public void setStatus(String status) {
-        if (status == null || status.trim().isEmpty()) {
-            throw new IllegalArgumentException("Status cannot be empty");
+    public String getReason() {
+        return reasonOf(getStateWord());
+    }
+
+    /**
+     * Returns the approver of a state word read from this task, so it matches the state read with it.
+     */
+    public String approverOf(long word) {
+        if (!StateWord.isApproverKept(word)) {
+            return StateWord.approver(word);
         }
-        this.status = status;
-        notifyObservers("Task " + id + " status updated to: " + status);
+        int handle = StateWord.details(word);
+        return handle == 0 ? null : loadDetails(handle)[0];
+    }
+
+    /**
+     * Returns the reason of a state word read from this task, so it matches the state read with it.
+     */
+    public String reasonOf(long word) {
+        int handle = StateWord.details(word);
+        return handle == 0 ? null : loadDetails(handle)[1];
+    }
+
+    /**
+     * Returns true once the task has been approved or rejected.
+     */
+    public boolean isTerminal() {
+        return getState().isTerminal();
+    }
+
+    public long getStateWord() {
+        return stateWord;
+    }
+
+    /**
+     * Returns how far the task is through a multi-stage workflow; see {@link StateWord#progress}.
+     */
+    public int getProgress() {
+        return StateWord.progress(getStateWord());
+    }
+
+    /**
+     * Records the progress of a task that stays pending, without notifying observers. Returns false, leaving
+     * the task unchanged, if it is no longer pending.
+     */
+    public boolean advance(int progress) {
+        long next = StateWord.pending(progress);
+        while (true) {
+            long current = getStateWord();
+            if (StateWord.state(current) != TaskState.PENDING) {
+                return false;
+            }
+            if (compareAndSetStateWord(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean approve(String approver) {
+        return transition(TaskState.APPROVED, approver, null);
+    }
+
+    public boolean reject(String reason) {
+        String trimmed = reason == null || reason.trim().isEmpty() ? null : reason.trim();
+        return transition(TaskState.REJECTED, null, trimmed);
+    }
+
+    /**
+     * Atomically moves the task to {@code target} if the transition table allows it from the current state.
+     * Returns false, leaving the task unchanged, if it does not.
+     */
+    public boolean transition(TaskState target, String approver, String reason) {
+        long next = 0;
+        boolean packed = false;
+        while (true) {
+            long current = getStateWord();
+            if (!StateWord.state(current).canTransitionTo(target)) {
+                return false;
+            }
+            if (!packed) {
+                // Only once the transition is allowed, so refused attempts store no details
+                next = pack(target, approver, reason);
+                packed = true;
+            }
+            if (compareAndSetStateWord(current, next)) {
+                notifyObservers("Task " + id + " status updated to: " + describe(next));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Puts the task back into a state word captured from this task before, bypassing the transition table.
+     * Used for rollback; words from elsewhere go through {@link #restore}.
+     */
+    public void restoreStateWord(long word) {
+        StateWord.state(word);
+        storeStateWord(word);
+        notifyObservers("Task " + id + " status updated to: " + describe(word));
+    }
+
+    /**
+     * Puts the task into a state read back from storage or another process, bypassing the transition table.
+     * The progress only applies to a pending task, the approver and reason only to a decided one.
+     */
+    public void restore(TaskState state, String approver, String reason, int progress) {
+        restoreStateWord(state == TaskState.PENDING ? StateWord.pending(progress) : pack(state, approver, reason));
+    }
+
+    /**
+     * Takes over the priority and state of another copy of this task, e.g. one returned by a remote shard,
+     * without notifying observers.
+     */
+    public void copyStateOf(Task other) {
+        if (other == null || other.getNumericId() != numericId) {
+            throw new IllegalArgumentException("Not a copy of task " + id);
+        }
+        storePriority(other.getPriority());
+        long word = other.getStateWord();
+        TaskState state = StateWord.state(word);
+        storeStateWord(state == TaskState.PENDING ? word
+                : pack(state, other.approverOf(word), other.reasonOf(word)));
+    }
+
+    private long pack(TaskState state, String approver, String reason) {
+        int approverCode = StateWord.approverCode(approver);
+        boolean kept = approverCode == StateWord.APPROVER_KEPT;
+        int handle = kept || reason != null ? storeDetails(kept ? approver : null, reason) : 0;
+        return StateWord.pack(state, approverCode, handle);
+    }
+
+    private String describe(long word) {
+        return StateWord.describe(StateWord.state(word), approverOf(word), reasonOf(word));
+    }
+
+    /**
+     * Atomically replaces the state word if it is still {@code expected}; every transition goes through here.
+     */
+    protected boolean compareAndSetStateWord(long expected, long word) {
+        return STATE.compareAndSet(this, expected, word);
+    }
+
+    protected void storeStateWord(long word) {
+        stateWord = word;
+    }
+
+    protected void storePriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Keeps a decision's reason, and its approver if it could not be interned, with the task and returns the
+     * positive handle its state word carries. Stored details are never overwritten, so a word read earlier still
+     * resolves, and they go away with the task.
+     */
+    protected int storeDetails(String approver, String reason) {
+        while (true) {
+            String[] current = details;
+            int length = current == null ? 0 : current.length;
+            if (length >= Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Too many details for task " + id);
+            }
+            String[] next = current == null ? new String[2] : Arrays.copyOf(current, length + 2);
+            next[length] = approver;
+            next[length + 1] = reason;
+            if (DETAILS.compareAndSet(this, current, next)) {
+                return length / 2 + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the approver and reason stored under a handle {@link #storeDetails} returned.
+     */
+    protected String[] loadDetails(int handle) {
+        String[] current = details;
+        long index = (handle - 1L) * 2;
+        if (current == null || handle < 1 || index + 1 >= current.length) {
+            throw new IllegalArgumentException("Unknown details: " + handle);
+        }
+        return new String[] {current[(int) index], current[(int) index + 1]};
+    }
+
+    /**
+     * Drops the subscriptions made to this task from its registry and returns their observers, or null if there
+     * were none. Called when the task is decided or leaves the store.
+     */
+    public Set<TaskObserver> retireSubscriptions() {
+        SubscriptionRegistry registry = subscriptions;
+        return registry == null ? null : registry.retire(numericId);
+    }
+
+    /**
+     * Subscribes observers returned by {@link #retireSubscriptions} to this task again, e.g. after a rollback.
+     */
+    public void restoreSubscriptions(Collection<TaskObserver> observers) {
+        SubscriptionRegistry registry = subscriptions;
+        if (registry != null) {
+            registry.restore(numericId, observers);
+        }
+    }
+
+    public void setDispatcher(EventDispatcher dispatcher) {
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Dispatcher cannot be null");
+        }
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Sets the registry whose subscribers are notified of this task's events; null disables it.
+     */
+    public void setSubscriptions(SubscriptionRegistry subscriptions) {
+        this.subscriptions = subscriptions;
     }
 
     @Override
     public void attach(TaskObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
+        if (observer != null) {
+            OBSERVERS.compareAndSet(this, null, new CopyOnWriteArrayList<TaskObserver>());
+            observers.addIfAbsent(observer);
         }
     }
 
     @Override
     public void detach(TaskObserver observer) {
-        observers.remove(observer);
+        CopyOnWriteArrayList<TaskObserver> attached = observers;
+        if (attached != null) {
+            attached.remove(observer);
+        }
     }
 
     @Override
     public void notifyObservers(String event) {
-        for (TaskObserver observer : new ArrayList<>(observers)) {
-            observer.update(event);
+        SubscriptionRegistry registry = subscriptions;
+        List<TaskObserver> attached = observers == null ? Collections.emptyList() : observers;
+        if (registry == null && attached.isEmpty()) {
+            return;
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        List<TaskObserver> targets = registry == null ? attached : registry.resolve(this, attached);
+        if (!targets.isEmpty()) {
+            dispatcher.dispatch(this, targets, event);
+        }
+        if (Metrics.ENABLED) {
+            DISPATCH_LATENCY.recordSince(start);
+            FAN_OUT.record(targets.size());
         }
     }
 }
\ No newline at end of file
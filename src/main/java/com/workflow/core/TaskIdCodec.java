@@ -0,0 +1,46 @@
+package com.workflow.core;
+
+/**
+ * Converts numeric task IDs to and from a compact Crockford base-32 string (13 characters).
+ */
+public final class TaskIdCodec {
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final int LENGTH = 13;
+    private static final byte[] LOOKUP = new byte[128];
+
+    static {
+        java.util.Arrays.fill(LOOKUP, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            LOOKUP[ALPHABET[i]] = (byte) i;
+            LOOKUP[Character.toUpperCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private TaskIdCodec() {
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static long decode(String text) {
+        if (text == null || text.length() != LENGTH) {
+            throw new IllegalArgumentException("Invalid task ID: " + text);
+        }
+        long id = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? LOOKUP[c] : -1;
+            if (value < 0 || (i == 0 && value > 15)) {
+                throw new IllegalArgumentException("Invalid task ID: " + text);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+}
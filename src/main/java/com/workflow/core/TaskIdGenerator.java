@@ -0,0 +1,23 @@
+package com.workflow.core;
+
+/**
+ * Strategy for generating unique numeric task IDs.
+ */
+public interface TaskIdGenerator {
+    long nextId();
+
+    /**
+     * Returns the creation time encoded in an ID, or -1 if this generator's IDs do not encode time.
+     */
+    default long creationTimeOf(long id) {
+        return -1;
+    }
+
+    /**
+     * Returns the smallest ID this generator could issue at the given time, or {@link Long#MIN_VALUE}
+     * if IDs are not ordered by time. Lets time-range queries narrow an ID-ordered index.
+     */
+    default long lowestIdAt(long epochMillis) {
+        return Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,51 @@
+package com.workflow.core;
+
+/**
+ * Lifecycle states of a task, with the set of allowed transitions precomputed as a lookup table.
+ */
+public enum TaskState {
+    PENDING("Pending"),
+    APPROVED("Approved"),
+    REJECTED("Rejected");
+
+    private static final TaskState[] BY_CODE = values();
+    private static final boolean[][] TRANSITIONS = new boolean[BY_CODE.length][BY_CODE.length];
+
+    static {
+        allow(PENDING, APPROVED);
+        allow(PENDING, REJECTED);
+    }
+
+    private final String label;
+
+    TaskState(String label) {
+        this.label = label;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isTerminal() {
+        return this != PENDING;
+    }
+
+    public boolean canTransitionTo(TaskState target) {
+        return TRANSITIONS[ordinal()][target.ordinal()];
+    }
+
+    public static TaskState fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown state code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    private static void allow(TaskState from, TaskState to) {
+        TRANSITIONS[from.ordinal()][to.ordinal()] = true;
+    }
+}
@@ -1,25 +1,25 @@
 package com.workflow.core;
 
 /**
- * Represents a user in the workflow system with authentication credentials and role.
+ * Represents a user in the workflow system with hashed credentials and role.
  */
 public class User {
     private String username;
-    private String password;
-    private String role; // e.g., Junior, Manager, Senior
+    private String passwordHash;
+    private volatile String role; // e.g., Junior, Manager, Senior
 
-    public User(String username, String password, String role) {
+    public User(String username, String passwordHash, String role) {
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be empty");
         }
-        if (password == null || password.length() < 4) {
-            throw new IllegalArgumentException("Password must be at least 4 characters");
+        if (passwordHash == null || passwordHash.isEmpty()) {
+            throw new IllegalArgumentException("Password hash cannot be empty");
         }
         if (role == null || role.trim().isEmpty()) {
             throw new IllegalArgumentException("Role cannot be empty");
         }
         this.username = username;
-        this.password = password;
+        this.passwordHash = passwordHash;
         this.role = role;
     }
 
@@ -27,11 +27,24 @@ public class User {
         return username;
     }
 
-    public String getPassword() {
-        return password;
+    /**
+     * Returns the encoded salted hash of the password; the plain password is never stored.
+     */
+    public String getPasswordHash() {
+        return passwordHash;
     }
 
     public String getRole() {
         return role;
     }
+
+    /**
+     * Changes the role; prefer {@code AuthenticationService.changeRole}, which also journals the change.
+     */
+    public void setRole(String role) {
+        if (role == null || role.trim().isEmpty()) {
+            throw new IllegalArgumentException("Role cannot be empty");
+        }
+        this.role = role;
+    }
 }
\ No newline at end of file
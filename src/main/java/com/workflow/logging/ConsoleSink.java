@@ -0,0 +1,33 @@
+package com.workflow.logging;
+
+import java.io.PrintStream;
+
+/**
+ * Writes messages to standard output as the console application always has: plain text, with
+ * warnings and errors prefixed by "Error: ".
+ */
+public class ConsoleSink implements LogSink {
+    private final StringBuilder pending = new StringBuilder();
+
+    @Override
+    public void write(LogRecord record) {
+        if (record.getLevel().compareTo(Level.WARN) >= 0) {
+            pending.append("Error: ");
+        }
+        pending.append(record.getMessage()).append(System.lineSeparator());
+        if (record.getThrown() != null) {
+            pending.append(record.getThrown()).append(System.lineSeparator());
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pending.length() > 0) {
+            // Looked up on each flush so System.setOut redirections are honored
+            PrintStream out = System.out;
+            out.print(pending);
+            out.flush();
+            pending.setLength(0);
+        }
+    }
+}
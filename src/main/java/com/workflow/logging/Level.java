@@ -0,0 +1,12 @@
+package com.workflow.logging;
+
+/**
+ * Log levels, from most to least verbose. {@link #OFF} disables logging entirely.
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
@@ -0,0 +1,173 @@
+package com.workflow.logging;
+
+import com.workflow.concurrent.RingBuffer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous logging back end. Callers enqueue records on a bounded lock-free {@link RingBuffer}; a single
+ * daemon thread formats them and writes them to the configured sinks, flushing once the queue is drained.
+ * If the queue is full, records are dropped and counted rather than blocking the caller.
+ * <p>
+ * Configured from system properties on first use:
+ * <ul>
+ *     <li>{@code workflow.log.level}: DEBUG, INFO (default), WARN, ERROR or OFF</li>
+ *     <li>{@code workflow.log.console}: write to standard output (default true)</li>
+ *     <li>{@code workflow.log.file}: also write to this file, rolled at {@code workflow.log.maxFileBytes}
+ *     (default 10 MB) keeping {@code workflow.log.maxFiles} backups (default 5)</li>
+ *     <li>{@code workflow.log.queueCapacity}: records that can wait for the writer (default 65536)</li>
+ * </ul>
+ */
+public final class Log {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int RECORDS_PER_FLUSH = 1024;
+
+    private static final RingBuffer<LogRecord> QUEUE =
+            new RingBuffer<>(Integer.getInteger("workflow.log.queueCapacity", 1 << 16));
+    private static final List<LogSink> SINKS = new CopyOnWriteArrayList<>();
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static volatile long flushed;
+    private static volatile int threshold;
+    private static final Thread WRITER;
+
+    static {
+        threshold = Level.valueOf(System.getProperty("workflow.log.level", "INFO").toUpperCase()).ordinal();
+        if (!"false".equals(System.getProperty("workflow.log.console"))) {
+            SINKS.add(new ConsoleSink());
+        }
+        String file = System.getProperty("workflow.log.file");
+        if (file != null) {
+            try {
+                SINKS.add(new RollingFileSink(Paths.get(file),
+                        Long.getLong("workflow.log.maxFileBytes", 10L << 20),
+                        Integer.getInteger("workflow.log.maxFiles", 5)));
+            } catch (IOException e) {
+                System.err.println("Cannot open log file " + file + ": " + e.getMessage());
+            }
+        }
+        WRITER = new Thread(Log::writeLoop, "log-writer");
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-shutdown"));
+    }
+
+    private Log() {
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    public static Level getLevel() {
+        return Level.values()[threshold];
+    }
+
+    public static void setLevel(Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Level cannot be null");
+        }
+        threshold = level.ordinal();
+    }
+
+    public static void addSink(LogSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink cannot be null");
+        }
+        SINKS.add(sink);
+    }
+
+    /**
+     * Removes a sink. Records already queued may still reach it.
+     */
+    public static void removeSink(LogSink sink) {
+        SINKS.remove(sink);
+    }
+
+    /**
+     * Waits (up to a few seconds) until every record logged before this call has been written and the
+     * sinks flushed. The console calls this before prompting so its output appears in order.
+     */
+    public static void flush() {
+        long target = SUBMITTED.get();
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+        while (flushed < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+
+    /**
+     * Returns the number of records dropped so far because the queue was full.
+     */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    static void enqueue(LogRecord record) {
+        if (QUEUE.offer(record)) {
+            SUBMITTED.incrementAndGet();
+        } else {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    private static void writeLoop() {
+        long written = 0;
+        long droppedReported = 0;
+        int sinceFlush = 0;
+        while (true) {
+            LogRecord record = QUEUE.poll();
+            if (record != null) {
+                write(record);
+                written++;
+                if (++sinceFlush < RECORDS_PER_FLUSH) {
+                    continue;
+                }
+            }
+            long dropped = DROPPED.get();
+            if (dropped > droppedReported) {
+                write(new LogRecord(Level.WARN, "Log", "{} log record(s) dropped: queue full",
+                        new Object[]{dropped - droppedReported}, null));
+                droppedReported = dropped;
+            }
+            flushSinks();
+            sinceFlush = 0;
+            flushed = written;
+            if (record == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private static void write(LogRecord record) {
+        for (LogSink sink : SINKS) {
+            try {
+                sink.write(record);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Cannot write log record: " + e);
+            }
+        }
+    }
+
+    private static void flushSinks() {
+        for (LogSink sink : SINKS) {
+            try {
+                sink.flush();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Cannot flush log sink: " + e);
+            }
+        }
+    }
+}
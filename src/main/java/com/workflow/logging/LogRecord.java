@@ -0,0 +1,75 @@
+package com.workflow.logging;
+
+/**
+ * One log event as queued for the background writer. The message is formatted lazily, on the writer thread.
+ */
+public final class LogRecord {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final long timeMillis;
+    private final Level level;
+    private final String loggerName;
+    private final String threadName;
+    private final String pattern;
+    private final Object[] args;
+    private final Throwable thrown;
+    private String message;
+
+    LogRecord(Level level, String loggerName, String pattern, Object[] args, Throwable thrown) {
+        this.timeMillis = System.currentTimeMillis();
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = Thread.currentThread().getName();
+        this.pattern = pattern;
+        this.args = args == null ? NO_ARGS : args;
+        this.thrown = thrown;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public Throwable getThrown() {
+        return thrown;
+    }
+
+    /**
+     * Returns the message with each {@code {}} in the pattern replaced by the next argument.
+     */
+    public String getMessage() {
+        if (message == null) {
+            message = format(pattern, args);
+        }
+        return message;
+    }
+
+    static String format(String pattern, Object[] args) {
+        if (pattern == null) {
+            return "null";
+        }
+        if (args.length == 0) {
+            return pattern;
+        }
+        StringBuilder out = new StringBuilder(pattern.length() + 16 * args.length);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = pattern.indexOf("{}", start)) >= 0) {
+            out.append(pattern, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        return out.append(pattern, start, pattern.length()).toString();
+    }
+}
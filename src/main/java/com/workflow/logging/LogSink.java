@@ -0,0 +1,19 @@
+package com.workflow.logging;
+
+import java.io.IOException;
+
+/**
+ * Destination for log records. Called only from the log writer thread, so implementations need no locking.
+ */
+public interface LogSink {
+    void write(LogRecord record) throws IOException;
+
+    /**
+     * Called once the writer has drained the queue, so sinks can buffer between flushes.
+     */
+    void flush() throws IOException;
+
+    default void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,125 @@
+package com.workflow.logging;
+
+/**
+ * Named logger handing records to the {@link Log} writer thread.
+ * Messages are patterns with {@code {}} placeholders. When a level is disabled a call costs one volatile
+ * read: nothing is formatted, and the fixed-arity overloads do not even allocate an argument array.
+ * Arguments are formatted later on the writer thread, so pass immutable values such as IDs and strings.
+ */
+public final class Logger {
+    private final String name;
+
+    Logger(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(Level level) {
+        return Log.isEnabled(level);
+    }
+
+    public void debug(String message) {
+        if (Log.isEnabled(Level.DEBUG)) {
+            Log.enqueue(new LogRecord(Level.DEBUG, name, message, null, null));
+        }
+    }
+
+    public void debug(String pattern, Object arg) {
+        if (Log.isEnabled(Level.DEBUG)) {
+            Log.enqueue(new LogRecord(Level.DEBUG, name, pattern, new Object[]{arg}, null));
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (Log.isEnabled(Level.DEBUG)) {
+            Log.enqueue(new LogRecord(Level.DEBUG, name, pattern, new Object[]{arg1, arg2}, null));
+        }
+    }
+
+    public void debug(String pattern, Object... args) {
+        if (Log.isEnabled(Level.DEBUG)) {
+            Log.enqueue(new LogRecord(Level.DEBUG, name, pattern, args, null));
+        }
+    }
+
+    public void info(String message) {
+        if (Log.isEnabled(Level.INFO)) {
+            Log.enqueue(new LogRecord(Level.INFO, name, message, null, null));
+        }
+    }
+
+    public void info(String pattern, Object arg) {
+        if (Log.isEnabled(Level.INFO)) {
+            Log.enqueue(new LogRecord(Level.INFO, name, pattern, new Object[]{arg}, null));
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (Log.isEnabled(Level.INFO)) {
+            Log.enqueue(new LogRecord(Level.INFO, name, pattern, new Object[]{arg1, arg2}, null));
+        }
+    }
+
+    public void info(String pattern, Object... args) {
+        if (Log.isEnabled(Level.INFO)) {
+            Log.enqueue(new LogRecord(Level.INFO, name, pattern, args, null));
+        }
+    }
+
+    public void warn(String message) {
+        if (Log.isEnabled(Level.WARN)) {
+            Log.enqueue(new LogRecord(Level.WARN, name, message, null, null));
+        }
+    }
+
+    public void warn(String pattern, Object arg) {
+        if (Log.isEnabled(Level.WARN)) {
+            Log.enqueue(new LogRecord(Level.WARN, name, pattern, new Object[]{arg}, null));
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2) {
+        if (Log.isEnabled(Level.WARN)) {
+            Log.enqueue(new LogRecord(Level.WARN, name, pattern, new Object[]{arg1, arg2}, null));
+        }
+    }
+
+    public void warn(String pattern, Object... args) {
+        if (Log.isEnabled(Level.WARN)) {
+            Log.enqueue(new LogRecord(Level.WARN, name, pattern, args, null));
+        }
+    }
+
+    public void error(String message) {
+        if (Log.isEnabled(Level.ERROR)) {
+            Log.enqueue(new LogRecord(Level.ERROR, name, message, null, null));
+        }
+    }
+
+    public void error(String pattern, Object arg) {
+        if (Log.isEnabled(Level.ERROR)) {
+            Log.enqueue(new LogRecord(Level.ERROR, name, pattern, new Object[]{arg}, null));
+        }
+    }
+
+    public void error(String pattern, Object arg1, Object arg2) {
+        if (Log.isEnabled(Level.ERROR)) {
+            Log.enqueue(new LogRecord(Level.ERROR, name, pattern, new Object[]{arg1, arg2}, null));
+        }
+    }
+
+    public void error(String pattern, Object... args) {
+        if (Log.isEnabled(Level.ERROR)) {
+            Log.enqueue(new LogRecord(Level.ERROR, name, pattern, args, null));
+        }
+    }
+
+    public void error(String message, Throwable thrown) {
+        if (Log.isEnabled(Level.ERROR)) {
+            Log.enqueue(new LogRecord(Level.ERROR, name, message, null, thrown));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.workflow.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Appends timestamped lines to a file and rolls it over once it exceeds a size limit, keeping
+ * {@code file.1} (newest) to {@code file.<maxBackups>} (oldest).
+ */
+public class RollingFileSink implements LogSink {
+    private final Path file;
+    private final long maxBytes;
+    private final int maxBackups;
+    private BufferedWriter writer;
+    private long bytes;
+
+    public RollingFileSink(Path file, long maxBytes, int maxBackups) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Log file cannot be null");
+        }
+        if (maxBytes < 1024) {
+            throw new IllegalArgumentException("Log file size limit must be at least 1 KB");
+        }
+        if (maxBackups < 0) {
+            throw new IllegalArgumentException("Backup count cannot be negative");
+        }
+        this.file = file.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxBackups = maxBackups;
+        Files.createDirectories(this.file.getParent());
+        open();
+    }
+
+    @Override
+    public void write(LogRecord record) throws IOException {
+        StringBuilder line = new StringBuilder(96)
+                .append(Instant.ofEpochMilli(record.getTimeMillis()))
+                .append(' ').append(record.getLevel())
+                .append(" [").append(record.getThreadName()).append("] ")
+                .append(record.getLoggerName()).append(" - ")
+                .append(record.getMessage())
+                .append(System.lineSeparator());
+        if (record.getThrown() != null) {
+            StringWriter trace = new StringWriter();
+            record.getThrown().printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        String text = line.toString();
+        if (bytes > 0 && bytes + text.length() > maxBytes) {
+            roll();
+        }
+        writer.write(text);
+        bytes += text.length();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        if (maxBackups == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                if (Files.exists(backup(i))) {
+                    Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        bytes = Files.size(file);
+    }
+
+    private Path backup(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
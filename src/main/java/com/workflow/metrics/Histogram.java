@@ -0,0 +1,156 @@
+package com.workflow.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear histogram in the style of HdrHistogram: each power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so any non-negative long is recorded with about 3% precision
+ * in a fixed array. Recording is a few atomic increments and never allocates.
+ */
+public class Histogram implements HistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram(String name, String unit) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Histogram name cannot be empty");
+        }
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /**
+     * Records a value; negative values count as zero.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(v));
+        sum.add(v);
+        long current = max.get();
+        while (v > current && !max.compareAndSet(current, v)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50() {
+        return percentile(0.50);
+    }
+
+    @Override
+    public long getP90() {
+        return percentile(0.90);
+    }
+
+    @Override
+    public long getP99() {
+        return percentile(0.99);
+    }
+
+    @Override
+    public long getP999() {
+        return percentile(0.999);
+    }
+
+    /**
+     * Returns the smallest bucket bound at or below which the fraction {@code p} of values fall, or 0 if empty.
+     */
+    public long percentile(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values. Values recorded concurrently may be partly kept.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.workflow.metrics;
+
+/**
+ * JMX view of a {@link Histogram}. Percentiles are accurate to within about 3%.
+ */
+public interface HistogramMXBean {
+    String getName();
+
+    /**
+     * Returns the unit of recorded values: "ns" for latencies, "count" for sizes.
+     */
+    String getUnit();
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    long getP999();
+
+    void reset();
+}
@@ -0,0 +1,149 @@
+package com.workflow.metrics;
+
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the application's histograms, each published as an MXBean under {@code com.workflow.metrics}.
+ * Instrumented code keeps its histograms in static fields and guards every timing site with {@link #ENABLED}.
+ * Starting the JVM with {@code -Dworkflow.metrics=false} makes that a constant false, so the JIT removes the
+ * timing code entirely.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = !"false".equals(System.getProperty("workflow.metrics"));
+
+    private static final Logger LOG = Log.getLogger(Metrics.class);
+    private static final String DOMAIN = "com.workflow.metrics";
+    private static final ConcurrentMap<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the latency histogram with the given name, in nanoseconds, creating it on first use.
+     */
+    public static Histogram latency(String name) {
+        return histogram(name, "ns");
+    }
+
+    /**
+     * Returns the histogram of sizes (fan-out, stack depth, ...) with the given name, creating it on first use.
+     */
+    public static Histogram sizes(String name) {
+        return histogram(name, "count");
+    }
+
+    public static Collection<Histogram> all() {
+        return HISTOGRAMS.values();
+    }
+
+    /**
+     * Rewrites {@code file} with a snapshot of every histogram every {@code intervalMillis}, including the
+     * rate of recorded values per second since the previous snapshot.
+     */
+    public static synchronized void startDump(Path file, long intervalMillis) {
+        if (file == null) {
+            throw new IllegalArgumentException("Dump file cannot be null");
+        }
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Dump interval must be positive");
+        }
+        if (dumper != null) {
+            throw new IllegalStateException("Metrics dump already started");
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, Long> previousCounts = new HashMap<>();
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                dump(file, intervalMillis, previousCounts);
+            } catch (UncheckedIOException e) {
+                LOG.error("Cannot write metrics to {}: {}", file, e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopDump() {
+        if (dumper != null) {
+            dumper.shutdown();
+            dumper = null;
+        }
+    }
+
+    private static Histogram histogram(String name, String unit) {
+        Histogram existing = HISTOGRAMS.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        Histogram created = new Histogram(name, unit);
+        existing = HISTOGRAMS.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing;
+        }
+        if (ENABLED) {
+            register(created);
+        }
+        return created;
+    }
+
+    private static void register(Histogram histogram) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN, "name", histogram.getName());
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(histogram, objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("Cannot publish metric {}: {}", histogram.getName(), e.getMessage());
+        }
+    }
+
+    private static void dump(Path file, long intervalMillis, Map<String, Long> previousCounts) {
+        StringBuilder out = new StringBuilder();
+        out.append("# ").append(Instant.now()).append('\n');
+        out.append(String.format("%-40s %6s %12s %10s %12s %12s %12s %12s %12s %12s%n",
+                "name", "unit", "count", "rate/s", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (Histogram histogram : HISTOGRAMS.values()) {
+            long count = histogram.getCount();
+            Long previous = previousCounts.put(histogram.getName(), count);
+            double rate = (count - (previous == null ? 0 : previous)) * 1000.0 / intervalMillis;
+            out.append(String.format("%-40s %6s %12d %10.1f %12.1f %12d %12d %12d %12d %12d%n",
+                    histogram.getName(), histogram.getUnit(), count, rate, histogram.getMean(), histogram.getP50(),
+                    histogram.getP90(), histogram.getP99(), histogram.getP999(), histogram.getMax()));
+        }
+        try {
+            Path absolute = file.toAbsolutePath();
+            Files.createDirectories(absolute.getParent());
+            Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            Files.write(temp, out.toString().getBytes(StandardCharsets.UTF_8));
+            // Readers never see a half-written snapshot
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
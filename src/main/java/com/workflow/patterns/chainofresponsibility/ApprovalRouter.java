@@ -0,0 +1,203 @@
+package com.workflow.patterns.chainofresponsibility;
+
+import com.workflow.core.Task;
+import com.workflow.metrics.Histogram;
+import com.workflow.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Routes tasks to approvers through a dispatch table compiled once from a set of {@link RoutingRule}s.
+ * The table has one row per declared role (row 0 for rules that apply to any role) and one column per
+ * priority, so routing a task is a single array lookup instead of a walk down a handler chain.
+ * When several rules cover the same slot, the first declared one wins; conditional rules are tried in
+ * declaration order before falling through to the next unconditional rule.
+ * While {@link Metrics#ENABLED}, each handler is timed under {@code ApproverHandler.<class name>}.
+ */
+public class ApprovalRouter extends ApproverHandler {
+    private final ApproverHandler[] table;
+    private final Map<String, Integer> roleRows;
+    private final int width;
+    private final ApproverHandler fallback;
+    private final Map<ApproverHandler, ApproverHandler> timedHandlers = new IdentityHashMap<>();
+
+    private ApprovalRouter(List<RoutingRule> rules, ApproverHandler fallback) {
+        this.fallback = timed(fallback);
+        int maxPriority = 0;
+        roleRows = new HashMap<>();
+        for (RoutingRule rule : rules) {
+            maxPriority = Math.max(maxPriority, rule.getMaxPriority());
+            if (rule.getRole() != null && !roleRows.containsKey(rule.getRole())) {
+                roleRows.put(rule.getRole(), roleRows.size() + 1);
+            }
+        }
+        width = maxPriority + 1;
+        table = new ApproverHandler[(roleRows.size() + 1) * width];
+        compileRow(0, null, rules);
+        for (Map.Entry<String, Integer> entry : roleRows.entrySet()) {
+            compileRow(entry.getValue(), entry.getKey(), rules);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Routes by priority alone, using rules that apply to any role.
+     */
+    @Override
+    public void handle(Task task) {
+        route(task.getPriority(), 0).handle(task);
+    }
+
+    /**
+     * Routes by priority and the approving user's role.
+     */
+    public void handle(Task task, String role) {
+        Integer row = role == null ? null : roleRows.get(role);
+        route(task.getPriority(), row == null ? 0 : row).handle(task);
+    }
+
+    private ApproverHandler route(int priority, int row) {
+        if (priority < 0 || priority >= width) {
+            return fallback;
+        }
+        return table[row * width + priority];
+    }
+
+    private void compileRow(int row, String role, List<RoutingRule> rules) {
+        for (int priority = 0; priority < width; priority++) {
+            List<RoutingRule> guarded = new ArrayList<>();
+            ApproverHandler target = fallback;
+            for (RoutingRule rule : rules) {
+                boolean roleMatches = rule.getRole() == null || rule.getRole().equals(role);
+                if (!roleMatches || priority < rule.getMinPriority() || priority > rule.getMaxPriority()) {
+                    continue;
+                }
+                if (rule.getCondition() == null) {
+                    target = timed(rule.getHandler());
+                    break;
+                }
+                guarded.add(new RoutingRule(rule.getMinPriority(), rule.getMaxPriority(), rule.getRole(),
+                        rule.getCondition(), timed(rule.getHandler())));
+            }
+            table[row * width + priority] = guarded.isEmpty() ? target : new GuardedHandler(guarded, target);
+        }
+    }
+
+    /**
+     * Wraps a handler so its run time is recorded; one wrapper per handler instance.
+     */
+    private ApproverHandler timed(ApproverHandler handler) {
+        if (!Metrics.ENABLED) {
+            return handler;
+        }
+        return timedHandlers.computeIfAbsent(handler, TimedHandler::new);
+    }
+
+    private static final class TimedHandler extends ApproverHandler {
+        private final ApproverHandler delegate;
+        private final Histogram latency;
+
+        TimedHandler(ApproverHandler delegate) {
+            this.delegate = delegate;
+            this.latency = Metrics.latency("ApproverHandler." + delegate.getClass().getSimpleName());
+        }
+
+        @Override
+        public void handle(Task task) {
+            long start = System.nanoTime();
+            delegate.handle(task);
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Table slot that has conditional rules: evaluates them in order, then falls back to the slot's default.
+     */
+    private static final class GuardedHandler extends ApproverHandler {
+        private final Predicate<Task>[] conditions;
+        private final ApproverHandler[] handlers;
+        private final ApproverHandler otherwise;
+
+        GuardedHandler(List<RoutingRule> rules, ApproverHandler otherwise) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Predicate<Task>[] created = new Predicate[rules.size()];
+            conditions = created;
+            handlers = new ApproverHandler[rules.size()];
+            for (int i = 0; i < rules.size(); i++) {
+                conditions[i] = rules.get(i).getCondition();
+                handlers[i] = rules.get(i).getHandler();
+            }
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        public void handle(Task task) {
+            for (int i = 0; i < conditions.length; i++) {
+                if (conditions[i].test(task)) {
+                    handlers[i].handle(task);
+                    return;
+                }
+            }
+            otherwise.handle(task);
+        }
+    }
+
+    /**
+     * Collects routing rules and compiles them into an {@link ApprovalRouter}.
+     */
+    public static class Builder {
+        private final List<RoutingRule> rules = new ArrayList<>();
+        private ApproverHandler fallback = new NoApproverHandler();
+
+        public Builder route(int priority, ApproverHandler handler) {
+            return rule(new RoutingRule(priority, priority, null, null, handler));
+        }
+
+        public Builder route(int minPriority, int maxPriority, ApproverHandler handler) {
+            return rule(new RoutingRule(minPriority, maxPriority, null, null, handler));
+        }
+
+        public Builder route(int minPriority, int maxPriority, String role, ApproverHandler handler) {
+            return rule(new RoutingRule(minPriority, maxPriority, role, null, handler));
+        }
+
+        public Builder routeWhen(int minPriority, int maxPriority, String role, Predicate<Task> condition,
+                                 ApproverHandler handler) {
+            if (condition == null) {
+                throw new IllegalArgumentException("Condition cannot be null");
+            }
+            return rule(new RoutingRule(minPriority, maxPriority, role, condition, handler));
+        }
+
+        public Builder rule(RoutingRule rule) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Rule cannot be null");
+            }
+            rules.add(rule);
+            return this;
+        }
+
+        /**
+         * Sets the handler used when no rule matches; defaults to {@link NoApproverHandler}.
+         */
+        public Builder fallback(ApproverHandler fallback) {
+            if (fallback == null) {
+                throw new IllegalArgumentException("Fallback handler cannot be null");
+            }
+            this.fallback = fallback;
+            return this;
+        }
+
+        public ApprovalRouter build() {
+            return new ApprovalRouter(new ArrayList<>(rules), fallback);
+        }
+    }
+}
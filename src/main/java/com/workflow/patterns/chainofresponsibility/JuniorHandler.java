@@ -1,21 +1,27 @@
 package com.workflow.patterns.chainofresponsibility;
 
 import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
 
 /**
  * Handles low-priority tasks (priority 1).
  */
 public class JuniorHandler extends ApproverHandler {
+    private static final Logger LOG = Log.getLogger(JuniorHandler.class);
+
     @Override
     public void handle(Task task) {
         if (task.getPriority() == 1) {
-            System.out.println("Junior Handler processing task: " + task.getId());
-            task.setStatus("Approved by Junior");
+            LOG.info("Junior Handler processing task: {}", task.getId());
+            if (!task.approve("Junior")) {
+                LOG.warn("Task {} cannot be approved from state {}", task.getId(), task.getState());
+            }
         } else if (next != null) {
             next.handle(task);
         } else {
-            System.out.println("No handler available for task: " + task.getId());
-            task.setStatus("Rejected: No suitable approver");
+            LOG.info("No handler available for task: {}", task.getId());
+            task.reject("No suitable approver");
         }
     }
 }
\ No newline at end of file
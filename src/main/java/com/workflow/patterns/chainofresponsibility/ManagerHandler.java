@@ -1,21 +1,27 @@
 package com.workflow.patterns.chainofresponsibility;
 
 import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
 
 /**
  * Handles medium-priority tasks (priority 2).
  */
 public class ManagerHandler extends ApproverHandler {
+    private static final Logger LOG = Log.getLogger(ManagerHandler.class);
+
     @Override
     public void handle(Task task) {
         if (task.getPriority() == 2) {
-            System.out.println("Manager Handler processing task: " + task.getId());
-            task.setStatus("Approved by Manager");
+            LOG.info("Manager Handler processing task: {}", task.getId());
+            if (!task.approve("Manager")) {
+                LOG.warn("Task {} cannot be approved from state {}", task.getId(), task.getState());
+            }
         } else if (next != null) {
             next.handle(task);
         } else {
-            System.out.println("No handler available for task: " + task.getId());
-            task.setStatus("Rejected: No suitable approver");
+            LOG.info("No handler available for task: {}", task.getId());
+            task.reject("No suitable approver");
         }
     }
 }
\ No newline at end of file
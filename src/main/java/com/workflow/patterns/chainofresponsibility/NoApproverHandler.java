@@ -0,0 +1,18 @@
+package com.workflow.patterns.chainofresponsibility;
+
+import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+/**
+ * Terminal handler for tasks that no approver is configured to handle.
+ */
+public class NoApproverHandler extends ApproverHandler {
+    private static final Logger LOG = Log.getLogger(NoApproverHandler.class);
+
+    @Override
+    public void handle(Task task) {
+        LOG.info("No handler available for task: {}", task.getId());
+        task.reject("No suitable approver");
+    }
+}
@@ -0,0 +1,57 @@
+package com.workflow.patterns.chainofresponsibility;
+
+import com.workflow.core.Task;
+
+import java.util.function.Predicate;
+
+/**
+ * Declares which handler approves tasks in a priority range, optionally limited to a role and a custom condition.
+ */
+public class RoutingRule {
+    private final int minPriority;
+    private final int maxPriority;
+    private final String role;
+    private final Predicate<Task> condition;
+    private final ApproverHandler handler;
+
+    public RoutingRule(int minPriority, int maxPriority, String role, Predicate<Task> condition,
+                       ApproverHandler handler) {
+        if (minPriority < 0 || maxPriority < minPriority) {
+            throw new IllegalArgumentException("Invalid priority range: " + minPriority + "-" + maxPriority);
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler cannot be null");
+        }
+        this.minPriority = minPriority;
+        this.maxPriority = maxPriority;
+        this.role = role;
+        this.condition = condition;
+        this.handler = handler;
+    }
+
+    public int getMinPriority() {
+        return minPriority;
+    }
+
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    /**
+     * Returns the role this rule is limited to, or null if it applies to any role.
+     */
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * Returns the extra condition, or null if the rule always matches its range.
+     */
+    public Predicate<Task> getCondition() {
+        return condition;
+    }
+
+    public ApproverHandler getHandler() {
+        return handler;
+    }
+}
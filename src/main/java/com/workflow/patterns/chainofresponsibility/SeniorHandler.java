@@ -1,19 +1,25 @@
 package com.workflow.patterns.chainofresponsibility;
 
 import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
 
 /**
  * Handles high-priority tasks (priority 3).
  */
 public class SeniorHandler extends ApproverHandler {
+    private static final Logger LOG = Log.getLogger(SeniorHandler.class);
+
     @Override
     public void handle(Task task) {
         if (task.getPriority() == 3) {
-            System.out.println("Senior Handler processing task: " + task.getId());
-            task.setStatus("Approved by Senior");
+            LOG.info("Senior Handler processing task: {}", task.getId());
+            if (!task.approve("Senior")) {
+                LOG.warn("Task {} cannot be approved from state {}", task.getId(), task.getState());
+            }
         } else {
-            System.out.println("No handler available for task: " + task.getId());
-            task.setStatus("Rejected: No suitable approver");
+            LOG.info("No handler available for task: {}", task.getId());
+            task.reject("No suitable approver");
         }
     }
 }
\ No newline at end of file
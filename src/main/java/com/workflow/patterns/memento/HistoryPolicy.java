@@ -0,0 +1,105 @@
+package com.workflow.patterns.memento;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Configures how many snapshots each task keeps and what happens to them once the task is terminal.
+ */
+public class HistoryPolicy {
+    public static final int DEFAULT_DEPTH = 16;
+    private static final String SPILL_SUFFIX = ".history";
+
+    /**
+     * What to do with a task's snapshots once it is approved or rejected.
+     */
+    public enum Terminal {
+        /** Keep snapshots in memory so the task can still be rolled back. */
+        RETAIN,
+        /** Discard snapshots; the task can no longer be rolled back. */
+        DROP,
+        /** Move snapshots to a file in the spill directory and reload them on rollback. */
+        SPILL
+    }
+
+    private final int defaultDepth;
+    private final int[] depthByPriority;
+    private final Terminal terminal;
+    private final Path spillDirectory;
+
+    public HistoryPolicy() {
+        this(DEFAULT_DEPTH, new int[0], Terminal.RETAIN, null);
+    }
+
+    /**
+     * @param depthByPriority depth overrides indexed by priority; zero entries fall back to {@code defaultDepth}
+     */
+    public HistoryPolicy(int defaultDepth, int[] depthByPriority, Terminal terminal, Path spillDirectory) {
+        if (defaultDepth < 1) {
+            throw new IllegalArgumentException("History depth must be positive");
+        }
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal policy cannot be null");
+        }
+        if (terminal == Terminal.SPILL && spillDirectory == null) {
+            throw new IllegalArgumentException("Spill directory is required for SPILL");
+        }
+        this.defaultDepth = defaultDepth;
+        this.depthByPriority = depthByPriority == null ? new int[0]
+                : Arrays.copyOf(depthByPriority, depthByPriority.length);
+        this.terminal = terminal;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public int depthFor(int priority) {
+        if (priority >= 0 && priority < depthByPriority.length && depthByPriority[priority] > 0) {
+            return depthByPriority[priority];
+        }
+        return defaultDepth;
+    }
+
+    public MementoCaretaker newCaretaker(int priority) {
+        return new MementoCaretaker(depthFor(priority));
+    }
+
+    /**
+     * Applies the terminal policy to a task's caretaker.
+     */
+    public void retire(String taskId, MementoCaretaker caretaker) {
+        switch (terminal) {
+            case DROP:
+                caretaker.clear();
+                break;
+            case SPILL:
+                caretaker.spillTo(spillDirectory.resolve(taskId + SPILL_SUFFIX));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Deletes the history files an earlier run left in the spill directory, whose caretakers are gone.
+     * Call before recovering the store.
+     */
+    public void clearSpilled() {
+        if (spillDirectory == null || !Files.isDirectory(spillDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, "*" + SPILL_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clear spill directory " + spillDirectory, e);
+        }
+    }
+
+    public Terminal getTerminal() {
+        return terminal;
+    }
+}
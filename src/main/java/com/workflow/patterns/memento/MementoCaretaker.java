@@ -1,27 +1,278 @@
 package com.workflow.patterns.memento;
 
-import java.util.Stack;
+import com.workflow.core.StateWord;
+import com.workflow.core.TaskState;
+import com.workflow.metrics.Histogram;
+import com.workflow.metrics.Metrics;
+import com.workflow.patterns.observer.TaskObserver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Caretaker for managing task state snapshots.
+ * Snapshots are kept as packed state words in a fixed-capacity ring buffer: once full, saving a new
+ * snapshot overwrites the oldest one. The buffer is allocated on first save and grows up to the capacity.
+ * A decided task's subscribers are parked here too, so they live exactly as long as the history that could
+ * reopen the task. Not thread-safe; callers hold the task's stripe lock.
  */
 public class MementoCaretaker {
-    private Stack<TaskMemento> mementos = new Stack<>();
+    private static final int INITIAL_SLOTS = 2;
+    private static final Histogram SAVE_LATENCY = Metrics.latency("MementoCaretaker.save");
+    private static final Histogram RESTORE_LATENCY = Metrics.latency("MementoCaretaker.restore");
+    private static final Histogram DEPTH = Metrics.sizes("MementoCaretaker.depth");
+
+    private final int capacity;
+    private long[] ring;
+    private int top;
+    private int size;
+    private Path spillFile;
+    private Set<TaskObserver> parkedSubscribers;
+
+    public MementoCaretaker() {
+        this(HistoryPolicy.DEFAULT_DEPTH);
+    }
+
+    public MementoCaretaker(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
 
     public void save(TaskOriginator originator) {
         if (originator == null) {
             throw new IllegalArgumentException("Originator cannot be null");
         }
-        mementos.push(originator.save());
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        push(originator.save());
+        if (Metrics.ENABLED) {
+            SAVE_LATENCY.recordSince(start);
+            DEPTH.record(size);
+        }
     }
 
     public void restore(TaskOriginator originator) {
+        restore(originator, 1);
+    }
+
+    /**
+     * Rolls back {@code steps} snapshots at once, discarding the newer ones.
+     */
+    public void restore(TaskOriginator originator, int steps) {
         if (originator == null) {
             throw new IllegalArgumentException("Originator cannot be null");
         }
-        if (mementos.isEmpty()) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Steps must be positive");
+        }
+        load();
+        if (size == 0) {
             throw new IllegalStateException("No snapshots to restore");
         }
-        originator.restore(mementos.pop());
+        if (steps > size) {
+            throw new IllegalStateException("Only " + size + " snapshot(s) available");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        long word = 0;
+        for (int i = 0; i < steps; i++) {
+            word = pop();
+        }
+        originator.restore(new TaskMemento(word));
+        if (Metrics.ENABLED) {
+            RESTORE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Pushes an existing snapshot, e.g. one recovered from persistent storage.
+     */
+    public void push(TaskMemento memento) {
+        if (memento == null) {
+            throw new IllegalArgumentException("Memento cannot be null");
+        }
+        load();
+        pushWord(memento.getStateWord());
+    }
+
+    /**
+     * Returns the saved snapshots, oldest first.
+     */
+    public List<TaskMemento> history() {
+        List<TaskMemento> history = new ArrayList<>(size);
+        if (spillFile != null) {
+            for (long word : readSpilled(spillFile)) {
+                history.add(new TaskMemento(word));
+            }
+            return history;
+        }
+        for (int i = 0; i < size; i++) {
+            history.add(new TaskMemento(ring[indexFromOldest(i)]));
+        }
+        return history;
+    }
+
+    public int size() {
+        load();
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Keeps the subscribers retired when the task was decided, for {@link #takeSubscribers} on rollback.
+     * They stay in memory when the snapshots are spilled.
+     */
+    public void parkSubscribers(Set<TaskObserver> subscribers) {
+        parkedSubscribers = subscribers;
+    }
+
+    /**
+     * Returns and forgets the parked subscribers, or null if there are none.
+     */
+    public Set<TaskObserver> takeSubscribers() {
+        Set<TaskObserver> subscribers = parkedSubscribers;
+        parkedSubscribers = null;
+        return subscribers;
+    }
+
+    /**
+     * Discards all snapshots, including any spilled to disk, and the parked subscribers.
+     */
+    public void clear() {
+        ring = null;
+        parkedSubscribers = null;
+        top = 0;
+        size = 0;
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete " + spillFile, e);
+            }
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Moves the snapshots to a file and frees the in-memory buffer. They are read back on next access.
+     * Each is written as its state code, approver and progress, since interned codes are not stable across runs;
+     * mementos are taken of pending tasks, so they hold no reason.
+     */
+    public void spillTo(Path file) {
+        load();
+        if (size == 0) {
+            clear();
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    writeWord(out, ring[indexFromOldest(i)]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill history to " + file, e);
+        }
+        ring = null;
+        top = 0;
+        size = 0;
+        spillFile = file;
+    }
+
+    private void load() {
+        if (spillFile == null) {
+            return;
+        }
+        Path file = spillFile;
+        spillFile = null;
+        for (long word : readSpilled(file)) {
+            pushWord(word);
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete " + file, e);
+        }
+    }
+
+    private static long[] readSpilled(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = readWord(in);
+            }
+            return words;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load spilled history from " + file, e);
+        }
+    }
+
+    private static void writeWord(DataOutputStream out, long word) throws IOException {
+        String approver = StateWord.approver(word);
+        out.writeByte(StateWord.state(word).code());
+        if (approver == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] encoded = approver.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        out.writeInt(StateWord.progress(word));
+    }
+
+    private static long readWord(DataInputStream in) throws IOException {
+        TaskState state = TaskState.fromCode(in.readUnsignedByte());
+        int length = in.readInt();
+        String approver = null;
+        if (length >= 0) {
+            byte[] encoded = new byte[length];
+            in.readFully(encoded);
+            approver = new String(encoded, StandardCharsets.UTF_8);
+        }
+        int progress = in.readInt();
+        return state == TaskState.PENDING ? StateWord.pending(progress) : StateWord.pack(state, approver);
+    }
+
+    private void pushWord(long word) {
+        if (ring == null) {
+            ring = new long[Math.min(INITIAL_SLOTS, capacity)];
+        } else if (size == ring.length && ring.length < capacity) {
+            long[] grown = new long[Math.min(ring.length * 2, capacity)];
+            for (int i = 0; i < size; i++) {
+                grown[i] = ring[indexFromOldest(i)];
+            }
+            ring = grown;
+            top = size;
+        }
+        ring[top] = word;
+        top = (top + 1) % ring.length;
+        if (size < ring.length) {
+            size++;
+        }
+    }
+
+    private long pop() {
+        top = (top - 1 + ring.length) % ring.length;
+        size--;
+        return ring[top];
+    }
+
+    private int indexFromOldest(int offset) {
+        return (top - size + offset + ring.length) % ring.length;
     }
-}
\ No newline at end of file
+}
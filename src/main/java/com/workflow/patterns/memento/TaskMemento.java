@@ -1,19 +1,28 @@
 package com.workflow.patterns.memento;
 
+import com.workflow.core.StateWord;
+import com.workflow.core.TaskState;
+
 /**
- * Memento to store task state (status).
+ * Memento to store task state (packed state word).
  */
 public class TaskMemento {
-    private final String status;
+    private final long stateWord;
+
+    public TaskMemento(long stateWord) {
+        StateWord.state(stateWord);
+        this.stateWord = stateWord;
+    }
+
+    public long getStateWord() {
+        return stateWord;
+    }
 
-    public TaskMemento(String status) {
-        if (status == null || status.trim().isEmpty()) {
-            throw new IllegalArgumentException("Status cannot be empty");
-        }
-        this.status = status;
+    public TaskState getState() {
+        return StateWord.state(stateWord);
     }
 
     public String getStatus() {
-        return status;
+        return StateWord.describe(stateWord);
     }
-}
\ No newline at end of file
+}
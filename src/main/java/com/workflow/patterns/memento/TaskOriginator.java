@@ -16,13 +16,13 @@ public class TaskOriginator {
     }
 
     public TaskMemento save() {
-        return new TaskMemento(task.getStatus());
+        return new TaskMemento(task.getStateWord());
     }
 
     public void restore(TaskMemento memento) {
         if (memento == null) {
             throw new IllegalArgumentException("Memento cannot be null");
         }
-        task.setStatus(memento.getStatus());
+        task.restoreStateWord(memento.getStateWord());
     }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package com.workflow.patterns.observer;
+
+import com.workflow.concurrent.RingBuffer;
+import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers events on a small pool of dispatcher threads so slow observers never stall the caller.
+ * Each dispatcher thread owns one ring buffer; a task always hashes to the same buffer, so its
+ * events are delivered in order. Drained batches are grouped per observer before delivery. An idle
+ * dispatcher thread parks until a producer queues an event for it.
+ */
+public class AsyncEventDispatcher implements EventDispatcher {
+    private static final Logger LOG = Log.getLogger(AsyncEventDispatcher.class);
+    private static final long FULL_PARK_NANOS = 10_000L;
+
+    private final RingBuffer<PendingEvent>[] buffers;
+    private final Thread[] workers;
+    /** 1 while a dispatcher thread is about to park or parked, so producers know to wake it. */
+    private final AtomicIntegerArray idle;
+    private final int batchSize;
+    private final BackpressurePolicy policy;
+    private final ConcurrentMap<Long, PendingEvent> pendingByTask = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder totalLagNanos = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    public AsyncEventDispatcher(int capacity, int threads, int batchSize, BackpressurePolicy policy) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Dispatcher thread count must be positive");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Backpressure policy cannot be null");
+        }
+        this.batchSize = batchSize;
+        this.policy = policy;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        RingBuffer<PendingEvent>[] created = new RingBuffer[threads];
+        buffers = created;
+        workers = new Thread[threads];
+        idle = new AtomicIntegerArray(threads);
+        int perThread = Math.max(2, capacity / threads);
+        for (int i = 0; i < threads; i++) {
+            buffers[i] = new RingBuffer<>(perThread);
+            final int index = i;
+            workers[i] = new Thread(() -> drainLoop(index), "event-dispatcher-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    @Override
+    public void dispatch(Task task, List<TaskObserver> observers, String event) {
+        if (!running) {
+            throw new IllegalStateException("Dispatcher has been shut down");
+        }
+        long taskId = task.getNumericId();
+        if (policy == BackpressurePolicy.COALESCE) {
+            PendingEvent existing = pendingByTask.get(taskId);
+            if (existing != null && existing.replace(event)) {
+                coalesced.increment();
+                return;
+            }
+        }
+        PendingEvent pending = new PendingEvent(taskId, observers, event, System.nanoTime());
+        if (policy == BackpressurePolicy.COALESCE) {
+            pendingByTask.put(taskId, pending);
+        }
+        int index = indexFor(taskId);
+        RingBuffer<PendingEvent> buffer = buffers[index];
+        while (!buffer.offer(pending)) {
+            if (policy == BackpressurePolicy.DROP_OLDEST) {
+                PendingEvent oldest = buffer.poll();
+                if (oldest != null) {
+                    oldest.take();
+                    dropped.increment();
+                }
+            } else if (!running) {
+                // The dispatcher threads are gone and will never make room; the caller may hold the task's lock
+                pending.take();
+                pendingByTask.remove(taskId, pending);
+                dropped.increment();
+                LOG.warn("Dropped event for task {}: dispatcher has been shut down", task.getId());
+                return;
+            } else {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        enqueued.increment();
+        if (idle.get(index) != 0) {
+            LockSupport.unpark(workers[index]);
+        }
+    }
+
+    /**
+     * Stops accepting events, delivers everything already queued and waits for the dispatcher threads.
+     * A producer still waiting for room under BLOCK or COALESCE drops its event instead.
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (RingBuffer<PendingEvent> buffer : buffers) {
+            depth += buffer.size();
+        }
+        return depth;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getMaxDeliveryLagNanos() {
+        return maxLagNanos.get();
+    }
+
+    public long getAverageDeliveryLagNanos() {
+        long count = delivered.sum();
+        return count == 0 ? 0 : totalLagNanos.sum() / count;
+    }
+
+    private int indexFor(long taskId) {
+        long h = taskId * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 33) % buffers.length);
+    }
+
+    private void drainLoop(int index) {
+        RingBuffer<PendingEvent> buffer = buffers[index];
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            PendingEvent next;
+            while (batch.size() < batchSize && (next = buffer.poll()) != null) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                batch.clear();
+            } else if (!running) {
+                return;
+            } else {
+                // Announce the park before the last look at the buffer, so a producer either sees the flag
+                // or its event is seen here
+                idle.set(index, 1);
+                if (buffer.size() == 0 && running) {
+                    LockSupport.park(this);
+                }
+                idle.set(index, 0);
+            }
+        }
+    }
+
+    private void deliver(List<PendingEvent> batch) {
+        Map<TaskObserver, List<String>> byObserver = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        int count = 0;
+        for (PendingEvent pending : batch) {
+            String event = pending.take();
+            if (policy == BackpressurePolicy.COALESCE) {
+                pendingByTask.remove(pending.taskId, pending);
+            }
+            if (event == null) {
+                continue;
+            }
+            for (TaskObserver observer : pending.observers) {
+                byObserver.computeIfAbsent(observer, o -> new ArrayList<>()).add(event);
+            }
+            long lag = now - pending.enqueuedNanos;
+            totalLagNanos.add(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+            count++;
+        }
+        for (Map.Entry<TaskObserver, List<String>> entry : byObserver.entrySet()) {
+            try {
+                entry.getKey().updateBatch(entry.getValue());
+            } catch (RuntimeException e) {
+                LOG.error("Observer failed to handle events: {}", e.getMessage());
+            }
+        }
+        delivered.add(count);
+    }
+
+    /**
+     * A queued event. Under COALESCE, producers may swap in a newer event until a dispatcher takes it.
+     */
+    private static final class PendingEvent {
+        private final long taskId;
+        private final List<TaskObserver> observers;
+        private final long enqueuedNanos;
+        private String event;
+        private boolean taken;
+
+        PendingEvent(long taskId, List<TaskObserver> observers, String event, long enqueuedNanos) {
+            this.taskId = taskId;
+            this.observers = observers;
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        synchronized boolean replace(String newer) {
+            if (taken) {
+                return false;
+            }
+            event = newer;
+            return true;
+        }
+
+        synchronized String take() {
+            if (taken) {
+                return null;
+            }
+            taken = true;
+            return event;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.workflow.patterns.observer;
+
+/**
+ * What an asynchronous dispatcher does when its event queue is full.
+ */
+public enum BackpressurePolicy {
+    /** Wait until the dispatcher threads free up space. */
+    BLOCK,
+    /** Discard the oldest queued event to make room. */
+    DROP_OLDEST,
+    /** Replace a still-queued event for the same task instead of queueing another; blocks when full. */
+    COALESCE
+}
@@ -0,0 +1,12 @@
+package com.workflow.patterns.observer;
+
+import com.workflow.core.Task;
+
+import java.util.List;
+
+/**
+ * Strategy for delivering a task's status events to its observers.
+ */
+public interface EventDispatcher {
+    void dispatch(Task task, List<TaskObserver> observers, String event);
+}
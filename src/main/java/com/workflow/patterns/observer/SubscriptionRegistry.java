@@ -0,0 +1,207 @@
+package com.workflow.patterns.observer;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Central table of who is notified about which tasks, replacing per-task observer lists.
+ * An event is resolved with one hash lookup per {@link Topic.Kind}, so the cost depends on the number of
+ * matching subscribers rather than on how many tasks or subscriptions exist. Each user is represented by
+ * one shared {@link UserObserver}, and a task's own subscriptions are dropped once it is decided or evicted from
+ * the store.
+ */
+public class SubscriptionRegistry {
+    private final ConcurrentMap<String, UserObserver> userObservers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<TaskObserver>> byTask = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<TaskObserver>> byCreator = new ConcurrentHashMap<>();
+    private final List<Set<TaskObserver>> byPriority = new ArrayList<>();
+    private final Map<TaskState, Set<TaskObserver>> byTransition = new EnumMap<>(TaskState.class);
+    private final Set<TaskObserver> wildcard = ConcurrentHashMap.newKeySet();
+
+    public SubscriptionRegistry() {
+        for (int priority = 0; priority <= 3; priority++) {
+            byPriority.add(ConcurrentHashMap.newKeySet());
+        }
+        for (TaskState state : TaskState.values()) {
+            byTransition.put(state, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Returns the single observer shared by all of a user's subscriptions.
+     */
+    public UserObserver observerFor(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        return userObservers.computeIfAbsent(user.getUsername(), name -> new UserObserver(user));
+    }
+
+    public void subscribe(Topic topic, User user) {
+        subscribe(topic, observerFor(user));
+    }
+
+    public void subscribe(Topic topic, TaskObserver observer) {
+        if (topic == null || observer == null) {
+            throw new IllegalArgumentException("Topic and observer cannot be null");
+        }
+        switch (topic.getKind()) {
+            case TASK:
+                add(byTask, (Long) topic.getKey(), observer);
+                break;
+            case CREATOR:
+                add(byCreator, (String) topic.getKey(), observer);
+                break;
+            case PRIORITY:
+                byPriority.get((Integer) topic.getKey()).add(observer);
+                break;
+            case TRANSITION:
+                byTransition.get((TaskState) topic.getKey()).add(observer);
+                break;
+            default:
+                wildcard.add(observer);
+        }
+    }
+
+    /**
+     * Removes a user's subscription to a topic. Returns false if there was none.
+     */
+    public boolean unsubscribe(Topic topic, User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        UserObserver observer = userObservers.get(user.getUsername());
+        return observer != null && unsubscribe(topic, observer);
+    }
+
+    public boolean unsubscribe(Topic topic, TaskObserver observer) {
+        if (topic == null || observer == null) {
+            throw new IllegalArgumentException("Topic and observer cannot be null");
+        }
+        switch (topic.getKind()) {
+            case TASK:
+                return remove(byTask, (Long) topic.getKey(), observer);
+            case CREATOR:
+                return remove(byCreator, (String) topic.getKey(), observer);
+            case PRIORITY:
+                return byPriority.get((Integer) topic.getKey()).remove(observer);
+            case TRANSITION:
+                return byTransition.get((TaskState) topic.getKey()).remove(observer);
+            default:
+                return wildcard.remove(observer);
+        }
+    }
+
+    /**
+     * Returns everyone to notify about the task's latest change: subscribers of the task, its creator,
+     * its priority, its current state and the wildcard, plus {@code direct}, each observer once.
+     */
+    public List<TaskObserver> resolve(Task task, Collection<TaskObserver> direct) {
+        List<Collection<TaskObserver>> matched = new ArrayList<>(6);
+        addIfNotEmpty(matched, byTask.get(task.getNumericId()));
+        if (task.getCreator() != null) {
+            addIfNotEmpty(matched, byCreator.get(task.getCreator()));
+        }
+        addIfNotEmpty(matched, byPriority.get(task.getPriority()));
+        addIfNotEmpty(matched, byTransition.get(task.getState()));
+        addIfNotEmpty(matched, wildcard);
+        addIfNotEmpty(matched, direct);
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (matched.size() == 1) {
+            return new ArrayList<>(matched.get(0));
+        }
+        Set<TaskObserver> union = new LinkedHashSet<>();
+        for (Collection<TaskObserver> observers : matched) {
+            union.addAll(observers);
+        }
+        return new ArrayList<>(union);
+    }
+
+    /**
+     * Drops the subscriptions made to one task and returns their observers, or null if there were none.
+     * Called when the task is decided or evicted from the store.
+     */
+    public Set<TaskObserver> retire(long taskId) {
+        return byTask.remove(taskId);
+    }
+
+    /**
+     * Subscribes observers returned by {@link #retire} to the task again, e.g. when a rollback reopens it.
+     */
+    public void restore(long taskId, Collection<TaskObserver> observers) {
+        if (observers == null) {
+            return;
+        }
+        for (TaskObserver observer : observers) {
+            add(byTask, taskId, observer);
+        }
+    }
+
+    /**
+     * Passes every subscription held by a user's shared observer to {@code action} as topic and username,
+     * e.g. to snapshot them. Other observers are skipped since they cannot be recreated.
+     */
+    public void forEachUserSubscription(BiConsumer<Topic, String> action) {
+        byTask.forEach((taskId, observers) -> forEachUser(Topic.task(taskId), observers, action));
+        byCreator.forEach((creator, observers) -> forEachUser(Topic.creator(creator), observers, action));
+        for (int priority = 1; priority < byPriority.size(); priority++) {
+            forEachUser(Topic.priority(priority), byPriority.get(priority), action);
+        }
+        byTransition.forEach((state, observers) -> forEachUser(Topic.transition(state), observers, action));
+        forEachUser(Topic.all(), wildcard, action);
+    }
+
+    /**
+     * Returns the number of tasks that currently have their own subscribers.
+     */
+    public int getTaskTopicCount() {
+        return byTask.size();
+    }
+
+    private static <K> void add(ConcurrentMap<K, Set<TaskObserver>> map, K key, TaskObserver observer) {
+        // compute() serializes with remove() below, so an add can never land in a set that is being dropped
+        map.compute(key, (k, observers) -> {
+            Set<TaskObserver> set = observers != null ? observers : ConcurrentHashMap.newKeySet();
+            set.add(observer);
+            return set;
+        });
+    }
+
+    private static <K> boolean remove(ConcurrentMap<K, Set<TaskObserver>> map, K key, TaskObserver observer) {
+        boolean[] removed = new boolean[1];
+        map.computeIfPresent(key, (k, observers) -> {
+            removed[0] = observers.remove(observer);
+            return observers.isEmpty() ? null : observers;
+        });
+        return removed[0];
+    }
+
+    private static void forEachUser(Topic topic, Set<TaskObserver> observers, BiConsumer<Topic, String> action) {
+        for (TaskObserver observer : observers) {
+            if (observer instanceof UserObserver) {
+                action.accept(topic, ((UserObserver) observer).getUser().getUsername());
+            }
+        }
+    }
+
+    private static void addIfNotEmpty(List<Collection<TaskObserver>> matched, Collection<TaskObserver> observers) {
+        if (observers != null && !observers.isEmpty()) {
+            matched.add(observers);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.workflow.patterns.observer;
+
+import com.workflow.core.Task;
+
+import java.util.List;
+
+/**
+ * Delivers events on the caller's thread, one observer after another.
+ */
+public class SynchronousEventDispatcher implements EventDispatcher {
+    public static final SynchronousEventDispatcher INSTANCE = new SynchronousEventDispatcher();
+
+    @Override
+    public void dispatch(Task task, List<TaskObserver> observers, String event) {
+        for (TaskObserver observer : observers) {
+            observer.update(event);
+        }
+    }
+}
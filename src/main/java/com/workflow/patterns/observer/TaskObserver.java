@@ -1,8 +1,19 @@
 package com.workflow.patterns.observer;
 
+import java.util.List;
+
 /**
  * Interface for Observer pattern to receive task updates.
  */
 public interface TaskObserver {
     void update(String event);
-}
\ No newline at end of file
+
+    /**
+     * Receives several events at once from an asynchronous dispatcher. Override to handle them in one go.
+     */
+    default void updateBatch(List<String> events) {
+        for (String event : events) {
+            update(event);
+        }
+    }
+}
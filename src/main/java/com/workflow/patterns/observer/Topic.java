@@ -0,0 +1,94 @@
+package com.workflow.patterns.observer;
+
+import com.workflow.core.TaskState;
+
+import java.util.Objects;
+
+/**
+ * What a {@link SubscriptionRegistry} subscription listens to: one task, every task created by a user,
+ * every task of a priority, every transition into a state, or everything.
+ */
+public final class Topic {
+    /**
+     * The kinds of topic, in the order the registry resolves them.
+     */
+    public enum Kind {
+        TASK,
+        CREATOR,
+        PRIORITY,
+        TRANSITION,
+        ALL
+    }
+
+    private static final Topic ALL = new Topic(Kind.ALL, null);
+
+    private final Kind kind;
+    private final Object key;
+
+    private Topic(Kind kind, Object key) {
+        this.kind = kind;
+        this.key = key;
+    }
+
+    public static Topic task(long taskId) {
+        return new Topic(Kind.TASK, taskId);
+    }
+
+    public static Topic creator(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username cannot be empty");
+        }
+        return new Topic(Kind.CREATOR, username);
+    }
+
+    public static Topic priority(int priority) {
+        if (priority < 1 || priority > 3) {
+            throw new IllegalArgumentException("Priority must be between 1 and 3");
+        }
+        return new Topic(Kind.PRIORITY, priority);
+    }
+
+    public static Topic transition(TaskState target) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target state cannot be null");
+        }
+        return new Topic(Kind.TRANSITION, target);
+    }
+
+    public static Topic all() {
+        return ALL;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the task ID, username, priority or state this topic is keyed by, or null for {@link Kind#ALL}.
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Topic)) {
+            return false;
+        }
+        Topic other = (Topic) o;
+        return kind == other.kind && Objects.equals(key, other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * kind.hashCode() + Objects.hashCode(key);
+    }
+
+    @Override
+    public String toString() {
+        return key == null ? kind.name().toLowerCase() : kind.name().toLowerCase() + ":" + key;
+    }
+}
@@ -1,11 +1,15 @@
 package com.workflow.patterns.observer;
 
 import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
 
 /**
  * Observer for users to receive task notifications.
  */
 public class UserObserver implements TaskObserver {
+    private static final Logger LOG = Log.getLogger(UserObserver.class);
+
     private User user;
 
     public UserObserver(User user) {
@@ -15,8 +19,12 @@ public class UserObserver implements TaskObserver {
         this.user = user;
     }
 
+    public User getUser() {
+        return user;
+    }
+
     @Override
     public void update(String event) {
-        System.out.println("Notification for " + user.getUsername() + " (" + user.getRole() + "): " + event);
+        LOG.info("Notification for {} ({}): {}", user.getUsername(), user.getRole(), event);
     }
 }
\ No newline at end of file
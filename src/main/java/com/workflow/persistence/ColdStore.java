@@ -0,0 +1,570 @@
+package com.workflow.persistence;
+
+import com.workflow.core.Task;
+import com.workflow.services.TaskArchive;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed on-disk {@link TaskArchive}. Each write adds an immutable run file holding its tasks in ID order,
+ * in Deflate-compressed blocks of up to {@value #BLOCK_TASKS} records, followed by a footer with each block's
+ * first ID and position and a Bloom filter over the run's IDs. Runs are memory-mapped and only the block
+ * positions are copied onto the heap, a fraction of a byte per task, so a lookup checks each run's ID range and
+ * filter, newest first, and inflates a single block.
+ * Whenever the newest {@value #MERGE_FANOUT} runs are of similar size they are merged into one, keeping the
+ * number of runs logarithmic in the number of tasks; the newest copy of a task wins.
+ */
+public class ColdStore implements TaskArchive {
+    static final int MAGIC = 0x57464353; // "WFCS"
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 8;
+    /** Footer offset and magic. */
+    private static final int TRAILER_BYTES = 12;
+    private static final int BLOCK_TASKS = 32;
+    private static final int BLOOM_BITS_PER_TASK = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final int MERGE_FANOUT = 8;
+    private static final long MAX_RUN_BYTES = 1L << 30;
+    private static final String RUN_PREFIX = "run-";
+    private static final String RUN_SUFFIX = ".cold";
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Creating an inflater allocates native zlib state, which costs more than inflating one block. */
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final Path directory;
+    private volatile Run[] runs; // oldest first
+    private long nextRun;
+
+    private ColdStore(Path directory, Run[] runs, long nextRun) {
+        this.directory = directory;
+        this.runs = runs;
+        this.nextRun = nextRun;
+    }
+
+    /**
+     * Opens the store kept in a directory, creating it if needed.
+     */
+    public static ColdStore open(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, RUN_PREFIX + "*")) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(TEMP_SUFFIX)) {
+                        // Left behind by a write or merge that did not finish
+                        Files.delete(file);
+                    } else if (name.endsWith(RUN_SUFFIX)) {
+                        files.add(file);
+                    }
+                }
+            }
+            files.sort(Comparator.comparingLong(ColdStore::runNumber));
+            Run[] runs = new Run[files.size()];
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = Run.open(files.get(i));
+            }
+            long nextRun = files.isEmpty() ? 1 : runNumber(files.get(files.size() - 1)) + 1;
+            return new ColdStore(directory, runs, nextRun);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cold store " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(List<Task> tasks) {
+        if (tasks == null) {
+            throw new IllegalArgumentException("Tasks cannot be null");
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        // Stable, so of two copies of a task the one given last stays last
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingLong(Task::getNumericId));
+        try {
+            RunWriter writer = new RunWriter(nextRun++, sorted.size());
+            try {
+                for (int i = 0; i < sorted.size(); i++) {
+                    Task task = sorted.get(i);
+                    if (i + 1 < sorted.size() && sorted.get(i + 1).getNumericId() == task.getNumericId()) {
+                        continue;
+                    }
+                    writer.add(task.getNumericId(), encode(task));
+                }
+                Run run = writer.finish();
+                Run[] current = runs;
+                Run[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = run;
+                runs = next;
+            } catch (IOException | RuntimeException e) {
+                writer.abort();
+                throw e;
+            }
+            mergeTail();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to cold store " + directory, e);
+        }
+    }
+
+    @Override
+    public Task read(long taskId) {
+        Run[] current = runs;
+        for (int i = current.length - 1; i >= 0; i--) {
+            Run run = current[i];
+            if (!run.mightContain(taskId)) {
+                continue;
+            }
+            int block = run.blockFor(taskId);
+            if (block < 0) {
+                continue;
+            }
+            ByteBuffer records = ByteBuffer.wrap(run.inflate(block));
+            while (records.hasRemaining()) {
+                int length = records.getInt();
+                int start = records.position();
+                long id = records.getLong(start);
+                if (id == taskId) {
+                    return decode(records);
+                }
+                if (id > taskId) {
+                    break;
+                }
+                records.position(start + length);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Run run : runs) {
+            size += run.taskCount;
+        }
+        return size;
+    }
+
+    public int getRunCount() {
+        return runs.length;
+    }
+
+    /**
+     * Merges the newest runs while there are {@value #MERGE_FANOUT} of them in the same size tier
+     * (a factor of 8 apart at most) and the result stays small enough to map.
+     */
+    private void mergeTail() throws IOException {
+        while (true) {
+            Run[] current = runs;
+            int from = current.length - MERGE_FANOUT;
+            if (from < 0) {
+                return;
+            }
+            int tier = tier(current[current.length - 1].taskCount);
+            long bytes = 0;
+            for (int i = from; i < current.length; i++) {
+                if (tier(current[i].taskCount) != tier) {
+                    return;
+                }
+                bytes += current[i].data.capacity();
+            }
+            if (bytes > MAX_RUN_BYTES) {
+                return;
+            }
+            merge(current, from);
+        }
+    }
+
+    private void merge(Run[] current, int from) throws IOException {
+        int k = current.length - from;
+        RunCursor[] cursors = new RunCursor[k];
+        long expected = 0;
+        for (int i = 0; i < k; i++) {
+            cursors[i] = new RunCursor(current[from + i]);
+            expected += current[from + i].taskCount;
+        }
+        RunWriter writer = new RunWriter(nextRun++, (int) Math.min(expected, Integer.MAX_VALUE));
+        Run merged;
+        try {
+            while (true) {
+                // Newest cursor first, so on equal IDs the newest copy is the one written
+                int best = -1;
+                for (int i = k - 1; i >= 0; i--) {
+                    if (cursors[i].hasNext && (best < 0 || cursors[i].id < cursors[best].id)) {
+                        best = i;
+                    }
+                }
+                if (best < 0) {
+                    break;
+                }
+                long id = cursors[best].id;
+                writer.add(id, cursors[best].record);
+                for (RunCursor cursor : cursors) {
+                    if (cursor.hasNext && cursor.id == id) {
+                        cursor.next();
+                    }
+                }
+            }
+            merged = writer.finish();
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        Run[] next = Arrays.copyOf(current, from + 1);
+        next[from] = merged;
+        runs = next;
+        // Readers still holding the old runs keep working: their mappings outlive the files
+        for (int i = from; i < current.length; i++) {
+            Files.deleteIfExists(current[i].file);
+        }
+    }
+
+    private static int tier(int taskCount) {
+        return (31 - Integer.numberOfLeadingZeros(Math.max(1, taskCount))) / 3;
+    }
+
+    private static byte[] encode(Task task) {
+        return new RecordBuffer()
+                .writeLong(task.getNumericId())
+                .writeLong(task.getCreatedAt())
+                .writeInt(task.getPriority())
+                .writeState(task, task.getStateWord())
+                .writeString(task.getDescription())
+                .writeString(task.getCreator())
+                .toByteArray();
+    }
+
+    private static Task decode(ByteBuffer record) {
+        long id = record.getLong();
+        long createdAt = record.getLong();
+        int priority = record.getInt();
+        // The state is written before the fields the task is built from
+        int stateStart = record.position();
+        RecordBuffer.skipState(record);
+        Task task = new Task(id, RecordBuffer.readString(record), priority, RecordBuffer.readString(record), createdAt);
+        int end = record.position();
+        record.position(stateStart);
+        RecordBuffer.readState(record, task);
+        record.position(end);
+        return task;
+    }
+
+    private static String runName(long number) {
+        return String.format("%s%012d%s", RUN_PREFIX, number, RUN_SUFFIX);
+    }
+
+    private static long runNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(RUN_PREFIX.length(), name.length() - RUN_SUFFIX.length()));
+    }
+
+    private static long hash(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Returns the {@code i}-th Bloom filter bit for a hash, by double hashing.
+     */
+    private static int bloomBit(long hash, int i, int bits) {
+        return Math.floorMod((int) hash + i * (int) (hash >>> 32), bits);
+    }
+
+    /**
+     * One immutable, memory-mapped run file.
+     */
+    private static final class Run {
+        final Path file;
+        final ByteBuffer data;
+        final int taskCount;
+        final long minId;
+        final long maxId;
+        final long[] firstIds;
+        final int[] offsets;
+        final int[] lengths;
+        final int[] rawLengths;
+        final int bloomOffset;
+        final int bloomBits;
+
+        private Run(Path file, ByteBuffer data) {
+            this.file = file;
+            this.data = data;
+            int size = data.capacity();
+            if (size < HEADER_BYTES + TRAILER_BYTES || data.getInt(0) != MAGIC || data.getInt(size - 4) != MAGIC) {
+                throw new IllegalStateException("Not a cold store run: " + file);
+            }
+            int version = data.getInt(4);
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported cold store version " + version + " in " + file);
+            }
+            ByteBuffer footer = data.duplicate();
+            footer.position((int) data.getLong(size - TRAILER_BYTES));
+            int blocks = footer.getInt();
+            taskCount = footer.getInt();
+            minId = footer.getLong();
+            maxId = footer.getLong();
+            firstIds = new long[blocks];
+            offsets = new int[blocks];
+            lengths = new int[blocks];
+            rawLengths = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                firstIds[i] = footer.getLong();
+                offsets[i] = footer.getInt();
+                lengths[i] = footer.getInt();
+                rawLengths[i] = footer.getInt();
+            }
+            int bloomWords = footer.getInt();
+            bloomOffset = footer.position();
+            bloomBits = bloomWords * 64;
+        }
+
+        static Run open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Cold store run larger than 2 GB: " + file);
+                }
+                // The mapping stays valid after the channel is closed
+                return new Run(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        boolean mightContain(long id) {
+            if (id < minId || id > maxId) {
+                return false;
+            }
+            long hash = hash(id);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = bloomBit(hash, i, bloomBits);
+                if ((data.getLong(bloomOffset + (bit >>> 6) * 8) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the block whose ID range could hold the task, or -1.
+         */
+        int blockFor(long id) {
+            int lo = 0;
+            int hi = firstIds.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (firstIds[mid] <= id) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        byte[] inflate(int block) {
+            ByteBuffer in = data.duplicate();
+            in.position(offsets[block]);
+            in.limit(offsets[block] + lengths[block]);
+            byte[] raw = new byte[rawLengths[block]];
+            Inflater inflater = INFLATERS.get();
+            try {
+                inflater.reset();
+                inflater.setInput(in);
+                int filled = 0;
+                while (filled < raw.length && !inflater.finished()) {
+                    int n = inflater.inflate(raw, filled, raw.length - filled);
+                    if (n == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    filled += n;
+                }
+                if (filled != raw.length) {
+                    throw new IllegalStateException("Truncated block " + block + " in " + file);
+                }
+                return raw;
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt block " + block + " in " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Walks a run's records in ID order, one inflated block at a time.
+     */
+    private static final class RunCursor {
+        private final Run run;
+        private int block = -1;
+        private ByteBuffer records;
+        boolean hasNext;
+        long id;
+        byte[] record;
+
+        RunCursor(Run run) {
+            this.run = run;
+            next();
+        }
+
+        void next() {
+            while (records == null || !records.hasRemaining()) {
+                if (++block == run.firstIds.length) {
+                    hasNext = false;
+                    return;
+                }
+                records = ByteBuffer.wrap(run.inflate(block));
+            }
+            record = new byte[records.getInt()];
+            records.get(record);
+            id = ByteBuffer.wrap(record).getLong(0);
+            hasNext = true;
+        }
+    }
+
+    /**
+     * Streams records, in ascending ID order, into a new run file that appears under its final name only once
+     * it is complete and synced.
+     */
+    private final class RunWriter {
+        private final Path file;
+        private final Path temp;
+        private final FileOutputStream stream;
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final long[] bloom;
+        private long[] firstIds = new long[16];
+        private int[] offsets = new int[16];
+        private int[] lengths = new int[16];
+        private int[] rawLengths = new int[16];
+        private int blocks;
+        private RecordBuffer block = new RecordBuffer();
+        private int blockTasks;
+        private long blockFirstId;
+        private byte[] compressed = new byte[1 << 14];
+        private long position = HEADER_BYTES;
+        private int taskCount;
+        private long minId = Long.MAX_VALUE;
+        private long maxId = Long.MIN_VALUE;
+
+        RunWriter(long number, int expectedTasks) throws IOException {
+            file = directory.resolve(runName(number));
+            temp = directory.resolve(runName(number) + TEMP_SUFFIX);
+            stream = new FileOutputStream(temp.toFile());
+            out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            bloom = new long[(int) Math.max(1, ((long) expectedTasks * BLOOM_BITS_PER_TASK + 63) / 64)];
+        }
+
+        void add(long id, byte[] record) throws IOException {
+            if (blockTasks == 0) {
+                blockFirstId = id;
+            }
+            block.writeInt(record.length).writeBytes(record);
+            blockTasks++;
+            taskCount++;
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+            long hash = hash(id);
+            int bits = bloom.length * 64;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = bloomBit(hash, i, bits);
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+            if (blockTasks == BLOCK_TASKS) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            byte[] raw = block.toByteArray();
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            if (position + length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Cold store run would exceed 2 GB");
+            }
+            out.write(compressed, 0, length);
+            if (blocks == firstIds.length) {
+                firstIds = Arrays.copyOf(firstIds, blocks * 2);
+                offsets = Arrays.copyOf(offsets, blocks * 2);
+                lengths = Arrays.copyOf(lengths, blocks * 2);
+                rawLengths = Arrays.copyOf(rawLengths, blocks * 2);
+            }
+            firstIds[blocks] = blockFirstId;
+            offsets[blocks] = (int) position;
+            lengths[blocks] = length;
+            rawLengths[blocks] = raw.length;
+            blocks++;
+            position += length;
+            block = new RecordBuffer();
+            blockTasks = 0;
+        }
+
+        Run finish() throws IOException {
+            if (blockTasks > 0) {
+                flushBlock();
+            }
+            deflater.end();
+            out.writeInt(blocks);
+            out.writeInt(taskCount);
+            out.writeLong(minId);
+            out.writeLong(maxId);
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(firstIds[i]);
+                out.writeInt(offsets[i]);
+                out.writeInt(lengths[i]);
+                out.writeInt(rawLengths[i]);
+            }
+            out.writeInt(bloom.length);
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            out.writeLong(position);
+            out.writeInt(MAGIC);
+            out.flush();
+            stream.getFD().sync();
+            out.close();
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            return Run.open(file);
+        }
+
+        void abort() {
+            deflater.end();
+            try {
+                out.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                // Deleted on the next open
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.workflow.persistence;
+
+import com.workflow.core.Task;
+import com.workflow.core.User;
+
+/**
+ * Receives state-changing events from the services so they can be made durable.
+ * Each method returns a position that can be passed to {@link #awaitDurable(long)}.
+ */
+public interface Journal {
+    Journal NONE = new Journal() {
+        @Override
+        public long userRegistered(User user) {
+            return 0;
+        }
+
+        @Override
+        public long taskCreated(Task task, String creator) {
+            return 0;
+        }
+
+        @Override
+        public long snapshotSaved(Task task) {
+            return 0;
+        }
+
+        @Override
+        public long statusChanged(Task task) {
+            return 0;
+        }
+
+        @Override
+        public long snapshotRestored(Task task, int steps) {
+            return 0;
+        }
+
+        @Override
+        public long priorityChanged(Task task) {
+            return 0;
+        }
+
+        @Override
+        public long taskArchived(Task task) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+    };
+
+    long userRegistered(User user);
+
+    long taskCreated(Task task, String creator);
+
+    long snapshotSaved(Task task);
+
+    long statusChanged(Task task);
+
+    long snapshotRestored(Task task, int steps);
+
+    long priorityChanged(Task task);
+
+    /**
+     * Records that a task was moved to the archive and dropped from the store.
+     */
+    long taskArchived(Task task);
+
+    /**
+     * Blocks until the record at {@code position} is durable, and throws if that cannot be confirmed, so a
+     * caller never reports an undurable change as committed.
+     */
+    void awaitDurable(long position);
+}
@@ -0,0 +1,126 @@
+package com.workflow.persistence;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Small growable byte buffer for encoding log records, plus matching decode helpers.
+ */
+class RecordBuffer {
+    private static final int PROGRESS_FLAG = 0x80;
+
+    private byte[] bytes = new byte[64];
+    private int size;
+
+    RecordBuffer writeByte(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    RecordBuffer writeInt(int value) {
+        ensure(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    RecordBuffer writeLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    RecordBuffer writeString(String value) {
+        if (value == null) {
+            return writeInt(-1);
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        return writeInt(encoded.length).writeBytes(encoded);
+    }
+
+    RecordBuffer writeBytes(byte[] value) {
+        ensure(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+        return this;
+    }
+
+    /**
+     * Writes a state word read from {@code task} as its state code, approver and reason, since interned codes and
+     * detail handles are not stable across runs. A pending task's workflow progress follows as an int, flagged in
+     * the high bit of the state code.
+     */
+    RecordBuffer writeState(Task task, long word) {
+        int progress = StateWord.progress(word);
+        writeByte(StateWord.state(word).code() | (progress == 0 ? 0 : PROGRESS_FLAG))
+                .writeString(task.approverOf(word))
+                .writeString(task.reasonOf(word));
+        return progress == 0 ? this : writeInt(progress);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] encoded = new byte[length];
+        in.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a state written by {@link #writeState} into the task, unless it already is in that state.
+     */
+    static void readState(ByteBuffer in, Task task) {
+        int code = in.get() & 0xFF;
+        TaskState state = TaskState.fromCode(code & ~PROGRESS_FLAG);
+        String approver = readString(in);
+        String reason = readString(in);
+        int progress = (code & PROGRESS_FLAG) == 0 ? 0 : in.getInt();
+        if (state != TaskState.PENDING || task.getStateWord() != StateWord.pending(progress)) {
+            task.restore(state, approver, reason, progress);
+        }
+    }
+
+    static void skipState(ByteBuffer in) {
+        int code = in.get() & 0xFF;
+        for (int i = 0; i < 2; i++) {
+            int length = in.getInt();
+            in.position(in.position() + Math.max(0, length));
+        }
+        if ((code & PROGRESS_FLAG) != 0) {
+            in.getInt();
+        }
+    }
+
+    /**
+     * Reads a memento's state written by {@link #writeState}; mementos are taken of pending tasks, so they have
+     * no reason.
+     */
+    static long readMementoState(ByteBuffer in) {
+        int code = in.get() & 0xFF;
+        TaskState state = TaskState.fromCode(code & ~PROGRESS_FLAG);
+        String approver = readString(in);
+        readString(in);
+        return (code & PROGRESS_FLAG) == 0 ? StateWord.pack(state, approver) : StateWord.pending(in.getInt());
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
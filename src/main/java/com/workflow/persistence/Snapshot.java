@@ -0,0 +1,350 @@
+package com.workflow.persistence;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.patterns.memento.MementoCaretaker;
+import com.workflow.patterns.memento.TaskMemento;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.Topic;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.TaskSource;
+import com.workflow.services.TaskStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary snapshot of users, tasks, memento histories and user subscriptions, for fast startup
+ * and state export. Tasks are stored column by column in ascending ID order; usernames, roles, creators,
+ * approvers and reasons are dictionary-encoded and states are stored as their one-byte codes. Pending tasks have
+ * no reason, so their reason entries hold their workflow progress instead.
+ * <p>
+ * {@link #open} memory-maps the file and reads only the header and dictionary; {@link #restore} then
+ * indexes the tasks straight from the mapped columns and leaves each {@link Task} to be materialized
+ * by the {@link TaskStore} on first access. Approvers and reasons are written as strings, not as
+ * process-local state word codes, so snapshots can be moved between processes.
+ */
+public final class Snapshot implements TaskSource, Closeable {
+    static final int MAGIC = 0x5746534E; // "WFSN"
+    static final int VERSION = 1;
+    static final int NONE = -1;
+
+    static final int DICTIONARY = 0;
+    static final int USER_NAMES = 1;
+    static final int USER_ROLES = 2;
+    static final int USER_HASHES = 3;
+    static final int TASK_IDS = 4;
+    static final int TASK_CREATED_AT = 5;
+    static final int TASK_PRIORITIES = 6;
+    static final int TASK_STATES = 7;
+    static final int TASK_CREATORS = 8;
+    static final int TASK_APPROVERS = 9;
+    static final int TASK_REASONS = 10;
+    static final int DESCRIPTIONS = 11;
+    static final int TASK_DESCRIPTION_OFFSETS = 12;
+    static final int TASK_HISTORY_OFFSETS = 13;
+    static final int HISTORY_STATES = 14;
+    static final int HISTORY_APPROVERS = 15;
+    static final int HISTORY_REASONS = 16;
+    static final int SUBSCRIPTION_KINDS = 17;
+    static final int SUBSCRIPTION_KEYS = 18;
+    static final int SUBSCRIPTION_USERS = 19;
+    static final int SECTIONS = 20;
+
+    /** Magic, version, creation time, five counts and the section offsets plus the end offset. */
+    static final int HEADER_BYTES = 4 + 4 + 8 + 5 * 4 + (SECTIONS + 1) * 8;
+
+    private static final TaskState[] STATES = TaskState.values();
+
+    private final FileChannel channel;
+    private final long createdAt;
+    private final int userCount;
+    private final int taskCount;
+    private final int subscriptionCount;
+    private final String[] dictionary;
+    private final ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+
+    private final LongBuffer ids;
+    private final LongBuffer taskCreatedAt;
+    private final ByteBuffer priorities;
+    private final ByteBuffer states;
+    private final IntBuffer creators;
+    private final IntBuffer approvers;
+    private final IntBuffer reasons;
+    private final ByteBuffer descriptions;
+    private final LongBuffer descriptionOffsets;
+    private final IntBuffer historyOffsets;
+    private final ByteBuffer historyStates;
+    private final IntBuffer historyApprovers;
+    private final IntBuffer historyReasons;
+
+    private Snapshot(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_BYTES, channel.size()));
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a workflow snapshot");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version " + version);
+        }
+        createdAt = header.getLong();
+        int dictionarySize = header.getInt();
+        userCount = header.getInt();
+        taskCount = header.getInt();
+        header.getInt(); // history entries, implied by the history offsets column
+        subscriptionCount = header.getInt();
+        long[] offsets = new long[SECTIONS + 1];
+        for (int i = 0; i <= SECTIONS; i++) {
+            offsets[i] = header.getLong();
+        }
+        if (offsets[SECTIONS] > channel.size()) {
+            throw new IllegalStateException("Truncated snapshot");
+        }
+        for (int i = 0; i < SECTIONS; i++) {
+            long length = offsets[i + 1] - offsets[i];
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot section " + i + " is corrupt or larger than 2 GB");
+            }
+            sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offsets[i], length);
+        }
+        dictionary = new String[dictionarySize];
+        ByteBuffer strings = sections[DICTIONARY].duplicate();
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = readString(strings);
+        }
+        ids = sections[TASK_IDS].asLongBuffer();
+        taskCreatedAt = sections[TASK_CREATED_AT].asLongBuffer();
+        priorities = sections[TASK_PRIORITIES];
+        states = sections[TASK_STATES];
+        creators = sections[TASK_CREATORS].asIntBuffer();
+        approvers = sections[TASK_APPROVERS].asIntBuffer();
+        reasons = sections[TASK_REASONS].asIntBuffer();
+        descriptions = sections[DESCRIPTIONS];
+        descriptionOffsets = sections[TASK_DESCRIPTION_OFFSETS].asLongBuffer();
+        historyOffsets = sections[TASK_HISTORY_OFFSETS].asIntBuffer();
+        historyStates = sections[HISTORY_STATES];
+        historyApprovers = sections[HISTORY_APPROVERS].asIntBuffer();
+        historyReasons = sections[HISTORY_REASONS].asIntBuffer();
+    }
+
+    /**
+     * Memory-maps a snapshot file. Only the header and dictionary are read; the columns are paged in on use.
+     */
+    public static Snapshot open(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("Snapshot file cannot be null");
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new Snapshot(channel);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Cannot open snapshot " + file, e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes users, tasks with their memento histories, and the users' subscriptions to {@code file}.
+     * Tasks are copied one at a time under their own stripe lock, so requests keep running during the dump;
+     * each task is captured consistently, but tasks changed mid-dump may be captured before or after the change.
+     * The file is replaced atomically once complete. Returns the number of tasks written.
+     *
+     * @param registry subscriptions to include, or null for none
+     */
+    public static int write(Path file, AuthenticationService auth, TaskStore store, SubscriptionRegistry registry) {
+        if (file == null || auth == null || store == null) {
+            throw new IllegalArgumentException("File, authentication service and store cannot be null");
+        }
+        SnapshotWriter writer = new SnapshotWriter();
+        writer.capture(auth, store, registry);
+        writer.writeTo(file);
+        return writer.getTaskCount();
+    }
+
+    /**
+     * Loads the snapshot into empty services: users and subscriptions at once, tasks lazily through
+     * {@link TaskStore#load}, after clearing history an earlier run spilled. The snapshot must stay open for as
+     * long as the store is in use.
+     *
+     * @param registry where to restore subscriptions, or null to skip them
+     */
+    public void restore(AuthenticationService auth, TaskStore store, SubscriptionRegistry registry) {
+        ByteBuffer hashes = sections[USER_HASHES].duplicate();
+        for (int i = 0; i < userCount; i++) {
+            auth.recoverUser(new User(dictionary[sections[USER_NAMES].getInt(i * 4)], readString(hashes),
+                    dictionary[sections[USER_ROLES].getInt(i * 4)]));
+        }
+        store.getHistoryPolicy().clearSpilled();
+        store.load(this);
+        if (registry != null) {
+            for (int i = 0; i < subscriptionCount; i++) {
+                User user = auth.getUser(dictionary[sections[SUBSCRIPTION_USERS].getInt(i * 4)]);
+                if (user != null) {
+                    registry.subscribe(topic(i), user);
+                }
+            }
+        }
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptionCount;
+    }
+
+    @Override
+    public int size() {
+        return taskCount;
+    }
+
+    @Override
+    public long idAt(int index) {
+        return ids.get(index);
+    }
+
+    @Override
+    public TaskState stateAt(int index) {
+        return STATES[states.get(index)];
+    }
+
+    @Override
+    public int priorityAt(int index) {
+        return priorities.get(index);
+    }
+
+    @Override
+    public String creatorAt(int index) {
+        return lookup(creators.get(index));
+    }
+
+    @Override
+    public int indexOf(long taskId) {
+        int low = 0;
+        int high = taskCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = ids.get(mid);
+            if (id < taskId) {
+                low = mid + 1;
+            } else if (id > taskId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String descriptionAt(int index) {
+        int start = (int) descriptionOffsets.get(index);
+        byte[] text = new byte[(int) descriptionOffsets.get(index + 1) - start];
+        descriptions.duplicate().position(start).get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Task materialize(int index) {
+        int start = (int) descriptionOffsets.get(index);
+        byte[] text = new byte[(int) descriptionOffsets.get(index + 1) - start];
+        descriptions.duplicate().position(start).get(text);
+        Task task = new Task(ids.get(index), new String(text, StandardCharsets.UTF_8), priorities.get(index),
+                lookup(creators.get(index)), taskCreatedAt.get(index));
+        TaskState state = stateAt(index);
+        int reason = reasons.get(index);
+        if (state != TaskState.PENDING) {
+            task.restore(state, lookup(approvers.get(index)), lookup(reason), 0);
+        } else if (reason != NONE) {
+            task.restore(state, null, null, reason);
+        }
+        return task;
+    }
+
+    @Override
+    public void restoreHistory(int index, MementoCaretaker caretaker) {
+        int end = historyOffsets.get(index + 1);
+        for (int i = historyOffsets.get(index); i < end; i++) {
+            caretaker.push(new TaskMemento(word(STATES[historyStates.get(i)], historyApprovers.get(i),
+                    historyReasons.get(i))));
+        }
+    }
+
+    /**
+     * Builds a history word, which never has a reason.
+     */
+    private long word(TaskState state, int approver, int reason) {
+        if (state == TaskState.PENDING) {
+            return StateWord.pending(reason == NONE ? 0 : reason);
+        }
+        return StateWord.pack(state, lookup(approver));
+    }
+
+    /**
+     * Closes the file. Mapped columns stay readable until they are garbage collected.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close snapshot", e);
+        }
+    }
+
+    private Topic topic(int index) {
+        long key = sections[SUBSCRIPTION_KEYS].getLong(index * 8);
+        switch (Topic.Kind.values()[sections[SUBSCRIPTION_KINDS].get(index)]) {
+            case TASK:
+                return Topic.task(key);
+            case CREATOR:
+                return Topic.creator(dictionary[(int) key]);
+            case PRIORITY:
+                return Topic.priority((int) key);
+            case TRANSITION:
+                return Topic.transition(TaskState.fromCode((int) key));
+            default:
+                return Topic.all();
+        }
+    }
+
+    private String lookup(int code) {
+        return code == NONE ? null : dictionary[code];
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                // already failing
+            }
+        }
+    }
+}
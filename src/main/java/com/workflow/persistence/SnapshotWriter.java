@@ -0,0 +1,359 @@
+package com.workflow.persistence;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.patterns.memento.MementoCaretaker;
+import com.workflow.patterns.memento.TaskMemento;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.Topic;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.TaskStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Captures services into in-memory columns and writes them in the {@link Snapshot} layout.
+ * Each task is copied under its own stripe lock, so writers are only ever held up for one task at a time.
+ */
+final class SnapshotWriter {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+
+    private int taskCount;
+    private long[] ids = new long[1024];
+    private long[] createdAt = new long[1024];
+    private byte[] priorities = new byte[1024];
+    private byte[] states = new byte[1024];
+    private int[] creators = new int[1024];
+    private int[] approvers = new int[1024];
+    private int[] reasons = new int[1024];
+    private String[] descriptions = new String[1024];
+    private int[] historyOffsets = new int[1025];
+
+    private int historyCount;
+    private byte[] historyStates = new byte[1024];
+    private int[] historyApprovers = new int[1024];
+    private int[] historyReasons = new int[1024];
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Topic> topics = new ArrayList<>();
+    private final List<String> subscribers = new ArrayList<>();
+
+    void capture(AuthenticationService auth, TaskStore store, SubscriptionRegistry registry) {
+        users.addAll(auth.getUsers());
+        for (User user : users) {
+            code(user.getUsername());
+            code(user.getRole());
+        }
+        store.ids().forEach(id -> {
+            ReentrantLock lock = store.lockFor(id);
+            lock.lock();
+            try {
+                Task task = store.get(id);
+                if (task != null) {
+                    addTask(task, store.getCaretaker(id));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        if (registry != null) {
+            registry.forEachUserSubscription((topic, username) -> {
+                topics.add(topic);
+                subscribers.add(username);
+                code(username);
+                if (topic.getKind() == Topic.Kind.CREATOR) {
+                    code((String) topic.getKey());
+                }
+            });
+        }
+    }
+
+    int getTaskCount() {
+        return taskCount;
+    }
+
+    private void addTask(Task task, MementoCaretaker caretaker) {
+        if (taskCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            states = Arrays.copyOf(states, capacity);
+            creators = Arrays.copyOf(creators, capacity);
+            approvers = Arrays.copyOf(approvers, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            historyOffsets = Arrays.copyOf(historyOffsets, capacity + 1);
+        }
+        int i = taskCount++;
+        long word = task.getStateWord();
+        ids[i] = task.getNumericId();
+        createdAt[i] = task.getCreatedAt();
+        priorities[i] = (byte) task.getPriority();
+        states[i] = StateWord.state(word).code();
+        creators[i] = code(task.getCreator());
+        approvers[i] = code(task.approverOf(word));
+        reasons[i] = reasonOrProgress(task, word);
+        descriptions[i] = task.getDescription();
+        List<TaskMemento> history = caretaker == null ? List.of() : caretaker.history();
+        for (TaskMemento memento : history) {
+            addMemento(task, memento.getStateWord());
+        }
+        historyOffsets[i + 1] = historyCount;
+    }
+
+    private void addMemento(Task task, long word) {
+        if (historyCount == historyStates.length) {
+            int capacity = historyStates.length * 2;
+            historyStates = Arrays.copyOf(historyStates, capacity);
+            historyApprovers = Arrays.copyOf(historyApprovers, capacity);
+            historyReasons = Arrays.copyOf(historyReasons, capacity);
+        }
+        historyStates[historyCount] = StateWord.state(word).code();
+        historyApprovers[historyCount] = code(task.approverOf(word));
+        historyReasons[historyCount] = reasonOrProgress(task, word);
+        historyCount++;
+    }
+
+    /**
+     * Returns the reason column entry: the reason's dictionary code, or a pending task's workflow progress.
+     */
+    private int reasonOrProgress(Task task, long word) {
+        if (StateWord.state(word) == TaskState.PENDING) {
+            int progress = StateWord.progress(word);
+            return progress == 0 ? Snapshot.NONE : progress;
+        }
+        return code(task.reasonOf(word));
+    }
+
+    private int code(String value) {
+        if (value == null) {
+            return Snapshot.NONE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            codes.put(value, code);
+            dictionary.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Writes the captured columns to a temporary file and moves it over {@code file} once complete.
+     */
+    void writeTo(Path file) {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(absolute.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(channel);
+                channel.force(true);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + file, e);
+        }
+    }
+
+    private void write(FileChannel channel) throws IOException {
+        long[] offsets = new long[Snapshot.SECTIONS + 1];
+        ColumnOutput out = new ColumnOutput(channel, Snapshot.HEADER_BYTES);
+
+        offsets[Snapshot.DICTIONARY] = out.position();
+        for (String value : dictionary) {
+            out.putString(value);
+        }
+        offsets[Snapshot.USER_NAMES] = out.position();
+        for (User user : users) {
+            out.putInt(codes.get(user.getUsername()));
+        }
+        offsets[Snapshot.USER_ROLES] = out.position();
+        for (User user : users) {
+            out.putInt(codes.get(user.getRole()));
+        }
+        offsets[Snapshot.USER_HASHES] = out.position();
+        for (User user : users) {
+            out.putString(user.getPasswordHash());
+        }
+
+        offsets[Snapshot.TASK_IDS] = out.position();
+        for (int i = 0; i < taskCount; i++) {
+            out.putLong(ids[i]);
+        }
+        offsets[Snapshot.TASK_CREATED_AT] = out.position();
+        for (int i = 0; i < taskCount; i++) {
+            out.putLong(createdAt[i]);
+        }
+        offsets[Snapshot.TASK_PRIORITIES] = out.position();
+        out.putBytes(priorities, taskCount);
+        offsets[Snapshot.TASK_STATES] = out.position();
+        out.putBytes(states, taskCount);
+        offsets[Snapshot.TASK_CREATORS] = out.position();
+        out.putInts(creators, taskCount);
+        offsets[Snapshot.TASK_APPROVERS] = out.position();
+        out.putInts(approvers, taskCount);
+        offsets[Snapshot.TASK_REASONS] = out.position();
+        out.putInts(reasons, taskCount);
+
+        // Descriptions go in a byte heap, followed by their offsets with one extra end entry
+        long[] descriptionOffsets = new long[taskCount + 1];
+        offsets[Snapshot.DESCRIPTIONS] = out.position();
+        for (int i = 0; i < taskCount; i++) {
+            byte[] bytes = descriptions[i].getBytes(StandardCharsets.UTF_8);
+            out.putBytes(bytes, bytes.length);
+            descriptionOffsets[i + 1] = descriptionOffsets[i] + bytes.length;
+        }
+        offsets[Snapshot.TASK_DESCRIPTION_OFFSETS] = out.position();
+        for (long offset : descriptionOffsets) {
+            out.putLong(offset);
+        }
+        offsets[Snapshot.TASK_HISTORY_OFFSETS] = out.position();
+        out.putInts(historyOffsets, taskCount + 1);
+
+        offsets[Snapshot.HISTORY_STATES] = out.position();
+        out.putBytes(historyStates, historyCount);
+        offsets[Snapshot.HISTORY_APPROVERS] = out.position();
+        out.putInts(historyApprovers, historyCount);
+        offsets[Snapshot.HISTORY_REASONS] = out.position();
+        out.putInts(historyReasons, historyCount);
+
+        offsets[Snapshot.SUBSCRIPTION_KINDS] = out.position();
+        for (Topic topic : topics) {
+            out.putByte(topic.getKind().ordinal());
+        }
+        offsets[Snapshot.SUBSCRIPTION_KEYS] = out.position();
+        for (Topic topic : topics) {
+            out.putLong(topicKey(topic));
+        }
+        offsets[Snapshot.SUBSCRIPTION_USERS] = out.position();
+        for (String username : subscribers) {
+            out.putInt(codes.get(username));
+        }
+        offsets[Snapshot.SECTIONS] = out.position();
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(Snapshot.HEADER_BYTES);
+        header.putInt(Snapshot.MAGIC)
+                .putInt(Snapshot.VERSION)
+                .putLong(System.currentTimeMillis())
+                .putInt(dictionary.size())
+                .putInt(users.size())
+                .putInt(taskCount)
+                .putInt(historyCount)
+                .putInt(topics.size());
+        for (long offset : offsets) {
+            header.putLong(offset);
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, Snapshot.HEADER_BYTES - header.remaining());
+        }
+    }
+
+    private long topicKey(Topic topic) {
+        switch (topic.getKind()) {
+            case TASK:
+                return (Long) topic.getKey();
+            case CREATOR:
+                return codes.get((String) topic.getKey());
+            case PRIORITY:
+                return (Integer) topic.getKey();
+            case TRANSITION:
+                return ((TaskState) topic.getKey()).code();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Buffered sequential writer that tracks its file position as a long, so sections may pass 2 GB.
+     */
+    private static final class ColumnOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private long flushed;
+
+        ColumnOutput(FileChannel channel, long start) throws IOException {
+            this.channel = channel;
+            this.flushed = start;
+            channel.position(start);
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putInts(int[] values, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                putInt(values[i]);
+            }
+        }
+
+        void putBytes(byte[] values, int count) throws IOException {
+            int offset = 0;
+            while (offset < count) {
+                ensure(1);
+                int chunk = Math.min(count - offset, buffer.remaining());
+                buffer.put(values, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes, bytes.length);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.workflow.persistence;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.patterns.memento.MementoCaretaker;
+import com.workflow.patterns.memento.TaskMemento;
+import com.workflow.patterns.memento.TaskOriginator;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.TaskStore;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Journals workflow events to a {@link WriteAheadLog} and rebuilds service state from it on startup.
+ * A checkpoint rewrites the full state (users, tasks and memento histories) into a fresh segment so
+ * recovery only has to replay from the newest checkpoint.
+ */
+public class WorkflowJournal implements Journal, Closeable {
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 5;
+
+    private static final byte USER_REGISTERED = 1;
+    private static final byte TASK_CREATED = 2;
+    private static final byte SNAPSHOT_SAVED = 3;
+    private static final byte STATUS_CHANGED = 4;
+    private static final byte SNAPSHOT_RESTORED = 5;
+    private static final byte TASK_STATE = 6;
+    private static final byte PRIORITY_CHANGED = 7;
+    private static final byte TASK_ARCHIVED = 8;
+
+    private final WriteAheadLog log;
+    private final boolean syncCommits;
+
+    /**
+     * @param syncCommits if true, {@link #awaitDurable} waits for the group commit; otherwise it returns at once
+     */
+    public WorkflowJournal(WriteAheadLog log, boolean syncCommits) {
+        if (log == null) {
+            throw new IllegalArgumentException("Log cannot be null");
+        }
+        this.log = log;
+        this.syncCommits = syncCommits;
+    }
+
+    public static WorkflowJournal open(Path directory) {
+        return new WorkflowJournal(
+                new WriteAheadLog(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_COMMIT_INTERVAL_MILLIS), true);
+    }
+
+    @Override
+    public long userRegistered(User user) {
+        return log.append(encodeUser(user));
+    }
+
+    @Override
+    public long taskCreated(Task task, String creator) {
+        return log.append(new RecordBuffer()
+                .writeByte(TASK_CREATED)
+                .writeLong(task.getNumericId())
+                .writeInt(task.getPriority())
+                .writeString(task.getDescription())
+                .writeString(creator)
+                .writeLong(task.getCreatedAt())
+                .toByteArray());
+    }
+
+    @Override
+    public long snapshotSaved(Task task) {
+        return log.append(new RecordBuffer().writeByte(SNAPSHOT_SAVED).writeLong(task.getNumericId()).toByteArray());
+    }
+
+    @Override
+    public long statusChanged(Task task) {
+        return log.append(new RecordBuffer()
+                .writeByte(STATUS_CHANGED)
+                .writeLong(task.getNumericId())
+                .writeState(task, task.getStateWord())
+                .toByteArray());
+    }
+
+    @Override
+    public long snapshotRestored(Task task, int steps) {
+        return log.append(new RecordBuffer()
+                .writeByte(SNAPSHOT_RESTORED)
+                .writeLong(task.getNumericId())
+                .writeInt(steps)
+                .toByteArray());
+    }
+
+    @Override
+    public long priorityChanged(Task task) {
+        return log.append(new RecordBuffer()
+                .writeByte(PRIORITY_CHANGED)
+                .writeLong(task.getNumericId())
+                .writeInt(task.getPriority())
+                .toByteArray());
+    }
+
+    @Override
+    public long taskArchived(Task task) {
+        return log.append(new RecordBuffer().writeByte(TASK_ARCHIVED).writeLong(task.getNumericId()).toByteArray());
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        if (syncCommits) {
+            log.awaitDurable(position);
+        }
+    }
+
+    /**
+     * Replays the log into empty services, after clearing history an earlier run spilled. Must run before the
+     * services accept new requests. Returns the number of events replayed.
+     */
+    public long recover(AuthenticationService auth, TaskStore store) {
+        store.getHistoryPolicy().clearSpilled();
+        return log.replay(record -> apply(record, auth, store));
+    }
+
+    /**
+     * Writes the current state as a checkpoint. All task stripes are locked for the duration so the
+     * checkpoint and the events logged after it never overlap.
+     */
+    public void checkpoint(AuthenticationService auth, TaskStore store) {
+        store.lockAll();
+        try {
+            log.checkpoint(sink -> {
+                for (User user : auth.getUsers()) {
+                    sink.accept(encodeUser(user));
+                }
+                for (Task task : store.values()) {
+                    sink.accept(encodeTaskState(task, store.getCaretaker(task.getNumericId())));
+                }
+            });
+        } finally {
+            store.unlockAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    private static byte[] encodeUser(User user) {
+        return new RecordBuffer()
+                .writeByte(USER_REGISTERED)
+                .writeString(user.getUsername())
+                .writeString(user.getPasswordHash())
+                .writeString(user.getRole())
+                .toByteArray();
+    }
+
+    private static byte[] encodeTaskState(Task task, MementoCaretaker caretaker) {
+        RecordBuffer out = new RecordBuffer()
+                .writeByte(TASK_STATE)
+                .writeLong(task.getNumericId())
+                .writeInt(task.getPriority())
+                .writeString(task.getDescription())
+                .writeString(task.getCreator())
+                .writeLong(task.getCreatedAt())
+                .writeState(task, task.getStateWord());
+        List<TaskMemento> history = caretaker.history();
+        out.writeInt(history.size());
+        for (TaskMemento memento : history) {
+            out.writeState(task, memento.getStateWord());
+        }
+        return out.toByteArray();
+    }
+
+    private static void apply(ByteBuffer record, AuthenticationService auth, TaskStore store) {
+        byte type = record.get();
+        switch (type) {
+            case USER_REGISTERED: {
+                String username = RecordBuffer.readString(record);
+                String passwordHash = RecordBuffer.readString(record);
+                String role = RecordBuffer.readString(record);
+                auth.recoverUser(new User(username, passwordHash, role));
+                break;
+            }
+            case TASK_CREATED: {
+                long id = record.getLong();
+                int priority = record.getInt();
+                String description = RecordBuffer.readString(record);
+                String creator = RecordBuffer.readString(record);
+                long createdAt = record.getLong();
+                store.add(new Task(id, description, priority, creator, createdAt), store.newCaretaker(priority));
+                break;
+            }
+            case TASK_STATE: {
+                long id = record.getLong();
+                int priority = record.getInt();
+                String description = RecordBuffer.readString(record);
+                String creator = RecordBuffer.readString(record);
+                long createdAt = record.getLong();
+                Task task = new Task(id, description, priority, creator, createdAt);
+                RecordBuffer.readState(record, task);
+                MementoCaretaker caretaker = store.newCaretaker(priority);
+                int historySize = record.getInt();
+                for (int i = 0; i < historySize; i++) {
+                    caretaker.push(new TaskMemento(RecordBuffer.readMementoState(record)));
+                }
+                store.add(task, caretaker);
+                break;
+            }
+            case SNAPSHOT_SAVED: {
+                long id = record.getLong();
+                store.getCaretaker(id).save(new TaskOriginator(store.getResident(id)));
+                break;
+            }
+            case STATUS_CHANGED: {
+                long id = record.getLong();
+                Task task = store.getResident(id);
+                TaskState previous = task.getState();
+                RecordBuffer.readState(record, task);
+                store.stateChanged(task, previous);
+                if (task.isTerminal()) {
+                    store.retire(task, store.getCaretaker(id));
+                }
+                break;
+            }
+            case SNAPSHOT_RESTORED: {
+                long id = record.getLong();
+                Task task = store.getResident(id);
+                TaskState previous = task.getState();
+                store.getCaretaker(id).restore(new TaskOriginator(task), record.getInt());
+                store.stateChanged(task, previous);
+                break;
+            }
+            case PRIORITY_CHANGED: {
+                Task task = store.getResident(record.getLong());
+                int previous = task.getPriority();
+                task.setPriority(record.getInt());
+                store.priorityChanged(task, previous);
+                break;
+            }
+            case TASK_ARCHIVED: {
+                Task task = store.getResident(record.getLong());
+                if (task != null) {
+                    store.evict(task);
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+}
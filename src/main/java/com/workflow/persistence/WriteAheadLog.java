@@ -0,0 +1,437 @@
+package com.workflow.persistence;
+
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented write-ahead log.
+ * Records are framed as {@code [int length][int crc32][payload]} and buffered in memory; a background
+ * flusher writes the buffer through a {@link FileChannel} and fsyncs once per group of records
+ * (group commit). Every open starts a fresh segment, so a torn tail left by a crash is never appended to.
+ * <p>
+ * A failed write or fsync fails the log for good: records after the last successful fsync may or may not be on
+ * disk, so none of them is ever reported durable. Waiters and later appends get an {@link UncheckedIOException}.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final Logger LOG = Log.getLogger(WriteAheadLog.class);
+
+    /** Marker written at the start of a checkpoint segment. Payload types at or above 0xF0 are reserved. */
+    public static final byte CHECKPOINT_BEGIN = (byte) 0xF0;
+    /** Marker written once a checkpoint segment is complete. */
+    public static final byte CHECKPOINT_END = (byte) 0xF1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long commitIntervalMillis;
+
+    private final Object appendLock = new Object();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long segmentSequence;
+    private long segmentBytes;
+    private long appendedPosition;
+    private boolean checkpointing;
+
+    private final Object durableMonitor = new Object();
+    private volatile long durablePosition;
+    private boolean flushRequested;
+    private volatile boolean open = true;
+    private volatile IOException failure;
+    private final Thread flusher;
+
+    public WriteAheadLog(Path directory, long maxSegmentBytes, long commitIntervalMillis) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        if (maxSegmentBytes < BUFFER_BYTES) {
+            throw new IllegalArgumentException("Segment size must be at least " + BUFFER_BYTES + " bytes");
+        }
+        if (commitIntervalMillis < 1) {
+            throw new IllegalArgumentException("Commit interval must be positive");
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.commitIntervalMillis = commitIntervalMillis;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments();
+            segmentSequence = segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1));
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open write-ahead log in " + directory, e);
+        }
+        flusher = new Thread(this::flushLoop, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends a record and returns its position. The record is durable once {@link #awaitDurable} returns for it.
+     */
+    public long append(byte[] payload) {
+        synchronized (appendLock) {
+            ensureOpen();
+            return appendLocked(payload);
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code position} has been fsynced. Concurrent callers share one fsync.
+     *
+     * @throws UncheckedIOException if the log failed before the record became durable, or the caller was
+     *                              interrupted while waiting; the record is then not known to be durable
+     */
+    public void awaitDurable(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        synchronized (durableMonitor) {
+            while (durablePosition < position && open) {
+                checkFailure();
+                flushRequested = true;
+                durableMonitor.notifyAll();
+                try {
+                    durableMonitor.wait(commitIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    InterruptedIOException interrupted =
+                            new InterruptedIOException("Interrupted before position " + position + " was fsynced");
+                    interrupted.initCause(e);
+                    throw new UncheckedIOException(interrupted);
+                }
+            }
+            if (durablePosition < position) {
+                checkFailure();
+            }
+        }
+    }
+
+    /**
+     * Writes a checkpoint into a new segment and deletes all older segments once it is durable.
+     * Appends from other threads wait until the checkpoint is complete.
+     */
+    public void checkpoint(Consumer<Consumer<byte[]>> writer) {
+        synchronized (appendLock) {
+            ensureOpen();
+            try {
+                rollSegment();
+                long checkpointSegment = segmentSequence;
+                checkpointing = true;
+                try {
+                    appendLocked(new byte[]{CHECKPOINT_BEGIN});
+                    writer.accept(this::appendLocked);
+                    appendLocked(new byte[]{CHECKPOINT_END});
+                } finally {
+                    checkpointing = false;
+                }
+                writeBuffer();
+                channel.force(false);
+                markDurable(appendedPosition);
+                for (Path segment : listSegments()) {
+                    if (sequenceOf(segment) < checkpointSegment) {
+                        Files.deleteIfExists(segment);
+                    }
+                }
+            } catch (IOException e) {
+                fail(e);
+                throw new UncheckedIOException("Checkpoint failed", e);
+            }
+        }
+    }
+
+    /**
+     * Replays every record written before this log was opened, starting at the newest complete checkpoint.
+     * Checkpoint markers are not passed to the handler. Returns the number of records replayed.
+     */
+    public long replay(Consumer<ByteBuffer> handler) {
+        try {
+            List<Path> segments = listSegments();
+            segments.removeIf(segment -> sequenceOf(segment) >= segmentSequence);
+            int start = 0;
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                if (isCompleteCheckpoint(segments.get(i))) {
+                    start = i;
+                    break;
+                }
+            }
+            long count = 0;
+            for (int i = start; i < segments.size(); i++) {
+                Path segment = segments.get(i);
+                if (startsWithCheckpoint(segment) && !isCompleteCheckpoint(segment)) {
+                    continue; // checkpoint interrupted by a crash
+                }
+                count += readSegment(segment, handler);
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Replay failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (!open) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    writeBuffer();
+                    channel.force(false);
+                    markDurable(appendedPosition);
+                }
+                channel.close();
+            } catch (IOException e) {
+                fail(e);
+                throw new UncheckedIOException("Cannot close write-ahead log", e);
+            } finally {
+                open = false;
+            }
+        }
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+        flusher.interrupt();
+    }
+
+    private long appendLocked(byte[] payload) {
+        int frameBytes = FRAME_HEADER_BYTES + payload.length;
+        try {
+            // A checkpoint always stays in one segment so recovery can find it by the segment's first record
+            if (!checkpointing && segmentBytes > 0 && segmentBytes + frameBytes > maxSegmentBytes) {
+                rollSegment();
+            }
+            crc.reset();
+            crc.update(payload, 0, payload.length);
+            if (frameBytes > buffer.remaining()) {
+                writeBuffer();
+            }
+            if (frameBytes > buffer.capacity()) {
+                ByteBuffer frame = ByteBuffer.allocate(frameBytes);
+                frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            } else {
+                buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            }
+        } catch (IOException e) {
+            fail(e);
+            throw new UncheckedIOException("Append failed", e);
+        }
+        segmentBytes += frameBytes;
+        return ++appendedPosition;
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void rollSegment() throws IOException {
+        writeBuffer();
+        channel.force(false);
+        markDurable(appendedPosition);
+        channel.close();
+        openNextSegment();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentSequence++;
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segmentSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentBytes = 0;
+    }
+
+    private void flushLoop() {
+        while (open) {
+            synchronized (durableMonitor) {
+                if (!flushRequested) {
+                    try {
+                        durableMonitor.wait(commitIntervalMillis);
+                    } catch (InterruptedException e) {
+                        if (!open) {
+                            return;
+                        }
+                    }
+                }
+                flushRequested = false;
+            }
+            flush();
+        }
+    }
+
+    private void flush() {
+        long target;
+        FileChannel current;
+        synchronized (appendLock) {
+            if (!open || failure != null || appendedPosition <= durablePosition) {
+                return;
+            }
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                LOG.error("Write-ahead log flush failed: {}", e.getMessage());
+                fail(e);
+                return;
+            }
+            target = appendedPosition;
+            current = channel;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // The segment was rolled or the log closed; both force the channel before closing it
+        } catch (IOException e) {
+            LOG.error("Write-ahead log fsync failed: {}", e.getMessage());
+            fail(e);
+            return;
+        }
+        markDurable(target);
+    }
+
+    /**
+     * Advances the durable position and wakes waiters, unless the log has failed: a failed fsync may have lost
+     * earlier records that a later successful one does not bring back.
+     */
+    private void markDurable(long position) {
+        synchronized (durableMonitor) {
+            if (failure == null && position > durablePosition) {
+                durablePosition = position;
+            }
+            durableMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Fails the log for good and wakes every waiter so it can throw.
+     */
+    private void fail(IOException e) {
+        synchronized (durableMonitor) {
+            if (failure == null) {
+                failure = e;
+            }
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void checkFailure() {
+        IOException failed = failure;
+        if (failed != null) {
+            throw new UncheckedIOException("Write-ahead log failed; records after position " + durablePosition
+                    + " may be lost", failed);
+        }
+    }
+
+    private void ensureOpen() {
+        if (!open) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        checkFailure();
+    }
+
+    private long readSegment(Path segment, Consumer<ByteBuffer> handler) throws IOException {
+        long count = 0;
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (in.size() == 0) {
+                return 0;
+            }
+            MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            CRC32 check = new CRC32();
+            while (map.remaining() >= FRAME_HEADER_BYTES) {
+                int length = map.getInt();
+                int expected = map.getInt();
+                if (length < 0 || length > map.remaining()) {
+                    break; // torn write at the tail
+                }
+                ByteBuffer payload = map.slice();
+                payload.limit(length);
+                check.reset();
+                check.update(payload.duplicate());
+                if ((int) check.getValue() != expected) {
+                    break;
+                }
+                map.position(map.position() + length);
+                byte type = length > 0 ? payload.get(0) : 0;
+                if (type != CHECKPOINT_BEGIN && type != CHECKPOINT_END) {
+                    handler.accept(payload);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean startsWithCheckpoint(Path segment) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(FRAME_HEADER_BYTES + 1);
+            return in.read(head, 0) == head.capacity() && head.get(FRAME_HEADER_BYTES) == CHECKPOINT_BEGIN;
+        }
+    }
+
+    private boolean isCompleteCheckpoint(Path segment) throws IOException {
+        if (!startsWithCheckpoint(segment)) {
+            return false;
+        }
+        boolean complete = false;
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (map.remaining() >= FRAME_HEADER_BYTES) {
+                int length = map.getInt();
+                map.getInt();
+                if (length < 0 || length > map.remaining()) {
+                    break;
+                }
+                if (length == 1 && map.get(map.position()) == CHECKPOINT_END) {
+                    complete = true;
+                }
+                map.position(map.position() + length);
+            }
+        }
+        return complete;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
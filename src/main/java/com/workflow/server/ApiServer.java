@@ -0,0 +1,684 @@
+package com.workflow.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.workflow.core.Task;
+import com.workflow.core.TaskIdCodec;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.services.AccessControl;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.BulkResult;
+import com.workflow.services.Decision;
+import com.workflow.services.NotificationService;
+import com.workflow.services.Permission;
+import com.workflow.services.SearchResult;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskSearch;
+import com.workflow.services.Transition;
+import com.workflow.services.TransitionLog;
+import com.workflow.services.Workflow;
+import com.workflow.services.WorkflowDefinition;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Headless HTTP/JSON front end for the workflow services, built on the JDK's {@code com.sun.net.httpserver}.
+ * Requests run on a fixed pool of worker threads and HTTP/1.1 connections are kept alive between requests.
+ * Clients register, open a session and then send its token as {@code Authorization: Bearer <token>}.
+ * <pre>
+ * POST   /api/users                {username, password, role}
+ * POST   /api/sessions             {username, password}  returns {token}
+ * DELETE /api/sessions
+ * POST   /api/tasks                {description, priority}
+ * GET    /api/tasks                ?status=&amp;priority=&amp;creator=&amp;sort=&amp;after=&amp;limit=
+ * GET    /api/tasks/search         ?q=&amp;status=&amp;priority=&amp;limit=  (best matches of a {@link TaskSearch})
+ * GET    /api/tasks/{id}
+ * POST   /api/tasks/process        {ids, or priority, creator or all: true; approve, reason}
+ * POST   /api/tasks/{id}/process   {approve, reason}
+ * POST   /api/tasks/{id}/rollback  {steps}
+ * GET    /api/tasks/{id}/history   ?at=  (the state at that time, in epoch milliseconds)
+ * GET    /api/transitions          ?from=&amp;to=&amp;kind=&amp;state=&amp;actor=&amp;role=&amp;groupBy=actor|role
+ * POST   /api/batch                [{op: create|process|rollback, id, ...}, ...]
+ * POST   /api/delegations          {to}  lets another user act with the caller's role
+ * DELETE /api/delegations/{to}
+ * </pre>
+ * Operations the caller's role does not permit are answered with 403 when an {@link AccessControl} is set, and
+ * approvals a {@link WorkflowDefinition} refuses name the roles its current stage is waiting for.
+ * Request bodies larger than {@value #MAX_BODY_BYTES} bytes are refused with 413.
+ */
+public class ApiServer {
+    private static final Logger LOG = Log.getLogger(ApiServer.class);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY every kept-alive
+        // request waits out the client's delayed ACK (~40 ms). Read once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final AuthenticationService authService;
+    private final Workflow workflowService;
+    private final NotificationService notificationService;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private volatile TransitionLog transitions;
+    private volatile AccessControl access;
+    private volatile WorkflowDefinition definition;
+
+    /**
+     * @param address      where to listen; port 0 picks a free port
+     * @param workerThreads number of threads that run request handlers
+     */
+    public ApiServer(AuthenticationService authService, Workflow workflowService,
+                     NotificationService notificationService, InetSocketAddress address, int workerThreads) {
+        if (authService == null || workflowService == null || notificationService == null) {
+            throw new IllegalArgumentException("Services cannot be null");
+        }
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("Worker threads must be positive");
+        }
+        this.authService = authService;
+        this.workflowService = workflowService;
+        this.notificationService = notificationService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads,
+                r -> new Thread(r, "api-worker-" + threadCount.incrementAndGet()));
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            workers.shutdown();
+            throw new UncheckedIOException("Cannot listen on " + address, e);
+        }
+        server.setExecutor(workers);
+        server.createContext("/api/", this::handle);
+    }
+
+    /**
+     * Enables the history endpoints, answered from the given log.
+     */
+    public void setTransitionLog(TransitionLog transitions) {
+        if (transitions == null) {
+            throw new IllegalArgumentException("Transition log cannot be null");
+        }
+        this.transitions = transitions;
+    }
+
+    /**
+     * Enables the delegation endpoints and tells denied operations (403) apart from conflicts (409), using the
+     * access control the workflow service enforces.
+     */
+    public void setAccessControl(AccessControl access) {
+        if (access == null) {
+            throw new IllegalArgumentException("Access control cannot be null");
+        }
+        this.access = access;
+    }
+
+    /**
+     * Explains refused approvals by the definition's open steps rather than the access control; use the
+     * definition the workflow service approves by.
+     */
+    public void setWorkflowDefinition(WorkflowDefinition definition) {
+        if (definition == null) {
+            throw new IllegalArgumentException("Workflow definition cannot be null");
+        }
+        this.definition = definition;
+    }
+
+    public void start() {
+        server.start();
+        LOG.info("API server listening on port {}", getPort());
+    }
+
+    /**
+     * Stops accepting connections, waits up to {@code delaySeconds} for running exchanges and stops the workers.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) {
+        Result result;
+        try {
+            result = route(exchange);
+        } catch (ApiException e) {
+            result = Result.error(e.status, e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            result = Result.error(400, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Request " + exchange.getRequestURI() + " failed", e);
+            result = Result.error(500, "Internal error");
+        }
+        try {
+            byte[] bytes = Json.write(result.body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(result.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // Client went away; nothing left to tell it
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Result route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        String body = readBody(exchange);
+        switch (path[0]) {
+            case "users":
+                requireMethod(method, "POST");
+                return register(Json.parseObject(body));
+            case "sessions":
+                if ("DELETE".equals(method)) {
+                    authService.logout(bearerToken(exchange));
+                    return Result.ok(new LinkedHashMap<>());
+                }
+                requireMethod(method, "POST");
+                return createSession(Json.parseObject(body));
+            case "tasks":
+                return routeTasks(method, path, exchange.getRequestURI(), body, authenticate(exchange));
+            case "batch":
+                requireMethod(method, "POST");
+                return batch(Json.parse(body), authenticate(exchange));
+            case "transitions":
+                requireMethod(method, "GET");
+                authenticate(exchange);
+                return countTransitions(queryParameters(exchange.getRequestURI()));
+            case "delegations":
+                return routeDelegations(method, path, body, authenticate(exchange));
+            default:
+                throw new ApiException(404, "Unknown resource " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    /**
+     * Reads the request body, refusing one over {@link #MAX_BODY_BYTES} by its declared length or, without one,
+     * once that much has been read.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            try {
+                if (Long.parseLong(declared.trim()) > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+                }
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Invalid Content-Length " + declared);
+            }
+        }
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Result routeTasks(String method, String[] path, URI uri, String body, User user) {
+        if (path.length == 1) {
+            if ("GET".equals(method)) {
+                return listTasks(queryParameters(uri));
+            }
+            requireMethod(method, "POST");
+            return createTask(Json.parseObject(body), user);
+        }
+        if (path.length == 2 && "process".equals(path[1]) && "POST".equals(method)) {
+            return processTasks(Json.parseObject(body), user);
+        }
+        if (path.length == 2 && "search".equals(path[1]) && "GET".equals(method)) {
+            return searchTasks(queryParameters(uri));
+        }
+        if (path.length == 2) {
+            requireMethod(method, "GET");
+            return Result.ok(toJson(findTask(path[1])));
+        }
+        if (path.length == 3 && "history".equals(path[2])) {
+            requireMethod(method, "GET");
+            return taskHistory(path[1], queryParameters(uri));
+        }
+        requireMethod(method, "POST");
+        if (path.length == 3 && "process".equals(path[2])) {
+            return processTask(path[1], Json.parseObject(body), user);
+        }
+        if (path.length == 3 && "rollback".equals(path[2])) {
+            return rollbackTask(path[1], Json.parseObject(body), user);
+        }
+        throw new ApiException(404, "Unknown resource " + uri.getPath());
+    }
+
+    private Result routeDelegations(String method, String[] path, String body, User user) {
+        AccessControl control = access;
+        if (control == null) {
+            throw new ApiException(404, "Delegation is not enabled");
+        }
+        if (path.length == 1) {
+            requireMethod(method, "POST");
+            String to = Json.getString(Json.parseObject(body), "to");
+            if (authService.getUser(to) == null) {
+                throw new ApiException(404, "User not found: " + to);
+            }
+            if (!control.delegate(user, to)) {
+                throw new ApiException(400, "Cannot delegate to " + to);
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("from", user.getUsername());
+            json.put("to", to);
+            json.put("role", user.getRole());
+            return new Result(201, json);
+        }
+        requireMethod(method, "DELETE");
+        if (!control.revoke(user.getUsername(), path[1])) {
+            throw new ApiException(404, "No delegation to " + path[1]);
+        }
+        return Result.ok(new LinkedHashMap<>());
+    }
+
+    private Result register(Map<String, Object> body) {
+        String username = Json.getString(body, "username");
+        if (!authService.register(username, Json.getString(body, "password"), Json.getString(body, "role"))) {
+            throw new ApiException(400, "Registration failed for " + username);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("username", username);
+        return new Result(201, json);
+    }
+
+    private Result createSession(Map<String, Object> body) {
+        String token = authService.createSession(Json.getString(body, "username"), Json.getString(body, "password"));
+        if (token == null) {
+            throw new ApiException(401, "Invalid credentials");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("token", token);
+        return new Result(201, json);
+    }
+
+    private Result createTask(Map<String, Object> body, User user) {
+        int priority = Json.getInt(body, "priority", 0);
+        Task task = workflowService.createTask(Json.getString(body, "description"), priority, user);
+        if (task == null) {
+            requirePermission(user, Permission.CREATE, priority);
+            throw new ApiException(400, "Invalid task");
+        }
+        notificationService.attachObserver(task, user);
+        return new Result(201, toJson(task));
+    }
+
+    private Result processTask(String taskId, Map<String, Object> body, User user) {
+        Task task = findTask(taskId);
+        boolean approve = Json.getBoolean(body, "approve");
+        if (!workflowService.processTask(user, task, approve, Json.getString(body, "reason"))) {
+            if (!approve || definition == null) {
+                requirePermission(user, approve ? Permission.APPROVE : Permission.REJECT, task.getPriority());
+            }
+            throw refusedDecision(task, user);
+        }
+        return Result.ok(toJson(task));
+    }
+
+    /**
+     * Explains a refused decision the way {@link BulkResult} outcomes are reported: 404 if the task is gone, 409 if
+     * it is no longer pending, otherwise 403, as the router or workflow definition would not let the user decide it.
+     */
+    private ApiException refusedDecision(Task task, User user) {
+        Task current = workflowService.getTask(task.getNumericId());
+        if (current == null) {
+            return new ApiException(404, "Task not found: " + task.getId());
+        }
+        if (current.getState() != TaskState.PENDING) {
+            return new ApiException(409, "Task " + task.getId() + " is already " + current.getState());
+        }
+        WorkflowDefinition stages = definition;
+        if (stages != null) {
+            return new ApiException(403, "Permission denied: " + user.getUsername() + " (" + user.getRole()
+                    + ") has no open step in the current stage of task " + task.getId() + ", which is waiting for "
+                    + stages.getWaitingRoles(current));
+        }
+        return new ApiException(403, "Permission denied: " + user.getUsername() + " (" + user.getRole()
+                + ") cannot decide task " + task.getId() + " at its current stage");
+    }
+
+    /**
+     * Applies one decision to the listed task IDs, or to every pending task matching the filter fields; deciding
+     * every pending task takes {@code all: true}.
+     */
+    @SuppressWarnings("unchecked")
+    private Result processTasks(Map<String, Object> body, User user) {
+        Decision decision = Json.getBoolean(body, "approve")
+                ? Decision.approve() : Decision.reject(Json.getString(body, "reason"));
+        BulkResult result;
+        Object ids = body.get("ids");
+        if (ids != null) {
+            if (!(ids instanceof List) || !((List<Object>) ids).stream().allMatch(id -> id instanceof String)) {
+                throw new ApiException(400, "Field 'ids' must be an array of strings");
+            }
+            result = workflowService.processTasks(user, (List<String>) (List<?>) ids, decision);
+        } else {
+            int priority = Json.getInt(body, "priority", 0);
+            String creator = Json.getString(body, "creator");
+            // An empty filter would decide every pending task, so that has to be asked for
+            if (priority == 0 && creator == null && !(body.containsKey("all") && Json.getBoolean(body, "all"))) {
+                throw new ApiException(400, "Give 'ids', a 'priority' or 'creator' filter, or 'all': true");
+            }
+            TaskQuery query = TaskQuery.builder()
+                    .status(TaskState.PENDING)
+                    .priority(priority)
+                    .creator(creator)
+                    .build();
+            result = workflowService.processTasks(user, query, decision);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (BulkResult.Outcome outcome : BulkResult.Outcome.values()) {
+            json.put(outcome.name().toLowerCase(), result.count(outcome));
+        }
+        json.put("alreadyDecidedIds", result.taskIds(BulkResult.Outcome.ALREADY_DECIDED));
+        json.put("notFoundIds", result.taskIds(BulkResult.Outcome.NOT_FOUND));
+        json.put("forbiddenIds", result.taskIds(BulkResult.Outcome.FORBIDDEN));
+        return Result.ok(json);
+    }
+
+    private Result rollbackTask(String taskId, Map<String, Object> body, User user) {
+        Task task = findTask(taskId);
+        int steps = Json.getInt(body, "steps", 1);
+        if (!workflowService.rollbackTask(user, task, steps)) {
+            requirePermission(user, Permission.ROLLBACK, task.getPriority());
+            throw new ApiException(409, "Task " + task.getId() + " cannot be rolled back " + steps + " step(s)");
+        }
+        return Result.ok(toJson(task));
+    }
+
+    private Result listTasks(Map<String, String> params) {
+        TaskQuery.Builder query = TaskQuery.builder();
+        if (params.containsKey("status")) {
+            query.status(TaskState.valueOf(params.get("status").toUpperCase()));
+        }
+        if (params.containsKey("priority")) {
+            query.priority(Integer.parseInt(params.get("priority")));
+        }
+        if (params.containsKey("creator")) {
+            query.creator(params.get("creator"));
+        }
+        if (params.containsKey("sort")) {
+            query.sort(TaskQuery.Sort.valueOf(params.get("sort").toUpperCase()));
+        }
+        if (params.containsKey("after")) {
+            query.after(params.get("after"));
+        }
+        int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException(400, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<Object> tasks = workflowService.query(query.limit(limit).build())
+                .map(ApiServer::toJson)
+                .collect(Collectors.toList());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("tasks", tasks);
+        json.put("next", tasks.size() == limit ? ((Map<?, ?>) tasks.get(tasks.size() - 1)).get("id") : null);
+        return Result.ok(json);
+    }
+
+    private Result searchTasks(Map<String, String> params) {
+        if (!params.containsKey("q")) {
+            throw new ApiException(400, "Missing parameter 'q'");
+        }
+        TaskSearch.Builder search = TaskSearch.builder(params.get("q"));
+        if (params.containsKey("status")) {
+            search.status(TaskState.valueOf(params.get("status").toUpperCase()));
+        }
+        if (params.containsKey("priority")) {
+            search.priority(Integer.parseInt(params.get("priority")));
+        }
+        if (params.containsKey("limit")) {
+            search.limit(Integer.parseInt(params.get("limit")));
+        }
+        SearchResult result = workflowService.search(search.build());
+        List<Object> tasks = new ArrayList<>();
+        for (int i = 0; i < result.getTasks().size(); i++) {
+            Map<String, Object> task = toJson(result.getTasks().get(i));
+            task.put("score", result.getScore(i));
+            tasks.add(task);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("total", result.getTotalHits());
+        json.put("tasks", tasks);
+        return Result.ok(json);
+    }
+
+    private Result taskHistory(String taskId, Map<String, String> params) {
+        TransitionLog log = requireTransitionLog();
+        long id = TaskIdCodec.decode(taskId);
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", TaskIdCodec.encode(id));
+        if (params.containsKey("at")) {
+            long at = Long.parseLong(params.get("at"));
+            TaskState state = log.stateAt(id, at);
+            json.put("at", at);
+            json.put("state", state == null ? null : state.name());
+        } else {
+            json.put("transitions", log.history(id).stream().map(ApiServer::toJson).collect(Collectors.toList()));
+        }
+        return Result.ok(json);
+    }
+
+    /**
+     * Counts transitions in a time range (default: all time), optionally by kind, target state, actor and role,
+     * or grouped by actor or role.
+     */
+    private Result countTransitions(Map<String, String> params) {
+        TransitionLog log = requireTransitionLog();
+        long from = params.containsKey("from") ? Long.parseLong(params.get("from")) : Long.MIN_VALUE;
+        long to = params.containsKey("to") ? Long.parseLong(params.get("to")) : Long.MAX_VALUE;
+        Transition.Kind kind = params.containsKey("kind")
+                ? Transition.Kind.valueOf(params.get("kind").toUpperCase()) : null;
+        TaskState state = params.containsKey("state") ? TaskState.valueOf(params.get("state").toUpperCase()) : null;
+        Map<String, Object> json = new LinkedHashMap<>();
+        if ("actor".equals(params.get("groupBy"))) {
+            json.put("byActor", new LinkedHashMap<String, Object>(log.countByActor(from, to, kind, state)));
+        } else if ("role".equals(params.get("groupBy"))) {
+            json.put("byRole", new LinkedHashMap<String, Object>(log.countByRole(from, to, kind, state)));
+        } else {
+            json.put("count", log.count(from, to, kind, state, params.get("actor"), params.get("role")));
+        }
+        return Result.ok(json);
+    }
+
+    private TransitionLog requireTransitionLog() {
+        TransitionLog log = transitions;
+        if (log == null) {
+            throw new ApiException(404, "Transition history is not enabled");
+        }
+        return log;
+    }
+
+    /**
+     * Runs each operation in order and reports one result per operation; a failed operation does not
+     * stop the ones after it.
+     */
+    @SuppressWarnings("unchecked")
+    private Result batch(Object body, User user) {
+        if (!(body instanceof List)) {
+            throw new ApiException(400, "Expected a JSON array of operations");
+        }
+        List<Object> operations = (List<Object>) body;
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new ApiException(400, "At most " + MAX_BATCH_SIZE + " operations per batch");
+        }
+        List<Object> results = new ArrayList<>(operations.size());
+        for (Object operation : operations) {
+            Result result;
+            try {
+                if (!(operation instanceof Map)) {
+                    throw new ApiException(400, "Each operation must be a JSON object");
+                }
+                result = runOperation((Map<String, Object>) operation, user);
+            } catch (ApiException e) {
+                result = Result.error(e.status, e.getMessage());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                result = Result.error(400, e.getMessage());
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("status", result.status);
+            json.put("body", result.body);
+            results.add(json);
+        }
+        return Result.ok(results);
+    }
+
+    private Result runOperation(Map<String, Object> operation, User user) {
+        String op = Json.getString(operation, "op");
+        if ("create".equals(op)) {
+            return createTask(operation, user);
+        }
+        if ("process".equals(op)) {
+            return processTask(Json.getString(operation, "id"), operation, user);
+        }
+        if ("rollback".equals(op)) {
+            return rollbackTask(Json.getString(operation, "id"), operation, user);
+        }
+        throw new ApiException(400, "Unknown operation " + op);
+    }
+
+    private Task findTask(String taskId) {
+        Task task = taskId == null ? null : workflowService.getTask(taskId);
+        if (task == null) {
+            throw new ApiException(404, "Task not found: " + taskId);
+        }
+        return task;
+    }
+
+    /**
+     * Explains a refused operation as forbidden if the user lacks the permission at the given priority.
+     */
+    private void requirePermission(User user, Permission permission, int priority) {
+        AccessControl control = access;
+        if (control != null && priority >= 1 && !control.isAllowed(user, permission, priority)) {
+            throw new ApiException(403, "Role " + user.getRole() + " cannot " + permission.getVerb() + " priority "
+                    + priority + " tasks");
+        }
+    }
+
+    private User authenticate(HttpExchange exchange) {
+        User user = authService.validateSession(bearerToken(exchange));
+        if (user == null) {
+            throw new ApiException(401, "Missing or expired session");
+        }
+        return user;
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new ApiException(405, "Method " + method + " not allowed");
+        }
+    }
+
+    private static Map<String, String> queryParameters(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && eq < pair.length() - 1) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static Map<String, Object> toJson(Task task) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", task.getId());
+        json.put("description", task.getDescription());
+        json.put("priority", task.getPriority());
+        json.put("state", task.getState().name());
+        json.put("status", task.getStatus());
+        json.put("approver", task.getApprover());
+        json.put("reason", task.getReason());
+        json.put("creator", task.getCreator());
+        json.put("createdAt", task.getCreatedAt());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Transition transition) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("time", transition.getTime());
+        json.put("kind", transition.getKind().name());
+        json.put("from", transition.getFrom() == null ? null : transition.getFrom().name());
+        json.put("to", transition.getTo().name());
+        json.put("actor", transition.getActor());
+        json.put("role", transition.getRole());
+        json.put("reason", transition.getReason());
+        return json;
+    }
+
+    private static final class Result {
+        final int status;
+        final Object body;
+
+        Result(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Result ok(Object body) {
+            return new Result(200, body);
+        }
+
+        static Result error(int status, String message) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("error", message);
+            return new Result(status, json);
+        }
+    }
+
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
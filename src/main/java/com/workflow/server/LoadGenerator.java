@@ -0,0 +1,192 @@
+package com.workflow.server;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.NotificationService;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local load generator for {@link ApiServer}. Each client thread registers a user, opens a session and then
+ * repeatedly creates, processes and rolls back a task over one kept-alive connection pool, recording the
+ * latency of every request. Prints requests/second and p50/p99/max latency per operation.
+ * <p>
+ * Usage: {@code LoadGenerator [--url http://host:port] [--clients 16] [--iterations 2000] [--server-threads 16]}.
+ * Without {@code --url} an in-process server is started on a free port.
+ */
+public class LoadGenerator {
+    private static final String[] OPERATIONS = {"create", "process", "rollback"};
+
+    private final String baseUrl;
+    private final int clients;
+    private final int iterations;
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    public LoadGenerator(String baseUrl, int clients, int iterations) {
+        if (clients < 1 || iterations < 1) {
+            throw new IllegalArgumentException("Clients and iterations must be positive");
+        }
+        this.baseUrl = baseUrl;
+        this.clients = clients;
+        this.iterations = iterations;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "2000"));
+        String url = options.get("url");
+        ApiServer server = null;
+        if (url == null) {
+            if (System.getProperty("workflow.log.level") == null) {
+                // Per-request INFO lines would flood the console and the log queue
+                Log.setLevel(Level.WARN);
+            }
+            int serverThreads = Integer.parseInt(options.getOrDefault("server-threads", "16"));
+            WorkflowService workflowService = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+            NotificationService notificationService = new NotificationService();
+            workflowService.setSubscriptionRegistry(notificationService.getRegistry());
+            server = new ApiServer(new AuthenticationService(), workflowService, notificationService,
+                    new InetSocketAddress("127.0.0.1", 0), serverThreads);
+            server.start();
+            url = "http://127.0.0.1:" + server.getPort();
+        }
+        try {
+            new LoadGenerator(url, clients, iterations).run();
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+
+    /**
+     * Runs the load and prints the report.
+     */
+    public void run() throws InterruptedException {
+        long[][][] latencies = new long[clients][OPERATIONS.length][iterations];
+        int[] completed = new int[clients];
+        int[] failures = new int[clients];
+        Thread[] threads = new Thread[clients];
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                String username = "load-" + runId + "-" + client;
+                try {
+                    failures[client] = runClient(username, latencies[client], completed, client);
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    System.out.println("Error: Load client " + username + " stopped: " + e);
+                    failures[client]++;
+                }
+            }, "load-client-" + c);
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(latencies, completed, Arrays.stream(failures).sum(), seconds);
+    }
+
+    private int runClient(String username, long[][] latencies, int[] completed, int client)
+            throws IOException, InterruptedException {
+        int failures = 0;
+        send("POST", "/api/users", null,
+                "{\"username\":\"" + username + "\",\"password\":\"secret\",\"role\":\"Senior\"}");
+        Map<String, Object> session = Json.parseObject(send("POST", "/api/sessions", null,
+                "{\"username\":\"" + username + "\",\"password\":\"secret\"}").body());
+        String token = (String) session.get("token");
+        if (token == null) {
+            throw new IllegalStateException("Login failed for " + username);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < iterations; i++) {
+            // Seniors may reject any task but only approve priority 3 ones
+            boolean approve = random.nextBoolean();
+            int priority = approve ? 3 : 1 + random.nextInt(3);
+            long t0 = System.nanoTime();
+            HttpResponse<String> created = send("POST", "/api/tasks", token,
+                    "{\"description\":\"Load task " + i + "\",\"priority\":" + priority + "}");
+            long t1 = System.nanoTime();
+            String id = (String) Json.parseObject(created.body()).get("id");
+            HttpResponse<String> processed = send("POST", "/api/tasks/" + id + "/process", token,
+                    approve ? "{\"approve\":true}" : "{\"approve\":false,\"reason\":\"Load test\"}");
+            long t2 = System.nanoTime();
+            HttpResponse<String> rolledBack = send("POST", "/api/tasks/" + id + "/rollback", token, "{\"steps\":1}");
+            long t3 = System.nanoTime();
+            latencies[0][i] = t1 - t0;
+            latencies[1][i] = t2 - t1;
+            latencies[2][i] = t3 - t2;
+            failures += (created.statusCode() >= 400 ? 1 : 0) + (processed.statusCode() >= 400 ? 1 : 0)
+                    + (rolledBack.statusCode() >= 400 ? 1 : 0);
+            completed[client] = i + 1;
+        }
+        return failures;
+    }
+
+    private HttpResponse<String> send(String method, String path, String token, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void report(long[][][] latencies, int[] completed, int failures, double seconds) {
+        int iterationsDone = Arrays.stream(completed).sum();
+        if (iterationsDone == 0) {
+            System.out.println("Error: No iterations completed");
+            return;
+        }
+        long total = (long) iterationsDone * OPERATIONS.length;
+        System.out.printf("%d clients x %d iterations: %d requests in %.2f s, %.0f req/s, %d failed%n",
+                clients, iterations, total, seconds, total / seconds, failures);
+        System.out.printf("%-10s %12s %10s %10s %10s%n", "operation", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            long[] all = new long[iterationsDone];
+            int offset = 0;
+            for (int c = 0; c < clients; c++) {
+                System.arraycopy(latencies[c][op], 0, all, offset, completed[c]);
+                offset += completed[c];
+            }
+            Arrays.sort(all);
+            System.out.printf("%-10s %12.0f %10.3f %10.3f %10.3f%n", OPERATIONS[op], all.length / seconds,
+                    percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value pairs, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
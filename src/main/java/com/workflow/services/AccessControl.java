@@ -0,0 +1,211 @@
+package com.workflow.services;
+
+import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Answers whether a user may perform a {@link Permission} on a task of a given priority under an
+ * {@link AccessPolicy}. A user holds their own role plus the roles delegated to them by other users; the
+ * resulting permission masks per priority are computed once and cached by username, so a check is a map lookup
+ * and a bit test. The cache follows the user's current role, and delegations and policy changes invalidate it.
+ * A delegation grants the delegator's current role, looked up by name when the grants are computed, so a
+ * delegator who is demoted or removed stops granting the old role. Delegations are kept in memory only.
+ */
+public class AccessControl {
+    private static final Logger LOG = Log.getLogger(AccessControl.class);
+
+    private final Map<String, Grants> cache = new ConcurrentHashMap<>();
+    // Delegate username -> delegator usernames
+    private final Map<String, Set<String>> delegations = new ConcurrentHashMap<>();
+    private volatile AccessPolicy policy;
+    private volatile Function<String, User> users = username -> null;
+    private volatile int epoch;
+
+    public AccessControl() {
+        this(AccessPolicy.defaults());
+    }
+
+    public AccessControl(AccessPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy cannot be null");
+        }
+        this.policy = policy;
+    }
+
+    public AccessPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets where delegators are looked up by username; {@link AuthenticationService#setAccessControl} sets itself.
+     * Until one is set, delegations grant nothing.
+     */
+    public synchronized void setUsers(Function<String, User> users) {
+        if (users == null) {
+            throw new IllegalArgumentException("User lookup cannot be null");
+        }
+        this.users = users;
+        invalidateAll();
+    }
+
+    /**
+     * Replaces the policy; cached decisions are discarded.
+     */
+    public synchronized void setPolicy(AccessPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy cannot be null");
+        }
+        this.policy = policy;
+        invalidateAll();
+    }
+
+    public boolean isAllowed(User user, Permission permission, int priority) {
+        if (user == null || permission == null) {
+            return false;
+        }
+        int[] masks = grants(user).masks;
+        return priority >= 0 && priority < masks.length && (masks[priority] & permission.bit()) != 0;
+    }
+
+    /**
+     * Returns the priorities at which the user holds the permission, highest first.
+     */
+    public int[] priorities(User user, Permission permission) {
+        if (user == null || permission == null) {
+            return new int[0];
+        }
+        int[] masks = grants(user).masks;
+        int count = 0;
+        int[] priorities = new int[masks.length];
+        for (int priority = masks.length - 1; priority > 0; priority--) {
+            if ((masks[priority] & permission.bit()) != 0) {
+                priorities[count++] = priority;
+            }
+        }
+        return Arrays.copyOf(priorities, count);
+    }
+
+    /**
+     * Lets {@code delegate} act with the delegator's role, e.g. while the delegator is away, until
+     * {@link #revoke revoked}. The role is the delegator's at each check, not at this call. Returns false if the
+     * delegator's role is unknown to the policy.
+     */
+    public synchronized boolean delegate(User delegator, String delegate) {
+        if (delegator == null || delegate == null || delegate.trim().isEmpty()) {
+            LOG.warn("Delegator and delegate cannot be empty");
+            return false;
+        }
+        if (delegator.getUsername().equals(delegate)) {
+            LOG.warn("Users cannot delegate to themselves");
+            return false;
+        }
+        if (!policy.hasRole(delegator.getRole())) {
+            LOG.warn("Cannot delegate unknown role {}", delegator.getRole());
+            return false;
+        }
+        delegations.computeIfAbsent(delegate, k -> ConcurrentHashMap.newKeySet()).add(delegator.getUsername());
+        invalidateAll();
+        LOG.info("{} delegated {} rights to {}", delegator.getUsername(), delegator.getRole(), delegate);
+        return true;
+    }
+
+    /**
+     * Ends a delegation. Returns false if there was none.
+     */
+    public synchronized boolean revoke(String delegator, String delegate) {
+        Set<String> byDelegator = delegate == null ? null : delegations.get(delegate);
+        if (byDelegator == null || delegator == null || !byDelegator.remove(delegator)) {
+            return false;
+        }
+        if (byDelegator.isEmpty()) {
+            delegations.remove(delegate);
+        }
+        invalidateAll();
+        return true;
+    }
+
+    /**
+     * Returns who delegated to the user, with the role each of them holds now. Delegators who no longer exist
+     * are left out.
+     */
+    public Map<String, String> getDelegations(String delegate) {
+        Set<String> byDelegator = delegate == null ? null : delegations.get(delegate);
+        if (byDelegator == null) {
+            return Collections.emptyMap();
+        }
+        Function<String, User> lookup = users;
+        Map<String, String> roles = new LinkedHashMap<>();
+        for (String delegator : byDelegator) {
+            User user = lookup.apply(delegator);
+            if (user != null) {
+                roles.put(delegator, user.getRole());
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * Drops a user's cached decisions, e.g. after their role changed, and those of everyone they delegated to.
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        for (Set<String> byDelegator : delegations.values()) {
+            if (byDelegator.contains(username)) {
+                synchronized (this) {
+                    invalidateAll();
+                }
+                return;
+            }
+        }
+        cache.remove(username);
+    }
+
+    private void invalidateAll() {
+        epoch++;
+        cache.clear();
+    }
+
+    private Grants grants(User user) {
+        Grants grants = cache.get(user.getUsername());
+        if (grants != null && grants.epoch == epoch && grants.role.equals(user.getRole())) {
+            return grants;
+        }
+        // Read the epoch first: a change made while computing makes the entry stale on the next check
+        int current = epoch;
+        AccessPolicy currentPolicy = policy;
+        long roles = currentPolicy.roleSet(user.getRole());
+        for (String role : getDelegations(user.getUsername()).values()) {
+            roles |= currentPolicy.roleSet(role);
+        }
+        int[] masks = new int[currentPolicy.getWidth()];
+        for (int priority = 0; priority < masks.length; priority++) {
+            masks[priority] = currentPolicy.permissions(roles, priority);
+        }
+        grants = new Grants(user.getRole(), current, masks);
+        cache.put(user.getUsername(), grants);
+        return grants;
+    }
+
+    private static final class Grants {
+        final String role;
+        final int epoch;
+        final int[] masks;
+
+        Grants(String role, int epoch, int[] masks) {
+            this.role = role;
+            this.epoch = epoch;
+            this.masks = masks;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.workflow.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which roles may do what to tasks of which priority, compiled once into a lookup table.
+ * Roles are interned to indexes (at most 64, so a set of roles is one {@code long}) and permissions to bits
+ * (see {@link Permission#bit}). A role inherits every grant of its parent roles; the inheritance closure is
+ * folded in at build time, so the table holds one permission mask per role and priority and a check is a single
+ * array read.
+ */
+public final class AccessPolicy {
+    private static final int MAX_ROLES = Long.SIZE;
+
+    private final Map<String, Integer> roleIndexes;
+    private final int width;
+    private final int[] table;
+
+    private AccessPolicy(Map<String, Integer> roleIndexes, int width, int[] table) {
+        this.roleIndexes = roleIndexes;
+        this.width = width;
+        this.table = table;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The built-in policy: every role may create, reject and roll back tasks of any priority, and Juniors,
+     * Managers and Seniors approve priorities 1, 2 and 3 respectively.
+     */
+    public static AccessPolicy defaults() {
+        return builder()
+                .role("Member")
+                .grant("Member", 1, 3, Permission.CREATE, Permission.REJECT, Permission.ROLLBACK)
+                .role("Junior", "Member")
+                .grant("Junior", 1, 1, Permission.APPROVE)
+                .role("Manager", "Member")
+                .grant("Manager", 2, 2, Permission.APPROVE)
+                .role("Senior", "Member")
+                .grant("Senior", 3, 3, Permission.APPROVE)
+                .build();
+    }
+
+    public boolean hasRole(String role) {
+        return role != null && roleIndexes.containsKey(role);
+    }
+
+    public Set<String> getRoles() {
+        return Collections.unmodifiableSet(roleIndexes.keySet());
+    }
+
+    /**
+     * Returns the set of roles containing just {@code role}, or 0 if it is unknown.
+     */
+    public long roleSet(String role) {
+        Integer index = role == null ? null : roleIndexes.get(role);
+        return index == null ? 0 : 1L << index;
+    }
+
+    /**
+     * Returns the permission mask held at a priority by any role in the set.
+     */
+    public int permissions(long roles, int priority) {
+        if (priority < 0 || priority >= width) {
+            return 0;
+        }
+        int mask = 0;
+        for (long rest = roles; rest != 0; rest &= rest - 1) {
+            mask |= table[Long.numberOfTrailingZeros(rest) * width + priority];
+        }
+        return mask;
+    }
+
+    public boolean isAllowed(String role, Permission permission, int priority) {
+        return (permissions(roleSet(role), priority) & permission.bit()) != 0;
+    }
+
+    /**
+     * Returns one past the highest priority any grant covers.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Collects roles, their parents and their grants. Parents must be declared before their children, which
+     * also rules out inheritance cycles.
+     */
+    public static class Builder {
+        private final Map<String, Integer> roleIndexes = new LinkedHashMap<>();
+        private final List<Long> parents = new ArrayList<>();
+        private final List<int[]> grants = new ArrayList<>();
+
+        public Builder role(String role, String... parentRoles) {
+            if (role == null || role.trim().isEmpty()) {
+                throw new IllegalArgumentException("Role cannot be empty");
+            }
+            if (roleIndexes.containsKey(role)) {
+                throw new IllegalArgumentException("Role already declared: " + role);
+            }
+            if (roleIndexes.size() == MAX_ROLES) {
+                throw new IllegalArgumentException("At most " + MAX_ROLES + " roles are supported");
+            }
+            long parentSet = 0;
+            for (String parent : parentRoles) {
+                parentSet |= 1L << index(parent);
+            }
+            roleIndexes.put(role, roleIndexes.size());
+            parents.add(parentSet);
+            return this;
+        }
+
+        /**
+         * Grants permissions on tasks with priorities in {@code [minPriority, maxPriority]}.
+         */
+        public Builder grant(String role, int minPriority, int maxPriority, Permission... permissions) {
+            if (minPriority < 1 || maxPriority < minPriority) {
+                throw new IllegalArgumentException("Invalid priority range " + minPriority + "-" + maxPriority);
+            }
+            int mask = 0;
+            for (Permission permission : permissions) {
+                mask |= permission.bit();
+            }
+            grants.add(new int[]{index(role), minPriority, maxPriority, mask});
+            return this;
+        }
+
+        private int index(String role) {
+            Integer index = role == null ? null : roleIndexes.get(role);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown role: " + role);
+            }
+            return index;
+        }
+
+        public AccessPolicy build() {
+            int roles = roleIndexes.size();
+            int width = 1;
+            for (int[] grant : grants) {
+                width = Math.max(width, grant[2] + 1);
+            }
+            int[] direct = new int[roles * width];
+            for (int[] grant : grants) {
+                for (int priority = grant[1]; priority <= grant[2]; priority++) {
+                    direct[grant[0] * width + priority] |= grant[3];
+                }
+            }
+            // Parents come first, so each role's ancestors are already closed when it is reached
+            long[] ancestors = new long[roles];
+            int[] table = Arrays.copyOf(direct, direct.length);
+            for (int role = 0; role < roles; role++) {
+                long closure = 1L << role;
+                for (long rest = parents.get(role); rest != 0; rest &= rest - 1) {
+                    closure |= ancestors[Long.numberOfTrailingZeros(rest)];
+                }
+                ancestors[role] = closure;
+                for (long rest = closure; rest != 0; rest &= rest - 1) {
+                    int ancestor = Long.numberOfTrailingZeros(rest);
+                    for (int priority = 0; priority < width; priority++) {
+                        table[role * width + priority] |= direct[ancestor * width + priority];
+                    }
+                }
+            }
+            return new AccessPolicy(new LinkedHashMap<>(roleIndexes), width, table);
+        }
+    }
+}
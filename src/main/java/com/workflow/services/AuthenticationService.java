@@ -1,48 +1,216 @@
 package com.workflow.services;
 
 import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.metrics.Histogram;
+import com.workflow.metrics.Metrics;
+import com.workflow.persistence.Journal;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Manages user authentication and registration.
+ * Passwords are stored as salted PBKDF2 hashes. Clients that authenticate on every call should log in
+ * once with {@link #createSession} and then use {@link #validateSession}, which does not re-hash.
  */
 public class AuthenticationService {
-    private Map<String, User> users = new HashMap<>();
+    private static final Logger LOG = Log.getLogger(AuthenticationService.class);
+    private static final int DEFAULT_MAX_SESSIONS = 100_000;
+    private static final long DEFAULT_SESSION_TTL_MILLIS = 30 * 60 * 1000L;
+    private static final Histogram LOGIN_LATENCY = Metrics.latency("AuthenticationService.login");
+    private static final Histogram SESSION_LATENCY = Metrics.latency("AuthenticationService.validateSession");
 
-    public void register(String username, String password, String role) {
+    private final ConcurrentMap<String, User> users = new ConcurrentHashMap<>();
+    private final PasswordHasher hasher;
+    private final SessionCache sessions;
+    private final String dummyHash;
+    private volatile Journal journal = Journal.NONE;
+    private volatile AccessControl access;
+
+    public AuthenticationService() {
+        this(new PasswordHasher(), new SessionCache(DEFAULT_MAX_SESSIONS, DEFAULT_SESSION_TTL_MILLIS));
+    }
+
+    public AuthenticationService(PasswordHasher hasher, SessionCache sessions) {
+        if (hasher == null || sessions == null) {
+            throw new IllegalArgumentException("Hasher and session cache cannot be null");
+        }
+        this.hasher = hasher;
+        this.sessions = sessions;
+        // Verified against for unknown usernames so a failed lookup costs as much as a wrong password
+        this.dummyHash = hasher.hash("unused-password");
+    }
+
+    /**
+     * Registers a new user. Returns false, after logging the reason, if the details are invalid or taken.
+     */
+    public boolean register(String username, String password, String role) {
         if (username == null || username.trim().isEmpty()) {
-            System.out.println("Error: Username cannot be empty");
-            return;
+            LOG.warn("Username cannot be empty");
+            return false;
         }
         if (password == null || password.length() < 4) {
-            System.out.println("Error: Password must be at least 4 characters");
-            return;
+            LOG.warn("Password must be at least 4 characters");
+            return false;
         }
-        if (role == null || role.trim().isEmpty()) {
-            System.out.println("Error: Role cannot be empty");
-            return;
+        if (!isKnownRole(role)) {
+            return false;
         }
         if (users.containsKey(username)) {
-            System.out.println("Error: Username already exists");
-            return;
+            LOG.warn("Username already exists");
+            return false;
+        }
+        User user = new User(username, hasher.hash(password), role);
+        if (users.putIfAbsent(username, user) != null) {
+            LOG.warn("Username already exists");
+            return false;
+        }
+        journal.awaitDurable(journal.userRegistered(user));
+        LOG.info("User registered: {}", username);
+        return true;
+    }
+
+    /**
+     * Gives a registered user a new role, effective for their next operation, including through existing
+     * sessions. Returns false if the user or role is unknown.
+     */
+    public boolean changeRole(String username, String role) {
+        User user = getUser(username);
+        if (user == null) {
+            LOG.warn("User not found: {}", username);
+            return false;
+        }
+        if (!isKnownRole(role)) {
+            return false;
+        }
+        long position;
+        synchronized (user) {
+            user.setRole(role);
+            // Replay keeps the last registration of a username, so re-journaling the user records the new role
+            position = journal.userRegistered(user);
         }
-        users.put(username, new User(username, password, role));
-        System.out.println("User registered: " + username);
+        AccessControl control = access;
+        if (control != null) {
+            control.invalidate(username);
+        }
+        journal.awaitDurable(position);
+        LOG.info("User {} is now {}", username, role);
+        return true;
+    }
+
+    private boolean isKnownRole(String role) {
+        if (role == null || role.trim().isEmpty()) {
+            LOG.warn("Role cannot be empty");
+            return false;
+        }
+        AccessControl control = access;
+        if (control != null && !control.getPolicy().hasRole(role)) {
+            LOG.warn("Unknown role {}; expected one of {}", role, control.getPolicy().getRoles());
+            return false;
+        }
+        return true;
     }
 
     public User login(String username, String password) {
         if (username == null || password == null) {
-            System.out.println("Error: Username and password cannot be null");
+            LOG.warn("Username and password cannot be null");
             return null;
         }
-        User user = users.get(username);
-        if (user != null && user.getPassword().equals(password)) {
-            System.out.println("Login successful: " + username);
+        User user = authenticate(username, password);
+        if (user != null) {
+            LOG.info("Login successful: {}", username);
             return user;
         }
-        System.out.println("Login failed: Invalid credentials");
+        LOG.info("Login failed: Invalid credentials");
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies the credentials once and returns a session token for later calls, or null if they are invalid.
+     */
+    public String createSession(String username, String password) {
+        if (username == null || password == null) {
+            return null;
+        }
+        User user = authenticate(username, password);
+        return user == null ? null : sessions.create(user);
+    }
+
+    /**
+     * Returns the user behind a session token, or null if it is unknown or expired.
+     */
+    public User validateSession(String token) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        User user = sessions.validate(token);
+        if (Metrics.ENABLED) {
+            SESSION_LATENCY.recordSince(start);
+        }
+        return user;
+    }
+
+    public void logout(String token) {
+        sessions.invalidate(token);
+    }
+
+    private User authenticate(String username, String password) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        User user = verifyCredentials(username, password);
+        if (Metrics.ENABLED) {
+            LOGIN_LATENCY.recordSince(start);
+        }
+        return user;
+    }
+
+    private User verifyCredentials(String username, String password) {
+        User user = users.get(username);
+        if (user == null) {
+            hasher.verify(password, dummyHash);
+            return null;
+        }
+        return hasher.verify(password, user.getPasswordHash()) ? user : null;
+    }
+
+    /**
+     * Returns the registered user with the given name, or null. Does not check credentials.
+     */
+    public User getUser(String username) {
+        return username == null ? null : users.get(username);
+    }
+
+    public Collection<User> getUsers() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    /**
+     * Adds a user recovered from persistent storage, replacing any earlier copy, without journaling it again.
+     */
+    public void recoverUser(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * Restricts roles to those known to the access control's policy, and drops a user's cached permissions when
+     * their role changes. The access control looks up delegators here.
+     */
+    public void setAccessControl(AccessControl access) {
+        if (access == null) {
+            throw new IllegalArgumentException("Access control cannot be null");
+        }
+        access.setUsers(this::getUser);
+        this.access = access;
+    }
+
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        this.journal = journal;
+    }
+}
@@ -0,0 +1,82 @@
+package com.workflow.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-task outcome of {@link WorkflowService#processTasks}, in the order the tasks were given.
+ */
+public class BulkResult {
+    /**
+     * What happened to one task.
+     */
+    public enum Outcome {
+        PROCESSED,
+        /** The task was no longer pending, e.g. decided earlier or by a concurrent operation. */
+        ALREADY_DECIDED,
+        NOT_FOUND,
+        /** The acting user may not make the decision at the task's priority. */
+        FORBIDDEN
+    }
+
+    private final String[] taskIds;
+    private final Outcome[] outcomes;
+    private final long elapsedNanos;
+
+    /**
+     * @param outcomes the outcome of each task, at the same index as its ID
+     */
+    public BulkResult(String[] taskIds, Outcome[] outcomes, long elapsedNanos) {
+        if (taskIds == null || outcomes == null || taskIds.length != outcomes.length) {
+            throw new IllegalArgumentException("Every task ID needs exactly one outcome");
+        }
+        this.taskIds = taskIds;
+        this.outcomes = outcomes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int size() {
+        return taskIds.length;
+    }
+
+    public String getTaskId(int index) {
+        return taskIds[index];
+    }
+
+    public Outcome getOutcome(int index) {
+        return outcomes[index];
+    }
+
+    public int count(Outcome outcome) {
+        int count = 0;
+        for (Outcome o : outcomes) {
+            if (o == outcome) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the IDs of the tasks with the given outcome, e.g. the ones that were not found.
+     */
+    public List<String> taskIds(Outcome outcome) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == outcome) {
+                ids.add(taskIds[i]);
+            }
+        }
+        return ids;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return count(Outcome.PROCESSED) + " processed, " + count(Outcome.ALREADY_DECIDED) + " already decided, "
+                + count(Outcome.NOT_FOUND) + " not found, " + count(Outcome.FORBIDDEN) + " forbidden";
+    }
+}
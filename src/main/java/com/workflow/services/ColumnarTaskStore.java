@@ -0,0 +1,931 @@
+package com.workflow.services;
+
+import com.workflow.core.StateWord;
+import com.workflow.core.StringInterner;
+import com.workflow.core.Task;
+import com.workflow.core.TaskIdGenerator;
+import com.workflow.core.TaskState;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.patterns.memento.HistoryPolicy;
+import com.workflow.patterns.memento.MementoCaretaker;
+import com.workflow.patterns.memento.TaskMemento;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link TaskStore} that keeps tasks as rows of primitive columns rather than as one object each, for stores
+ * of tens of millions of tasks. Each row holds the task's ID, creation time, packed state word, a one-byte copy
+ * of its state code for scans, its priority, its interned creator and the address of its description, which is
+ * kept as UTF-8 in off-heap buffers, as is a rejection's reason under the handle in the word. Columns are
+ * allocated in chunks of {@value #CHUNK_SIZE} rows and rows are found by ID through an open-addressing table of
+ * row numbers.
+ * <p>
+ * Lookups hand out a new {@link Task} view of the row each time. Views read and write the columns, so any
+ * number of them can be in use at once; observers attached directly to a view only hear about changes made
+ * through that view, so follow tasks through a {@link com.workflow.patterns.observer.SubscriptionRegistry}.
+ * A task only gets a memento history once something is saved to it, and with {@link HistoryPolicy.Terminal#DROP}
+ * loses it when decided, so an idle task costs its row and nothing else.
+ * <p>
+ * Queries scan the columns instead of keeping sorted indexes. Rows are appended in arrival order, which is ID
+ * order for a time-ordered generator except for creations that race each other; the store tracks how far any
+ * row landed from its place in ID order, and scans restore the order through a heap of that reach.
+ * Full-text search keeps a {@link TextIndex} as {@link TaskStore} does, unless turned off, since it costs more
+ * than the columns. Evicted rows are only marked: their columns, description and reason bytes stay allocated.
+ */
+public class ColumnarTaskStore extends TaskStore {
+    private static final Logger LOG = Log.getLogger(ColumnarTaskStore.class);
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** Beyond this reach rows count as unordered, and ordered scans sort everything they match. */
+    private static final int MAX_REACH = 1 << 16;
+    private static final int UNORDERED = Integer.MAX_VALUE;
+    private static final byte EVICTED = -1;
+    private static final int[] PRIORITIES_DESCENDING = {3, 2, 1};
+
+    private final TextIndex text;
+    private final StringInterner creators = new StringInterner();
+    private final Arena arena = new Arena();
+    /** Reasons, and approvers that could not be interned, of decided rows; appends lock the arena itself. */
+    private final Arena details = new Arena();
+    private final ConcurrentMap<Long, MementoCaretaker> histories = new ConcurrentHashMap<>();
+    private final AtomicInteger evicted = new AtomicInteger();
+    /** Guards appends: new rows, the ID table, the arena and the order tracking. Lookups and scans take no lock. */
+    private final Object appendLock = new Object();
+    private volatile Chunk[] chunks = new Chunk[0];
+    /** Row number plus one of each task, by ID hash; 0 marks an empty slot. */
+    private volatile int[] slots = new int[1 << 10];
+    /** Rows published so far; read first, so every column and slot write before it is visible. */
+    private volatile int rowCount;
+    /** The furthest any row sits after a row with a larger ID, or {@link #UNORDERED}. */
+    private volatile int reach;
+    private long maxId = Long.MIN_VALUE;
+
+    public ColumnarTaskStore() {
+        this(DEFAULT_STRIPES, new HistoryPolicy(), true);
+    }
+
+    /**
+     * @param textSearch whether to index descriptions for {@link #search}
+     */
+    public ColumnarTaskStore(int stripes, HistoryPolicy historyPolicy, boolean textSearch) {
+        super(stripes, historyPolicy);
+        text = textSearch ? new TextIndex() : null;
+    }
+
+    @Override
+    public boolean add(Task task, MementoCaretaker caretaker) {
+        long id = task.getNumericId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            synchronized (appendLock) {
+                if (find(id) >= 0) {
+                    return false;
+                }
+                append(task);
+            }
+            if (caretaker.size() > 0) {
+                histories.put(id, caretaker);
+            }
+            if (text != null) {
+                text.add(task);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies every task of a source into the columns, with its history. Must run on an empty store before it
+     * accepts requests; unlike {@link TaskStore#load}, the source is not needed afterwards.
+     */
+    @Override
+    public void load(TaskSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Task source cannot be null");
+        }
+        if (rowCount != 0) {
+            throw new IllegalStateException("Only an empty store can be loaded");
+        }
+        for (int i = 0; i < source.size(); i++) {
+            Task task = source.materialize(i);
+            MementoCaretaker caretaker = newCaretaker(task.getPriority());
+            source.restoreHistory(i, caretaker);
+            add(task, caretaker);
+        }
+    }
+
+    @Override
+    public void stateChanged(Task task, TaskState previous) {
+        if (text != null && task.getState() != previous) {
+            text.stateChanged(task);
+        }
+    }
+
+    @Override
+    public void priorityChanged(Task task, int previous) {
+        if (text != null && task.getPriority() != previous) {
+            text.priorityChanged(task);
+        }
+    }
+
+    /**
+     * Returns a new view of the task's row, or null if the store does not hold it.
+     */
+    @Override
+    public Task getResident(long taskId) {
+        int row = find(taskId);
+        return row < 0 ? null : view(row);
+    }
+
+    /**
+     * Marks the task's row as evicted and drops its history, text index entry and subscriptions.
+     */
+    @Override
+    public boolean evict(Task task) {
+        long id = task.getNumericId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            int row = find(id);
+            if (row < 0) {
+                return false;
+            }
+            chunks[row >>> CHUNK_BITS].states[row & CHUNK_MASK] = EVICTED;
+            evicted.incrementAndGet();
+            MementoCaretaker caretaker = histories.remove(id);
+            if (caretaker != null) {
+                caretaker.clear();
+            }
+            if (text != null) {
+                text.remove(task);
+            }
+            task.retireSubscriptions();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the task's history, or for a task without one yet an empty caretaker that is kept from its first
+     * save on. Call under the task's stripe lock.
+     */
+    @Override
+    public MementoCaretaker getCaretaker(long taskId) {
+        MementoCaretaker caretaker = histories.get(taskId);
+        if (caretaker != null) {
+            return caretaker;
+        }
+        int row = find(taskId);
+        if (row < 0) {
+            return null;
+        }
+        int priority = chunks[row >>> CHUNK_BITS].priorities[row & CHUNK_MASK];
+        return new History(taskId, getHistoryPolicy().depthFor(priority));
+    }
+
+    @Override
+    public void retire(Task task, MementoCaretaker caretaker) {
+        super.retire(task, caretaker);
+        if (getHistoryPolicy().getTerminal() == HistoryPolicy.Terminal.DROP) {
+            histories.remove(task.getNumericId(), caretaker);
+        }
+    }
+
+    /**
+     * Returns a view of every task, in the order they were added.
+     */
+    @Override
+    public Collection<Task> values() {
+        int count = rowCount;
+        Chunk[] current = chunks;
+        List<Task> tasks = new ArrayList<>(count - evicted.get());
+        for (int row = 0; row < count; row++) {
+            if (current[row >>> CHUNK_BITS].states[row & CHUNK_MASK] != EVICTED) {
+                tasks.add(view(row));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns nothing: tasks only exist as rows, and views are set up by the initializer as they are handed out.
+     */
+    @Override
+    public Collection<Task> materializedValues() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int size() {
+        return rowCount - evicted.get();
+    }
+
+    /**
+     * Streams the tasks matching a query by scanning the columns; only matching rows become views.
+     */
+    @Override
+    public Stream<Task> query(TaskQuery query, TaskIdGenerator idGenerator) {
+        int creator = 0;
+        if (query.getCreator() != null) {
+            creator = creators.find(query.getCreator()) + 1;
+            if (creator == 0) {
+                return Stream.empty();
+            }
+        }
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        if (query.getCreatedFrom() != Long.MIN_VALUE) {
+            low = idGenerator.lowestIdAt(query.getCreatedFrom());
+        }
+        if (query.getCreatedTo() != Long.MAX_VALUE && idGenerator.lowestIdAt(query.getCreatedTo()) != Long.MIN_VALUE) {
+            high = idGenerator.lowestIdAt(query.getCreatedTo());
+        }
+        int state = query.getStatus() == null ? -1 : query.getStatus().code();
+        Long cursor = query.getAfterId();
+        Stream<Task> tasks;
+        if (query.getSort() == TaskQuery.Sort.PRIORITY) {
+            int cursorPriority = Integer.MAX_VALUE;
+            if (cursor != null && query.getAfterPriority() != 0) {
+                cursorPriority = query.getAfterPriority();
+            } else if (cursor != null) {
+                int row = find(cursor);
+                cursorPriority = row < 0 ? Integer.MAX_VALUE : chunks[row >>> CHUNK_BITS].priorities[row & CHUNK_MASK];
+            }
+            int lastPriority = cursorPriority;
+            int finalCreator = creator;
+            long finalLow = low;
+            long finalHigh = high;
+            tasks = Arrays.stream(PRIORITIES_DESCENDING).boxed()
+                    .filter(p -> p <= lastPriority && (query.getPriority() == 0 || p == query.getPriority()))
+                    .flatMap(p -> scan(new Filter(state, p, finalCreator, finalLow,
+                            p == lastPriority ? cursor : null, finalHigh), false).mapToObj(this::view));
+        } else {
+            boolean descending = query.getSort() == TaskQuery.Sort.NEWEST_FIRST;
+            Filter filter = descending
+                    ? new Filter(state, query.getPriority(), creator, low, null,
+                            cursor == null ? high : Math.min(high, cursor))
+                    : new Filter(state, query.getPriority(), creator, low, cursor, high);
+            tasks = scan(filter, descending).mapToObj(this::view);
+        }
+        tasks = tasks.filter(query::matches);
+        return query.getLimit() > 0 ? tasks.limit(query.getLimit()) : tasks;
+    }
+
+    @Override
+    public SearchResult search(TaskSearch search) {
+        if (text == null) {
+            LOG.warn("Full-text search is turned off for this store");
+            return SearchResult.empty();
+        }
+        return text.search(search, this::getResident);
+    }
+
+    @Override
+    public LongStream ids() {
+        return scan(new Filter(-1, 0, 0, Long.MIN_VALUE, null, Long.MAX_VALUE), false).mapToLong(this::idAt);
+    }
+
+    /**
+     * Returns the off-heap bytes reserved for descriptions.
+     */
+    public long getDescriptionBytes() {
+        return arena.reserved();
+    }
+
+    /**
+     * Returns the off-heap bytes reserved for reasons.
+     */
+    public long getDetailBytes() {
+        return details.reserved();
+    }
+
+    /**
+     * Streams the rows that pass a filter, in ascending or descending ID order.
+     */
+    private IntStream scan(Filter filter, boolean descending) {
+        int count = rowCount;
+        int bound = reach;
+        Chunk[] current = chunks;
+        int from = filter.after == Long.MIN_VALUE ? 0 : firstRowAbove(filter.after, count, bound, current);
+        int to = filter.before == Long.MAX_VALUE ? count : endOfRowsBelow(filter.before, count, bound, current);
+        PrimitiveIterator.OfInt rows = new OrderedRows(filter, current, from, to, bound, descending);
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(rows,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the first row that can hold an ID above {@code id}: any row at most {@code id} found by a binary
+     * search bounds it, as no row that far before it can be larger.
+     */
+    private static int firstRowAbove(long id, int count, int reach, Chunk[] chunks) {
+        int low = 0;
+        int high = count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid >>> CHUNK_BITS].ids[mid & CHUNK_MASK] <= id) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return (int) Math.max(0, (long) found - reach);
+    }
+
+    /**
+     * Returns the row after the last one that can hold an ID below {@code id}.
+     */
+    private static int endOfRowsBelow(long id, int count, int reach, Chunk[] chunks) {
+        int low = 0;
+        int high = count - 1;
+        int found = count;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid >>> CHUNK_BITS].ids[mid & CHUNK_MASK] >= id) {
+                found = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return (int) Math.min(count, (long) found + reach + 1);
+    }
+
+    /**
+     * Returns the live row holding a task, or -1.
+     */
+    private int find(long id) {
+        int count = rowCount;
+        int[] table = slots;
+        Chunk[] current = chunks;
+        int mask = table.length - 1;
+        for (int i = slot(id, mask); ; i = (i + 1) & mask) {
+            int row = table[i] - 1;
+            if (row < 0) {
+                return -1;
+            }
+            // Skips rows being added, and evicted rows, since an evicted ID may be added again
+            if (row < count) {
+                Chunk chunk = current[row >>> CHUNK_BITS];
+                int offset = row & CHUNK_MASK;
+                if (chunk.ids[offset] == id && chunk.states[offset] != EVICTED) {
+                    return row;
+                }
+            }
+        }
+    }
+
+    private long idAt(int row) {
+        return chunks[row >>> CHUNK_BITS].ids[row & CHUNK_MASK];
+    }
+
+    private Task view(int row) {
+        Task task = new TaskView(chunks[row >>> CHUNK_BITS], row & CHUNK_MASK);
+        initialize(task);
+        return task;
+    }
+
+    /**
+     * Writes a new row and publishes it. Called under the append lock.
+     */
+    private void append(Task task) {
+        int row = rowCount;
+        if (row == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Store is full");
+        }
+        int index = row >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, index + 1);
+            current[index] = new Chunk();
+            chunks = current;
+        }
+        Chunk chunk = current[index];
+        int offset = row & CHUNK_MASK;
+        long word = task.getStateWord();
+        if (StateWord.details(word) != 0) {
+            // The handle is only valid in the task's own details
+            String approver = StateWord.isApproverKept(word) ? task.approverOf(word) : null;
+            word = StateWord.withDetails(word, details.appendDetails(approver, task.reasonOf(word)));
+        }
+        chunk.ids[offset] = task.getNumericId();
+        chunk.createdAt[offset] = task.getCreatedAt();
+        chunk.words.set(offset, word);
+        chunk.states[offset] = (byte) word;
+        chunk.priorities[offset] = (byte) task.getPriority();
+        chunk.creators[offset] = task.getCreator() == null ? 0 : creators.intern(task.getCreator()) + 1;
+        chunk.descriptions[offset] = arena.append(task.getDescription());
+        insertSlot(row, task.getNumericId());
+        trackOrder(row, task.getNumericId());
+        rowCount = row + 1;
+    }
+
+    /**
+     * Adds a row to the ID table, first doubling the table past three quarters full. Evicted rows are left out
+     * of the doubled table. Called under the append lock.
+     */
+    private void insertSlot(int row, long id) {
+        int[] table = slots;
+        if ((row + 1) * 4L > table.length * 3L) {
+            int[] grown = new int[table.length * 2];
+            for (int r = 0; r < row; r++) {
+                Chunk chunk = chunks[r >>> CHUNK_BITS];
+                if (chunk.states[r & CHUNK_MASK] != EVICTED) {
+                    insert(grown, r, chunk.ids[r & CHUNK_MASK]);
+                }
+            }
+            slots = grown;
+            table = grown;
+        }
+        insert(table, row, id);
+    }
+
+    private static void insert(int[] table, int row, long id) {
+        int mask = table.length - 1;
+        int i = slot(id, mask);
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = row + 1;
+    }
+
+    private static int slot(long id, int mask) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    /**
+     * Widens the reach if a new row's ID is smaller than some earlier row's. Scanning back stops once a smaller
+     * ID has been seen and the current reach behind it covered, since no earlier row can be larger. Called under
+     * the append lock.
+     */
+    private void trackOrder(int row, long id) {
+        if (id > maxId) {
+            maxId = id;
+            return;
+        }
+        int current = reach;
+        if (current == UNORDERED) {
+            return;
+        }
+        int earliest = row;
+        long stop = -1;
+        for (int r = row - 1; r >= 0 && r >= stop; r--) {
+            if (row - r > MAX_REACH) {
+                reach = UNORDERED;
+                return;
+            }
+            if (idAt(r) > id) {
+                earliest = r;
+            } else if (stop < 0) {
+                stop = Math.max(0, (long) r - current);
+            }
+        }
+        reach = Math.max(current, row - earliest);
+    }
+
+    /**
+     * Column filters of a scan. IDs must lie strictly between {@code after} and {@code before}.
+     */
+    private static final class Filter {
+        final int state;
+        final int priority;
+        final int creator;
+        final long after;
+        final long before;
+
+        /**
+         * @param state the state code, or -1 for any
+         * @param priority the priority, or 0 for any
+         * @param creator the interned creator plus one, or 0 for any
+         * @param low the lowest ID, or {@link Long#MIN_VALUE} for none
+         * @param cursor the ID to start after, or null for none
+         * @param high the ID to stop before, or {@link Long#MAX_VALUE} for none
+         */
+        Filter(int state, int priority, int creator, long low, Long cursor, long high) {
+            this.state = state;
+            this.priority = priority;
+            this.creator = creator;
+            long after = low == Long.MIN_VALUE ? Long.MIN_VALUE : low - 1;
+            this.after = cursor == null ? after : Math.max(after, cursor);
+            this.before = high;
+        }
+
+        boolean matches(Chunk chunk, int offset) {
+            byte code = chunk.states[offset];
+            if (code == EVICTED || (state >= 0 && code != state)) {
+                return false;
+            }
+            if ((priority != 0 && chunk.priorities[offset] != priority)
+                    || (creator != 0 && chunk.creators[offset] != creator)) {
+                return false;
+            }
+            long id = chunk.ids[offset];
+            return (after == Long.MIN_VALUE || id > after) && (before == Long.MAX_VALUE || id < before);
+        }
+    }
+
+    /**
+     * Yields the matching rows of a range in ID order. Rows are read in row order and each match waits in a heap
+     * until enough rows have been read past it that none still to come can have a smaller ID (a larger one when
+     * descending); with a reach of zero, matches pass straight through.
+     */
+    private static final class OrderedRows implements PrimitiveIterator.OfInt {
+        private final Filter filter;
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+        private final int reach;
+        private final boolean descending;
+        private int cursor;
+        private long[] heapIds = new long[16];
+        private int[] heapRows = new int[16];
+        private int heapSize;
+        private int next = -1;
+
+        OrderedRows(Filter filter, Chunk[] chunks, int from, int to, int reach, boolean descending) {
+            this.filter = filter;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.reach = reach;
+            this.descending = descending;
+            this.cursor = descending ? to - 1 : from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < 0) {
+                next = advance();
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int row = next;
+            next = -1;
+            return row;
+        }
+
+        private int advance() {
+            while (true) {
+                boolean done = descending ? cursor < from : cursor >= to;
+                if (heapSize > 0 && (done || settled(heapRows[0]))) {
+                    return pop();
+                }
+                if (done) {
+                    return -1;
+                }
+                int row = cursor;
+                cursor += descending ? -1 : 1;
+                Chunk chunk = chunks[row >>> CHUNK_BITS];
+                int offset = row & CHUNK_MASK;
+                if (filter.matches(chunk, offset)) {
+                    if (reach == 0) {
+                        return row;
+                    }
+                    push(chunk.ids[offset], row);
+                }
+            }
+        }
+
+        /**
+         * Returns true once every row within the reach after this one, in reading order, has been read.
+         */
+        private boolean settled(int row) {
+            return descending ? row >= (long) cursor + 1 + reach : (long) row + reach <= cursor - 1;
+        }
+
+        private boolean before(long a, long b) {
+            return descending ? a > b : a < b;
+        }
+
+        private void push(long id, int row) {
+            if (heapSize == heapIds.length) {
+                heapIds = Arrays.copyOf(heapIds, heapSize * 2);
+                heapRows = Arrays.copyOf(heapRows, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(id, heapIds[parent])) {
+                    break;
+                }
+                heapIds[i] = heapIds[parent];
+                heapRows[i] = heapRows[parent];
+                i = parent;
+            }
+            heapIds[i] = id;
+            heapRows[i] = row;
+        }
+
+        private int pop() {
+            int top = heapRows[0];
+            long id = heapIds[--heapSize];
+            int row = heapRows[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && before(heapIds[child + 1], heapIds[child])) {
+                    child++;
+                }
+                if (!before(heapIds[child], id)) {
+                    break;
+                }
+                heapIds[i] = heapIds[child];
+                heapRows[i] = heapRows[child];
+                i = child;
+            }
+            heapIds[i] = id;
+            heapRows[i] = row;
+            return top;
+        }
+    }
+
+    /**
+     * The columns of {@value #CHUNK_SIZE} consecutive rows. Chunks are never resized, so a write cannot race
+     * with a copy. The state byte repeats the state code of the word, so scans read one byte per row.
+     */
+    private static final class Chunk {
+        final long[] ids = new long[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+        final AtomicLongArray words = new AtomicLongArray(CHUNK_SIZE);
+        final byte[] states = new byte[CHUNK_SIZE];
+        final byte[] priorities = new byte[CHUNK_SIZE];
+        final int[] creators = new int[CHUNK_SIZE];
+        final long[] descriptions = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * A task backed by one row: reads and writes go to the columns, and the description is decoded on first use.
+     */
+    private final class TaskView extends Task {
+        private final Chunk chunk;
+        private final int offset;
+        private String description;
+
+        TaskView(Chunk chunk, int offset) {
+            super(chunk.ids[offset]);
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+
+        @Override
+        public String getDescription() {
+            if (description == null) {
+                description = arena.read(chunk.descriptions[offset]);
+            }
+            return description;
+        }
+
+        @Override
+        public int getPriority() {
+            return chunk.priorities[offset];
+        }
+
+        @Override
+        public String getCreator() {
+            int code = chunk.creators[offset];
+            return code == 0 ? null : creators.lookup(code - 1);
+        }
+
+        @Override
+        public long getCreatedAt() {
+            return chunk.createdAt[offset];
+        }
+
+        @Override
+        public long getStateWord() {
+            return chunk.words.get(offset);
+        }
+
+        @Override
+        protected boolean compareAndSetStateWord(long expected, long word) {
+            if (!chunk.words.compareAndSet(offset, expected, word)) {
+                return false;
+            }
+            copyState(word);
+            return true;
+        }
+
+        @Override
+        protected void storeStateWord(long word) {
+            chunk.words.set(offset, word);
+            copyState(word);
+        }
+
+        @Override
+        protected void storePriority(int priority) {
+            chunk.priorities[offset] = (byte) priority;
+        }
+
+        @Override
+        protected int storeDetails(String approver, String reason) {
+            return details.appendDetails(approver, reason);
+        }
+
+        @Override
+        protected String[] loadDetails(int handle) {
+            return details.readDetails(handle);
+        }
+
+        private void copyState(long word) {
+            // A view kept past its task's eviction must not bring the row back
+            if (chunk.states[offset] != EVICTED) {
+                chunk.states[offset] = (byte) word;
+            }
+        }
+    }
+
+    /**
+     * The history of a task that had none so far; it joins the store with its first snapshot.
+     */
+    private final class History extends MementoCaretaker {
+        private final long taskId;
+
+        History(long taskId, int capacity) {
+            super(capacity);
+            this.taskId = taskId;
+        }
+
+        @Override
+        public void push(TaskMemento memento) {
+            histories.putIfAbsent(taskId, this);
+            super.push(memento);
+        }
+    }
+
+    /**
+     * Append-only off-heap storage for descriptions: each is a varint byte length followed by its UTF-8 bytes, in
+     * direct buffers that double in size up to {@value #MAX_BLOCK} bytes. An address is the buffer's index in the
+     * high half and the offset in the low half. Details are stored the same way as a pair of strings, each length
+     * one more than its byte count so 0 marks null, starting at a multiple of 8 so their address fits a handle.
+     */
+    private static final class Arena {
+        private static final int FIRST_BLOCK = 1 << 16;
+        private static final int MAX_BLOCK = 1 << 26;
+        private static final int HANDLE_OFFSET_BITS = 23;
+        private static final int MAX_HANDLE_BLOCKS = 1 << (31 - HANDLE_OFFSET_BITS);
+
+        private volatile ByteBuffer[] blocks = new ByteBuffer[0];
+        private int position;
+        private long reserved;
+
+        /**
+         * Stores a description and returns its address. Called under the append lock.
+         */
+        long append(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer block = reserve(5 + bytes.length);
+            int start = position;
+            position = put(block, putLength(block, start, bytes.length), bytes);
+            return (long) (blocks.length - 1) << 32 | start;
+        }
+
+        String read(long address) {
+            ByteBuffer block = blocks[(int) (address >>> 32)];
+            int[] cursor = {(int) address};
+            int length = getLength(block, cursor);
+            return decode(block, cursor[0], length);
+        }
+
+        /**
+         * Stores an approver and reason, either of which may be null, and returns their positive handle.
+         */
+        synchronized int appendDetails(String approver, String reason) {
+            byte[] first = approver == null ? null : approver.getBytes(StandardCharsets.UTF_8);
+            byte[] second = reason == null ? null : reason.getBytes(StandardCharsets.UTF_8);
+            position = (position + 7) & ~7;
+            ByteBuffer block = reserve(10 + length(first) + length(second));
+            int blockIndex = blocks.length - 1;
+            if (blockIndex >= MAX_HANDLE_BLOCKS) {
+                throw new IllegalStateException("Details storage is full");
+            }
+            int start = position;
+            int p = put(block, putLength(block, start, first == null ? 0 : first.length + 1), first);
+            position = put(block, putLength(block, p, second == null ? 0 : second.length + 1), second);
+            return (blockIndex << HANDLE_OFFSET_BITS | start >>> 3) + 1;
+        }
+
+        String[] readDetails(int handle) {
+            if (handle < 1) {
+                throw new IllegalArgumentException("Unknown details: " + handle);
+            }
+            ByteBuffer block = blocks[(handle - 1) >>> HANDLE_OFFSET_BITS];
+            int[] cursor = {((handle - 1) & ((1 << HANDLE_OFFSET_BITS) - 1)) << 3};
+            return new String[] {readNullable(block, cursor), readNullable(block, cursor)};
+        }
+
+        long reserved() {
+            synchronized (this) {
+                return reserved;
+            }
+        }
+
+        /**
+         * Returns a block with room for {@code needed} bytes at {@link #position}, starting a new one if the last
+         * is full.
+         */
+        private ByteBuffer reserve(int needed) {
+            ByteBuffer[] current = blocks;
+            if (current.length == 0 || position + needed > current[current.length - 1].capacity()) {
+                int size = (int) Math.max(needed, Math.min(MAX_BLOCK, Math.max(FIRST_BLOCK, reserved)));
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = ByteBuffer.allocateDirect(size);
+                blocks = current;
+                position = 0;
+                reserved += size;
+            }
+            return current[current.length - 1];
+        }
+
+        private static int putLength(ByteBuffer block, int p, int length) {
+            while ((length & ~0x7F) != 0) {
+                block.put(p++, (byte) ((length & 0x7F) | 0x80));
+                length >>>= 7;
+            }
+            block.put(p++, (byte) length);
+            return p;
+        }
+
+        private static int put(ByteBuffer block, int p, byte[] bytes) {
+            if (bytes == null) {
+                return p;
+            }
+            ByteBuffer target = block.duplicate();
+            target.position(p);
+            target.put(bytes);
+            return p + bytes.length;
+        }
+
+        private static String readNullable(ByteBuffer block, int[] cursor) {
+            int length = getLength(block, cursor);
+            if (length == 0) {
+                return null;
+            }
+            String value = decode(block, cursor[0], length - 1);
+            cursor[0] += length - 1;
+            return value;
+        }
+
+        /**
+         * Reads a varint at the cursor and moves the cursor past it.
+         */
+        private static int getLength(ByteBuffer block, int[] cursor) {
+            int p = cursor[0];
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = block.get(p++);
+                length |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            cursor[0] = p;
+            return length;
+        }
+
+        private static String decode(ByteBuffer block, int p, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer source = block.duplicate();
+            source.position(p);
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static int length(byte[] bytes) {
+            return bytes == null ? 0 : bytes.length;
+        }
+    }
+}
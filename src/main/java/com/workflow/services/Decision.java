@@ -0,0 +1,40 @@
+package com.workflow.services;
+
+/**
+ * What to do with each task of a bulk operation: approve it through the router or reject it with a reason.
+ */
+public final class Decision {
+    private static final Decision APPROVE = new Decision(true, null);
+
+    private final boolean approve;
+    private final String reason;
+
+    private Decision(boolean approve, String reason) {
+        this.approve = approve;
+        this.reason = reason;
+    }
+
+    public static Decision approve() {
+        return APPROVE;
+    }
+
+    public static Decision reject(String reason) {
+        return new Decision(false, reason);
+    }
+
+    public boolean isApprove() {
+        return approve;
+    }
+
+    /**
+     * Returns the rejection reason, or null when approving or when no reason was given.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return approve ? "approve" : "reject";
+    }
+}
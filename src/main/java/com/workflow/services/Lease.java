@@ -0,0 +1,43 @@
+package com.workflow.services;
+
+import com.workflow.concurrent.TimingWheel;
+import com.workflow.core.Task;
+
+/**
+ * A time-limited claim on a task taken from a {@link WorkQueueService}. Until it expires or is released,
+ * the task is held out of the queues so no other approver is offered it.
+ */
+public class Lease {
+    private final Task task;
+    private final String holder;
+    private volatile long expiresAt;
+    volatile TimingWheel.Timeout<Lease> timeout;
+
+    Lease(Task task, String holder, long expiresAt) {
+        this.task = task;
+        this.holder = holder;
+        this.expiresAt = expiresAt;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the username of the approver holding the lease.
+     */
+    public String getHolder() {
+        return holder;
+    }
+
+    /**
+     * Returns when the lease lapses, in epoch milliseconds.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
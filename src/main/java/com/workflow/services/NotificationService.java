@@ -2,19 +2,74 @@ package com.workflow.services;
 
 import com.workflow.core.Task;
 import com.workflow.core.User;
-import com.workflow.patterns.observer.TaskObserver;
-import com.workflow.patterns.observer.UserObserver;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.Topic;
 
 /**
- * Manages observer attachments for task notifications.
+ * Manages user subscriptions to task notifications through a shared {@link SubscriptionRegistry}.
+ * Pass the same registry to {@link WorkflowService#setSubscriptionRegistry} so tasks deliver to it.
  */
 public class NotificationService {
+    private static final Logger LOG = Log.getLogger(NotificationService.class);
+
+    private final SubscriptionRegistry registry;
+
+    public NotificationService() {
+        this(new SubscriptionRegistry());
+    }
+
+    public NotificationService(SubscriptionRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Subscription registry cannot be null");
+        }
+        this.registry = registry;
+    }
+
+    public SubscriptionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Subscribes a user to one task's status updates until the task is approved or rejected; a rollback that
+     * reopens the task brings the subscription back. A task that is already decided cannot be subscribed to.
+     */
     public void attachObserver(Task task, User user) {
         if (task == null || user == null) {
-            System.out.println("Error: Task or user cannot be null");
+            LOG.warn("Task or user cannot be null");
             return;
         }
-        task.attach(new UserObserver(user));
-        System.out.println("Observer attached for user: " + user.getUsername());
+        if (task.isTerminal()) {
+            LOG.warn("Task {} is already decided", task.getId());
+            return;
+        }
+        registry.subscribe(Topic.task(task.getNumericId()), user);
+        LOG.info("Observer attached for user: {}", user.getUsername());
+    }
+
+    /**
+     * Subscribes a user to a topic, e.g. {@code Topic.priority(2)} or {@code Topic.all()}.
+     */
+    public void subscribe(Topic topic, User user) {
+        if (topic == null || user == null) {
+            LOG.warn("Topic or user cannot be null");
+            return;
+        }
+        registry.subscribe(topic, user);
+        LOG.info("User {} subscribed to {}", user.getUsername(), topic);
+    }
+
+    public boolean unsubscribe(Topic topic, User user) {
+        if (topic == null || user == null) {
+            LOG.warn("Topic or user cannot be null");
+            return false;
+        }
+        if (!registry.unsubscribe(topic, user)) {
+            LOG.warn("User {} is not subscribed to {}", user.getUsername(), topic);
+            return false;
+        }
+        LOG.info("User {} unsubscribed from {}", user.getUsername(), topic);
+        return true;
     }
-}
\ No newline at end of file
+}
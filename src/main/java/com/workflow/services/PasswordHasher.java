@@ -0,0 +1,92 @@
+package com.workflow.services;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted, iterated password hashing with PBKDF2-HMAC-SHA256.
+ * Hashes are encoded as {@code pbkdf2-sha256$iterations$salt$hash}, so raising the cost later does
+ * not invalidate hashes created with the old setting.
+ */
+public class PasswordHasher {
+    public static final int DEFAULT_ITERATIONS = 120_000;
+    public static final int MIN_ITERATIONS = 1_000;
+    public static final int MAX_ITERATIONS = 10_000_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher() {
+        this(Integer.getInteger("workflow.pbkdf2.iterations", DEFAULT_ITERATIONS));
+    }
+
+    public PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException(
+                    "Iterations must be between " + MIN_ITERATIONS + " and " + MAX_ITERATIONS);
+        }
+        this.iterations = iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Returns false for a wrong password and for a malformed hash, including one whose iteration count is out of
+     * range, so a tampered hash can neither throw nor make verification arbitrarily slow.
+     */
+    public boolean verify(String password, String encoded) {
+        if (password == null || encoded == null) {
+            return false;
+        }
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(parts[1]);
+            if (cost < MIN_ITERATIONS || cost > MAX_ITERATIONS) {
+                return false;
+            }
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] salt = decoder.decode(parts[2]);
+            byte[] expected = decoder.decode(parts[3]);
+            if (salt.length == 0 || expected.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, cost));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
+            return false;
+        }
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
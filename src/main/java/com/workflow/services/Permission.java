@@ -0,0 +1,28 @@
+package com.workflow.services;
+
+/**
+ * Actions on tasks that an {@link AccessPolicy} grants to roles per task priority.
+ */
+public enum Permission {
+    CREATE("create"),
+    APPROVE("approve"),
+    REJECT("reject"),
+    ROLLBACK("roll back");
+
+    private final String verb;
+
+    Permission(String verb) {
+        this.verb = verb;
+    }
+
+    /**
+     * Returns this permission's bit in a permission mask.
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public String getVerb() {
+        return verb;
+    }
+}
@@ -0,0 +1,54 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The best matches of a {@link TaskSearch}, most relevant first, with their scores and the number of tasks
+ * that matched in all.
+ */
+public class SearchResult {
+    private static final SearchResult EMPTY = new SearchResult(Collections.emptyList(), new float[0], 0);
+
+    private final List<Task> tasks;
+    private final float[] scores;
+    private final int totalHits;
+
+    /**
+     * @param scores the score of each task, at the same index
+     */
+    public SearchResult(List<Task> tasks, float[] scores, int totalHits) {
+        if (tasks == null || scores == null || tasks.size() != scores.length) {
+            throw new IllegalArgumentException("Every task needs exactly one score");
+        }
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.scores = scores;
+        this.totalHits = totalHits;
+    }
+
+    public static SearchResult empty() {
+        return EMPTY;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public float getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Returns how many tasks matched, of which at most the search's limit are returned.
+     */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    @Override
+    public String toString() {
+        return tasks.size() + " of " + totalHits + " matches";
+    }
+}
@@ -0,0 +1,97 @@
+package com.workflow.services;
+
+import com.workflow.core.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expiring, size-bounded cache of session tokens, so authenticated calls are validated with one hash
+ * lookup instead of re-hashing the password. When full, the oldest sessions are evicted first.
+ */
+public class SessionCache {
+    private static final int TOKEN_BYTES = 32;
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Queue<String> creationOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final SecureRandom random = new SecureRandom();
+    private final int maxSessions;
+    private final long ttlMillis;
+
+    public SessionCache(int maxSessions, long ttlMillis) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("Max sessions must be positive");
+        }
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("Session lifetime must be positive");
+        }
+        this.maxSessions = maxSessions;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public String create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(user, System.currentTimeMillis() + ttlMillis));
+        creationOrder.add(token);
+        if (queued.incrementAndGet() > 2 * maxSessions) {
+            // Drop queue entries for sessions that already expired or logged out
+            creationOrder.removeIf(queuedToken -> !sessions.containsKey(queuedToken));
+            queued.set(sessions.size());
+        }
+        while (sessions.size() > maxSessions) {
+            String oldest = creationOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            sessions.remove(oldest);
+        }
+        return token;
+    }
+
+    /**
+     * Returns the session's user, or null if the token is unknown or expired.
+     */
+    public User validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.expiresAt <= System.currentTimeMillis()) {
+            sessions.remove(token, session);
+            return null;
+        }
+        return session.user;
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private static final class Session {
+        private final User user;
+        private final long expiresAt;
+
+        Session(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
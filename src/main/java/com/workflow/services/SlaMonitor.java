@@ -0,0 +1,143 @@
+package com.workflow.services;
+
+import com.workflow.concurrent.Clock;
+import com.workflow.concurrent.TimingWheel;
+import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces an {@link SlaPolicy}: every pending task with a deadline has one timer in a {@link TimingWheel},
+ * and expired tasks are escalated or rejected through the {@link WorkflowService}. Timers are managed by the
+ * service itself once attached with {@link WorkflowService#setSlaMonitor}: set on creation, replaced on
+ * escalation and cancelled when the task is decided.
+ * A single ticker thread advances the wheel; call {@link #advance()} directly to drive it from a test clock.
+ */
+public class SlaMonitor {
+    private static final Logger LOG = Log.getLogger(SlaMonitor.class);
+    private static final String EXPIRED_REASON = "SLA deadline expired";
+
+    private final WorkflowService workflow;
+    private final SlaPolicy policy;
+    private final Clock clock;
+    private final TimingWheel<Task> wheel;
+    private final ConcurrentMap<Long, TimingWheel.Timeout<Task>> timers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    public SlaMonitor(WorkflowService workflow, SlaPolicy policy) {
+        this(workflow, policy, Clock.SYSTEM, 1000);
+    }
+
+    /**
+     * @param tickMillis how often the wheel advances; deadlines fire up to one tick late
+     */
+    public SlaMonitor(WorkflowService workflow, SlaPolicy policy, Clock clock, long tickMillis) {
+        if (workflow == null || policy == null) {
+            throw new IllegalArgumentException("Workflow service and policy cannot be null");
+        }
+        this.workflow = workflow;
+        this.policy = policy;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tickMillis, clock);
+    }
+
+    /**
+     * Starts the timer for a pending task at its current priority, counting from {@code sinceMillis}, and
+     * cancels any timer it had. Does nothing if the priority has no deadline.
+     */
+    public void track(Task task, long sinceMillis) {
+        long deadline = policy.getDeadlineMillis(task.getPriority());
+        TimingWheel.Timeout<Task> previous = deadline == 0
+                ? timers.remove(task.getNumericId())
+                : timers.put(task.getNumericId(), wheel.schedule(task, sinceMillis + deadline));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void track(Task task) {
+        track(task, clock.millis());
+    }
+
+    public void untrack(Task task) {
+        TimingWheel.Timeout<Task> timeout = timers.remove(task.getNumericId());
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Advances the wheel to the clock's current time and acts on every task whose deadline passed.
+     * Returns the number of tasks escalated or rejected.
+     */
+    public int advance() {
+        List<TimingWheel.Timeout<Task>> expired = wheel.advance();
+        int handled = 0;
+        for (TimingWheel.Timeout<Task> timeout : expired) {
+            Task task = timeout.getPayload();
+            // A timer replaced since it was scheduled, e.g. by an escalation, is stale
+            if (!timers.remove(task.getNumericId(), timeout) || task.isTerminal()) {
+                continue;
+            }
+            boolean done = policy.getAction(task.getPriority()) == SlaPolicy.Action.ESCALATE
+                    ? workflow.escalateTask(task)
+                    : workflow.processTask(task, false, EXPIRED_REASON);
+            if (done) {
+                handled++;
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Starts advancing the wheel every tick on a daemon thread.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sla-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = wheel.getTickMillis();
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                LOG.error("SLA check failed", e);
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the ticker thread, waiting briefly for a running check to finish.
+     */
+    public synchronized void stop() {
+        if (ticker == null) {
+            return;
+        }
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ticker = null;
+    }
+
+    /**
+     * Returns the number of tasks with a running deadline.
+     */
+    public int getTrackedCount() {
+        return timers.size();
+    }
+}
@@ -0,0 +1,98 @@
+package com.workflow.services;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Per-priority SLA deadlines: how long a task may stay pending at a priority, and what happens when it
+ * does not get decided in time. Priorities without a deadline never expire.
+ */
+public class SlaPolicy {
+    /**
+     * What to do with a task whose deadline passed.
+     */
+    public enum Action {
+        /** Raise the priority by one so the next approver level can decide it. */
+        ESCALATE,
+        REJECT
+    }
+
+    private static final int MAX_PRIORITY = 3;
+
+    private final long[] deadlineMillis;
+    private final Action[] actions;
+
+    private SlaPolicy(Builder builder) {
+        this.deadlineMillis = builder.deadlineMillis.clone();
+        this.actions = builder.actions.clone();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parses a comma-separated list of {@code priority:duration:action}, where the duration is ISO-8601,
+     * e.g. {@code 1:PT4H:escalate,2:PT8H:escalate,3:P1D:reject}.
+     */
+    public static SlaPolicy parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("SLA specification cannot be empty");
+        }
+        Builder builder = new Builder();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected priority:duration:action, got " + entry.trim());
+            }
+            try {
+                builder.deadline(Integer.parseInt(parts[0]), Duration.parse(parts[1]),
+                        Action.valueOf(parts[2].toUpperCase()));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid SLA entry " + entry.trim(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns how long a task may stay pending at the priority, or 0 if it has no deadline.
+     */
+    public long getDeadlineMillis(int priority) {
+        return priority < 1 || priority > MAX_PRIORITY ? 0 : deadlineMillis[priority];
+    }
+
+    public Action getAction(int priority) {
+        return priority < 1 || priority > MAX_PRIORITY ? null : actions[priority];
+    }
+
+    /**
+     * Collects per-priority deadlines for a {@link SlaPolicy}.
+     */
+    public static class Builder {
+        private final long[] deadlineMillis = new long[MAX_PRIORITY + 1];
+        private final Action[] actions = new Action[MAX_PRIORITY + 1];
+
+        public Builder deadline(int priority, Duration after, Action action) {
+            if (priority < 1 || priority > MAX_PRIORITY) {
+                throw new IllegalArgumentException("Priority must be between 1 and 3");
+            }
+            if (after == null || after.isNegative() || after.isZero()) {
+                throw new IllegalArgumentException("Deadline must be positive");
+            }
+            if (action == null) {
+                throw new IllegalArgumentException("Action cannot be null");
+            }
+            if (action == Action.ESCALATE && priority == MAX_PRIORITY) {
+                throw new IllegalArgumentException("Priority " + MAX_PRIORITY + " tasks cannot be escalated");
+            }
+            deadlineMillis[priority] = after.toMillis();
+            actions[priority] = action;
+            return this;
+        }
+
+        public SlaPolicy build() {
+            return new SlaPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+
+import java.util.List;
+
+/**
+ * Durable cold tier for tasks that are no longer worked on, e.g. a compressed on-disk store. A
+ * {@link TaskArchiver} moves terminal tasks here and serves lookups from it; the archive only stores
+ * and returns copies.
+ */
+public interface TaskArchive {
+    /**
+     * Durably stores the current state of the given tasks, replacing any earlier copy of the same task.
+     * Only returns once the copies survive a crash.
+     */
+    void write(List<Task> tasks);
+
+    /**
+     * Returns a new, detached copy of an archived task, or null if the archive does not hold it.
+     */
+    Task read(long taskId);
+
+    /**
+     * Returns the number of stored copies; a task archived more than once may count twice until merged.
+     */
+    long size();
+}
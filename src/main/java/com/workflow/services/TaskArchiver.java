@@ -0,0 +1,321 @@
+package com.workflow.services;
+
+import com.workflow.concurrent.Clock;
+import com.workflow.core.Task;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.metrics.Histogram;
+import com.workflow.metrics.Metrics;
+import com.workflow.persistence.Journal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves tasks that have been decided for longer than a configured age out of the {@link TaskStore} and into a
+ * {@link TaskArchive}, so the heap only holds the tasks still being worked on. Attached with
+ * {@link WorkflowService#setTaskArchiver}, it is told when each task is decided and serves lookups of archived
+ * tasks through a striped LRU cache. Archived tasks keep their final state but not their history, so they can
+ * no longer be rolled back, and are found by ID but no longer by queries.
+ * A single daemon thread archives periodically; call {@link #archive()} directly to drive it from a test clock.
+ */
+public class TaskArchiver {
+    private static final Logger LOG = Log.getLogger(TaskArchiver.class);
+    private static final Histogram LOAD_LATENCY = Metrics.latency("TaskArchiver.load");
+    private static final int MAX_BATCH = 1 << 16;
+    private static final int CACHE_SEGMENTS = 16;
+
+    private final TaskStore store;
+    private final TaskArchive archive;
+    private final Clock clock;
+    private final long ageMillis;
+    private final CacheSegment[] cache;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder archived = new LongAdder();
+    private final Object queueLock = new Object();
+    private long[] closedIds = new long[1024];
+    private long[] closedAt = new long[1024];
+    // The time of each queued task's latest decision; older entries for a task are stale once it is decided again
+    private final Map<Long, Long> latestClosedAt = new HashMap<>();
+    private int head;
+    private int queued;
+    private volatile Journal journal = Journal.NONE;
+    private ScheduledExecutorService ticker;
+
+    public TaskArchiver(TaskStore store, TaskArchive archive, long ageMillis, int cacheSize) {
+        this(store, archive, Clock.SYSTEM, ageMillis, cacheSize);
+    }
+
+    /**
+     * @param ageMillis how long a task stays in the store after it was decided
+     * @param cacheSize how many archived tasks are kept on the heap after a lookup
+     */
+    public TaskArchiver(TaskStore store, TaskArchive archive, Clock clock, long ageMillis, int cacheSize) {
+        if (store == null || archive == null || clock == null) {
+            throw new IllegalArgumentException("Store, archive and clock cannot be null");
+        }
+        if (ageMillis < 0) {
+            throw new IllegalArgumentException("Age cannot be negative");
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.store = store;
+        this.archive = archive;
+        this.clock = clock;
+        this.ageMillis = ageMillis;
+        cache = new CacheSegment[CACHE_SEGMENTS];
+        for (int i = 0; i < CACHE_SEGMENTS; i++) {
+            cache[i] = new CacheSegment((cacheSize + CACHE_SEGMENTS - 1) / CACHE_SEGMENTS);
+        }
+    }
+
+    /**
+     * Sets where archived tasks are journaled, so recovery drops them from the store again; defaults to
+     * {@link Journal#NONE}. Should be the journal of the store's workflow service.
+     */
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Schedules a task that was just decided for archiving once it is old enough, counting from this decision
+     * even if the task was decided before and rolled back.
+     */
+    public void closed(Task task) {
+        long now = clock.millis();
+        synchronized (queueLock) {
+            if (queued == closedIds.length) {
+                closedIds = unwrap(closedIds);
+                closedAt = unwrap(closedAt);
+                head = 0;
+            }
+            int tail = (head + queued) & (closedIds.length - 1);
+            closedIds[tail] = task.getNumericId();
+            closedAt[tail] = now;
+            queued++;
+            latestClosedAt.put(task.getNumericId(), now);
+        }
+    }
+
+    private long[] unwrap(long[] ring) {
+        long[] grown = new long[ring.length * 2];
+        int first = ring.length - head;
+        System.arraycopy(ring, head, grown, 0, first);
+        System.arraycopy(ring, 0, grown, first, head);
+        return grown;
+    }
+
+    /**
+     * Archives every task decided at least the configured age ago and still decided now, in batches.
+     * Returns the number of tasks archived.
+     */
+    public int archive() {
+        long cutoff = clock.millis() - ageMillis;
+        int total = 0;
+        for (long[] ids = takeDue(cutoff); ids != null; ids = takeDue(cutoff)) {
+            total += archive(ids);
+        }
+        if (total > 0) {
+            LOG.info("Archived {} tasks", total);
+        }
+        return total;
+    }
+
+    /**
+     * Dequeues up to a batch of entries decided by the cutoff and returns the IDs of those that are each task's
+     * latest decision, or null if none was due.
+     */
+    private long[] takeDue(long cutoff) {
+        synchronized (queueLock) {
+            int count = 0;
+            int mask = closedIds.length - 1;
+            while (count < queued && count < MAX_BATCH && closedAt[(head + count) & mask] <= cutoff) {
+                count++;
+            }
+            if (count == 0) {
+                return null;
+            }
+            long[] ids = new long[count];
+            int latest = 0;
+            for (int i = 0; i < count; i++) {
+                int slot = (head + i) & mask;
+                if (latestClosedAt.remove(closedIds[slot], closedAt[slot])) {
+                    ids[latest++] = closedIds[slot];
+                }
+            }
+            head = (head + count) & mask;
+            queued -= count;
+            return Arrays.copyOf(ids, latest);
+        }
+    }
+
+    private int archive(long[] ids) {
+        List<Task> batch = new ArrayList<>(ids.length);
+        long[] words = new long[ids.length];
+        for (long id : ids) {
+            Task task = store.getResident(id);
+            if (task == null) {
+                continue;
+            }
+            ReentrantLock lock = store.lockFor(id);
+            lock.lock();
+            try {
+                // Skip tasks reopened by a rollback since they were decided
+                if (task.isTerminal()) {
+                    words[batch.size()] = task.getStateWord();
+                    batch.add(task);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        archive.write(batch);
+        Journal current = journal;
+        long position = -1;
+        int evicted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Task task = batch.get(i);
+            ReentrantLock lock = store.lockFor(task.getNumericId());
+            lock.lock();
+            try {
+                // A task rolled back while it was being written stays; its next decision archives it again
+                if (task.getStateWord() == words[i] && store.evict(task)) {
+                    position = Math.max(position, current.taskArchived(task));
+                    evicted++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            current.awaitDurable(position);
+        }
+        archived.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * Returns a read-only copy of an archived task, or null if it was never archived.
+     */
+    public Task get(long taskId) {
+        long h = taskId * 0x9E3779B97F4A7C15L;
+        CacheSegment segment = cache[(int) (h >>> 32) & (CACHE_SEGMENTS - 1)];
+        Task task;
+        synchronized (segment) {
+            task = segment.get(taskId);
+        }
+        if (task != null) {
+            cacheHits.increment();
+            return task;
+        }
+        cacheMisses.increment();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        task = archive.read(taskId);
+        if (Metrics.ENABLED) {
+            LOAD_LATENCY.recordSince(start);
+        }
+        if (task != null) {
+            synchronized (segment) {
+                segment.put(taskId, task);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Starts archiving every {@code intervalMillis} on a daemon thread.
+     */
+    public synchronized void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (RuntimeException e) {
+                LOG.error("Archiving failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the archiving thread, waiting for a running pass to finish.
+     */
+    public synchronized void stop() {
+        if (ticker == null) {
+            return;
+        }
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ticker = null;
+    }
+
+    public long getArchivedCount() {
+        return archived.sum();
+    }
+
+    /**
+     * Returns the number of decided tasks waiting to be archived.
+     */
+    public int getQueuedCount() {
+        synchronized (queueLock) {
+            return latestClosedAt.size();
+        }
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * One stripe of the LRU cache; accessed while synchronized on it.
+     */
+    private static final class CacheSegment extends LinkedHashMap<Long, Task> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        CacheSegment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Task> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskIdGenerator;
+import com.workflow.core.TaskState;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over the task store: by state, priority and creator, plus an ID-ordered index
+ * that doubles as the creation-time index for time-ordered ID generators, and a {@link TextIndex} over
+ * descriptions.
+ * Index entries are task IDs in sorted sets, so queries can start from the smallest matching set,
+ * resume after a cursor and stream results lazily. Entries may briefly lag a task's real state; queries
+ * always re-check their filters against the task itself.
+ */
+public class TaskIndex {
+    private Bucket all = new Bucket();
+    private final Bucket[] byState = new Bucket[TaskState.values().length];
+    private final ConcurrentMap<Integer, Bucket> byPriority = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Bucket> byCreator = new ConcurrentHashMap<>();
+    private final TextIndex text = new TextIndex();
+
+    public TaskIndex() {
+        for (int i = 0; i < byState.length; i++) {
+            byState[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Indexes every task of a source from its columns, without materializing any task.
+     * The index must be empty and not yet in use, since buckets are replaced wholesale.
+     */
+    public void load(TaskSource source) {
+        if (all.size.get() != 0) {
+            throw new IllegalStateException("Only an empty index can be loaded");
+        }
+        int size = source.size();
+        List<Long> allIds = new ArrayList<>(size);
+        List<List<Long>> stateIds = new ArrayList<>(byState.length);
+        for (int i = 0; i < byState.length; i++) {
+            stateIds.add(new ArrayList<>());
+        }
+        Map<Integer, List<Long>> priorityIds = new HashMap<>();
+        Map<String, List<Long>> creatorIds = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            // Boxed once and shared by every bucket the task belongs to
+            Long id = source.idAt(i);
+            allIds.add(id);
+            stateIds.get(source.stateAt(i).ordinal()).add(id);
+            priorityIds.computeIfAbsent(source.priorityAt(i), p -> new ArrayList<>()).add(id);
+            String creator = source.creatorAt(i);
+            if (creator != null) {
+                creatorIds.computeIfAbsent(creator, c -> new ArrayList<>()).add(id);
+            }
+        }
+        all = Bucket.of(allIds);
+        for (int i = 0; i < byState.length; i++) {
+            byState[i] = Bucket.of(stateIds.get(i));
+        }
+        priorityIds.forEach((priority, ids) -> byPriority.put(priority, Bucket.of(ids)));
+        creatorIds.forEach((creator, ids) -> byCreator.put(creator, Bucket.of(ids)));
+        text.load(source);
+    }
+
+    public void add(Task task) {
+        long id = task.getNumericId();
+        all.add(id);
+        byState[task.getState().ordinal()].add(id);
+        byPriority.computeIfAbsent(task.getPriority(), p -> new Bucket()).add(id);
+        if (task.getCreator() != null) {
+            byCreator.computeIfAbsent(task.getCreator(), c -> new Bucket()).add(id);
+        }
+        text.add(task);
+    }
+
+    public void remove(Task task) {
+        long id = task.getNumericId();
+        all.remove(id);
+        for (Bucket bucket : byState) {
+            bucket.remove(id);
+        }
+        Bucket priority = byPriority.get(task.getPriority());
+        if (priority != null) {
+            priority.remove(id);
+        }
+        Bucket creator = task.getCreator() == null ? null : byCreator.get(task.getCreator());
+        if (creator != null) {
+            creator.remove(id);
+        }
+        text.remove(task);
+    }
+
+    /**
+     * Moves a task between state buckets; call after any change of its state.
+     */
+    public void stateChanged(Task task, TaskState previous) {
+        TaskState current = task.getState();
+        if (current != previous) {
+            byState[previous.ordinal()].remove(task.getNumericId());
+            byState[current.ordinal()].add(task.getNumericId());
+            text.stateChanged(task);
+        }
+    }
+
+    /**
+     * Moves a task between priority buckets; call after any change of its priority.
+     */
+    public void priorityChanged(Task task, int previous) {
+        if (task.getPriority() != previous) {
+            Bucket old = byPriority.get(previous);
+            if (old != null) {
+                old.remove(task.getNumericId());
+            }
+            byPriority.computeIfAbsent(task.getPriority(), p -> new Bucket()).add(task.getNumericId());
+            text.priorityChanged(task);
+        }
+    }
+
+    public TextIndex getTextIndex() {
+        return text;
+    }
+
+    public int countByState(TaskState state) {
+        return byState[state.ordinal()].size.get();
+    }
+
+    /**
+     * Streams the tasks matching a query without copying the result set.
+     */
+    public Stream<Task> query(TaskQuery query, LongFunction<Task> lookup, TaskIdGenerator idGenerator) {
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        if (query.getCreatedFrom() != Long.MIN_VALUE) {
+            low = idGenerator.lowestIdAt(query.getCreatedFrom());
+        }
+        if (query.getCreatedTo() != Long.MAX_VALUE && idGenerator.lowestIdAt(query.getCreatedTo()) != Long.MIN_VALUE) {
+            high = idGenerator.lowestIdAt(query.getCreatedTo());
+        }
+        Stream<Long> ids;
+        if (query.getSort() == TaskQuery.Sort.PRIORITY) {
+            ids = priorityOrder(query, low, high, lookup);
+        } else {
+            boolean descending = query.getSort() == TaskQuery.Sort.NEWEST_FIRST;
+            ids = range(smallestCandidateSet(query), low, high, query.getAfterId(), descending).stream();
+        }
+        Stream<Task> tasks = ids.map(lookup::apply).filter(Objects::nonNull).filter(query::matches);
+        return query.getLimit() > 0 ? tasks.limit(query.getLimit()) : tasks;
+    }
+
+    private NavigableSet<Long> smallestCandidateSet(TaskQuery query) {
+        Bucket best = null;
+        if (query.getStatus() != null) {
+            best = byState[query.getStatus().ordinal()];
+        }
+        if (query.getPriority() != 0) {
+            best = smaller(best, byPriority.getOrDefault(query.getPriority(), Bucket.EMPTY));
+        }
+        if (query.getCreator() != null) {
+            best = smaller(best, byCreator.getOrDefault(query.getCreator(), Bucket.EMPTY));
+        }
+        return best == null ? all.ids : best.ids;
+    }
+
+    private Stream<Long> priorityOrder(TaskQuery query, long low, long high, LongFunction<Task> lookup) {
+        int cursorPriority = Integer.MAX_VALUE;
+        Long cursor = query.getAfterId();
+        if (cursor != null && query.getAfterPriority() != 0) {
+            cursorPriority = query.getAfterPriority();
+        } else if (cursor != null) {
+            Task cursorTask = lookup.apply(cursor);
+            cursorPriority = cursorTask == null ? Integer.MAX_VALUE : cursorTask.getPriority();
+        }
+        List<Integer> priorities = new ArrayList<>(byPriority.keySet());
+        priorities.sort(Comparator.reverseOrder());
+        Stream<Long> ids = Stream.empty();
+        for (int priority : priorities) {
+            if (priority > cursorPriority || (query.getPriority() != 0 && priority != query.getPriority())) {
+                continue;
+            }
+            Long after = priority == cursorPriority ? cursor : null;
+            NavigableSet<Long> set = range(byPriority.get(priority).ids, low, high, after, false);
+            ids = Stream.concat(ids, Stream.of(set).flatMap(NavigableSet::stream));
+        }
+        return ids;
+    }
+
+    private static NavigableSet<Long> range(NavigableSet<Long> ids, long low, long high, Long after,
+                                            boolean descending) {
+        NavigableSet<Long> view = ids;
+        if (low != Long.MIN_VALUE) {
+            view = view.tailSet(low, true);
+        }
+        if (high != Long.MAX_VALUE) {
+            view = view.headSet(high, false);
+        }
+        if (after != null) {
+            view = descending ? view.headSet(after, false) : view.tailSet(after, false);
+        }
+        return descending ? view.descendingSet() : view;
+    }
+
+    private static Bucket smaller(Bucket current, Bucket candidate) {
+        return current == null || candidate.size.get() < current.size.get() ? candidate : current;
+    }
+
+    /**
+     * Returns every indexed task ID in ascending order, as a live view.
+     */
+    public NavigableSet<Long> ids() {
+        return all.ids;
+    }
+
+    /**
+     * Sorted set of task IDs with a size counter, since {@link ConcurrentSkipListSet#size()} is linear.
+     */
+    private static final class Bucket {
+        static final Bucket EMPTY = new Bucket();
+
+        final ConcurrentSkipListMap<Long, Boolean> entries;
+        final NavigableSet<Long> ids;
+        final AtomicInteger size = new AtomicInteger();
+
+        Bucket() {
+            entries = new ConcurrentSkipListMap<>();
+            ids = entries.keySet();
+        }
+
+        /**
+         * Builds a bucket by ascending inserts, before it is published.
+         */
+        static Bucket of(List<Long> sortedIds) {
+            Bucket bucket = new Bucket();
+            for (Long id : sortedIds) {
+                bucket.add(id);
+            }
+            return bucket;
+        }
+
+        void add(long id) {
+            if (entries.put(id, Boolean.TRUE) == null) {
+                size.incrementAndGet();
+            }
+        }
+
+        void remove(long id) {
+            if (entries.remove(id) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
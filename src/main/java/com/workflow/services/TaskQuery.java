@@ -0,0 +1,216 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskIdCodec;
+import com.workflow.core.TaskState;
+
+/**
+ * Filter, sort order and page bounds for {@link WorkflowService#query(TaskQuery)}.
+ * Pagination is cursor-based: pass the ID of the last task of one page to {@link Builder#after(String)}
+ * to get the next page.
+ */
+public class TaskQuery {
+    /**
+     * Result order.
+     */
+    public enum Sort {
+        OLDEST_FIRST,
+        NEWEST_FIRST,
+        /** Highest priority first, oldest first within a priority. */
+        PRIORITY
+    }
+
+    private final TaskState status;
+    private final int priority;
+    private final String creator;
+    private final long createdFrom;
+    private final long createdTo;
+    private final Long afterId;
+    private final int afterPriority;
+    private final Sort sort;
+    private final int limit;
+
+    private TaskQuery(Builder builder) {
+        this.status = builder.status;
+        this.priority = builder.priority;
+        this.creator = builder.creator;
+        this.createdFrom = builder.createdFrom;
+        this.createdTo = builder.createdTo;
+        this.afterId = builder.afterId;
+        this.afterPriority = builder.afterPriority;
+        this.sort = builder.sort;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static TaskQuery all() {
+        return new Builder().build();
+    }
+
+    /**
+     * Returns true if the task passes every filter of this query (cursor and limit aside).
+     */
+    public boolean matches(Task task) {
+        if (status != null && task.getState() != status) {
+            return false;
+        }
+        if (priority != 0 && task.getPriority() != priority) {
+            return false;
+        }
+        if (creator != null && !creator.equals(task.getCreator())) {
+            return false;
+        }
+        long createdAt = task.getCreatedAt();
+        return createdAt >= createdFrom && createdAt < createdTo;
+    }
+
+    /**
+     * Returns the state filter, or null for any state.
+     */
+    public TaskState getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the priority filter, or 0 for any priority.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns the creator filter, or null for any creator.
+     */
+    public String getCreator() {
+        return creator;
+    }
+
+    public long getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public long getCreatedTo() {
+        return createdTo;
+    }
+
+    /**
+     * Returns the numeric ID of the cursor task, or null for the first page.
+     */
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * Returns the cursor task's priority if the caller supplied it, or 0 to look the cursor task up.
+     */
+    public int getAfterPriority() {
+        return afterPriority;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * Returns the maximum number of results, or 0 for no limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Builds a {@link TaskQuery}; every filter is optional.
+     */
+    public static class Builder {
+        private TaskState status;
+        private int priority;
+        private String creator;
+        private long createdFrom = Long.MIN_VALUE;
+        private long createdTo = Long.MAX_VALUE;
+        private Long afterId;
+        private int afterPriority;
+        private Sort sort = Sort.OLDEST_FIRST;
+        private int limit;
+
+        public Builder status(TaskState status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder priority(int priority) {
+            if (priority < 0) {
+                throw new IllegalArgumentException("Priority cannot be negative");
+            }
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder creator(String creator) {
+            this.creator = creator;
+            return this;
+        }
+
+        /**
+         * Limits results to tasks created in {@code [from, to)}, in epoch milliseconds.
+         */
+        public Builder createdBetween(long from, long to) {
+            if (to < from) {
+                throw new IllegalArgumentException("Invalid time range");
+            }
+            this.createdFrom = from;
+            this.createdTo = to;
+            return this;
+        }
+
+        /**
+         * Starts the page after the task with the given ID, typically the last task of the previous page.
+         */
+        public Builder after(String taskId) {
+            this.afterId = taskId == null ? null : TaskIdCodec.decode(taskId);
+            this.afterPriority = 0;
+            return this;
+        }
+
+        public Builder after(long taskId) {
+            this.afterId = taskId;
+            this.afterPriority = 0;
+            return this;
+        }
+
+        /**
+         * Starts the page after a task whose priority is already known. Needed for {@link Sort#PRIORITY} pages
+         * on a store that may not hold the cursor task, e.g. one shard of several.
+         */
+        public Builder after(long taskId, int priority) {
+            if (priority < 1) {
+                throw new IllegalArgumentException("Cursor priority must be positive");
+            }
+            this.afterId = taskId;
+            this.afterPriority = priority;
+            return this;
+        }
+
+        public Builder sort(Sort sort) {
+            if (sort == null) {
+                throw new IllegalArgumentException("Sort cannot be null");
+            }
+            this.sort = sort;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit cannot be negative");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public TaskQuery build() {
+            return new TaskQuery(this);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+
+/**
+ * A full-text search over task descriptions for {@link WorkflowService#search(TaskSearch)}, with optional
+ * status and priority filters. Results are ranked by relevance and cut to the {@link Builder#limit limit}.
+ * <p>
+ * The text is a list of words that must all match ({@code expense report q3}). {@code OR} between two words
+ * matches either ({@code invoice OR receipt}), and a trailing {@code *} matches any word with that prefix
+ * ({@code reimburs*}). Matching ignores case and accents.
+ */
+public class TaskSearch {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 1000;
+
+    private final String text;
+    private final TaskState status;
+    private final int priority;
+    private final int limit;
+
+    private TaskSearch(Builder builder) {
+        this.text = builder.text;
+        this.status = builder.status;
+        this.priority = builder.priority;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder(String text) {
+        return new Builder(text);
+    }
+
+    /**
+     * Returns true if the task passes the status and priority filters.
+     */
+    public boolean matches(Task task) {
+        return (status == null || task.getState() == status) && (priority == 0 || task.getPriority() == priority);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the required status, or null for any.
+     */
+    public TaskState getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the required priority, or 0 for any.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Builds a {@link TaskSearch}; the filters are optional.
+     */
+    public static class Builder {
+        private final String text;
+        private TaskState status;
+        private int priority;
+        private int limit = DEFAULT_LIMIT;
+
+        private Builder(String text) {
+            if (text == null || text.trim().isEmpty()) {
+                throw new IllegalArgumentException("Search text cannot be empty");
+            }
+            this.text = text;
+        }
+
+        public Builder status(TaskState status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder priority(int priority) {
+            if (priority < 0) {
+                throw new IllegalArgumentException("Priority cannot be negative");
+            }
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public TaskSearch build() {
+            return new TaskSearch(this);
+        }
+    }
+}
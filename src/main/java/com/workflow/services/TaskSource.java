@@ -0,0 +1,42 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.patterns.memento.MementoCaretaker;
+
+/**
+ * Read-only set of tasks that a {@link TaskStore} materializes on first access, e.g. a memory-mapped snapshot.
+ * Tasks are addressed by position, in ascending ID order. The per-position accessors let the store build its
+ * indexes without creating any {@link Task} objects.
+ */
+public interface TaskSource {
+    int size();
+
+    long idAt(int index);
+
+    TaskState stateAt(int index);
+
+    int priorityAt(int index);
+
+    String descriptionAt(int index);
+
+    /**
+     * Returns the creator's username, or null if the task has none.
+     */
+    String creatorAt(int index);
+
+    /**
+     * Returns the position of the task with the given ID, or -1 if the source does not contain it.
+     */
+    int indexOf(long taskId);
+
+    /**
+     * Creates a new task object for the given position, with its saved state restored.
+     */
+    Task materialize(int index);
+
+    /**
+     * Pushes the saved memento history of the task at the given position, oldest first.
+     */
+    void restoreHistory(int index, MementoCaretaker caretaker);
+}
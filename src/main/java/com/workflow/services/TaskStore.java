@@ -0,0 +1,334 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskIdGenerator;
+import com.workflow.core.TaskState;
+import com.workflow.patterns.memento.HistoryPolicy;
+import com.workflow.patterns.memento.MementoCaretaker;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent store for tasks and their caretakers, guarded by striped per-task locks.
+ * Keeps a private {@link TaskIndex} up to date as tasks are added and change state; callers go through
+ * {@link #query}, {@link #search} and {@link #ids}, which a subclass may answer without one.
+ * Tasks can also be {@link #load loaded} from a {@link TaskSource}: they are indexed at once but only
+ * materialized into objects when first looked up.
+ * Tasks can be {@link #evict evicted} once they are kept elsewhere; lookups then fall back to the
+ * {@link #setColdTier cold tier}.
+ * <p>
+ * This store keeps one object per task. {@link ColumnarTaskStore} keeps the same contract for far more tasks by
+ * holding them in columns instead.
+ */
+public class TaskStore {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentMap<Long, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, MementoCaretaker> caretakers = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final HistoryPolicy historyPolicy;
+    private final TaskIndex index = new TaskIndex();
+    private final AtomicInteger unmaterialized = new AtomicInteger();
+    private volatile TaskSource source;
+    /** One bit per source position, set once that task has been evicted. */
+    private volatile AtomicLongArray evictedFromSource;
+    private volatile LongFunction<Task> coldTier = id -> null;
+    private volatile Consumer<Task> initializer = task -> { };
+
+    public TaskStore() {
+        this(DEFAULT_STRIPES, new HistoryPolicy());
+    }
+
+    public TaskStore(int stripes, HistoryPolicy historyPolicy) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        if (historyPolicy == null) {
+            throw new IllegalArgumentException("History policy cannot be null");
+        }
+        this.historyPolicy = historyPolicy;
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Registers a new task; returns false if a task with the same ID already exists.
+     */
+    public boolean add(Task task, MementoCaretaker caretaker) {
+        long id = task.getNumericId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            TaskSource loaded = source;
+            if ((loaded != null && loaded.indexOf(id) >= 0) || tasks.putIfAbsent(id, task) != null) {
+                return false;
+            }
+            caretakers.put(id, caretaker);
+            index.add(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes every task of a source available without materializing them: the indexes are built from the
+     * source's columns, and each task and its history are created on first lookup. Must run on an empty
+     * store before it accepts requests.
+     */
+    public void load(TaskSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Task source cannot be null");
+        }
+        if (!tasks.isEmpty() || this.source != null) {
+            throw new IllegalStateException("Only an empty store can be loaded");
+        }
+        index.load(source);
+        unmaterialized.set(source.size());
+        evictedFromSource = new AtomicLongArray((source.size() + 63) >>> 6);
+        this.source = source;
+    }
+
+    /**
+     * Sets what to do with each task materialized from a loaded source before it becomes visible,
+     * e.g. wiring its dispatcher and subscriptions.
+     */
+    public void setTaskInitializer(Consumer<Task> initializer) {
+        if (initializer == null) {
+            throw new IllegalArgumentException("Initializer cannot be null");
+        }
+        this.initializer = initializer;
+    }
+
+    /**
+     * Sets where {@link #get} looks for tasks that are no longer resident.
+     */
+    public void setColdTier(LongFunction<Task> coldTier) {
+        if (coldTier == null) {
+            throw new IllegalArgumentException("Cold tier cannot be null");
+        }
+        this.coldTier = coldTier;
+    }
+
+    /**
+     * Creates a caretaker sized for the given priority by the store's {@link HistoryPolicy}.
+     */
+    public MementoCaretaker newCaretaker(int priority) {
+        return historyPolicy.newCaretaker(priority);
+    }
+
+    public HistoryPolicy getHistoryPolicy() {
+        return historyPolicy;
+    }
+
+    /**
+     * Streams the resident tasks matching a query, using the indexes.
+     */
+    public Stream<Task> query(TaskQuery query, TaskIdGenerator idGenerator) {
+        return index.query(query, this::getResident, idGenerator);
+    }
+
+    /**
+     * Searches the descriptions of the resident tasks.
+     */
+    public SearchResult search(TaskSearch search) {
+        return index.getTextIndex().search(search, this::getResident);
+    }
+
+    /**
+     * Returns the ID of every task held, in ascending order.
+     */
+    public LongStream ids() {
+        return index.ids().stream().mapToLong(Long::longValue);
+    }
+
+    /**
+     * Applies the {@link HistoryPolicy}'s terminal policy to the history of a task that was just decided.
+     */
+    public void retire(Task task, MementoCaretaker caretaker) {
+        historyPolicy.retire(task.getId(), caretaker);
+    }
+
+    /**
+     * Updates the indexes after a task's state changed from {@code previous}.
+     */
+    public void stateChanged(Task task, TaskState previous) {
+        index.stateChanged(task, previous);
+    }
+
+    /**
+     * Updates the indexes after a task's priority changed from {@code previous}.
+     */
+    public void priorityChanged(Task task, int previous) {
+        index.priorityChanged(task, previous);
+    }
+
+    /**
+     * Returns a resident task, or else a read-only copy from the cold tier.
+     */
+    public Task get(long taskId) {
+        Task task = getResident(taskId);
+        return task != null ? task : coldTier.apply(taskId);
+    }
+
+    /**
+     * Returns a task held by this store, materializing it from a loaded source if needed, but never one
+     * from the cold tier.
+     */
+    public Task getResident(long taskId) {
+        Task task = tasks.get(taskId);
+        return task != null || source == null ? task : materialize(taskId);
+    }
+
+    /**
+     * Drops a task, its history, its index entries and its subscriptions from the store, e.g. once a copy has
+     * been archived.
+     * Returns false if the store no longer holds this task.
+     */
+    public boolean evict(Task task) {
+        long id = task.getNumericId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (!tasks.remove(id, task)) {
+                return false;
+            }
+            MementoCaretaker caretaker = caretakers.remove(id);
+            if (caretaker != null) {
+                caretaker.clear();
+            }
+            index.remove(task);
+            task.retireSubscriptions();
+            TaskSource loaded = source;
+            int position = loaded == null ? -1 : loaded.indexOf(id);
+            if (position >= 0) {
+                setEvicted(position);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public MementoCaretaker getCaretaker(long taskId) {
+        MementoCaretaker caretaker = caretakers.get(taskId);
+        if (caretaker == null && source != null && materialize(taskId) != null) {
+            caretaker = caretakers.get(taskId);
+        }
+        return caretaker;
+    }
+
+    /**
+     * Returns every task, first materializing whatever is still only in a loaded source.
+     */
+    public Collection<Task> values() {
+        TaskSource loaded = source;
+        if (loaded != null && unmaterialized.get() > 0) {
+            for (int i = 0; i < loaded.size(); i++) {
+                long id = loaded.idAt(i);
+                if (!tasks.containsKey(id) && !isEvicted(i)) {
+                    materialize(id);
+                }
+            }
+        }
+        return tasks.values();
+    }
+
+    /**
+     * Returns the tasks that exist as objects, without materializing anything from a loaded source.
+     */
+    public Collection<Task> materializedValues() {
+        return tasks.values();
+    }
+
+    public int size() {
+        return tasks.size() + unmaterialized.get();
+    }
+
+    private Task materialize(long taskId) {
+        TaskSource loaded = source;
+        int position = loaded.indexOf(taskId);
+        if (position < 0) {
+            return null;
+        }
+        ReentrantLock lock = lockFor(taskId);
+        lock.lock();
+        try {
+            Task existing = tasks.get(taskId);
+            if (existing != null || isEvicted(position)) {
+                return existing;
+            }
+            Task task = loaded.materialize(position);
+            MementoCaretaker caretaker = newCaretaker(task.getPriority());
+            loaded.restoreHistory(position, caretaker);
+            initialize(task);
+            caretakers.put(taskId, caretaker);
+            tasks.put(taskId, task);
+            unmaterialized.decrementAndGet();
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the {@link #setTaskInitializer initializer} on a task about to be handed out for the first time.
+     */
+    protected void initialize(Task task) {
+        initializer.accept(task);
+    }
+
+    private boolean isEvicted(int position) {
+        return (evictedFromSource.get(position >>> 6) & (1L << position)) != 0;
+    }
+
+    private void setEvicted(int position) {
+        long bit = 1L << position;
+        int word = position >>> 6;
+        long current;
+        do {
+            current = evictedFromSource.get(word);
+        } while (!evictedFromSource.compareAndSet(word, current, current | bit));
+    }
+
+    /**
+     * Acquires every stripe lock in index order, blocking all per-task operations.
+     */
+    public void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    public void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Returns the stripe lock guarding the given task. Status changes and memento
+     * save/restore for one task must run while holding this lock.
+     */
+    public ReentrantLock lockFor(long taskId) {
+        long h = taskId * 0x9E3779B97F4A7C15L;
+        return locks[(int) (h >>> 32) & mask];
+    }
+}
@@ -0,0 +1,776 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Inverted index over task descriptions, answering {@link TaskSearch}es ranked by BM25.
+ * Descriptions are split into lowercase letter-and-digit tokens with accents removed. Each task gets a dense
+ * document number in the order it is added, and each token maps to the ascending numbers of the tasks that
+ * contain it, delta- and varint-encoded, with a skip entry every {@value #SKIP_INTERVAL} postings so that AND
+ * queries leap through the longer lists. Each document's state, priority and length sit in primitive arrays,
+ * so filters and scoring never touch the tasks themselves.
+ * The index is kept up to date as tasks are added, change and are removed. Removed tasks are only marked; once
+ * they outnumber the live ones they are purged from the posting lists in the background, one term at a time.
+ */
+public class TextIndex {
+    private static final int SKIP_INTERVAL = 128;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int MAX_PREFIX_TERMS = 1024;
+    private static final byte DELETED = -1;
+    private static final int NO_MORE = Integer.MAX_VALUE;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    /** Guards every change: postings, documents and the ID map. Searches take no lock. */
+    private final Object writeLock = new Object();
+    private final LongIntMap docsById = new LongIntMap();
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private volatile DocChunk[] chunks = new DocChunk[0];
+    private volatile int docCount;
+    private volatile int liveDocs;
+    private volatile long liveLength;
+    private int deletedSincePurge;
+
+    /**
+     * Indexes a task's description; does nothing if the task is already indexed.
+     */
+    public void add(Task task) {
+        add(task.getNumericId(), task.getDescription(), task.getState(), task.getPriority());
+    }
+
+    /**
+     * Indexes every task of a source from its columns, without materializing any task.
+     */
+    public void load(TaskSource source) {
+        for (int i = 0; i < source.size(); i++) {
+            add(source.idAt(i), source.descriptionAt(i), source.stateAt(i), source.priorityAt(i));
+        }
+    }
+
+    private void add(long id, String description, TaskState state, int priority) {
+        List<String> tokens = tokenize(description);
+        int length = tokens.size();
+        // Groups repeated tokens; descriptions are short, so a sort beats a map
+        tokens.sort(null);
+        synchronized (writeLock) {
+            if (docsById.get(id) >= 0) {
+                return;
+            }
+            int doc = docCount;
+            DocChunk chunk = chunkForAppend(doc);
+            int offset = doc & (CHUNK_SIZE - 1);
+            chunk.ids[offset] = id;
+            chunk.states[offset] = state.code();
+            chunk.priorities[offset] = (byte) priority;
+            chunk.lengths[offset] = (byte) Math.min(length, 255);
+            chunk.live++;
+            docsById.put(id, doc);
+            for (int i = 0; i < length; ) {
+                String token = tokens.get(i);
+                int count = 1;
+                while (i + count < length && tokens.get(i + count).equals(token)) {
+                    count++;
+                }
+                terms.computeIfAbsent(token, t -> new Postings()).add(doc, count);
+                i += count;
+            }
+            liveDocs++;
+            liveLength += Math.min(length, 255);
+            docCount = doc + 1;
+        }
+    }
+
+    /**
+     * Marks a task's document as deleted; it no longer matches any search.
+     */
+    public void remove(Task task) {
+        boolean purge;
+        synchronized (writeLock) {
+            int doc = docsById.remove(task.getNumericId());
+            if (doc < 0) {
+                return;
+            }
+            DocChunk[] current = chunks;
+            int index = doc >>> CHUNK_BITS;
+            DocChunk chunk = current[index];
+            int offset = doc & (CHUNK_SIZE - 1);
+            chunk.states[offset] = DELETED;
+            liveDocs--;
+            liveLength -= chunk.lengths[offset] & 0xFF;
+            // A chunk no longer written to and without live documents is dropped whole
+            if (--chunk.live == 0 && index < (docCount - 1) >>> CHUNK_BITS) {
+                DocChunk[] next = current.clone();
+                next[index] = null;
+                chunks = next;
+            }
+            deletedSincePurge++;
+            purge = deletedSincePurge >= CHUNK_SIZE && deletedSincePurge > liveDocs;
+            if (purge) {
+                deletedSincePurge = 0;
+            }
+        }
+        if (purge && purging.compareAndSet(false, true)) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    purge();
+                } finally {
+                    purging.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Updates the state a task is filtered by; call after any change of its state.
+     */
+    public void stateChanged(Task task) {
+        synchronized (writeLock) {
+            int doc = docsById.get(task.getNumericId());
+            if (doc >= 0) {
+                chunks[doc >>> CHUNK_BITS].states[doc & (CHUNK_SIZE - 1)] = task.getState().code();
+            }
+        }
+    }
+
+    /**
+     * Updates the priority a task is filtered by; call after any change of its priority.
+     */
+    public void priorityChanged(Task task) {
+        synchronized (writeLock) {
+            int doc = docsById.get(task.getNumericId());
+            if (doc >= 0) {
+                chunks[doc >>> CHUNK_BITS].priorities[doc & (CHUNK_SIZE - 1)] = (byte) task.getPriority();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks indexed and not removed.
+     */
+    public int size() {
+        return liveDocs;
+    }
+
+    /**
+     * Returns the number of distinct tokens, including those only left in removed tasks until the next purge.
+     */
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Finds the best matches of a search. Tasks are resolved through {@code lookup} and checked once more
+     * against the filters, since the index may briefly lag a task's state.
+     */
+    public SearchResult search(TaskSearch search, LongFunction<Task> lookup) {
+        // Read first: postings of documents published later are ignored
+        int docLimit = docCount;
+        DocChunk[] docs = chunks;
+        int live = liveDocs;
+        float averageLength = live == 0 ? 1 : Math.max(1f, (float) liveLength / live);
+        List<Clause> clauses = new ArrayList<>();
+        for (List<Term> group : parse(search.getText())) {
+            Clause clause = new Clause();
+            for (Term term : group) {
+                for (Postings postings : expand(term)) {
+                    clause.add(new PostingIterator(postings, live));
+                }
+            }
+            if (clause.isEmpty()) {
+                return SearchResult.empty();
+            }
+            clauses.add(clause);
+        }
+        if (clauses.isEmpty()) {
+            return SearchResult.empty();
+        }
+        // Lead with the clause with the fewest postings; the others only have to confirm its documents
+        clauses.sort((a, b) -> Long.compare(a.cost, b.cost));
+        Clause lead = clauses.get(0);
+        byte status = search.getStatus() == null ? DELETED : search.getStatus().code();
+        int priority = search.getPriority();
+        TopDocs top = new TopDocs(search.getLimit());
+        int hits = 0;
+        int doc = lead.advance(0);
+        candidates:
+        while (doc < docLimit) {
+            for (int i = 1; i < clauses.size(); i++) {
+                int found = clauses.get(i).advance(doc);
+                if (found != doc) {
+                    doc = found < docLimit ? lead.advance(found) : NO_MORE;
+                    continue candidates;
+                }
+            }
+            DocChunk chunk = docs[doc >>> CHUNK_BITS];
+            int offset = doc & (CHUNK_SIZE - 1);
+            byte state = chunk == null ? DELETED : chunk.states[offset];
+            if (state != DELETED && (status == DELETED || state == status)
+                    && (priority == 0 || chunk.priorities[offset] == priority)) {
+                hits++;
+                float norm = K1 * (1 - B + B * (chunk.lengths[offset] & 0xFF) / averageLength);
+                float score = 0;
+                for (Clause clause : clauses) {
+                    score += clause.score(doc, norm);
+                }
+                top.offer(doc, score);
+            }
+            doc = lead.advance(doc + 1);
+        }
+        int count = top.size();
+        int[] topDocs = new int[count];
+        float[] topScores = new float[count];
+        top.drainBestFirst(topDocs, topScores);
+        List<Task> tasks = new ArrayList<>(count);
+        float[] scores = new float[count];
+        for (int i = 0; i < count; i++) {
+            DocChunk chunk = docs[topDocs[i] >>> CHUNK_BITS];
+            Task task = chunk == null ? null : lookup.apply(chunk.ids[topDocs[i] & (CHUNK_SIZE - 1)]);
+            if (task != null && search.matches(task)) {
+                scores[tasks.size()] = topScores[i];
+                tasks.add(task);
+            }
+        }
+        return new SearchResult(tasks, Arrays.copyOf(scores, tasks.size()), hits);
+    }
+
+    /**
+     * Splits a description or search text into lowercase letter-and-digit tokens without accents.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int c = normalized.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.appendCodePoint(Character.toLowerCase(c));
+                }
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses search text into groups of alternatives that must all match.
+     */
+    private static List<List<Term>> parse(String text) {
+        List<List<Term>> groups = new ArrayList<>();
+        boolean or = false;
+        for (String word : text.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                or = !groups.isEmpty();
+                continue;
+            }
+            boolean prefix = word.endsWith("*");
+            List<String> tokens = tokenize(prefix ? word.replaceAll("\\*+$", "") : word);
+            for (int i = 0; i < tokens.size(); i++) {
+                Term term = new Term(tokens.get(i), prefix && i == tokens.size() - 1);
+                if (or && i == 0) {
+                    groups.get(groups.size() - 1).add(term);
+                } else {
+                    List<Term> group = new ArrayList<>();
+                    group.add(term);
+                    groups.add(group);
+                }
+            }
+            if (!tokens.isEmpty()) {
+                or = false;
+            }
+        }
+        return groups;
+    }
+
+    private List<Postings> expand(Term term) {
+        List<Postings> expanded = new ArrayList<>();
+        if (!term.prefix) {
+            Postings postings = terms.get(term.token);
+            if (postings != null) {
+                expanded.add(postings);
+            }
+            return expanded;
+        }
+        for (Postings postings : terms.subMap(term.token, term.token + Character.MAX_VALUE).values()) {
+            if (expanded.size() == MAX_PREFIX_TERMS) {
+                break;
+            }
+            expanded.add(postings);
+        }
+        return expanded;
+    }
+
+    private DocChunk chunkForAppend(int doc) {
+        int index = doc >>> CHUNK_BITS;
+        DocChunk[] current = chunks;
+        if (index == current.length) {
+            DocChunk[] next = Arrays.copyOf(current, index + 1);
+            next[index] = new DocChunk();
+            chunks = next;
+            return next[index];
+        }
+        return current[index];
+    }
+
+    /**
+     * Rewrites every posting list without the removed documents, holding the write lock for one term at a time.
+     */
+    private void purge() {
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            synchronized (writeLock) {
+                Postings old = entry.getValue();
+                if (terms.get(entry.getKey()) != old) {
+                    continue;
+                }
+                DocChunk[] docs = chunks;
+                Postings kept = new Postings();
+                PostingIterator postings = new PostingIterator(old, 1);
+                for (int doc = postings.advance(0); doc != NO_MORE; doc = postings.advance(doc + 1)) {
+                    DocChunk chunk = docs[doc >>> CHUNK_BITS];
+                    if (chunk != null && chunk.states[doc & (CHUNK_SIZE - 1)] != DELETED) {
+                        kept.add(doc, postings.frequency);
+                    }
+                }
+                if (kept.count == 0) {
+                    terms.remove(entry.getKey(), old);
+                } else if (kept.count < old.count) {
+                    terms.replace(entry.getKey(), old, kept);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-document columns for {@value #CHUNK_SIZE} consecutive document numbers. Chunks are never resized,
+     * so a state update cannot race with a copy.
+     */
+    private static final class DocChunk {
+        final long[] ids = new long[CHUNK_SIZE];
+        final byte[] states = new byte[CHUNK_SIZE];
+        final byte[] priorities = new byte[CHUNK_SIZE];
+        final byte[] lengths = new byte[CHUNK_SIZE];
+        int live;
+    }
+
+    private static final class Term {
+        final String token;
+        final boolean prefix;
+
+        Term(String token, boolean prefix) {
+            this.token = token;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * The ascending documents containing one token. Each posting is a varint of the gap to the previous document,
+     * shifted left by one with the low bit set if a varint token count follows (otherwise the count is 1).
+     * Appended under the write lock; readers read the length and skip count before the arrays they cover.
+     */
+    private static final class Postings {
+        private static final int[] NO_SKIPS = new int[0];
+
+        volatile byte[] bytes = new byte[8];
+        volatile int length;
+        volatile int count;
+        volatile int[] skipDocs = NO_SKIPS;
+        volatile int[] skipOffsets = NO_SKIPS;
+        volatile int skips;
+        int lastDoc = -1;
+
+        void add(int doc, int frequency) {
+            if (count > 0 && count % SKIP_INTERVAL == 0) {
+                addSkip();
+            }
+            byte[] current = bytes;
+            if (length + 10 > current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, length + 10));
+            }
+            long gap = (long) (doc - lastDoc) << 1;
+            int end = writeVarint(current, length, frequency > 1 ? gap | 1 : gap);
+            if (frequency > 1) {
+                end = writeVarint(current, end, frequency);
+            }
+            bytes = current;
+            lastDoc = doc;
+            length = end;
+            count++;
+        }
+
+        /**
+         * Records where the next posting starts and the document before it.
+         */
+        private void addSkip() {
+            int[] docs = skipDocs;
+            int[] offsets = skipOffsets;
+            if (skips == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, skips * 2));
+                offsets = Arrays.copyOf(offsets, docs.length);
+            }
+            docs[skips] = lastDoc;
+            offsets[skips] = length;
+            skipDocs = docs;
+            skipOffsets = offsets;
+            skips++;
+        }
+
+        private static int writeVarint(byte[] out, int position, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out[position++] = (byte) value;
+            return position;
+        }
+    }
+
+    /**
+     * Walks one posting list, as it was when the iterator was created.
+     */
+    private static final class PostingIterator {
+        final long cost;
+        final float idf;
+        private final int length;
+        private final int skips;
+        private final byte[] bytes;
+        private final int[] skipDocs;
+        private final int[] skipOffsets;
+        private int position;
+        int doc = -1;
+        int frequency;
+
+        PostingIterator(Postings postings, int liveDocs) {
+            length = postings.length;
+            int count = postings.count;
+            skips = postings.skips;
+            bytes = postings.bytes;
+            skipDocs = postings.skipDocs;
+            skipOffsets = postings.skipOffsets;
+            cost = count;
+            idf = (float) Math.log(1 + (Math.max(liveDocs, count) - count + 0.5) / (count + 0.5));
+        }
+
+        /**
+         * Moves to the first document at or after {@code target} and returns it, or {@link #NO_MORE}.
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            if (skips > 0 && target - doc > SKIP_INTERVAL) {
+                // Last block that starts after a document before the target
+                int lo = 0;
+                int hi = skips - 1;
+                int found = -1;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (skipDocs[mid] < target) {
+                        found = mid;
+                        lo = mid + 1;
+                    } else {
+                        hi = mid - 1;
+                    }
+                }
+                if (found >= 0 && skipOffsets[found] > position) {
+                    doc = skipDocs[found];
+                    position = skipOffsets[found];
+                }
+            }
+            while (doc < target) {
+                if (position >= length) {
+                    doc = NO_MORE;
+                    return doc;
+                }
+                long value = readVarint();
+                doc += (int) (value >>> 1);
+                frequency = (value & 1) == 0 ? 1 : (int) readVarint();
+            }
+            return doc;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Alternatives of which at least one must contain a document: one token, an OR of tokens, or a prefix's
+     * expansions. The iterators are kept in a min-heap by current document, so moving past a document only
+     * touches the iterators positioned on it.
+     */
+    private static final class Clause {
+        private PostingIterator[] heap = new PostingIterator[1];
+        private int size;
+        long cost;
+
+        void add(PostingIterator iterator) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            // Every new iterator is before the first document, so it can go last
+            heap[size++] = iterator;
+            cost += iterator.cost;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int advance(int target) {
+            PostingIterator top = heap[0];
+            while (top.doc < target) {
+                top.advance(target);
+                siftDown(0);
+                top = heap[0];
+            }
+            return top.doc;
+        }
+
+        /**
+         * Sums the scores of the iterators positioned on {@code target}, which must be the current document.
+         */
+        float score(int target, float norm) {
+            return score(0, target, norm);
+        }
+
+        private float score(int i, int target, float norm) {
+            if (i >= size || heap[i].doc != target) {
+                return 0;
+            }
+            int frequency = heap[i].frequency;
+            return heap[i].idf * frequency * (K1 + 1) / (frequency + norm)
+                    + score(2 * i + 1, target, norm) + score(2 * i + 2, target, norm);
+        }
+
+        private void siftDown(int i) {
+            PostingIterator moved = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1].doc < heap[child].doc) {
+                    child++;
+                }
+                if (heap[child].doc >= moved.doc) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = moved;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the best documents so far; ties go to the newer document.
+     */
+    private static final class TopDocs {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopDocs(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(docs[0], scores[0], doc, score)) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Empties the heap into the arrays, best first.
+         */
+        void drainBestFirst(int[] outDocs, float[] outScores) {
+            for (int i = size - 1; i >= 0; i--) {
+                outDocs[i] = docs[0];
+                outScores[i] = scores[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+
+        private static boolean worse(int doc, float score, int otherDoc, float otherScore) {
+            return score < otherScore || (score == otherScore && doc < otherDoc);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(docs[i], scores[i], docs[parent], scores[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && worse(docs[child + 1], scores[child + 1], docs[child], scores[child])) {
+                    child++;
+                }
+                if (!worse(docs[child], scores[child], docs[i], scores[i])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int doc = docs[i];
+            docs[i] = docs[j];
+            docs[j] = doc;
+            float score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+    }
+
+    /**
+     * Open-addressing map from task ID to document number, with backward-shift deletion.
+     * {@link Long#MIN_VALUE} marks an empty slot.
+     */
+    private static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(1 << 10);
+        private int[] values = new int[1 << 10];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            // Shift later entries of the probe run back into the gap
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+            size--;
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.workflow.services;
+
+import com.workflow.core.TaskIdCodec;
+import com.workflow.core.TaskState;
+
+/**
+ * One entry of a {@link TransitionLog}: a task entering a state, when, by whose hand and why.
+ */
+public final class Transition {
+    /**
+     * What caused a transition.
+     */
+    public enum Kind {
+        CREATED,
+        DECIDED,
+        ROLLED_BACK,
+        /** An approval that completed a step of a {@link WorkflowDefinition} but left the task pending. */
+        STEP_APPROVED
+    }
+
+    private final long time;
+    private final long taskId;
+    private final Kind kind;
+    private final TaskState from;
+    private final TaskState to;
+    private final String actor;
+    private final String role;
+    private final String reason;
+
+    Transition(long time, long taskId, Kind kind, TaskState from, TaskState to, String actor, String role,
+            String reason) {
+        this.time = time;
+        this.taskId = taskId;
+        this.kind = kind;
+        this.from = from;
+        this.to = to;
+        this.actor = actor;
+        this.role = role;
+        this.reason = reason;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the state before the transition, or null for {@link Kind#CREATED}.
+     */
+    public TaskState getFrom() {
+        return from;
+    }
+
+    public TaskState getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the username of who made the transition, or null if done by the system.
+     */
+    public String getActor() {
+        return actor;
+    }
+
+    /**
+     * Returns the role the actor held when making the transition, or null if done by the system.
+     */
+    public String getRole() {
+        return role;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append(TaskIdCodec.encode(taskId)).append(' ')
+                .append(kind).append(' ')
+                .append(from == null ? "-" : from.name()).append(" -> ").append(to.name())
+                .append(" at ").append(time);
+        if (actor != null) {
+            text.append(" by ").append(actor);
+            if (role != null) {
+                text.append(" (").append(role).append(')');
+            }
+        }
+        if (reason != null) {
+            text.append(": ").append(reason);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,367 @@
+package com.workflow.services;
+
+import com.workflow.concurrent.Clock;
+import com.workflow.core.StringInterner;
+import com.workflow.core.TaskState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of every task transition, unlike the memento stacks that rollback pops.
+ * Entries are stored column-wise in fixed-size chunks of primitive arrays, with actors and reasons as interned
+ * codes. Times never decrease along the log, so the time column doubles as the time index: a range is found by
+ * binary search, and full chunks keep per-kind, per-state, per-actor and per-role counts so aggregations over long
+ * ranges only scan the partial chunks at either end. Each entry also links to the previous entry of its task, so a
+ * task's history or its state at a given time is a short walk back from its latest entry.
+ * Appends are serialized; reads are lock-free and see every entry appended before they started.
+ */
+public class TransitionLog {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int NONE = -1;
+    private static final TaskState[] STATES = TaskState.values();
+    private static final Transition.Kind[] KINDS = Transition.Kind.values();
+
+    private final Clock clock;
+    private final StringInterner actors = new StringInterner();
+    private final StringInterner roles = new StringInterner();
+    private final StringInterner reasons = new StringInterner();
+    private final Map<Long, Integer> latest = new ConcurrentHashMap<>();
+    private volatile Chunk[] chunks = new Chunk[16];
+    private volatile int size;
+    private long lastTime = Long.MIN_VALUE;
+
+    public TransitionLog() {
+        this(Clock.SYSTEM);
+    }
+
+    public TransitionLog(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Appends a transition stamped with the current time (never earlier than the entry before it) and returns
+     * its position. Callers hold the task's stripe lock, so a task's entries are in the order they happened.
+     *
+     * @param actor username of who made the transition, or null for the system
+     * @param role  role the actor held at the time, or null for the system
+     */
+    public int record(long taskId, Transition.Kind kind, TaskState from, TaskState to, String actor, String role,
+            String reason) {
+        if (kind == null || to == null) {
+            throw new IllegalArgumentException("Kind and target state cannot be null");
+        }
+        int actorCode = actor == null ? NONE : actors.intern(actor);
+        int roleCode = role == null ? NONE : roles.intern(role);
+        int reasonCode = reason == null ? NONE : reasons.intern(reason);
+        int position;
+        synchronized (this) {
+            position = size;
+            if (position == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Transition log is full");
+            }
+            Chunk[] current = chunks;
+            int index = position >>> CHUNK_BITS;
+            if (index == current.length) {
+                current = Arrays.copyOf(current, index * 2);
+            }
+            if (current[index] == null) {
+                current[index] = new Chunk();
+                chunks = current;
+            }
+            long time = Math.max(clock.millis(), lastTime);
+            lastTime = time;
+            Integer previous = latest.get(taskId);
+            Chunk chunk = current[index];
+            int slot = position & CHUNK_MASK;
+            chunk.times[slot] = time;
+            chunk.taskIds[slot] = taskId;
+            chunk.kinds[slot] = (byte) kind.ordinal();
+            chunk.from[slot] = from == null ? NONE : from.code();
+            chunk.to[slot] = to.code();
+            chunk.actors[slot] = actorCode;
+            chunk.roles[slot] = roleCode;
+            chunk.reasons[slot] = reasonCode;
+            chunk.previous[slot] = previous == null ? NONE : previous;
+            if (slot == CHUNK_MASK) {
+                chunk.summarize();
+            }
+            size = position + 1;
+            // Published after the size so a reader never follows a task's head to an unwritten entry
+            latest.put(taskId, position);
+        }
+        return position;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a task's transitions, oldest first.
+     */
+    public List<Transition> history(long taskId) {
+        List<Transition> history = new ArrayList<>();
+        for (int position = head(taskId); position != NONE; ) {
+            history.add(entry(position));
+            position = chunk(position).previous[position & CHUNK_MASK];
+        }
+        Collections.reverse(history);
+        return history;
+    }
+
+    /**
+     * Returns the state a task was in at the given time, or null if it has no recorded transition by then
+     * (it did not exist yet, or it predates the log, e.g. recovered from a journal or snapshot).
+     */
+    public TaskState stateAt(long taskId, long timeMillis) {
+        for (int position = head(taskId); position != NONE; ) {
+            Chunk chunk = chunk(position);
+            int slot = position & CHUNK_MASK;
+            if (chunk.times[slot] <= timeMillis) {
+                return STATES[chunk.to[slot]];
+            }
+            position = chunk.previous[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Streams the transitions made in {@code [from, to)}, in the order they were recorded.
+     */
+    public Stream<Transition> between(long from, long to) {
+        int end = size;
+        return IntStream.range(firstAtOrAfter(from, end), firstAtOrAfter(to, end)).mapToObj(this::entry);
+    }
+
+    /**
+     * Counts the transitions made in {@code [from, to)} that match the given kind, target state and actor's
+     * username; a null filter matches anything.
+     */
+    public long count(long from, long to, Transition.Kind kind, TaskState state, String actor) {
+        return count(from, to, kind, state, actor, null);
+    }
+
+    /**
+     * Counts the transitions made in {@code [from, to)} that match the given kind, target state, actor and role;
+     * a null filter matches anything. For example, approvals by Managers in the last hour are
+     * {@code count(now - 3_600_000, now, DECIDED, APPROVED, null, "Manager")}.
+     */
+    public long count(long from, long to, Transition.Kind kind, TaskState state, String actor, String role) {
+        int actorCode = NONE;
+        if (actor != null) {
+            actorCode = actors.find(actor);
+            if (actorCode == NONE) {
+                return 0;
+            }
+        }
+        int roleCode = NONE;
+        if (role != null) {
+            roleCode = roles.find(role);
+            if (roleCode == NONE) {
+                return 0;
+            }
+        }
+        int end = size;
+        int lo = firstAtOrAfter(from, end);
+        int hi = firstAtOrAfter(to, end);
+        long count = 0;
+        int position = lo;
+        while (position < hi) {
+            Chunk chunk = chunk(position);
+            int slot = position & CHUNK_MASK;
+            if (slot == 0 && position + CHUNK_SIZE <= hi) {
+                count += chunk.count(kind, state, actorCode, roleCode);
+                position += CHUNK_SIZE;
+                continue;
+            }
+            int stop = Math.min(hi - position + slot, CHUNK_SIZE);
+            for (int i = slot; i < stop; i++) {
+                if (chunk.matches(i, kind, state, actorCode, roleCode)) {
+                    count++;
+                }
+            }
+            position += stop - slot;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the transitions made in {@code [from, to)} matching the kind and target state (null for any),
+     * grouped by actor. Transitions without an actor are not counted.
+     */
+    public Map<String, Long> countByActor(long from, long to, Transition.Kind kind, TaskState state) {
+        return countGrouped(from, to, kind, state, false);
+    }
+
+    /**
+     * Counts the transitions made in {@code [from, to)} matching the kind and target state (null for any),
+     * grouped by the role their actor held. Transitions without a role are not counted.
+     */
+    public Map<String, Long> countByRole(long from, long to, Transition.Kind kind, TaskState state) {
+        return countGrouped(from, to, kind, state, true);
+    }
+
+    private Map<String, Long> countGrouped(long from, long to, Transition.Kind kind, TaskState state, boolean byRole) {
+        Map<Integer, long[]> counts = new HashMap<>();
+        int end = size;
+        int lo = firstAtOrAfter(from, end);
+        int hi = firstAtOrAfter(to, end);
+        int position = lo;
+        while (position < hi) {
+            Chunk chunk = chunk(position);
+            int slot = position & CHUNK_MASK;
+            if (slot == 0 && position + CHUNK_SIZE <= hi) {
+                for (Map.Entry<Integer, int[]> group : (byRole ? chunk.byRole : chunk.byActor).entrySet()) {
+                    long n = sum(group.getValue(), kind, state);
+                    if (n > 0) {
+                        counts.computeIfAbsent(group.getKey(), k -> new long[1])[0] += n;
+                    }
+                }
+                position += CHUNK_SIZE;
+                continue;
+            }
+            int[] column = byRole ? chunk.roles : chunk.actors;
+            int stop = Math.min(hi - position + slot, CHUNK_SIZE);
+            for (int i = slot; i < stop; i++) {
+                if (column[i] != NONE && chunk.matches(i, kind, state, NONE, NONE)) {
+                    counts.computeIfAbsent(column[i], k -> new long[1])[0]++;
+                }
+            }
+            position += stop - slot;
+        }
+        StringInterner names = byRole ? roles : actors;
+        Map<String, Long> result = new HashMap<>();
+        counts.forEach((code, n) -> result.put(names.lookup(code), n[0]));
+        return result;
+    }
+
+    private int head(long taskId) {
+        Integer position = latest.get(taskId);
+        return position == null ? NONE : position;
+    }
+
+    private Chunk chunk(int position) {
+        return chunks[position >>> CHUNK_BITS];
+    }
+
+    /**
+     * Returns the first position below {@code end} whose time is at or after {@code time}, or {@code end}.
+     */
+    private int firstAtOrAfter(long time, int end) {
+        int lo = 0;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (chunk(mid).times[mid & CHUNK_MASK] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private Transition entry(int position) {
+        Chunk chunk = chunk(position);
+        int slot = position & CHUNK_MASK;
+        byte from = chunk.from[slot];
+        int actor = chunk.actors[slot];
+        int role = chunk.roles[slot];
+        int reason = chunk.reasons[slot];
+        return new Transition(chunk.times[slot], chunk.taskIds[slot], KINDS[chunk.kinds[slot]],
+                from == NONE ? null : STATES[from], STATES[chunk.to[slot]], actor == NONE ? null : actors.lookup(actor),
+                role == NONE ? null : roles.lookup(role), reason == NONE ? null : reasons.lookup(reason));
+    }
+
+    /**
+     * Adds up a kind-by-state count table, restricted to one kind and/or state when they are not null.
+     */
+    private static long sum(int[] table, Transition.Kind kind, TaskState state) {
+        long n = 0;
+        for (Transition.Kind k : KINDS) {
+            if (kind != null && k != kind) {
+                continue;
+            }
+            for (TaskState s : STATES) {
+                if (state == null || s == state) {
+                    n += table[k.ordinal() * STATES.length + s.ordinal()];
+                }
+            }
+        }
+        return n;
+    }
+
+    private static final class Chunk {
+        final long[] times = new long[CHUNK_SIZE];
+        final long[] taskIds = new long[CHUNK_SIZE];
+        final byte[] kinds = new byte[CHUNK_SIZE];
+        final byte[] from = new byte[CHUNK_SIZE];
+        final byte[] to = new byte[CHUNK_SIZE];
+        final int[] actors = new int[CHUNK_SIZE];
+        final int[] roles = new int[CHUNK_SIZE];
+        final int[] reasons = new int[CHUNK_SIZE];
+        final int[] previous = new int[CHUNK_SIZE];
+        // Set once the chunk is full; counts are indexed by kind * states + target state
+        int[] totals;
+        Map<Integer, int[]> byActor;
+        Map<Integer, int[]> byRole;
+
+        void summarize() {
+            int cells = KINDS.length * STATES.length;
+            int[] totals = new int[cells];
+            Map<Integer, int[]> byActor = new HashMap<>();
+            Map<Integer, int[]> byRole = new HashMap<>();
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                int cell = kinds[i] * STATES.length + to[i];
+                totals[cell]++;
+                if (actors[i] != NONE) {
+                    byActor.computeIfAbsent(actors[i], k -> new int[cells])[cell]++;
+                }
+                if (roles[i] != NONE) {
+                    byRole.computeIfAbsent(roles[i], k -> new int[cells])[cell]++;
+                }
+            }
+            this.totals = totals;
+            this.byActor = byActor;
+            this.byRole = byRole;
+        }
+
+        long count(Transition.Kind kind, TaskState state, int actorCode, int roleCode) {
+            if (actorCode != NONE && roleCode != NONE) {
+                // There is no summary by actor and role together, so scan the chunk
+                long n = 0;
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    if (matches(i, kind, state, actorCode, roleCode)) {
+                        n++;
+                    }
+                }
+                return n;
+            }
+            if (actorCode == NONE && roleCode == NONE) {
+                return sum(totals, kind, state);
+            }
+            int[] table = actorCode != NONE ? byActor.get(actorCode) : byRole.get(roleCode);
+            return table == null ? 0 : sum(table, kind, state);
+        }
+
+        boolean matches(int slot, Transition.Kind kind, TaskState state, int actorCode, int roleCode) {
+            return (kind == null || kinds[slot] == kind.ordinal())
+                    && (state == null || to[slot] == state.code())
+                    && (actorCode == NONE || actors[slot] == actorCode)
+                    && (roleCode == NONE || roles[slot] == roleCode);
+        }
+    }
+}
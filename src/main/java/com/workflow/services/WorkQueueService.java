@@ -0,0 +1,432 @@
+package com.workflow.services;
+
+import com.workflow.concurrent.Clock;
+import com.workflow.concurrent.TimingWheel;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Work queues that approvers pull pending tasks from instead of looking them up by ID.
+ * There is one queue per priority level, and each user may claim from the levels their {@link AccessControl}
+ * lets them approve, highest priority first; with a {@link WorkflowDefinition} set they may instead claim any task
+ * whose current stage has an open step for their role, skipping the others. Within a level tasks come out oldest
+ * first: a level is split into lock-free skip-list stripes ordered by task ID (creation order for time-ordered IDs),
+ * and each claim takes the older head of two randomly chosen stripes, so concurrent approvers rarely touch the same
+ * stripe and the order across stripes is close to, but not strictly, oldest first.
+ * <p>
+ * A claim is a {@link Lease}. Leases that are neither released nor resolved by processing the task expire
+ * after the lease time and put the task back in its queue; lease timers live in striped {@link TimingWheel}s.
+ * Attach with {@link WorkflowService#setWorkQueues} so tasks are queued when created or reopened, moved on
+ * escalation and dropped when decided.
+ */
+public class WorkQueueService {
+    private static final Logger LOG = Log.getLogger(WorkQueueService.class);
+    private static final int MAX_PRIORITY = 3;
+    private static final long DEFAULT_LEASE_MILLIS = 5 * 60_000L;
+    private static final long DEFAULT_TICK_MILLIS = 1000;
+    private static final Comparator<Task> OLDEST_FIRST = Comparator.comparingLong(Task::getNumericId);
+
+    private final Clock clock;
+    private final long leaseMillis;
+    private final Level[] levels = new Level[MAX_PRIORITY + 1];
+    private final TimingWheel<Lease>[] leaseTimers;
+    private final int mask;
+    private final ConcurrentMap<Long, Lease> leases = new ConcurrentHashMap<>();
+    private volatile AccessControl access = new AccessControl();
+    private volatile WorkflowDefinition definition;
+    private ScheduledExecutorService ticker;
+
+    public WorkQueueService() {
+        this(Clock.SYSTEM, DEFAULT_LEASE_MILLIS, DEFAULT_TICK_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param leaseMillis how long a claim lasts before the task is re-queued
+     * @param tickMillis  resolution of lease expiry
+     * @param stripes     number of stripes per level and of lease wheels, rounded up to a power of two
+     */
+    public WorkQueueService(Clock clock, long leaseMillis, long tickMillis, int stripes) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        if (leaseMillis < 1) {
+            throw new IllegalArgumentException("Lease time must be positive");
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.clock = clock;
+        this.leaseMillis = leaseMillis;
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        for (int priority = 1; priority <= MAX_PRIORITY; priority++) {
+            levels[priority] = new Level(size);
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        TimingWheel<Lease>[] wheels = new TimingWheel[size];
+        for (int i = 0; i < size; i++) {
+            wheels[i] = new TimingWheel<>(tickMillis, clock);
+        }
+        leaseTimers = wheels;
+    }
+
+    /**
+     * Sets whose permissions decide which levels a user may claim from; defaults to the
+     * {@link AccessPolicy#defaults default policy}. Use the one the workflow service enforces.
+     */
+    public void setAccessControl(AccessControl access) {
+        if (access == null) {
+            throw new IllegalArgumentException("Access control cannot be null");
+        }
+        this.access = access;
+    }
+
+    /**
+     * Lets users claim the tasks the definition's current stage has an open step for, at any priority, in place
+     * of the levels their access control allows. Use the definition the workflow service approves by.
+     */
+    public void setWorkflowDefinition(WorkflowDefinition definition) {
+        if (definition == null) {
+            throw new IllegalArgumentException("Workflow definition cannot be null");
+        }
+        this.definition = definition;
+    }
+
+    /**
+     * Claims the highest-priority, oldest pending task the user may approve, or returns null if
+     * there is none.
+     */
+    public Lease claimNext(User user) {
+        List<Lease> claimed = claimBatch(user, 1);
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    /**
+     * Claims up to {@code count} tasks in the same order as {@link #claimNext}.
+     */
+    public List<Lease> claimBatch(User user, int count) {
+        List<Lease> claimed = new ArrayList<>();
+        if (user == null || count < 1) {
+            LOG.warn("User cannot be null and count must be positive");
+            return claimed;
+        }
+        long expiresAt = clock.millis() + leaseMillis;
+        WorkflowDefinition stages = definition;
+        if (stages != null) {
+            String role = user.getRole();
+            for (int priority = MAX_PRIORITY; priority >= 1 && claimed.size() < count; priority--) {
+                claimMatching(claimed, count, levels[priority], priority, task -> stages.canApprove(task, role),
+                        user.getUsername(), expiresAt);
+            }
+            return claimed;
+        }
+        for (int priority : access.priorities(user, Permission.APPROVE)) {
+            if (priority > MAX_PRIORITY) {
+                continue;
+            }
+            Level level = levels[priority];
+            while (claimed.size() < count) {
+                Task task = level.poll();
+                if (task == null) {
+                    break;
+                }
+                Lease lease = lease(task, priority, user.getUsername(), expiresAt);
+                if (lease != null) {
+                    claimed.add(lease);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Gives a claimed task back to its queue before the lease runs out. Returns false if the lease
+     * already expired, was released or the task was decided.
+     */
+    public boolean release(Lease lease) {
+        if (lease == null || !leases.remove(lease.getTask().getNumericId(), lease)) {
+            return false;
+        }
+        lease.timeout.cancel();
+        add(lease.getTask());
+        return true;
+    }
+
+    /**
+     * Extends a lease by the full lease time from now. Returns false if it is no longer held.
+     */
+    public boolean renew(Lease lease) {
+        if (lease == null || leases.get(lease.getTask().getNumericId()) != lease || !lease.timeout.cancel()) {
+            return false;
+        }
+        lease.setExpiresAt(clock.millis() + leaseMillis);
+        lease.timeout = wheelFor(lease.getTask()).schedule(lease, lease.getExpiresAt());
+        return true;
+    }
+
+    /**
+     * Returns the current lease on a task, or null if it is not claimed.
+     */
+    public Lease getLease(Task task) {
+        return task == null ? null : leases.get(task.getNumericId());
+    }
+
+    /**
+     * Queues a pending task at its current priority unless it is claimed.
+     */
+    public void add(Task task) {
+        if (task.getState() == TaskState.PENDING && !leases.containsKey(task.getNumericId())) {
+            levels[task.getPriority()].add(task);
+        }
+    }
+
+    /**
+     * Drops a task from its queue and releases any lease on it, e.g. once it has been decided.
+     */
+    public void remove(Task task) {
+        levels[task.getPriority()].remove(task);
+        Lease lease = leases.remove(task.getNumericId());
+        if (lease != null) {
+            lease.timeout.cancel();
+        }
+    }
+
+    /**
+     * Ends any lease on a task that is still pending after being processed, e.g. once one step of its workflow
+     * stage was approved, and queues it for the next approver.
+     */
+    public void requeue(Task task) {
+        Lease lease = leases.remove(task.getNumericId());
+        if (lease != null) {
+            lease.timeout.cancel();
+        }
+        add(task);
+    }
+
+    /**
+     * Moves a task whose priority changed from {@code previous} to its new queue. A claimed task keeps its lease.
+     */
+    public void reprioritize(Task task, int previous) {
+        levels[previous].remove(task);
+        add(task);
+    }
+
+    /**
+     * Expires lapsed leases up to the clock's current time, re-queuing their tasks. Returns the number expired.
+     */
+    public int advance() {
+        int expired = 0;
+        for (TimingWheel<Lease> wheel : leaseTimers) {
+            for (TimingWheel.Timeout<Lease> timeout : wheel.advance()) {
+                Lease lease = timeout.getPayload();
+                if (leases.remove(lease.getTask().getNumericId(), lease)) {
+                    LOG.info("Lease on task {} held by {} expired", lease.getTask().getId(), lease.getHolder());
+                    add(lease.getTask());
+                    expired++;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Starts expiring leases every tick on a daemon thread.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lease-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = leaseTimers[0].getTickMillis();
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                LOG.error("Lease expiry failed", e);
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Returns the number of queued tasks at a priority; approximate while tasks are being claimed.
+     */
+    public long getQueuedCount(int priority) {
+        return priority < 1 || priority > MAX_PRIORITY ? 0 : levels[priority].size.sum();
+    }
+
+    public int getLeaseCount() {
+        return leases.size();
+    }
+
+    private void claimMatching(List<Lease> claimed, int count, Level level, int priority, Predicate<Task> filter,
+                               String holder, long expiresAt) {
+        while (claimed.size() < count) {
+            Task task = level.poll(filter);
+            if (task == null) {
+                return;
+            }
+            Lease lease = lease(task, priority, holder, expiresAt);
+            if (lease != null) {
+                claimed.add(lease);
+            }
+        }
+    }
+
+    private Lease lease(Task task, int priority, String holder, long expiresAt) {
+        // Entries can be stale: decided or escalated after they were queued
+        if (task.getState() != TaskState.PENDING || task.getPriority() != priority) {
+            return null;
+        }
+        Lease lease = new Lease(task, holder, expiresAt);
+        lease.timeout = wheelFor(task).schedule(lease, expiresAt);
+        if (leases.putIfAbsent(task.getNumericId(), lease) != null) {
+            lease.timeout.cancel();
+            return null;
+        }
+        if (task.getState() != TaskState.PENDING) {
+            // Decided while we were claiming it; the decision's remove() may have run before our put
+            leases.remove(task.getNumericId(), lease);
+            lease.timeout.cancel();
+            return null;
+        }
+        return lease;
+    }
+
+    private TimingWheel<Lease> wheelFor(Task task) {
+        return leaseTimers[stripe(task.getNumericId())];
+    }
+
+    private int stripe(long taskId) {
+        long h = taskId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * One priority level: tasks striped by ID over lock-free sorted sets.
+     */
+    private final class Level {
+        private final ConcurrentSkipListSet<Task>[] stripes;
+        private final LongAdder size = new LongAdder();
+
+        Level(int stripeCount) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ConcurrentSkipListSet<Task>[] created = new ConcurrentSkipListSet[stripeCount];
+            stripes = created;
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new ConcurrentSkipListSet<>(OLDEST_FIRST);
+            }
+        }
+
+        void add(Task task) {
+            if (stripes[stripe(task.getNumericId())].add(task)) {
+                size.increment();
+            }
+        }
+
+        void remove(Task task) {
+            if (stripes[stripe(task.getNumericId())].remove(task)) {
+                size.decrement();
+            }
+        }
+
+        /**
+         * Takes the older head of two random stripes, falling back to a scan when both are empty.
+         */
+        Task poll() {
+            if (stripes.length > 1) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                ConcurrentSkipListSet<Task> a = stripes[random.nextInt(stripes.length)];
+                ConcurrentSkipListSet<Task> b = stripes[random.nextInt(stripes.length)];
+                Task headA = head(a);
+                Task headB = head(b);
+                ConcurrentSkipListSet<Task> older = headB == null
+                        || (headA != null && headA.getNumericId() < headB.getNumericId()) ? a : b;
+                Task task = older.pollFirst();
+                if (task != null) {
+                    size.decrement();
+                    return task;
+                }
+            }
+            for (ConcurrentSkipListSet<Task> stripe : stripes) {
+                Task task = stripe.pollFirst();
+                if (task != null) {
+                    size.decrement();
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Takes the oldest task the filter accepts among the stripes' first matches, leaving the tasks it
+         * rejects queued. Walks every stripe, so it is slower than {@link #poll()} when many tasks are skipped.
+         */
+        Task poll(Predicate<Task> filter) {
+            while (true) {
+                Task oldest = null;
+                for (ConcurrentSkipListSet<Task> stripe : stripes) {
+                    for (Task task : stripe) {
+                        if (oldest != null && task.getNumericId() > oldest.getNumericId()) {
+                            break;
+                        }
+                        if (filter.test(task)) {
+                            oldest = task;
+                            break;
+                        }
+                    }
+                }
+                if (oldest == null) {
+                    return null;
+                }
+                if (stripes[stripe(oldest.getNumericId())].remove(oldest)) {
+                    size.decrement();
+                    return oldest;
+                }
+                // Claimed or dropped by someone else meanwhile; look again
+            }
+        }
+
+        private Task head(ConcurrentSkipListSet<Task> stripe) {
+            if (stripe.isEmpty()) {
+                return null;
+            }
+            try {
+                return stripe.first();
+            } catch (NoSuchElementException e) {
+                // Emptied since the check
+                return null;
+            }
+        }
+    }
+}
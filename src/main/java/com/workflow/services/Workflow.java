@@ -0,0 +1,91 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The task operations front ends use, implemented by a single {@link WorkflowService} or by a
+ * {@link com.workflow.cluster.ShardedWorkflowService} spread over several.
+ * Invalid input is logged and reported as null or false rather than thrown.
+ * Operations taking an acting user are checked against the {@link AccessControl} in force, as are all creations;
+ * the others are trusted system calls.
+ */
+public interface Workflow {
+    /**
+     * Creates a pending task. Returns null if the input is invalid.
+     */
+    Task createTask(String description, int priority, User creator);
+
+    /**
+     * Approves (through the router) or rejects a pending task. Returns false if nothing was changed.
+     */
+    boolean processTask(Task task, boolean approve, String rejectionReason);
+
+    /**
+     * Approves or rejects a pending task on behalf of a user. Returns false if nothing was changed, including when
+     * the user may not make that decision.
+     */
+    boolean processTask(User actor, Task task, boolean approve, String rejectionReason);
+
+    /**
+     * Raises a pending task's priority by one. Returns false if the task is not pending or already at priority 3.
+     */
+    boolean escalateTask(Task task);
+
+    /**
+     * Applies one decision to many tasks. Returns null if the arguments are invalid.
+     */
+    BulkResult processTasks(Collection<String> taskIds, Decision decision);
+
+    /**
+     * Applies one decision to every task matching the query at the time of the call.
+     */
+    BulkResult processTasks(TaskQuery query, Decision decision);
+
+    /**
+     * Applies one decision to many tasks on behalf of a user; tasks the user may not decide are reported as
+     * {@link BulkResult.Outcome#FORBIDDEN}.
+     */
+    BulkResult processTasks(User actor, Collection<String> taskIds, Decision decision);
+
+    BulkResult processTasks(User actor, TaskQuery query, Decision decision);
+
+    boolean rollbackTask(Task task);
+
+    /**
+     * Rolls a task back by {@code steps} saved states at once. Returns false if there was not enough history.
+     */
+    boolean rollbackTask(Task task, int steps);
+
+    /**
+     * Rolls a task back on behalf of a user. Returns false if there was not enough history or the user may not
+     * roll it back.
+     */
+    boolean rollbackTask(User actor, Task task, int steps);
+
+    /**
+     * Returns a copy of every task. Prefer {@link #query(TaskQuery)} for anything but small stores.
+     */
+    List<Task> getTasks();
+
+    /**
+     * Streams the tasks matching a query in the query's sort order.
+     */
+    Stream<Task> query(TaskQuery query);
+
+    /**
+     * Returns the tasks whose descriptions best match a full-text search, most relevant first.
+     */
+    SearchResult search(TaskSearch search);
+
+    /**
+     * Returns the task with the given encoded ID, or null if there is none.
+     */
+    Task getTask(String taskId);
+
+    Task getTask(long taskId);
+}
@@ -0,0 +1,281 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A multi-stage approval process for {@link WorkflowService#setWorkflowDefinition}: stages run one after another,
+ * and each stage is a set of steps, one per role, of which a quorum must approve (all of them for a parallel
+ * sign-off, k of n for a vote). A stage may have a condition on the task; it is skipped when the condition does
+ * not hold as the task reaches it.
+ * <p>
+ * The definition is compiled once into a stage-by-role table of step bits, so a task only carries its
+ * progress: a bitmask of approved steps and the index of its current stage, packed into an int that lives
+ * in its {@link com.workflow.core.StateWord}. Applying an approval is a table lookup and a few bit operations.
+ * Each role has at most one step per stage, so one user can never meet a quorum alone.
+ */
+public final class WorkflowDefinition {
+    /** Returned by {@link #approve} when the role has no open step in the task's current stage. */
+    public static final int REFUSED = -1;
+    public static final int MAX_STEPS = 24;
+
+    private static final int STEP_MASK = (1 << MAX_STEPS) - 1;
+
+    private final int[] stageSteps;
+    private final int[] quorums;
+    private final Predicate<Task>[] conditions;
+    private final String[] stepRoles;
+    private final Map<String, Integer> roleIds;
+    /** The step bit of each role in each stage, at {@code stage * roleCount + role}; 0 where it has none. */
+    private final int[] stepBits;
+
+    private WorkflowDefinition(List<Stage> stages) {
+        int stageCount = stages.size();
+        stageSteps = new int[stageCount];
+        quorums = new int[stageCount];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Predicate<Task>[] created = new Predicate[stageCount];
+        conditions = created;
+        roleIds = new HashMap<>();
+        List<String> roles = new ArrayList<>();
+        for (Stage stage : stages) {
+            for (String role : stage.roles) {
+                if (!roleIds.containsKey(role)) {
+                    roleIds.put(role, roleIds.size());
+                }
+                roles.add(role);
+            }
+        }
+        stepRoles = roles.toArray(new String[0]);
+        stepBits = new int[stageCount * roleIds.size()];
+        int step = 0;
+        for (int s = 0; s < stageCount; s++) {
+            Stage stage = stages.get(s);
+            for (String role : stage.roles) {
+                stepBits[s * roleIds.size() + roleIds.get(role)] = 1 << step;
+                stageSteps[s] |= 1 << step;
+                step++;
+            }
+            quorums[s] = stage.quorum;
+            conditions[s] = stage.condition;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parses stages separated by {@code >}. Each stage is roles joined by {@code +}, all of which must approve,
+     * optionally preceded by {@code k/} to need only k of them and by {@code pN:} to apply only to tasks of
+     * priority N or higher, e.g. {@code Manager+Senior>Junior} or {@code 2/Manager+Senior+Director>p3:Senior}.
+     */
+    public static WorkflowDefinition parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Workflow specification cannot be empty");
+        }
+        Builder builder = new Builder();
+        for (String entry : spec.split(">")) {
+            String stage = entry.trim();
+            try {
+                int minPriority = 0;
+                if (stage.startsWith("p") && stage.indexOf(':') > 0) {
+                    minPriority = Integer.parseInt(stage.substring(1, stage.indexOf(':')).trim());
+                    stage = stage.substring(stage.indexOf(':') + 1).trim();
+                }
+                String[] roles = stage.substring(stage.indexOf('/') + 1).split("\\+");
+                for (int i = 0; i < roles.length; i++) {
+                    roles[i] = roles[i].trim();
+                }
+                int quorum = stage.indexOf('/') < 0 ? roles.length
+                        : Integer.parseInt(stage.substring(0, stage.indexOf('/')).trim());
+                if (minPriority > 0) {
+                    int min = minPriority;
+                    builder.stageWhen(task -> task.getPriority() >= min, quorum, roles);
+                } else {
+                    builder.stage(quorum, roles);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid workflow stage " + stage, e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Applies an approval of a pending task by a user of {@code role}, or by the system if the role is null, and
+     * returns the task's new progress; {@link #isComplete} tells whether that was its final approval. An approval
+     * by the system completes the current stage. Returns {@link #REFUSED} if the role has no open step in the
+     * current stage. A task that no remaining stage applies to is complete at its next approval.
+     */
+    public int approve(Task task, int progress, String role) {
+        int stage = reach(task, stageOf(progress));
+        int approved = progress & STEP_MASK;
+        if (stage == stageSteps.length) {
+            return progress(stage, approved);
+        }
+        int open = stageSteps[stage] & ~approved;
+        int step;
+        if (role == null) {
+            step = open;
+        } else {
+            Integer id = roleIds.get(role);
+            step = id == null ? 0 : stepBits[stage * roleIds.size() + id] & open;
+            if (step == 0) {
+                return REFUSED;
+            }
+        }
+        approved |= step;
+        if (Integer.bitCount(approved & stageSteps[stage]) >= quorums[stage]) {
+            stage = reach(task, stage + 1);
+        }
+        return progress(stage, approved);
+    }
+
+    /**
+     * Returns true if a user of {@code role} has an open step in the task's current stage.
+     */
+    public boolean canApprove(Task task, String role) {
+        return role != null && approve(task, task.getProgress(), role) != REFUSED;
+    }
+
+    /**
+     * Returns true once every stage that applies to the task has been approved.
+     */
+    public boolean isComplete(int progress) {
+        return stageOf(progress) == stageSteps.length;
+    }
+
+    /**
+     * Returns the roles that can still approve the task's current stage, in declaration order.
+     */
+    public List<String> getWaitingRoles(Task task) {
+        int progress = task.getProgress();
+        int stage = reach(task, stageOf(progress));
+        List<String> roles = new ArrayList<>();
+        if (stage < stageSteps.length) {
+            int open = stageSteps[stage] & ~progress;
+            for (int step = Integer.numberOfTrailingZeros(open); step < MAX_STEPS;
+                 step = Integer.numberOfTrailingZeros(open & (-2 << step))) {
+                roles.add(stepRoles[step]);
+            }
+        }
+        return roles;
+    }
+
+    public int getStageCount() {
+        return stageSteps.length;
+    }
+
+    public int getStepCount() {
+        return stepRoles.length;
+    }
+
+    /**
+     * Returns the first stage from {@code stage} on whose condition holds for the task, or the stage count.
+     */
+    private int reach(Task task, int stage) {
+        while (stage < stageSteps.length && conditions[stage] != null && !conditions[stage].test(task)) {
+            stage++;
+        }
+        return stage;
+    }
+
+    private static int stageOf(int progress) {
+        return progress >>> MAX_STEPS;
+    }
+
+    private static int progress(int stage, int approved) {
+        return stage << MAX_STEPS | approved;
+    }
+
+    private static final class Stage {
+        final Predicate<Task> condition;
+        final int quorum;
+        final String[] roles;
+
+        Stage(Predicate<Task> condition, int quorum, String[] roles) {
+            this.condition = condition;
+            this.quorum = quorum;
+            this.roles = roles;
+        }
+    }
+
+    /**
+     * Collects stages in order and compiles them into a {@link WorkflowDefinition}.
+     */
+    public static class Builder {
+        private final List<Stage> stages = new ArrayList<>();
+        private int steps;
+
+        /**
+         * Adds a stage approved by one role.
+         */
+        public Builder step(String role) {
+            return stage(1, role);
+        }
+
+        /**
+         * Adds a stage every one of the roles must approve, in any order.
+         */
+        public Builder allOf(String... roles) {
+            return stage(roles == null ? 0 : roles.length, roles);
+        }
+
+        /**
+         * Adds a stage that {@code quorum} of the roles must approve.
+         */
+        public Builder stage(int quorum, String... roles) {
+            return add(null, quorum, roles);
+        }
+
+        /**
+         * Adds a stage that only applies to tasks matching {@code condition} when they reach it.
+         */
+        public Builder stageWhen(Predicate<Task> condition, int quorum, String... roles) {
+            if (condition == null) {
+                throw new IllegalArgumentException("Condition cannot be null");
+            }
+            return add(condition, quorum, roles);
+        }
+
+        private Builder add(Predicate<Task> condition, int quorum, String[] roles) {
+            if (roles == null || roles.length == 0) {
+                throw new IllegalArgumentException("A stage needs at least one role");
+            }
+            Set<String> distinct = new HashSet<>();
+            for (String role : roles) {
+                if (role == null || role.trim().isEmpty()) {
+                    throw new IllegalArgumentException("Role cannot be empty");
+                }
+                if (!distinct.add(role)) {
+                    throw new IllegalArgumentException("Role " + role + " appears twice in one stage");
+                }
+            }
+            if (quorum < 1 || quorum > roles.length) {
+                throw new IllegalArgumentException("Quorum must be between 1 and " + roles.length);
+            }
+            if (steps + roles.length > MAX_STEPS) {
+                throw new IllegalArgumentException("A workflow can have at most " + MAX_STEPS + " steps");
+            }
+            steps += roles.length;
+            stages.add(new Stage(condition, quorum, Arrays.copyOf(roles, roles.length)));
+            return this;
+        }
+
+        public WorkflowDefinition build() {
+            if (stages.isEmpty()) {
+                throw new IllegalArgumentException("A workflow needs at least one stage");
+            }
+            return new WorkflowDefinition(new ArrayList<>(stages));
+        }
+    }
+}
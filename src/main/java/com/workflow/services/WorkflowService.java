@@ -1,105 +1,800 @@
 package com.workflow.services;
 
 import com.workflow.core.Task;
+import com.workflow.core.TaskIdCodec;
+import com.workflow.core.TaskIdGenerator;
+import com.workflow.core.TaskState;
 import com.workflow.core.User;
-import com.workflow.patterns.chainofresponsibility.ApproverHandler;
+import com.workflow.logging.Log;
+import com.workflow.logging.Logger;
+import com.workflow.metrics.Histogram;
+import com.workflow.metrics.Metrics;
+import com.workflow.patterns.chainofresponsibility.ApprovalRouter;
 import com.workflow.patterns.chainofresponsibility.JuniorHandler;
 import com.workflow.patterns.chainofresponsibility.ManagerHandler;
 import com.workflow.patterns.chainofresponsibility.SeniorHandler;
 import com.workflow.patterns.memento.MementoCaretaker;
 import com.workflow.patterns.memento.TaskOriginator;
+import com.workflow.patterns.observer.EventDispatcher;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.SynchronousEventDispatcher;
+import com.workflow.persistence.Journal;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 /**
- * Manages task creation and processing using Chain of Responsibility and Memento patterns.
+ * Manages task creation and processing using Chain of Responsibility (compiled into an
+ * {@link ApprovalRouter} table) and Memento patterns.
+ * Safe for concurrent use: operations on one task are serialized by its stripe lock.
+ * {@link #processTasks} decides many tasks at once on a fork-join pool.
+ * With an {@link AccessControl} attached, every operation made on behalf of a user is checked against its
+ * policy under the task's lock, at the task's current priority; operations without an acting user are
+ * trusted system calls, e.g. from the {@link SlaMonitor}.
+ * With a {@link WorkflowDefinition} set, approvals advance each task through its stages instead of going
+ * through the router, and the task is approved once its last stage is.
  */
-public class WorkflowService {
-    private Map<String, Task> tasks = new HashMap<>();
-    private Map<String, MementoCaretaker> caretakers = new HashMap<>();
-    private ApproverHandler chain;
+public class WorkflowService implements Workflow {
+    private static final Logger LOG = Log.getLogger(WorkflowService.class);
+    private static final Histogram CREATE_LATENCY = Metrics.latency("WorkflowService.createTask");
+    private static final Histogram PROCESS_LATENCY = Metrics.latency("WorkflowService.processTask");
+    private static final Histogram ROLLBACK_LATENCY = Metrics.latency("WorkflowService.rollbackTask");
+    private static final Histogram BULK_LATENCY = Metrics.latency("WorkflowService.processTasks");
+    private static final Histogram SEARCH_LATENCY = Metrics.latency("WorkflowService.search");
+    private static final int BULK_CHUNK_SIZE = 1024;
+    private static final long DENIED = -2;
+    private static final long NOT_FOUND = -3;
 
-    public WorkflowService() {
-        // Set up chain of responsibility
-        chain = new JuniorHandler();
-        chain.setNext(new ManagerHandler());
-        chain.setNext(new SeniorHandler());
+    private final TaskStore store;
+    private final TaskIdGenerator idGenerator;
+    private final ApprovalRouter router;
+    private volatile EventDispatcher dispatcher = SynchronousEventDispatcher.INSTANCE;
+    private volatile SubscriptionRegistry subscriptions;
+    private volatile SlaMonitor slaMonitor;
+    private volatile WorkQueueService workQueues;
+    private volatile TransitionLog transitions;
+    private volatile TaskArchiver archiver;
+    private volatile AccessControl access;
+    private volatile WorkflowDefinition definition;
+    private volatile Journal journal = Journal.NONE;
+    private volatile ForkJoinPool bulkPool = ForkJoinPool.commonPool();
+
+    /**
+     * @param idGenerator generator for new task IDs; its node ID must differ from every other generator whose
+     *                    IDs end up in the same store, journal or cluster
+     */
+    public WorkflowService(TaskStore store, TaskIdGenerator idGenerator) {
+        this(store, idGenerator, defaultRouter());
+    }
+
+    public WorkflowService(TaskStore store, TaskIdGenerator idGenerator, ApprovalRouter router) {
+        if (store == null) {
+            throw new IllegalArgumentException("Task store cannot be null");
+        }
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("ID generator cannot be null");
+        }
+        if (router == null) {
+            throw new IllegalArgumentException("Router cannot be null");
+        }
+        this.store = store;
+        this.idGenerator = idGenerator;
+        this.router = router;
+        store.setTaskInitializer(this::wire);
     }
 
+    private static ApprovalRouter defaultRouter() {
+        return ApprovalRouter.builder()
+                .route(1, new JuniorHandler())
+                .route(2, new ManagerHandler())
+                .route(3, new SeniorHandler())
+                .build();
+    }
+
+    @Override
     public Task createTask(String description, int priority, User creator) {
+        if (creator == null) {
+            LOG.warn("Creator cannot be null");
+            return null;
+        }
+        return createTask(idGenerator.nextId(), description, priority, creator);
+    }
+
+    /**
+     * Creates a task under an ID chosen by the caller, e.g. a {@link com.workflow.cluster.ShardedWorkflowService}
+     * that routes by ID, on behalf of the given user. The ID should come from a compatible generator so its
+     * creation time can be derived. Returns null if the input is invalid, the ID is taken or the user may not
+     * create tasks of that priority.
+     */
+    public Task createTask(long taskId, String description, int priority, User creator) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        Task task = create(taskId, description, priority, creator);
+        if (Metrics.ENABLED) {
+            CREATE_LATENCY.recordSince(start);
+        }
+        return task;
+    }
+
+    private Task create(long id, String description, int priority, User creator) {
         if (description == null || description.trim().isEmpty()) {
-            System.out.println("Error: Task description cannot be empty");
+            LOG.warn("Task description cannot be empty");
             return null;
         }
         if (priority < 1 || priority > 3) {
-            System.out.println("Error: Priority must be between 1 and 3");
+            LOG.warn("Priority must be between 1 and 3");
             return null;
         }
         if (creator == null) {
-            System.out.println("Error: Creator cannot be null");
+            LOG.warn("Creator cannot be null");
+            return null;
+        }
+        if (!permits(creator, Permission.CREATE, priority)) {
             return null;
         }
-        Task task = new Task(description, priority);
-        tasks.put(task.getId(), task);
-        caretakers.put(task.getId(), new MementoCaretaker());
-        System.out.println("Task created: " + task.getId());
+        long createdAt = idGenerator.creationTimeOf(id);
+        if (createdAt < 0) {
+            createdAt = System.currentTimeMillis();
+        }
+        Task task = new Task(id, description, priority, creator.getUsername(), createdAt);
+        wire(task);
+        long position;
+        ReentrantLock lock = store.lockFor(task.getNumericId());
+        lock.lock();
+        try {
+            if (!store.add(task, store.newCaretaker(priority))) {
+                LOG.warn("Duplicate task ID {}", task.getId());
+                return null;
+            }
+            // Hand out what the store keeps, which for a ColumnarTaskStore is a view of the row just added
+            task = store.getResident(id);
+            position = journal.taskCreated(task, creator.getUsername());
+            TransitionLog log = transitions;
+            if (log != null) {
+                log.record(id, Transition.Kind.CREATED, null, TaskState.PENDING, creator.getUsername(),
+                        creator.getRole(), null);
+            }
+            opened(task, createdAt);
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitDurable(position);
+        LOG.info("Task created: {}", task.getId());
         return task;
     }
 
-    public void processTask(Task task, boolean approve, String rejectionReason) {
+    /**
+     * Approves (through the router) or rejects a pending task. Returns false if nothing was changed.
+     */
+    @Override
+    public boolean processTask(Task task, boolean approve, String rejectionReason) {
+        return processTask(null, task, approve, rejectionReason);
+    }
+
+    /**
+     * Approves or rejects a pending task on behalf of a user. Returns false if nothing was changed, including
+     * when the user may not make that decision at the task's priority.
+     */
+    @Override
+    public boolean processTask(User actor, Task task, boolean approve, String rejectionReason) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        boolean processed = process(actor, task, approve, rejectionReason);
+        if (Metrics.ENABLED) {
+            PROCESS_LATENCY.recordSince(start);
+        }
+        return processed;
+    }
+
+    private boolean process(User actor, Task task, boolean approve, String rejectionReason) {
         if (task == null) {
-            System.out.println("Error: Task cannot be null");
-            return;
+            LOG.warn("Task cannot be null");
+            return false;
         }
-        MementoCaretaker caretaker = caretakers.get(task.getId());
-        if (caretaker == null) {
-            System.out.println("Error: Task not found");
-            return;
+        long position = decide(actor, task, approve, rejectionReason);
+        if (position == NOT_FOUND) {
+            LOG.warn("Task not found");
+            return false;
         }
-        caretaker.save(new TaskOriginator(task));
-        if (approve) {
-            chain.handle(task);
-        } else {
-            String status = "Rejected";
-            if (rejectionReason != null && !rejectionReason.trim().isEmpty()) {
-                status += ": " + rejectionReason;
+        if (position == DENIED) {
+            return false;
+        }
+        if (position < 0) {
+            LOG.warn("Task {} is already {}", task.getId(), task.getState());
+            return false;
+        }
+        journal.awaitDurable(position);
+        WorkflowDefinition stages = definition;
+        if (approve && stages != null) {
+            if (task.isTerminal()) {
+                LOG.info("Task {} approved", task.getId());
+            } else {
+                LOG.info("Task {} step approved, waiting for {}", task.getId(), stages.getWaitingRoles(task));
+            }
+        } else if (!approve) {
+            if (rejectionReason != null && !rejectionReason.isEmpty()) {
+                LOG.info("Task {} rejected with reason: {}", task.getId(), rejectionReason);
+            } else {
+                LOG.info("Task {} rejected", task.getId());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Saves a memento and applies the decision under the task's stripe lock, journaling both without
+     * waiting for them to become durable. Returns the journal position, -1 if the task was not pending,
+     * {@link #DENIED} if the actor may not make the decision or {@link #NOT_FOUND} if the store does not hold it.
+     */
+    private long decide(User actor, Task task, boolean approve, String rejectionReason) {
+        String role = actor == null ? null : actor.getRole();
+        ReentrantLock lock = store.lockFor(task.getNumericId());
+        lock.lock();
+        try {
+            MementoCaretaker caretaker = store.getCaretaker(task.getNumericId());
+            if (caretaker == null) {
+                return NOT_FOUND;
+            }
+            if (task.getState() != TaskState.PENDING) {
+                return -1;
+            }
+            WorkflowDefinition stages = approve ? definition : null;
+            int progress = 0;
+            if (stages != null) {
+                // The definition's steps say who may approve, in place of the access control
+                progress = stages.approve(task, task.getProgress(), role);
+                if (progress == WorkflowDefinition.REFUSED) {
+                    LOG.warn("Permission denied: {} ({}) has no open step in the current stage of task {}",
+                            actor.getUsername(), role, task.getId());
+                    return DENIED;
+                }
+            } else if (!permits(actor, approve ? Permission.APPROVE : Permission.REJECT, task.getPriority())) {
+                return DENIED;
+            }
+            caretaker.save(new TaskOriginator(task));
+            journal.snapshotSaved(task);
+            if (!approve) {
+                task.reject(rejectionReason);
+            } else if (stages == null) {
+                router.handle(task, role);
+            } else if (stages.isComplete(progress)) {
+                task.approve(role);
+            } else {
+                task.advance(progress);
             }
-            task.setStatus(status);
-            System.out.println("Task " + task.getId() + " rejected" +
-                    (rejectionReason != null && !rejectionReason.isEmpty() ? " with reason: " + rejectionReason : ""));
+            long position = journal.statusChanged(task);
+            store.stateChanged(task, TaskState.PENDING);
+            TransitionLog log = transitions;
+            if (log != null) {
+                String username = actor == null ? null : actor.getUsername();
+                if (task.getState() != TaskState.PENDING) {
+                    log.record(task.getNumericId(), Transition.Kind.DECIDED, TaskState.PENDING, task.getState(),
+                            username, role, task.getReason());
+                } else if (stages != null) {
+                    log.record(task.getNumericId(), Transition.Kind.STEP_APPROVED, TaskState.PENDING,
+                            TaskState.PENDING, username, role, null);
+                }
+            }
+            if (task.isTerminal()) {
+                closed(task, caretaker);
+            } else {
+                // A step approval leaves the task pending; the next stage's approvers claim it afresh
+                WorkQueueService queues = workQueues;
+                if (queues != null) {
+                    queues.requeue(task);
+                }
+            }
+            return position;
+        } finally {
+            lock.unlock();
         }
     }
 
-    public void rollbackTask(Task task) {
+    /**
+     * Raises a pending task's priority by one so the next approver level can decide it, restarting its
+     * SLA deadline at the new priority. Returns false if the task is not pending or already at priority 3.
+     */
+    @Override
+    public boolean escalateTask(Task task) {
         if (task == null) {
-            System.out.println("Error: Task cannot be null");
-            return;
+            LOG.warn("Task cannot be null");
+            return false;
+        }
+        long position;
+        int priority;
+        ReentrantLock lock = store.lockFor(task.getNumericId());
+        lock.lock();
+        try {
+            priority = task.getPriority();
+            if (task.getState() != TaskState.PENDING || priority >= 3) {
+                return false;
+            }
+            task.setPriority(priority + 1);
+            position = journal.priorityChanged(task);
+            store.priorityChanged(task, priority);
+            SlaMonitor monitor = slaMonitor;
+            if (monitor != null) {
+                monitor.track(task);
+            }
+            WorkQueueService queues = workQueues;
+            if (queues != null) {
+                queues.reprioritize(task, priority);
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitDurable(position);
+        LOG.info("Task {} escalated to priority {}", task.getId(), priority + 1);
+        return true;
+    }
+
+    /**
+     * Applies one decision to many tasks in parallel on the bulk pool. Tasks are split into chunks;
+     * each chunk waits for the journal once rather than once per task. Operations on one task are still
+     * serialized by its stripe lock, so a task listed twice, or processed concurrently elsewhere, is decided
+     * only once. Returns null if the arguments are invalid.
+     */
+    @Override
+    public BulkResult processTasks(Collection<String> taskIds, Decision decision) {
+        return processTasks(null, taskIds, decision);
+    }
+
+    /**
+     * Applies one decision to many tasks on behalf of a user; tasks the user may not decide are reported as
+     * {@link BulkResult.Outcome#FORBIDDEN}. See {@link #processTasks(Collection, Decision)}.
+     */
+    @Override
+    public BulkResult processTasks(User actor, Collection<String> taskIds, Decision decision) {
+        if (taskIds == null || decision == null) {
+            LOG.warn("Task IDs and decision cannot be null");
+            return null;
+        }
+        String[] ids = taskIds.toArray(new String[0]);
+        return bulk(actor, ids, i -> lookup(ids[i]), decision);
+    }
+
+    /**
+     * Applies one decision to every task matching the query at the time of the call; see
+     * {@link #processTasks(Collection, Decision)}.
+     */
+    @Override
+    public BulkResult processTasks(TaskQuery query, Decision decision) {
+        return processTasks(null, query, decision);
+    }
+
+    @Override
+    public BulkResult processTasks(User actor, TaskQuery query, Decision decision) {
+        if (query == null || decision == null) {
+            LOG.warn("Query and decision cannot be null");
+            return null;
+        }
+        Task[] tasks = query(query).toArray(Task[]::new);
+        String[] ids = new String[tasks.length];
+        for (int i = 0; i < tasks.length; i++) {
+            ids[i] = tasks[i].getId();
+        }
+        return bulk(actor, ids, i -> tasks[i], decision);
+    }
+
+    private BulkResult bulk(User actor, String[] ids, IntFunction<Task> taskAt, Decision decision) {
+        long start = System.nanoTime();
+        BulkResult.Outcome[] outcomes = new BulkResult.Outcome[ids.length];
+        bulkPool.invoke(new BulkAction(actor, taskAt, decision, outcomes, 0, ids.length));
+        long elapsed = System.nanoTime() - start;
+        if (Metrics.ENABLED) {
+            BULK_LATENCY.record(elapsed);
+        }
+        BulkResult result = new BulkResult(ids, outcomes, elapsed);
+        LOG.info("Bulk {} of {} tasks: {}", decision, ids.length, result);
+        return result;
+    }
+
+    private void processChunk(User actor, IntFunction<Task> taskAt, Decision decision,
+                              BulkResult.Outcome[] outcomes, int from, int to) {
+        long position = -1;
+        for (int i = from; i < to; i++) {
+            Task task = taskAt.apply(i);
+            long taskPosition = task == null ? NOT_FOUND
+                    : decide(actor, task, decision.isApprove(), decision.getReason());
+            if (taskPosition == NOT_FOUND) {
+                outcomes[i] = BulkResult.Outcome.NOT_FOUND;
+            } else if (taskPosition == DENIED) {
+                outcomes[i] = BulkResult.Outcome.FORBIDDEN;
+            } else if (taskPosition < 0) {
+                outcomes[i] = BulkResult.Outcome.ALREADY_DECIDED;
+            } else {
+                outcomes[i] = BulkResult.Outcome.PROCESSED;
+                position = Math.max(position, taskPosition);
+            }
+        }
+        if (position >= 0) {
+            journal.awaitDurable(position);
+        }
+    }
+
+    /**
+     * Starts tracking a task that became pending at {@code sinceMillis}, or -1 for now by the monitor's clock.
+     * Called under the task's stripe lock.
+     */
+    private void opened(Task task, long sinceMillis) {
+        SlaMonitor monitor = slaMonitor;
+        if (monitor != null) {
+            if (sinceMillis < 0) {
+                monitor.track(task);
+            } else {
+                monitor.track(task, sinceMillis);
+            }
+        }
+        WorkQueueService queues = workQueues;
+        if (queues != null) {
+            queues.add(task);
+        }
+    }
+
+    /**
+     * Stops tracking a task that was decided and parks its subscriptions with its history, which a rollback
+     * reopening the task subscribes again. Called under the task's stripe lock.
+     */
+    private void closed(Task task, MementoCaretaker caretaker) {
+        caretaker.parkSubscribers(task.retireSubscriptions());
+        store.retire(task, caretaker);
+        SlaMonitor monitor = slaMonitor;
+        if (monitor != null) {
+            monitor.untrack(task);
+        }
+        WorkQueueService queues = workQueues;
+        if (queues != null) {
+            queues.remove(task);
+        }
+        TaskArchiver taskArchiver = archiver;
+        if (taskArchiver != null) {
+            taskArchiver.closed(task);
+        }
+    }
+
+    private Task lookup(String taskId) {
+        if (taskId == null) {
+            return null;
         }
-        MementoCaretaker caretaker = caretakers.get(task.getId());
-        if (caretaker == null) {
-            System.out.println("Error: Task not found");
-            return;
+        try {
+            return store.get(TaskIdCodec.decode(taskId.trim()));
+        } catch (IllegalArgumentException e) {
+            return null;
         }
+    }
+
+    @Override
+    public boolean rollbackTask(Task task) {
+        return rollbackTask(task, 1);
+    }
+
+    /**
+     * Rolls a task back by {@code steps} saved states at once. Returns false if there was not enough history.
+     */
+    @Override
+    public boolean rollbackTask(Task task, int steps) {
+        return rollbackTask(null, task, steps);
+    }
+
+    /**
+     * Rolls a task back on behalf of a user. Returns false if there was not enough history or the user may not
+     * roll back tasks of its priority.
+     */
+    @Override
+    public boolean rollbackTask(User actor, Task task, int steps) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        boolean rolledBack = rollback(actor, task, steps);
+        if (Metrics.ENABLED) {
+            ROLLBACK_LATENCY.recordSince(start);
+        }
+        return rolledBack;
+    }
+
+    private boolean rollback(User actor, Task task, int steps) {
+        if (task == null) {
+            LOG.warn("Task cannot be null");
+            return false;
+        }
+        long position;
+        ReentrantLock lock = store.lockFor(task.getNumericId());
+        lock.lock();
         try {
-            caretaker.restore(new TaskOriginator(task));
-            System.out.println("Task " + task.getId() + " rolled back to previous state");
-        } catch (IllegalStateException e) {
-            System.out.println("Error: " + e.getMessage());
+            MementoCaretaker caretaker = store.getCaretaker(task.getNumericId());
+            if (caretaker == null) {
+                LOG.warn("Task not found");
+                return false;
+            }
+            if (!permits(actor, Permission.ROLLBACK, task.getPriority())) {
+                return false;
+            }
+            TaskState previous = task.getState();
+            caretaker.restore(new TaskOriginator(task), steps);
+            position = journal.snapshotRestored(task, steps);
+            store.stateChanged(task, previous);
+            TransitionLog log = transitions;
+            if (log != null) {
+                // Undoing is history too: the restored state is appended, nothing is erased
+                log.record(task.getNumericId(), Transition.Kind.ROLLED_BACK, previous, task.getState(),
+                        actor == null ? null : actor.getUsername(), actor == null ? null : actor.getRole(), null);
+            }
+            if (previous.isTerminal() && !task.isTerminal()) {
+                // Reopened: back in the queues, with the deadline starting again from now
+                opened(task, -1);
+                task.restoreSubscriptions(caretaker.takeSubscribers());
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            LOG.warn("{}", e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitDurable(position);
+        if (steps == 1) {
+            LOG.info("Task {} rolled back to previous state", task.getId());
+        } else {
+            LOG.info("Task {} rolled back {} states", task.getId(), steps);
+        }
+        return true;
+    }
+
+    /**
+     * Checks an operation on behalf of a user against the access control, if one is attached; a null actor
+     * is the system itself and always allowed.
+     */
+    private boolean permits(User actor, Permission permission, int priority) {
+        AccessControl control = access;
+        if (actor == null || control == null || control.isAllowed(actor, permission, priority)) {
+            return true;
+        }
+        LOG.warn("Permission denied: {} ({}) cannot {} priority {} tasks", actor.getUsername(), actor.getRole(),
+                permission.getVerb(), priority);
+        return false;
+    }
+
+    /**
+     * Connects a new or materialized task to the current dispatcher and subscription registry.
+     */
+    private void wire(Task task) {
+        task.setDispatcher(dispatcher);
+        task.setSubscriptions(subscriptions);
+    }
+
+    /**
+     * Returns the pending tasks, materializing only those from a loaded snapshot.
+     */
+    private Stream<Task> pendingTasks() {
+        return store.query(TaskQuery.builder().status(TaskState.PENDING).build(), idGenerator);
+    }
+
+    /**
+     * Sets how status events are delivered for tasks created from now on,
+     * e.g. an {@link com.workflow.patterns.observer.AsyncEventDispatcher}.
+     */
+    public void setEventDispatcher(EventDispatcher dispatcher) {
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Dispatcher cannot be null");
+        }
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Sets the registry whose subscribers hear about task events, for the tasks already in the store
+     * (e.g. recovered from the journal) and every task created from now on.
+     */
+    public void setSubscriptionRegistry(SubscriptionRegistry subscriptions) {
+        if (subscriptions == null) {
+            throw new IllegalArgumentException("Subscription registry cannot be null");
+        }
+        this.subscriptions = subscriptions;
+        // Tasks still in a loaded snapshot are wired by wire() when they are materialized
+        for (Task task : store.materializedValues()) {
+            task.setSubscriptions(subscriptions);
+        }
+    }
+
+    /**
+     * Attaches an SLA monitor: deadlines start for the pending tasks already in the store (counted from
+     * their creation) and for every task created from now on, and are cancelled as tasks are decided.
+     */
+    public void setSlaMonitor(SlaMonitor slaMonitor) {
+        if (slaMonitor == null) {
+            throw new IllegalArgumentException("SLA monitor cannot be null");
+        }
+        this.slaMonitor = slaMonitor;
+        pendingTasks().forEach(task -> {
+            ReentrantLock lock = store.lockFor(task.getNumericId());
+            lock.lock();
+            try {
+                if (!task.isTerminal()) {
+                    slaMonitor.track(task, task.getCreatedAt());
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Attaches work queues: pending tasks already in the store and every task created or reopened from now on
+     * are queued for approvers to claim, and dropped from the queues once decided.
+     */
+    public void setWorkQueues(WorkQueueService workQueues) {
+        if (workQueues == null) {
+            throw new IllegalArgumentException("Work queues cannot be null");
         }
+        this.workQueues = workQueues;
+        pendingTasks().forEach(task -> {
+            ReentrantLock lock = store.lockFor(task.getNumericId());
+            lock.lock();
+            try {
+                workQueues.add(task);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Attaches an archiver: tasks already decided and every task decided from now on move to its archive once
+     * old enough, and lookups by ID fall back to it.
+     */
+    public void setTaskArchiver(TaskArchiver archiver) {
+        if (archiver == null) {
+            throw new IllegalArgumentException("Task archiver cannot be null");
+        }
+        this.archiver = archiver;
+        store.setColdTier(archiver::get);
+        for (TaskState state : TaskState.values()) {
+            if (state.isTerminal()) {
+                store.query(TaskQuery.builder().status(state).build(), idGenerator).forEach(archiver::closed);
+            }
+        }
+    }
+
+    /**
+     * Records every creation, decision and rollback from now on in the given log.
+     */
+    public void setTransitionLog(TransitionLog transitions) {
+        if (transitions == null) {
+            throw new IllegalArgumentException("Transition log cannot be null");
+        }
+        this.transitions = transitions;
+    }
+
+    /**
+     * Enforces the given access control on every operation made on behalf of a user from now on.
+     */
+    public void setAccessControl(AccessControl access) {
+        if (access == null) {
+            throw new IllegalArgumentException("Access control cannot be null");
+        }
+        this.access = access;
+    }
+
+    /**
+     * Approves tasks through the stages of a {@link WorkflowDefinition} from now on instead of the router.
+     * Approvals are then allowed by the definition's steps rather than the access control, which still governs
+     * every other operation. A task's progress is kept as positions in the definition, so set it before tasks
+     * are created rather than swapping it under pending ones.
+     */
+    public void setWorkflowDefinition(WorkflowDefinition definition) {
+        if (definition == null) {
+            throw new IllegalArgumentException("Workflow definition cannot be null");
+        }
+        this.definition = definition;
+    }
+
+    /**
+     * Sets the pool {@link #processTasks} runs on; defaults to the common fork-join pool.
+     */
+    public void setBulkPool(ForkJoinPool bulkPool) {
+        if (bulkPool == null) {
+            throw new IllegalArgumentException("Bulk pool cannot be null");
+        }
+        this.bulkPool = bulkPool;
+    }
+
+    /**
+     * Sets where task creation, status changes and snapshots are journaled; defaults to {@link Journal#NONE}.
+     */
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        this.journal = journal;
     }
 
+    /**
+     * Returns a copy of every task. Prefer {@link #query(TaskQuery)} for anything but small stores.
+     */
+    @Override
     public List<Task> getTasks() {
-        return new ArrayList<>(tasks.values());
+        return new ArrayList<>(store.values());
     }
 
+    /**
+     * Lazily streams the tasks matching a query using the store's secondary indexes, or its columns; nothing is
+     * copied.
+     */
+    @Override
+    public Stream<Task> query(TaskQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        return store.query(query, idGenerator);
+    }
+
+    /**
+     * Searches the descriptions of the tasks in the store through its {@link TextIndex}; archived tasks are not
+     * searched.
+     */
+    @Override
+    public SearchResult search(TaskSearch search) {
+        if (search == null) {
+            throw new IllegalArgumentException("Search cannot be null");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        SearchResult result = store.search(search);
+        if (Metrics.ENABLED) {
+            SEARCH_LATENCY.recordSince(start);
+        }
+        return result;
+    }
+
+    @Override
     public Task getTask(String taskId) {
         if (taskId == null || taskId.trim().isEmpty()) {
-            System.out.println("Error: Task ID cannot be empty");
+            LOG.warn("Task ID cannot be empty");
+            return null;
+        }
+        try {
+            return store.get(TaskIdCodec.decode(taskId.trim()));
+        } catch (IllegalArgumentException e) {
             return null;
         }
-        return tasks.get(taskId);
+    }
+
+    @Override
+    public Task getTask(long taskId) {
+        return store.get(taskId);
+    }
+
+    /**
+     * Splits a bulk operation in halves until chunks are small enough to run directly.
+     */
+    private final class BulkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final User actor;
+        private final IntFunction<Task> taskAt;
+        private final Decision decision;
+        private final BulkResult.Outcome[] outcomes;
+        private final int from;
+        private final int to;
+
+        BulkAction(User actor, IntFunction<Task> taskAt, Decision decision, BulkResult.Outcome[] outcomes,
+                   int from, int to) {
+            this.actor = actor;
+            this.taskAt = taskAt;
+            this.decision = decision;
+            this.outcomes = outcomes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BULK_CHUNK_SIZE) {
+                processChunk(actor, taskAt, decision, outcomes, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BulkAction(actor, taskAt, decision, outcomes, from, mid),
+                    new BulkAction(actor, taskAt, decision, outcomes, mid, to));
+        }
     }
 }
\ No newline at end of file
@@ -1,11 +1,26 @@
 package com.workflow.ui;
 
+import com.workflow.core.SnowflakeIdGenerator;
 import com.workflow.core.Task;
+import com.workflow.core.TaskState;
 import com.workflow.core.User;
+import com.workflow.logging.Log;
+import com.workflow.services.AccessControl;
 import com.workflow.services.AuthenticationService;
+import com.workflow.services.Lease;
 import com.workflow.services.NotificationService;
+import com.workflow.services.SearchResult;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskSearch;
+import com.workflow.services.TaskStore;
+import com.workflow.services.Transition;
+import com.workflow.services.TransitionLog;
+import com.workflow.services.WorkQueueService;
+import com.workflow.services.Workflow;
 import com.workflow.services.WorkflowService;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -14,13 +29,58 @@ import java.util.Scanner;
 public class ConsoleInterface {
     private Scanner scanner = new Scanner(System.in);
     private User currentUser;
-    private AuthenticationService authService = new AuthenticationService();
-    private WorkflowService workflowService = new WorkflowService();
-    private NotificationService notificationService = new NotificationService();
+    private AuthenticationService authService;
+    private Workflow workflowService;
+    private NotificationService notificationService;
+    private WorkQueueService workQueues;
+    private TransitionLog transitions;
+
+    public ConsoleInterface() {
+        this(new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0)), new NotificationService(),
+                new WorkQueueService());
+    }
+
+    private ConsoleInterface(WorkflowService service, NotificationService notifications, WorkQueueService queues) {
+        this(new AuthenticationService(), service, notifications, queues);
+        service.setSubscriptionRegistry(notifications.getRegistry());
+        service.setWorkQueues(queues);
+        AccessControl access = new AccessControl();
+        service.setAccessControl(access);
+        queues.setAccessControl(access);
+        queues.start();
+        TransitionLog log = new TransitionLog();
+        service.setTransitionLog(log);
+        setTransitionLog(log);
+    }
+
+    public ConsoleInterface(AuthenticationService authService, Workflow workflowService,
+                            NotificationService notificationService) {
+        this(authService, workflowService, notificationService, null);
+    }
+
+    /**
+     * @param workQueues queues attached to {@code workflowService} for claiming tasks, or null to disable claiming
+     */
+    public ConsoleInterface(AuthenticationService authService, Workflow workflowService,
+                            NotificationService notificationService, WorkQueueService workQueues) {
+        this.authService = authService;
+        this.workflowService = workflowService;
+        this.notificationService = notificationService;
+        this.workQueues = workQueues;
+    }
+
+    /**
+     * Enables the task history view, read from the log the workflow service records into.
+     */
+    public void setTransitionLog(TransitionLog transitions) {
+        this.transitions = transitions;
+    }
 
     public void displayMainMenu() {
         boolean running = true;
         while (running) {
+            // Let the services' log output catch up so it appears before the next menu
+            Log.flush();
             if (currentUser == null) {
                 displayLoginMenu();
             } else {
@@ -61,9 +121,12 @@ public class ConsoleInterface {
         System.out.println("\n=== Welcome, " + currentUser.getUsername() + " (" + currentUser.getRole() + ") ===");
         System.out.println("1. Create Task");
         System.out.println("2. List Tasks");
-        System.out.println("3. Process Task (Approve/Reject)");
-        System.out.println("4. Rollback Task");
-        System.out.println("5. Logout");
+        System.out.println("3. Search Tasks");
+        System.out.println("4. Process Task (Approve/Reject)");
+        System.out.println("5. Claim Next Task");
+        System.out.println("6. Rollback Task");
+        System.out.println("7. Task History");
+        System.out.println("8. Logout");
         System.out.print("Choose option: ");
         String input = scanner.nextLine();
         try {
@@ -76,12 +139,21 @@ public class ConsoleInterface {
                     listTasks();
                     break;
                 case 3:
-                    processTask();
+                    searchTasks();
                     break;
                 case 4:
-                    rollbackTask();
+                    processTask();
                     break;
                 case 5:
+                    claimNextTask();
+                    break;
+                case 6:
+                    rollbackTask();
+                    break;
+                case 7:
+                    showHistory();
+                    break;
+                case 8:
                     currentUser = null;
                     System.out.println("Logged out");
                     break;
@@ -137,8 +209,39 @@ public class ConsoleInterface {
             System.out.println("Error: Must be logged in");
             return;
         }
+        System.out.print("Filter by status (Pending/Approved/Rejected, blank for all): ");
+        String statusInput = scanner.nextLine().trim();
+        TaskQuery.Builder query = TaskQuery.builder();
+        if (!statusInput.isEmpty()) {
+            try {
+                query.status(TaskState.valueOf(statusInput.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: Unknown status " + statusInput);
+                return;
+            }
+        }
         System.out.println("Tasks:");
-        for (Task task : workflowService.getTasks()) {
+        workflowService.query(query.build()).forEach(task ->
+                System.out.println("- ID: " + task.getId() + ", Description: " + task.getDescription() +
+                        ", Priority: " + task.getPriority() + ", Status: " + task.getStatus()));
+    }
+
+    private void searchTasks() {
+        if (currentUser == null) {
+            System.out.println("Error: Must be logged in");
+            return;
+        }
+        System.out.print("Search (words, OR, prefix*): ");
+        String text = scanner.nextLine().trim();
+        SearchResult result;
+        try {
+            result = workflowService.search(TaskSearch.builder(text).build());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        System.out.println("Tasks (" + result + "):");
+        for (Task task : result.getTasks()) {
             System.out.println("- ID: " + task.getId() + ", Description: " + task.getDescription() +
                     ", Priority: " + task.getPriority() + ", Status: " + task.getStatus());
         }
@@ -156,33 +259,55 @@ public class ConsoleInterface {
             System.out.println("Error: Task not found");
             return;
         }
-        // Check if user role matches task priority or allow manual override
-        boolean canApprove = (task.getPriority() == 1 && currentUser.getRole().equals("Junior")) ||
-                (task.getPriority() == 2 && currentUser.getRole().equals("Manager")) ||
-                (task.getPriority() == 3 && currentUser.getRole().equals("Senior"));
+        decide(task);
+    }
+
+    private void claimNextTask() {
+        if (currentUser == null) {
+            System.out.println("Error: Must be logged in");
+            return;
+        }
+        if (workQueues == null) {
+            System.out.println("Error: Work queues are not enabled");
+            return;
+        }
+        Lease lease = workQueues.claimNext(currentUser);
+        if (lease == null) {
+            System.out.println("No pending tasks for role " + currentUser.getRole());
+            return;
+        }
+        Task task = lease.getTask();
+        System.out.println("Claimed task " + task.getId() + ": " + task.getDescription() +
+                " (Priority " + task.getPriority() + ")");
+        if (!decide(task)) {
+            workQueues.release(lease);
+        }
+    }
+
+    /**
+     * Asks for an approve/reject decision on a task and applies it on behalf of the current user, whose
+     * permissions the workflow service checks. Returns true if the task was processed.
+     */
+    private boolean decide(Task task) {
         System.out.print("Action (1=Approve, 2=Reject): ");
         String actionInput = scanner.nextLine().trim();
         try {
             int action = Integer.parseInt(actionInput);
-            if (action == 1 && !canApprove) {
-                System.out.println("Error: User role " + currentUser.getRole() + " cannot approve priority " + task.getPriority());
-                return;
-            }
             String rejectionReason = null;
             if (action == 2) {
                 System.out.print("Enter rejection reason (optional): ");
                 rejectionReason = scanner.nextLine().trim();
             }
             if (action == 1 || action == 2) {
-                workflowService.processTask(task, action == 1, rejectionReason);
-            } else {
-                System.out.println("Error: Invalid action");
+                return workflowService.processTask(currentUser, task, action == 1, rejectionReason);
             }
+            System.out.println("Error: Invalid action");
         } catch (NumberFormatException e) {
             System.out.println("Error: Action must be a number (1 or 2)");
         } catch (IllegalArgumentException e) {
             System.out.println("Error: " + e.getMessage());
         }
+        return false;
     }
 
     private void rollbackTask() {
@@ -197,10 +322,55 @@ public class ConsoleInterface {
             System.out.println("Error: Task not found");
             return;
         }
+        System.out.print("Steps to roll back (default 1): ");
+        String stepsInput = scanner.nextLine().trim();
         try {
-            workflowService.rollbackTask(task);
+            int steps = stepsInput.isEmpty() ? 1 : Integer.parseInt(stepsInput);
+            workflowService.rollbackTask(currentUser, task, steps);
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Steps must be a number");
         } catch (IllegalArgumentException | IllegalStateException e) {
             System.out.println("Error: " + e.getMessage());
         }
     }
+
+    private void showHistory() {
+        if (transitions == null) {
+            System.out.println("Error: Task history is not recorded");
+            return;
+        }
+        System.out.print("Task ID: ");
+        String taskId = scanner.nextLine().trim();
+        Task task = workflowService.getTask(taskId);
+        if (task == null) {
+            System.out.println("Error: Task not found");
+            return;
+        }
+        List<Transition> history = transitions.history(task.getNumericId());
+        if (history.isEmpty()) {
+            System.out.println("No transitions recorded for task " + task.getId());
+            return;
+        }
+        for (Transition transition : history) {
+            StringBuilder line = new StringBuilder()
+                    .append(Instant.ofEpochMilli(transition.getTime())).append("  ")
+                    .append(transition.getFrom() == null ? "created" : transition.getFrom().getLabel())
+                    .append(" -> ").append(transition.getTo().getLabel());
+            if (transition.getKind() == Transition.Kind.ROLLED_BACK) {
+                line.append(" (rollback)");
+            } else if (transition.getKind() == Transition.Kind.STEP_APPROVED) {
+                line.append(" (step approved)");
+            }
+            if (transition.getActor() != null) {
+                line.append(" by ").append(transition.getActor());
+                if (transition.getRole() != null) {
+                    line.append(" (").append(transition.getRole()).append(')');
+                }
+            }
+            if (transition.getReason() != null) {
+                line.append(": ").append(transition.getReason());
+            }
+            System.out.println(line);
+        }
+    }
 }
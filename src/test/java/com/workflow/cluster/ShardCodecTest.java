@@ -0,0 +1,125 @@
+package com.workflow.cluster;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.BulkResult;
+import com.workflow.services.Decision;
+import com.workflow.services.TaskQuery;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardCodecTest {
+    private static AuthenticationService auth;
+
+    @BeforeAll
+    static void registerUsers() {
+        Log.setLevel(Level.OFF);
+        auth = new AuthenticationService();
+        auth.register("sam", "correct horse", "Senior");
+    }
+
+    @Test
+    void requestsRoundTripWithTheirActor() throws IOException {
+        User sam = auth.getUser("sam");
+        ShardRequest request = roundTrip(ShardRequest.process(42L, false, "Needs detail", sam));
+
+        assertEquals(ShardRequest.Op.PROCESS, request.getOp());
+        assertEquals(42L, request.getTaskId());
+        assertEquals("Needs detail", request.getText());
+        assertFalse(request.isApprove());
+        assertEquals("sam", request.getActor().getUsername());
+        assertEquals("Senior", request.getActor().getRole());
+    }
+
+    @Test
+    void unknownActorsBecomeNull() throws IOException {
+        User stranger = new User("eve", "unused-hash", "Senior");
+        assertNull(roundTrip(ShardRequest.rollback(7L, 2, stranger)).getActor());
+    }
+
+    @Test
+    void queriesAndTaskIdsRoundTrip() throws IOException {
+        TaskQuery query = TaskQuery.builder().status(TaskState.PENDING).priority(2).creator("sam").limit(25).build();
+        ShardRequest request = roundTrip(ShardRequest.query(query));
+        assertEquals(TaskState.PENDING, request.getQuery().getStatus());
+        assertEquals(2, request.getQuery().getPriority());
+        assertEquals("sam", request.getQuery().getCreator());
+        assertEquals(25, request.getQuery().getLimit());
+
+        String[] ids = {"TASK-1", "TASK-2"};
+        ShardRequest bulk = roundTrip(ShardRequest.process(ids, Decision.reject("Duplicate"), auth.getUser("sam")));
+        assertArrayEquals(ids, bulk.getTaskIds());
+        assertFalse(bulk.getDecision().isApprove());
+        assertEquals("Duplicate", bulk.getDecision().getReason());
+    }
+
+    @Test
+    void tasksRoundTripWithTheirState() throws IOException {
+        Task rejected = new Task(1L, "Buy chairs", 2, "sam", 1_000L);
+        rejected.reject("Too vague");
+        Task approved = new Task(2L, "Buy desks", 3, "sam", 2_000L);
+        approved.approve("sam");
+        Task pending = new Task(3L, "Buy lamps", 1, "sam", 3_000L);
+        pending.advance(2);
+
+        ShardReply reply = roundTrip(ShardReply.of(Arrays.asList(rejected, approved, pending)));
+
+        assertTrue(reply.isSuccess());
+        assertEquals(3, reply.getTasks().size());
+        Task copy = reply.getTasks().get(0);
+        assertEquals(1L, copy.getNumericId());
+        assertEquals("Buy chairs", copy.getDescription());
+        assertEquals(2, copy.getPriority());
+        assertEquals("sam", copy.getCreator());
+        assertEquals(1_000L, copy.getCreatedAt());
+        assertEquals(TaskState.REJECTED, copy.getState());
+        assertEquals("Too vague", copy.getReason());
+        assertEquals(rejected.getStatus(), copy.getStatus());
+        assertEquals("sam", reply.getTasks().get(1).getApprover());
+        assertEquals(TaskState.PENDING, reply.getTasks().get(2).getState());
+        assertEquals(2, reply.getTasks().get(2).getProgress());
+    }
+
+    @Test
+    void bulkResultsRoundTrip() throws IOException {
+        BulkResult result = new BulkResult(new String[]{"TASK-1", "TASK-2"},
+                new BulkResult.Outcome[]{BulkResult.Outcome.values()[0], BulkResult.Outcome.values()[1]}, 1_234L);
+
+        BulkResult copy = roundTrip(ShardReply.of(result)).getBulkResult();
+
+        assertEquals(2, copy.size());
+        assertEquals("TASK-2", copy.getTaskId(1));
+        assertEquals(result.getOutcome(0), copy.getOutcome(0));
+        assertEquals(result.getOutcome(1), copy.getOutcome(1));
+        assertEquals(1_234L, copy.getElapsedNanos());
+    }
+
+    private static ShardRequest roundTrip(ShardRequest request) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ShardCodec.writeRequest(new DataOutputStream(bytes), request);
+        return ShardCodec.readRequest(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), auth);
+    }
+
+    private static ShardReply roundTrip(ShardReply reply) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ShardCodec.writeReply(new DataOutputStream(bytes), reply);
+        return ShardCodec.readReply(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
@@ -0,0 +1,97 @@
+package com.workflow.cluster;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.services.BulkResult;
+import com.workflow.services.Decision;
+import com.workflow.services.TaskQuery;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedWorkflowServiceTest {
+    private static final int SHARDS = 3;
+
+    private final User senior = new User("sam", "unused-hash", "Senior");
+    private final List<WorkflowService> shards = new ArrayList<>();
+    private ShardedWorkflowService router;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @BeforeEach
+    void createShards() {
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(i)));
+        }
+        router = new ShardedWorkflowService(new LocalTransport(shards), new SnowflakeIdGenerator(SHARDS));
+    }
+
+    @AfterEach
+    void closeRouter() {
+        router.close();
+    }
+
+    @Test
+    void everyTaskLivesOnTheShardItsIdHashesTo() {
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            created.add(router.createTask("Sharded task " + i, 1 + i % 3, senior));
+        }
+        for (Task task : created) {
+            int owner = router.shardFor(task.getNumericId());
+            for (int shard = 0; shard < SHARDS; shard++) {
+                Task held = shards.get(shard).getTask(task.getNumericId());
+                if (shard == owner) {
+                    assertNotNull(held);
+                } else {
+                    assertNull(held);
+                }
+            }
+        }
+        assertTrue(router.processTask(senior, created.get(0), true, null));
+        assertEquals(TaskState.APPROVED, router.getTask(created.get(0).getId()).getState());
+        assertEquals(30, router.getTasks().size());
+    }
+
+    @Test
+    void scatteredQueriesMergeInQueryOrder() {
+        for (int i = 0; i < 40; i++) {
+            router.createTask("Query task " + i, 1 + i % 3, senior);
+        }
+        List<Task> byPriority = router.query(TaskQuery.builder().sort(TaskQuery.Sort.PRIORITY).limit(25).build())
+                .collect(Collectors.toList());
+        List<Task> expected = router.getTasks().stream()
+                .sorted(Comparator.comparingInt(Task::getPriority).reversed().thenComparingLong(Task::getNumericId))
+                .limit(25)
+                .collect(Collectors.toList());
+        assertEquals(ids(expected), ids(byPriority));
+
+        BulkResult result = router.processTasks(senior, TaskQuery.builder().priority(2).build(), Decision.approve());
+        assertEquals(13, result.count(BulkResult.Outcome.PROCESSED));
+        assertEquals(13, router.query(TaskQuery.builder().status(TaskState.APPROVED).build()).count());
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getNumericId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,89 @@
+package com.workflow.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long TICK = 10;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK, now::get);
+
+    @Test
+    void expiresTimersOnceTheirDeadlinePasses() {
+        wheel.schedule("soon", now.get() + 50);
+        wheel.schedule("later", now.get() + 500);
+        assertEquals(2, wheel.size());
+
+        now.addAndGet(40);
+        assertTrue(wheel.advance().isEmpty());
+
+        now.addAndGet(20);
+        List<TimingWheel.Timeout<String>> expired = wheel.advance();
+        assertEquals(1, expired.size());
+        assertEquals("soon", expired.get(0).getPayload());
+        assertEquals(1, wheel.size());
+
+        now.addAndGet(500);
+        expired = wheel.advance();
+        assertEquals(1, expired.size());
+        assertEquals("later", expired.get(0).getPayload());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        wheel.schedule("overdue", now.get() - 1_000);
+        now.addAndGet(TICK);
+        assertEquals(1, wheel.advance().size());
+    }
+
+    @Test
+    void cancelledTimersNeverExpire() {
+        TimingWheel.Timeout<String> timeout = wheel.schedule("cancelled", now.get() + 100);
+        assertTrue(wheel.cancel(timeout));
+        assertFalse(wheel.cancel(timeout));
+        assertEquals(0, wheel.size());
+
+        now.addAndGet(1_000);
+        assertTrue(wheel.advance().isEmpty());
+    }
+
+    @Test
+    void expiredTimersCannotBeCancelled() {
+        TimingWheel.Timeout<String> timeout = wheel.schedule("expired", now.get() + 10);
+        now.addAndGet(100);
+        assertEquals(1, wheel.advance().size());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    void farDeadlinesCascadeDownWithoutFiringEarly() {
+        long[] delays = {TICK * 64 + 5, TICK * 64 * 64 + 5, TICK * 64 * 64 * 64 + 5, TICK * 64 * 64 * 64 * 64 * 3};
+        for (long delay : delays) {
+            wheel.schedule("after " + delay, now.get() + delay);
+        }
+        long start = now.get();
+        int expired = 0;
+        for (long delay : delays) {
+            now.set(start + delay - TICK);
+            for (TimingWheel.Timeout<String> timeout : wheel.advance()) {
+                assertTrue(timeout.getDeadlineMillis() < now.get(), "fired early: " + timeout.getPayload());
+                expired++;
+            }
+            now.set(start + delay + TICK);
+            for (TimingWheel.Timeout<String> timeout : wheel.advance()) {
+                assertTrue(timeout.getDeadlineMillis() <= now.get());
+                expired++;
+            }
+            assertEquals(delays.length - expired, wheel.size());
+        }
+        assertEquals(delays.length, expired);
+    }
+}
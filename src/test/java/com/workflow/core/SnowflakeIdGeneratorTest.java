@@ -0,0 +1,77 @@
+package com.workflow.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsIncreaseAndCarryTheirNodeAndTime() {
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(7);
+        long before = System.currentTimeMillis();
+        long previous = ids.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long id = ids.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(7, SnowflakeIdGenerator.nodeOf(previous));
+        assertTrue(ids.creationTimeOf(previous) >= before);
+        assertTrue(ids.lowestIdAt(before) <= previous);
+    }
+
+    @Test
+    void generatorsOnDifferentNodesNeverCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(seen.add(first.nextId()));
+            assertTrue(seen.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws InterruptedException {
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(3);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    seen.add(ids.nextId());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, seen.size());
+    }
+
+    @Test
+    void idsRoundTripThroughTheirText() {
+        long id = new SnowflakeIdGenerator(5).nextId();
+        String text = TaskIdCodec.encode(id);
+        assertEquals(id, TaskIdCodec.decode(text));
+        assertNotEquals(text, TaskIdCodec.encode(id + 1));
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE + 1));
+    }
+}
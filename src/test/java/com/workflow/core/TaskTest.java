@@ -0,0 +1,113 @@
+package com.workflow.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskTest {
+
+    @Test
+    void decidedTasksCannotBeDecidedAgain() {
+        Task task = new Task(1L, "Order paper", 1);
+        assertTrue(task.approve("Junior"));
+        assertFalse(task.reject("Too late"));
+        assertFalse(task.approve("Senior"));
+        assertFalse(task.advance(3));
+        assertEquals(TaskState.APPROVED, task.getState());
+        assertEquals("Junior", task.getApprover());
+        assertEquals("Approved by Junior", task.getStatus());
+    }
+
+    @Test
+    void rejectionReasonsStayWithTheirTask() {
+        Task task = new Task(2L, "Order ink", 2);
+        assertTrue(task.reject("  Out of budget  "));
+        assertEquals("Out of budget", task.getReason());
+        assertNull(task.getApprover());
+        assertEquals("Rejected: Out of budget", task.getStatus());
+
+        Task blank = new Task(3L, "Order pens", 2);
+        assertTrue(blank.reject(" "));
+        assertNull(blank.getReason());
+        assertEquals("Rejected", blank.getStatus());
+    }
+
+    @Test
+    void onlyOneRacingTransitionWins() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            Task task = new Task(round, "Contested task", 3);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger wins = new AtomicInteger();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                boolean approve = t % 2 == 0;
+                threads.add(new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (approve ? task.approve("Senior") : task.reject("No")) {
+                        wins.incrementAndGet();
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(1, wins.get());
+            assertTrue(task.isTerminal());
+        }
+    }
+
+    @Test
+    void restoringAWordRollsBackStateAndProgress() {
+        Task task = new Task(4L, "Hire contractor", 3);
+        assertTrue(task.advance(5));
+        long saved = task.getStateWord();
+        assertTrue(task.reject("Not now"));
+
+        task.restoreStateWord(saved);
+        assertEquals(TaskState.PENDING, task.getState());
+        assertEquals(5, task.getProgress());
+        assertNull(task.getReason());
+    }
+
+    @Test
+    void copiesTakeOverStateWithoutSharingDetails() {
+        Task original = new Task(5L, "Book venue", 2);
+        original.reject("Venue closed");
+        Task copy = new Task(5L, "Book venue", 2);
+
+        copy.copyStateOf(original);
+        assertEquals(TaskState.REJECTED, copy.getState());
+        assertEquals("Venue closed", copy.getReason());
+        assertThrows(IllegalArgumentException.class, () -> copy.copyStateOf(new Task(6L, "Other", 1)));
+    }
+
+    @Test
+    void stateWordsPackStateApproverAndProgress() {
+        long word = StateWord.pack(TaskState.APPROVED, "Manager");
+        assertEquals(TaskState.APPROVED, StateWord.state(word));
+        assertEquals("Manager", StateWord.approver(word));
+        assertEquals(0, StateWord.details(word));
+        assertEquals("Approved by Manager", StateWord.describe(word));
+
+        long pending = StateWord.pending(42);
+        assertEquals(TaskState.PENDING, StateWord.state(pending));
+        assertEquals(42, StateWord.progress(pending));
+        assertEquals(0, StateWord.details(pending));
+        assertThrows(IllegalArgumentException.class, () -> StateWord.pack(TaskState.APPROVED, -1, 0));
+    }
+}
@@ -0,0 +1,90 @@
+package com.workflow.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogTest {
+    private final List<LogRecord> records = new ArrayList<>();
+    private final LogSink sink = new LogSink() {
+        @Override
+        public void write(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void restore() {
+        Log.removeSink(sink);
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void writesRecordsAtOrAboveTheLevel() {
+        Log.addSink(sink);
+        Log.setLevel(Level.WARN);
+        Logger logger = Log.getLogger(LogTest.class);
+        RuntimeException failure = new RuntimeException("boom");
+        logger.info("hidden {}", 1);
+        logger.warn("Task {} is {}", "TASK-1", "late");
+        logger.error("Failed", failure);
+        Log.flush();
+
+        List<String> messages = records.stream().map(LogRecord::getMessage).collect(Collectors.toList());
+        assertEquals(List.of("Task TASK-1 is late", "Failed"), messages);
+        assertEquals(Level.WARN, records.get(0).getLevel());
+        assertEquals("LogTest", records.get(0).getLoggerName());
+        assertSame(failure, records.get(1).getThrown());
+        assertFalse(logger.isEnabled(Level.INFO));
+        assertTrue(logger.isEnabled(Level.ERROR));
+    }
+
+    @Test
+    void formatsPlaceholdersInOrder() {
+        assertEquals("a 1 b 2", LogRecord.format("a {} b {}", new Object[]{1, 2}));
+        assertEquals("only 1 and {}", LogRecord.format("only {} and {}", new Object[]{1}));
+        assertEquals("no placeholders", LogRecord.format("no placeholders", new Object[]{1}));
+        assertEquals("null value", LogRecord.format("{} value", new Object[]{null}));
+        assertEquals("null", LogRecord.format(null, new Object[0]));
+    }
+
+    @Test
+    void rollingFileKeepsTheNewestBackups() throws IOException {
+        Path file = directory.resolve("logs").resolve("app.log");
+        RollingFileSink rolling = new RollingFileSink(file, 1024, 2);
+        for (int i = 0; i < 100; i++) {
+            rolling.write(new LogRecord(Level.INFO, "Test", "line {}", new Object[]{i}, null));
+        }
+        rolling.close();
+
+        assertTrue(Files.size(file) <= 1024);
+        assertTrue(Files.exists(directory.resolve("logs/app.log.1")));
+        assertTrue(Files.exists(directory.resolve("logs/app.log.2")));
+        assertFalse(Files.exists(directory.resolve("logs/app.log.3")));
+        String newest = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(newest.contains("line 99"));
+        assertThrows(IllegalArgumentException.class, () -> new RollingFileSink(file, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> Log.setLevel(null));
+    }
+}
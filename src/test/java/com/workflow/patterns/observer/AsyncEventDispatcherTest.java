@@ -0,0 +1,98 @@
+package com.workflow.patterns.observer;
+
+import com.workflow.core.Task;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncEventDispatcherTest {
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void deliversEachTasksEventsInOrder() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(1_024, 2, 16, BackpressurePolicy.BLOCK);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(500);
+        List<TaskObserver> observers = List.of(event -> {
+            received.add(event);
+            done.countDown();
+        });
+        Task task = new Task(1L, "Ordered task", 2);
+        for (int i = 0; i < 500; i++) {
+            dispatcher.dispatch(task, observers, "event " + i);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 500; i++) {
+            assertEquals("event " + i, received.get(i));
+        }
+        dispatcher.shutdown();
+        assertEquals(500, dispatcher.getDeliveredCount());
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(task, observers, "late"));
+    }
+
+    @Test
+    void wakesAnIdleDispatcherThread() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(64, 1, 8, BackpressurePolicy.BLOCK);
+        Task task = new Task(2L, "Idle task", 1);
+        for (int round = 0; round < 3; round++) {
+            Thread.sleep(50); // long enough for the dispatcher thread to park
+            CountDownLatch delivered = new CountDownLatch(1);
+            dispatcher.dispatch(task, List.of(event -> delivered.countDown()), "wake up");
+            assertTrue(delivered.await(5, TimeUnit.SECONDS), "event delivered after idling");
+        }
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void blockedProducerDropsItsEventOnShutdown() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(2, 1, 1, BackpressurePolicy.BLOCK);
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<TaskObserver> observers = List.of(event -> {
+            first.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Task task = new Task(3L, "Blocked task", 3);
+        dispatcher.dispatch(task, observers, "held by the observer");
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(task, observers, "queued 1");
+        dispatcher.dispatch(task, observers, "queued 2");
+
+        Thread producer = new Thread(() -> dispatcher.dispatch(task, observers, "waits for room"));
+        producer.start();
+        Thread.sleep(50);
+        assertTrue(producer.isAlive(), "producer waits while the queue is full");
+
+        Thread stopper = new Thread(dispatcher::shutdown);
+        stopper.start();
+        producer.join(5_000);
+        assertFalse(producer.isAlive(), "producer gave up once the dispatcher shut down");
+        assertEquals(1, dispatcher.getDroppedCount());
+
+        release.countDown();
+        stopper.join(5_000);
+        assertFalse(stopper.isAlive());
+        assertEquals(3, dispatcher.getDeliveredCount());
+    }
+}
@@ -0,0 +1,65 @@
+package com.workflow.persistence;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ColdStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergesRunsOfSimilarSizeKeepingTheNewestCopy() {
+        ColdStore store = ColdStore.open(directory);
+        for (int run = 0; run < 7; run++) {
+            store.write(decided(run * 100, 100, "first"));
+        }
+        assertEquals(7, store.getRunCount());
+        // Rewrites the tasks of the first run, then the eighth run of the tier triggers a merge
+        store.write(decided(0, 100, "second"));
+        assertEquals(1, store.getRunCount());
+        assertEquals(700, store.size());
+
+        assertEquals("second", store.read(42).getReason());
+        assertEquals("first", store.read(642).getReason());
+        assertEquals(TaskState.REJECTED, store.read(642).getState());
+        assertNull(store.read(700));
+        assertNull(store.read(-1));
+    }
+
+    @Test
+    void reopensWhatWasWritten() throws IOException {
+        ColdStore store = ColdStore.open(directory);
+        store.write(decided(1_000, 50, "kept"));
+        Files.write(directory.resolve("run-99.cold.tmp"), new byte[] {1, 2, 3});
+
+        ColdStore reopened = ColdStore.open(directory);
+        assertEquals(1, reopened.getRunCount());
+        Task task = reopened.read(1_025);
+        assertEquals("Task 1025", task.getDescription());
+        assertEquals("kept", task.getReason());
+        assertEquals("ana", task.getCreator());
+        assertFalse(Files.exists(directory.resolve("run-99.cold.tmp")), "an unfinished run is removed");
+    }
+
+    private static List<Task> decided(long firstId, int count, String reason) {
+        List<Task> tasks = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            Task task = new Task(id, "Task " + id, 1 + (int) (id % 3), "ana", 1_700_000_000_000L + id);
+            task.reject(reason);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
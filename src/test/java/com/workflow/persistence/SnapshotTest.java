@@ -0,0 +1,105 @@
+package com.workflow.persistence;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.Topic;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.PasswordHasher;
+import com.workflow.services.SessionCache;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotTest {
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void restoresWhatWasWritten() {
+        AuthenticationService auth = newAuth();
+        auth.register("ana", "secret", "Senior");
+        auth.register("ben", "secret", "Junior");
+        User ana = auth.getUser("ana");
+        TaskStore store = new TaskStore();
+        WorkflowService workflow = new WorkflowService(store, new SnowflakeIdGenerator(0));
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        workflow.setSubscriptionRegistry(registry);
+
+        Task pending = workflow.createTask("Buy desks", 1, ana);
+        Task approved = workflow.createTask("Buy chairs", 2, ana);
+        Task rejected = workflow.createTask("Buy a boat", 3, auth.getUser("ben"));
+        workflow.processTask(ana, approved, true, null);
+        workflow.processTask(ana, rejected, false, "Not needed");
+        registry.subscribe(Topic.task(pending.getNumericId()), ana);
+        registry.subscribe(Topic.priority(3), auth.getUser("ben"));
+
+        Path file = directory.resolve("state.snap");
+        assertEquals(3, Snapshot.write(file, auth, store, registry));
+
+        AuthenticationService restoredAuth = newAuth();
+        TaskStore restoredStore = new TaskStore();
+        SubscriptionRegistry restoredRegistry = new SubscriptionRegistry();
+        try (Snapshot snapshot = Snapshot.open(file)) {
+            assertEquals(2, snapshot.getUserCount());
+            assertEquals(2, snapshot.getSubscriptionCount());
+            snapshot.restore(restoredAuth, restoredStore, restoredRegistry);
+
+            assertNotNull(restoredAuth.login("ana", "secret"));
+            assertEquals("Junior", restoredAuth.getUser("ben").getRole());
+            assertEquals(1, restoredRegistry.getTaskTopicCount());
+
+            for (Task original : new Task[] {pending, approved, rejected}) {
+                Task copy = restoredStore.get(original.getNumericId());
+                assertEquals(original.getDescription(), copy.getDescription());
+                assertEquals(original.getPriority(), copy.getPriority());
+                assertEquals(original.getState(), copy.getState());
+                assertEquals(original.getCreator(), copy.getCreator());
+                assertEquals(original.getCreatedAt(), copy.getCreatedAt());
+                assertEquals(original.getApprover(), copy.getApprover());
+                assertEquals(original.getReason(), copy.getReason());
+            }
+
+            WorkflowService restoredWorkflow = new WorkflowService(restoredStore, new SnowflakeIdGenerator(0));
+            Task restored = restoredWorkflow.getTask(approved.getNumericId());
+            assertTrue(restoredWorkflow.rollbackTask(restored), "history survives the snapshot");
+            assertEquals(TaskState.PENDING, restored.getState());
+            assertNull(restoredStore.get(12345L));
+        }
+    }
+
+    @Test
+    void refusesFilesThatAreNotSnapshots() throws IOException {
+        Path file = directory.resolve("garbage.snap");
+        Files.write(file, new byte[Snapshot.HEADER_BYTES]);
+        assertThrows(IllegalStateException.class, () -> Snapshot.open(file));
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IllegalStateException.class, () -> Snapshot.open(file));
+    }
+
+    private static AuthenticationService newAuth() {
+        return new AuthenticationService(
+                new PasswordHasher(PasswordHasher.MIN_ITERATIONS), new SessionCache(10, 60_000));
+    }
+}
@@ -0,0 +1,122 @@
+package com.workflow.persistence;
+
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadLogTest {
+    private static final long SEGMENT_BYTES = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void replaysRecordsFromBeforeItWasOpened() {
+        try (WriteAheadLog log = open()) {
+            for (int i = 0; i < 1_000; i++) {
+                log.append(record("record " + i));
+            }
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open()) {
+            assertEquals(1_000, log.replay(payload -> replayed.add(text(payload))));
+            log.append(record("after reopen"));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("record " + i, replayed.get(i));
+        }
+
+        replayed.clear();
+        try (WriteAheadLog log = open()) {
+            assertEquals(1_001, log.replay(payload -> replayed.add(text(payload))));
+        }
+        assertEquals("after reopen", replayed.get(1_000));
+    }
+
+    @Test
+    void replaysAcrossSegments() {
+        byte[] large = new byte[64 * 1024];
+        try (WriteAheadLog log = open()) {
+            for (int i = 0; i < 40; i++) {
+                large[0] = (byte) i;
+                log.awaitDurable(log.append(large));
+            }
+        }
+
+        List<Byte> firstBytes = new ArrayList<>();
+        try (WriteAheadLog log = open()) {
+            assertEquals(40, log.replay(payload -> firstBytes.add(payload.get(payload.position()))));
+        }
+        for (int i = 0; i < 40; i++) {
+            assertEquals((byte) i, firstBytes.get(i));
+        }
+    }
+
+    @Test
+    void replayStartsAtTheNewestCheckpoint() {
+        try (WriteAheadLog log = open()) {
+            log.append(record("dropped"));
+            log.checkpoint(out -> {
+                out.accept(record("snapshot a"));
+                out.accept(record("snapshot b"));
+            });
+            log.append(record("tail"));
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open()) {
+            log.replay(payload -> replayed.add(text(payload)));
+        }
+        assertEquals(List.of("snapshot a", "snapshot b", "tail"), replayed);
+    }
+
+    @Test
+    void interruptedWaitIsNotReportedDurable() {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_BYTES, 60_000)) {
+            long position = log.append(record("unsynced"));
+            Thread.currentThread().interrupt();
+            try {
+                UncheckedIOException failure = assertThrows(UncheckedIOException.class,
+                        () -> log.awaitDurable(position));
+                assertTrue(failure.getCause() instanceof InterruptedIOException);
+            } finally {
+                assertTrue(Thread.interrupted(), "interrupt flag kept");
+            }
+            log.awaitDurable(position);
+        }
+    }
+
+    private WriteAheadLog open() {
+        return new WriteAheadLog(directory, SEGMENT_BYTES, 1);
+    }
+
+    private static byte[] record(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+package com.workflow.server;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.services.AccessControl;
+import com.workflow.services.AuthenticationService;
+import com.workflow.services.NotificationService;
+import com.workflow.services.PasswordHasher;
+import com.workflow.services.SessionCache;
+import com.workflow.services.TaskStore;
+import com.workflow.services.WorkflowDefinition;
+import com.workflow.services.WorkflowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private WorkflowService workflow;
+    private ApiServer server;
+    private String base;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @BeforeEach
+    void startServer() {
+        AuthenticationService auth = new AuthenticationService(
+                new PasswordHasher(PasswordHasher.MIN_ITERATIONS), new SessionCache(100, 60_000));
+        workflow = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+        AccessControl access = new AccessControl();
+        auth.setAccessControl(access);
+        workflow.setAccessControl(access);
+        server = new ApiServer(auth, workflow, new NotificationService(), new InetSocketAddress("127.0.0.1", 0), 2);
+        server.setAccessControl(access);
+        server.start();
+        base = "http://127.0.0.1:" + server.getPort() + "/api/";
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void createsAndDecidesTasksForSessionHolders() throws Exception {
+        String senior = session("sam", "Senior");
+        String junior = session("jo", "Junior");
+        assertEquals(401, send("GET", "tasks", null, "Bearer nonsense").statusCode());
+
+        HttpResponse<String> created = send("POST", "tasks", "{\"description\":\"Buy desks\",\"priority\":3}", senior);
+        assertEquals(201, created.statusCode());
+        String id = Json.getString(Json.parseObject(created.body()), "id");
+        assertEquals("PENDING", field(send("GET", "tasks/" + id, null, junior), "state"));
+
+        assertEquals(403, send("POST", "tasks/" + id + "/process", "{\"approve\":true}", junior).statusCode());
+        HttpResponse<String> approved = send("POST", "tasks/" + id + "/process", "{\"approve\":true}", senior);
+        assertEquals(200, approved.statusCode());
+        assertEquals("APPROVED", field(approved, "state"));
+        assertEquals(409, send("POST", "tasks/" + id + "/process", "{\"approve\":false}", senior).statusCode());
+        assertEquals(404, send("GET", "tasks/TASK-none", null, senior).statusCode());
+    }
+
+    @Test
+    void explainsApprovalsRefusedByTheWorkflowDefinition() throws Exception {
+        WorkflowDefinition definition = WorkflowDefinition.parse("Manager > Senior");
+        workflow.setWorkflowDefinition(definition);
+        server.setWorkflowDefinition(definition);
+        String senior = session("sam", "Senior");
+        String manager = session("max", "Manager");
+        String id = field(send("POST", "tasks", "{\"description\":\"Buy desks\",\"priority\":1}", senior), "id");
+
+        HttpResponse<String> refused = send("POST", "tasks/" + id + "/process", "{\"approve\":true}", senior);
+        assertEquals(403, refused.statusCode());
+        assertEquals("Permission denied: sam (Senior) has no open step in the current stage of task " + id
+                + ", which is waiting for [Manager]", field(refused, "error"));
+        assertEquals("PENDING", field(send("POST", "tasks/" + id + "/process", "{\"approve\":true}", manager),
+                "state"));
+        assertEquals("APPROVED", field(send("POST", "tasks/" + id + "/process", "{\"approve\":true}", senior),
+                "state"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runsBatchOperationsIndependently() throws Exception {
+        String senior = session("sam", "Senior");
+        HttpResponse<String> response = send("POST", "batch",
+                "[{\"op\":\"create\",\"description\":\"First\",\"priority\":1},"
+                        + "{\"op\":\"create\",\"description\":\"\",\"priority\":1},"
+                        + "{\"op\":\"explode\"}]", senior);
+        assertEquals(200, response.statusCode());
+        List<Object> results = (List<Object>) Json.parse(response.body());
+        assertEquals(201.0, ((Map<String, Object>) results.get(0)).get("status"));
+        assertEquals(400.0, ((Map<String, Object>) results.get(1)).get("status"));
+        assertEquals(400.0, ((Map<String, Object>) results.get(2)).get("status"));
+    }
+
+    @Test
+    void refusesMalformedAndOversizedBodies() throws Exception {
+        String senior = session("sam", "Senior");
+        assertEquals(400, send("POST", "tasks", "{\"description\":", senior).statusCode());
+        assertEquals(400, send("POST", "batch", "[".repeat(10_000), senior).statusCode());
+        assertEquals(400, send("POST", "tasks", "{\"description\":\"x\",\"priority\":\"high\"}", senior).statusCode());
+        assertEquals(413, oversizedStatus(senior));
+        assertEquals(404, send("GET", "nowhere", null, senior).statusCode());
+    }
+
+    private String session(String username, String role) throws Exception {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"secret\"";
+        assertEquals(201, send("POST", "users", credentials + ",\"role\":\"" + role + "\"}", null).statusCode());
+        HttpResponse<String> session = send("POST", "sessions", credentials + "}", null);
+        assertEquals(201, session.statusCode());
+        return "Bearer " + field(session, "token");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String authorization)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Declares a body over the limit without sending it, since the server may answer and close the connection
+     * before a client could finish uploading one.
+     */
+    private int oversizedStatus(String authorization) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            String request = "POST /api/tasks HTTP/1.1\r\nHost: 127.0.0.1\r\nAuthorization: " + authorization
+                    + "\r\nContent-Length: " + (2 << 20) + "\r\n\r\n";
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            return Integer.parseInt(reader.readLine().split(" ")[1]);
+        }
+    }
+
+    private static String field(HttpResponse<String> response, String name) {
+        return Json.getString(Json.parseObject(response.body()), name);
+    }
+}
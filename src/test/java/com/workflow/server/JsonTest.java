@@ -0,0 +1,93 @@
+package com.workflow.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonTest {
+
+    @Test
+    void parsesNestedDocuments() {
+        Map<String, Object> object = Json.parseObject(
+                " { \"name\" : \"Buy chairs\", \"priority\": 2, \"ratio\": -1.5e2, \"urgent\": true,"
+                        + " \"notes\": null, \"tags\": [\"office\", [], {}] } ");
+
+        assertEquals("Buy chairs", Json.getString(object, "name"));
+        assertEquals(2, Json.getInt(object, "priority", 0));
+        assertEquals(-150.0, object.get("ratio"));
+        assertTrue(Json.getBoolean(object, "urgent"));
+        assertNull(object.get("notes"));
+        assertTrue(object.containsKey("notes"));
+        assertEquals(Arrays.asList("office", List.of(), Map.of()), object.get("tags"));
+        assertEquals(7, Json.getInt(object, "missing", 7));
+    }
+
+    @Test
+    void decodesEscapes() {
+        assertEquals("a\"b\\c/d\ne\tf\u00e9", Json.parse("\"a\\\"b\\\\c\\/d\\ne\\tf\\u00e9\""));
+    }
+
+    @Test
+    void writtenJsonParsesBackToTheSameValue() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("text", "quote \" backslash \\ newline \n control \u0001");
+        object.put("count", 3);
+        object.put("flag", false);
+        object.put("nothing", null);
+        object.put("list", Arrays.asList("x", 1.5, null));
+
+        String written = Json.write(object);
+        Map<String, Object> parsed = Json.parseObject(written);
+        assertEquals(object.get("text"), parsed.get("text"));
+        assertEquals(3.0, parsed.get("count"));
+        assertEquals(false, parsed.get("flag"));
+        assertNull(parsed.get("nothing"));
+        assertEquals(object.get("list"), parsed.get("list"));
+    }
+
+    @Test
+    void emptyBodiesAreEmptyObjects() {
+        assertTrue(Json.parseObject(null).isEmpty());
+        assertTrue(Json.parseObject("  ").isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedDocuments() {
+        String[] malformed = {
+                "", "{", "}", "[1,]", "{\"a\" 1}", "{\"a\":1,}", "{a:1}", "\"open", "tru", "nul", "1 2",
+                "{\"a\":1} trailing", "\"\\u12\"", "\"\\uzzzz\"", "--1", "NaN", "[1 2]",
+        };
+        for (String text : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(text), text);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("[1]"));
+    }
+
+    @Test
+    void rejectsWrongFieldTypes() {
+        Map<String, Object> object = Json.parseObject("{\"s\": 1, \"i\": 1.5, \"b\": \"yes\"}");
+        assertThrows(IllegalArgumentException.class, () -> Json.getString(object, "s"));
+        assertThrows(IllegalArgumentException.class, () -> Json.getInt(object, "i", 0));
+        assertThrows(IllegalArgumentException.class, () -> Json.getBoolean(object, "b"));
+        assertThrows(IllegalArgumentException.class, () -> Json.getBoolean(object, "missing"));
+    }
+
+    @Test
+    void limitsNesting() {
+        String deepest = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        assertTrue(Json.parse(deepest) instanceof List);
+        String tooDeep = "[".repeat(Json.MAX_DEPTH + 1) + "]".repeat(Json.MAX_DEPTH + 1);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(tooDeep));
+        String brackets = "{\"a\":".repeat(100_000);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(brackets));
+    }
+}
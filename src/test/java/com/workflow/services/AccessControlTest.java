@@ -0,0 +1,63 @@
+package com.workflow.services;
+
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessControlTest {
+    private final Map<String, User> users = new HashMap<>();
+    private final AccessControl access = new AccessControl();
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void delegatesGainTheDelegatorsCurrentRole() {
+        User senior = add("sam", "Senior");
+        User junior = add("jo", "Junior");
+        access.setUsers(users::get);
+        assertArrayEquals(new int[] {1}, access.priorities(junior, Permission.APPROVE));
+
+        assertTrue(access.delegate(senior, "jo"));
+        assertTrue(access.isAllowed(junior, Permission.APPROVE, 3));
+        assertEquals(Map.of("sam", "Senior"), access.getDelegations("jo"));
+
+        // Demoting the delegator takes the delegated rights away with it
+        users.put("sam", new User("sam", "unused-hash", "Manager"));
+        access.invalidate("sam");
+        assertFalse(access.isAllowed(junior, Permission.APPROVE, 3));
+        assertTrue(access.isAllowed(junior, Permission.APPROVE, 2));
+
+        assertTrue(access.revoke("sam", "jo"));
+        assertFalse(access.isAllowed(junior, Permission.APPROVE, 2));
+        assertFalse(access.revoke("sam", "jo"));
+    }
+
+    @Test
+    void refusesInvalidDelegations() {
+        User senior = add("sam", "Senior");
+        assertFalse(access.delegate(senior, "sam"));
+        assertFalse(access.delegate(senior, " "));
+        assertFalse(access.delegate(add("eve", "Intruder"), "jo"));
+        assertFalse(access.isAllowed(null, Permission.APPROVE, 1));
+        assertFalse(access.isAllowed(senior, Permission.APPROVE, 9));
+    }
+
+    private User add(String username, String role) {
+        User user = new User(username, "unused-hash", role);
+        users.put(username, user);
+        return user;
+    }
+}
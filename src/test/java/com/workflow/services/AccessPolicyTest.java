@@ -0,0 +1,75 @@
+package com.workflow.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessPolicyTest {
+    private final AccessPolicy defaults = AccessPolicy.defaults();
+
+    @Test
+    void eachRoleApprovesItsOwnPriority() {
+        assertTrue(defaults.isAllowed("Junior", Permission.APPROVE, 1));
+        assertFalse(defaults.isAllowed("Junior", Permission.APPROVE, 2));
+        assertTrue(defaults.isAllowed("Manager", Permission.APPROVE, 2));
+        assertFalse(defaults.isAllowed("Manager", Permission.APPROVE, 3));
+        assertTrue(defaults.isAllowed("Senior", Permission.APPROVE, 3));
+        assertFalse(defaults.isAllowed("Senior", Permission.APPROVE, 1));
+        assertFalse(defaults.isAllowed("Member", Permission.APPROVE, 1));
+    }
+
+    @Test
+    void everyRoleInheritsMemberPermissions() {
+        for (String role : new String[]{"Member", "Junior", "Manager", "Senior"}) {
+            for (int priority = 1; priority <= 3; priority++) {
+                assertTrue(defaults.isAllowed(role, Permission.CREATE, priority), role);
+                assertTrue(defaults.isAllowed(role, Permission.REJECT, priority), role);
+                assertTrue(defaults.isAllowed(role, Permission.ROLLBACK, priority), role);
+            }
+        }
+    }
+
+    @Test
+    void unknownRolesAndPrioritiesAreDenied() {
+        assertFalse(defaults.hasRole("Intern"));
+        assertFalse(defaults.hasRole(null));
+        assertFalse(defaults.isAllowed("Intern", Permission.CREATE, 1));
+        assertFalse(defaults.isAllowed(null, Permission.CREATE, 1));
+        assertFalse(defaults.isAllowed("Member", Permission.CREATE, 0));
+        assertFalse(defaults.isAllowed("Member", Permission.CREATE, 4));
+        assertEquals(4, defaults.getWidth());
+    }
+
+    @Test
+    void grantsReachGrandchildren() {
+        AccessPolicy policy = AccessPolicy.builder()
+                .role("Staff")
+                .grant("Staff", 1, 5, Permission.CREATE)
+                .role("Lead", "Staff")
+                .grant("Lead", 4, 5, Permission.APPROVE)
+                .role("Director", "Lead")
+                .build();
+
+        assertTrue(policy.isAllowed("Director", Permission.CREATE, 1));
+        assertTrue(policy.isAllowed("Director", Permission.APPROVE, 5));
+        assertFalse(policy.isAllowed("Director", Permission.APPROVE, 3));
+        assertFalse(policy.isAllowed("Staff", Permission.APPROVE, 5));
+        assertEquals(6, policy.getWidth());
+    }
+
+    @Test
+    void rejectsInvalidDeclarations() {
+        assertThrows(IllegalArgumentException.class, () -> AccessPolicy.builder().role("Lead", "Staff"));
+        assertThrows(IllegalArgumentException.class, () -> AccessPolicy.builder().role("Staff").role("Staff"));
+        assertThrows(IllegalArgumentException.class, () -> AccessPolicy.builder().role(" "));
+        assertThrows(IllegalArgumentException.class,
+                () -> AccessPolicy.builder().role("Staff").grant("Staff", 0, 2, Permission.CREATE));
+        assertThrows(IllegalArgumentException.class,
+                () -> AccessPolicy.builder().role("Staff").grant("Staff", 3, 2, Permission.CREATE));
+        assertThrows(IllegalArgumentException.class,
+                () -> AccessPolicy.builder().grant("Staff", 1, 2, Permission.CREATE));
+    }
+}
@@ -0,0 +1,80 @@
+package com.workflow.services;
+
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthenticationServiceTest {
+    private final AuthenticationService auth = new AuthenticationService(
+            new PasswordHasher(PasswordHasher.MIN_ITERATIONS), new SessionCache(2, 60_000));
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void registersAndLogsInOnlyWithValidDetails() {
+        assertTrue(auth.register("ana", "secret", "Junior"));
+        assertFalse(auth.register("ana", "another", "Senior"), "taken");
+        assertFalse(auth.register(" ", "secret", "Junior"));
+        assertFalse(auth.register("ben", "abc", "Junior"), "too short");
+        assertFalse(auth.register("ben", "secret", ""));
+
+        assertEquals("ana", auth.login("ana", "secret").getUsername());
+        assertNull(auth.login("ana", "wrong"));
+        assertNull(auth.login("nobody", "secret"));
+        assertFalse(auth.getUser("ana").getPasswordHash().contains("secret"));
+    }
+
+    @Test
+    void sessionsLastUntilLogout() {
+        auth.register("ana", "secret", "Junior");
+        assertNull(auth.createSession("ana", "wrong"));
+        String token = auth.createSession("ana", "secret");
+        assertNotNull(token);
+        assertEquals("ana", auth.validateSession(token).getUsername());
+
+        auth.logout(token);
+        assertNull(auth.validateSession(token));
+        assertNull(auth.validateSession(null));
+    }
+
+    @Test
+    void existingSessionsSeeARoleChange() {
+        auth.register("ana", "secret", "Junior");
+        String token = auth.createSession("ana", "secret");
+
+        assertTrue(auth.changeRole("ana", "Manager"));
+        assertEquals("Manager", auth.validateSession(token).getRole());
+        assertFalse(auth.changeRole("nobody", "Manager"));
+    }
+
+    @Test
+    void sessionCacheEvictsTheOldestAndExpired() throws InterruptedException {
+        SessionCache sessions = new SessionCache(2, 60_000);
+        User user = new User("ana", "unused-hash", "Junior");
+        String first = sessions.create(user);
+        String second = sessions.create(user);
+        String third = sessions.create(user);
+        assertNull(sessions.validate(first));
+        assertSame(user, sessions.validate(second));
+        assertSame(user, sessions.validate(third));
+        assertEquals(2, sessions.size());
+
+        SessionCache shortLived = new SessionCache(10, 1);
+        String token = shortLived.create(user);
+        Thread.sleep(5);
+        assertNull(shortLived.validate(token));
+        assertEquals(0, shortLived.size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarTaskStoreTest {
+    private static final String[] CREATORS = {"ana", "ben", "cleo"};
+    private static final long START = SnowflakeIdGenerator.EPOCH + 1_000_000;
+    /** Spans more than one chunk of rows. */
+    private static final int COUNT = 70_000;
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+    private final TaskStore reference = new TaskStore();
+    private final ColumnarTaskStore columns = new ColumnarTaskStore();
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void racingCreationsAreScannedInIdOrder() {
+        List<Long> order = idsInOrder();
+        // Creations that race each other land a few rows from their place in ID order
+        Random random = new Random(7);
+        for (int i = 0; i + 1 < order.size(); i += 1 + random.nextInt(3)) {
+            Collections.swap(order, i, i + 1 + random.nextInt(Math.min(8, order.size() - i - 1)));
+        }
+        addAll(order);
+        decideSome();
+        assertSameQueries();
+    }
+
+    @Test
+    void aRowFarFromItsPlaceFallsBackToSortingTheMatches() {
+        List<Long> order = idsInOrder();
+        order.add(order.remove(0));
+        addAll(order);
+        decideSome();
+        assertSameQueries();
+    }
+
+    private List<Long> idsInOrder() {
+        List<Long> order = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            order.add(generator.lowestIdAt(START + i / 4) | i % 4);
+        }
+        return order;
+    }
+
+    private void addAll(List<Long> order) {
+        for (long id : order) {
+            for (TaskStore store : new TaskStore[] {reference, columns}) {
+                Task task = task(id);
+                store.add(task, store.newCaretaker(task.getPriority()));
+            }
+        }
+    }
+
+    private Task task(long id) {
+        long createdAt = generator.creationTimeOf(id);
+        int i = (int) ((createdAt - START) * 4 + (id & 3));
+        return new Task(id, "Scanned task " + i, 1 + i % 3, CREATORS[i / 3 % CREATORS.length], createdAt);
+    }
+
+    private void decideSome() {
+        Random random = new Random(11);
+        for (TaskStore store : new TaskStore[] {reference, columns}) {
+            random.setSeed(11);
+            for (long id : store.ids().toArray()) {
+                int roll = random.nextInt(10);
+                Task task = store.getResident(id);
+                if (roll == 0) {
+                    task.approve("Senior");
+                    store.stateChanged(task, TaskState.PENDING);
+                } else if (roll == 1) {
+                    task.reject("Declined");
+                    store.stateChanged(task, TaskState.PENDING);
+                } else if (roll == 2) {
+                    store.evict(task);
+                }
+            }
+        }
+    }
+
+    private void assertSameQueries() {
+        assertEquals(reference.size(), columns.size());
+        long from = START + COUNT / 16;
+        long to = START + COUNT / 8;
+        for (TaskQuery.Sort sort : TaskQuery.Sort.values()) {
+            List<TaskQuery> queries = List.of(
+                    TaskQuery.builder().sort(sort).build(),
+                    TaskQuery.builder().sort(sort).status(TaskState.APPROVED).build(),
+                    TaskQuery.builder().sort(sort).priority(2).creator("ben").build(),
+                    TaskQuery.builder().sort(sort).status(TaskState.PENDING).createdBetween(from, to).build(),
+                    TaskQuery.builder().sort(sort).creator("nobody").build());
+            for (int i = 0; i < queries.size(); i++) {
+                assertEquals(ids(reference.query(queries.get(i), generator)),
+                        ids(columns.query(queries.get(i), generator)), sort + " query " + i);
+            }
+            assertEquals(pages(reference, sort), pages(columns, sort), sort.toString());
+        }
+    }
+
+    private List<Long> pages(TaskStore store, TaskQuery.Sort sort) {
+        List<Long> seen = new ArrayList<>();
+        Task last = null;
+        while (true) {
+            TaskQuery.Builder page = TaskQuery.builder().sort(sort).status(TaskState.PENDING).limit(5_000);
+            if (last != null) {
+                page.after(last.getId());
+            }
+            List<Task> tasks = store.query(page.build(), generator).collect(Collectors.toList());
+            if (tasks.isEmpty()) {
+                return seen;
+            }
+            assertTrue(tasks.size() <= 5_000);
+            tasks.forEach(task -> seen.add(task.getNumericId()));
+            last = tasks.get(tasks.size() - 1);
+        }
+    }
+
+    private static List<Long> ids(Stream<Task> tasks) {
+        return tasks.map(Task::getNumericId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,87 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.patterns.memento.HistoryPolicy;
+import com.workflow.patterns.observer.SubscriptionRegistry;
+import com.workflow.patterns.observer.TaskObserver;
+import com.workflow.patterns.observer.Topic;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationServiceTest {
+    private final User senior = new User("sam", "unused-hash", "Senior");
+    private final List<String> events = new ArrayList<>();
+    private final TaskObserver observer = events::add;
+
+    private SubscriptionRegistry registry;
+    private NotificationService notifications;
+    private WorkflowService workflow;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @BeforeEach
+    void createServices() {
+        registry = new SubscriptionRegistry();
+        notifications = new NotificationService(registry);
+        workflow = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+        workflow.setSubscriptionRegistry(registry);
+    }
+
+    @Test
+    void decidingATaskRetiresItsSubscriptions() {
+        Task task = workflow.createTask("Buy desks", 3, senior);
+        notifications.attachObserver(task, senior);
+        registry.subscribe(Topic.task(task.getNumericId()), observer);
+        assertEquals(1, registry.getTaskTopicCount());
+
+        assertTrue(workflow.processTask(senior, task, true, null));
+        assertEquals(1, events.size());
+        assertEquals(0, registry.getTaskTopicCount());
+
+        notifications.attachObserver(task, senior);
+        assertEquals(0, registry.getTaskTopicCount(), "a decided task takes no new subscribers");
+    }
+
+    @Test
+    void rollbackReopeningATaskRestoresItsSubscriptions() {
+        Task task = workflow.createTask("Buy chairs", 3, senior);
+        registry.subscribe(Topic.task(task.getNumericId()), observer);
+        assertTrue(workflow.processTask(senior, task, false, "Too dear"));
+        assertEquals(0, registry.getTaskTopicCount());
+
+        assertTrue(workflow.rollbackTask(senior, task, 1));
+        assertEquals(1, registry.getTaskTopicCount());
+        assertTrue(workflow.processTask(senior, task, true, null));
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).endsWith("Approved by Senior"), events.get(1));
+        assertEquals(0, registry.getTaskTopicCount());
+    }
+
+    @Test
+    void droppedHistoryDropsParkedSubscriptions() {
+        TaskStore store = new TaskStore(16, new HistoryPolicy(4, new int[0], HistoryPolicy.Terminal.DROP, null));
+        workflow = new WorkflowService(store, new SnowflakeIdGenerator(0));
+        workflow.setSubscriptionRegistry(registry);
+        Task task = workflow.createTask("Buy lamps", 3, senior);
+        registry.subscribe(Topic.task(task.getNumericId()), observer);
+
+        assertTrue(workflow.processTask(senior, task, true, null));
+        assertEquals(0, registry.getTaskTopicCount());
+        assertNull(store.getCaretaker(task.getNumericId()).takeSubscribers());
+    }
+}
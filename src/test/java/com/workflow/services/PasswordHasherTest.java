@@ -0,0 +1,58 @@
+package com.workflow.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+    private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+
+    @Test
+    void verifiesOnlyTheHashedPassword() {
+        String hash = hasher.hash("correct horse");
+        assertTrue(hasher.verify("correct horse", hash));
+        assertFalse(hasher.verify("correct horsf", hash));
+        assertFalse(hasher.verify("", hash));
+        assertNotEquals(hash, hasher.hash("correct horse"), "each hash has its own salt");
+    }
+
+    @Test
+    void hashesKeepTheirOwnCost() {
+        String cheap = hasher.hash("battery staple");
+        PasswordHasher costlier = new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 2);
+        assertTrue(costlier.verify("battery staple", cheap));
+        assertEquals(String.valueOf(PasswordHasher.MIN_ITERATIONS * 2), costlier.hash("x").split("\\$")[1]);
+    }
+
+    @Test
+    void malformedHashesFailVerification() {
+        String[] parts = hasher.hash("secret").split("\\$");
+        String[] malformed = {
+                "",
+                "plain-text",
+                "md5$1000$" + parts[2] + "$" + parts[3],
+                parts[0] + "$many$" + parts[2] + "$" + parts[3],
+                parts[0] + "$1$" + parts[2] + "$" + parts[3],
+                parts[0] + "$2147483647$" + parts[2] + "$" + parts[3],
+                parts[0] + "$" + parts[1] + "$$" + parts[3],
+                parts[0] + "$" + parts[1] + "$" + parts[2] + "$",
+                parts[0] + "$" + parts[1] + "$not*base64$" + parts[3],
+                parts[0] + "$" + parts[1] + "$" + parts[2],
+        };
+        for (String hash : malformed) {
+            assertFalse(hasher.verify("secret", hash), hash);
+        }
+        assertFalse(hasher.verify(null, hasher.hash("secret")));
+        assertFalse(hasher.verify("secret", null));
+    }
+
+    @Test
+    void rejectsIterationCountsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(PasswordHasher.MIN_ITERATIONS - 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(PasswordHasher.MAX_ITERATIONS + 1));
+    }
+}
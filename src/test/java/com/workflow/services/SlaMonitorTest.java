@@ -0,0 +1,79 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlaMonitorTest {
+    private static final long TICK = 100;
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final User creator = new User("ana", "unused-hash", "Senior");
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private WorkflowService workflow;
+    private SlaMonitor monitor;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @BeforeEach
+    void createMonitor() {
+        workflow = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+        monitor = new SlaMonitor(workflow, SlaPolicy.parse("1:PT1H:escalate,2:PT2H:reject"), now::get, TICK);
+        workflow.setSlaMonitor(monitor);
+    }
+
+    @Test
+    void expiredTasksAreEscalatedThenRejected() {
+        Task task = workflow.createTask("Buy pens", 1, creator);
+        Task exempt = workflow.createTask("Buy a car", 3, creator);
+        assertEquals(1, monitor.getTrackedCount());
+
+        now.addAndGet(HOUR + TICK);
+        assertEquals(1, monitor.advance());
+        assertEquals(2, task.getPriority());
+        assertEquals(TaskState.PENDING, task.getState());
+
+        now.addAndGet(HOUR);
+        assertEquals(0, monitor.advance(), "the escalation restarted the deadline at priority 2");
+        now.addAndGet(HOUR + TICK);
+        assertEquals(1, monitor.advance());
+        assertEquals(TaskState.REJECTED, task.getState());
+        assertEquals(TaskState.PENDING, exempt.getState());
+        assertEquals(0, monitor.getTrackedCount());
+    }
+
+    @Test
+    void decidedTasksStopBeingTracked() {
+        Task task = workflow.createTask("Buy paper", 2, creator);
+        workflow.processTask(task, true, null);
+        assertEquals(0, monitor.getTrackedCount());
+
+        now.addAndGet(3 * HOUR);
+        assertEquals(0, monitor.advance());
+        assertEquals(TaskState.APPROVED, task.getState());
+    }
+
+    @Test
+    void rejectsInvalidPolicies() {
+        assertThrows(IllegalArgumentException.class, () -> SlaPolicy.parse("3:PT1H:escalate"));
+        assertThrows(IllegalArgumentException.class, () -> SlaPolicy.parse("1:soon:reject"));
+        assertThrows(IllegalArgumentException.class, () -> SlaPolicy.parse("1:PT1H"));
+        assertThrows(IllegalArgumentException.class, () -> SlaPolicy.parse(" "));
+        assertEquals(0, SlaPolicy.parse("1:PT1H:reject").getDeadlineMillis(2));
+    }
+}
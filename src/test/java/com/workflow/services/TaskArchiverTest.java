@@ -0,0 +1,97 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.persistence.ColdStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskArchiverTest {
+    private static final long AGE = 60_000;
+
+    private final User senior = new User("sam", "unused-hash", "Senior");
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private TaskStore store;
+    private WorkflowService workflow;
+    private TaskArchiver archiver;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @BeforeEach
+    void createArchiver() {
+        store = new TaskStore();
+        workflow = new WorkflowService(store, new SnowflakeIdGenerator(0));
+        archiver = new TaskArchiver(store, ColdStore.open(directory), now::get, AGE, 16);
+        workflow.setTaskArchiver(archiver);
+    }
+
+    @Test
+    void archivesDecidedTasksOnceOldEnough() {
+        Task approved = workflow.createTask("Buy desks", 3, senior);
+        Task pending = workflow.createTask("Buy chairs", 3, senior);
+        workflow.processTask(senior, approved, true, null);
+
+        now.addAndGet(AGE - 1);
+        assertEquals(0, archiver.archive());
+        now.addAndGet(1);
+        assertEquals(1, archiver.archive());
+        assertEquals(0, archiver.getQueuedCount());
+
+        assertNull(store.getResident(approved.getNumericId()));
+        Task archived = workflow.getTask(approved.getNumericId());
+        assertNotSame(approved, archived);
+        assertEquals(TaskState.APPROVED, archived.getState());
+        assertEquals(pending, workflow.getTask(pending.getNumericId()));
+        workflow.getTask(approved.getNumericId());
+        assertEquals(1, archiver.getCacheHits());
+    }
+
+    @Test
+    void theAgeCountsFromTheLatestDecision() {
+        Task task = workflow.createTask("Buy lamps", 3, senior);
+        workflow.processTask(senior, task, false, "Too dear");
+        now.addAndGet(AGE / 2);
+        assertTrue(workflow.rollbackTask(senior, task, 1));
+        workflow.processTask(senior, task, true, null);
+        assertEquals(1, archiver.getQueuedCount());
+
+        now.addAndGet(AGE / 2);
+        assertEquals(0, archiver.archive(), "the first decision was undone");
+        assertEquals(task, store.getResident(task.getNumericId()));
+
+        now.addAndGet(AGE / 2);
+        assertEquals(1, archiver.archive());
+        assertEquals(TaskState.APPROVED, workflow.getTask(task.getNumericId()).getState());
+    }
+
+    @Test
+    void reopenedTasksStay() {
+        Task task = workflow.createTask("Buy pens", 3, senior);
+        workflow.processTask(senior, task, true, null);
+        assertTrue(workflow.rollbackTask(senior, task, 1));
+
+        now.addAndGet(AGE);
+        assertEquals(0, archiver.archive());
+        assertEquals(TaskState.PENDING, store.getResident(task.getNumericId()).getState());
+    }
+}
@@ -0,0 +1,118 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskQueryTest {
+    private static final String[] CREATORS = {"ana", "ben", "cleo"};
+
+    private WorkflowService service;
+    private List<Task> tasks;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @BeforeEach
+    void createTasks() {
+        service = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            User creator = new User(CREATORS[i % 3], "unused-hash", "Senior");
+            tasks.add(service.createTask("Query task " + i, 1 + i % 3, creator));
+        }
+        for (int i = 0; i < 90; i += 4) {
+            service.processTask(tasks.get(i), i % 8 == 0, "Declined");
+        }
+    }
+
+    @Test
+    void filtersMatchAScanOfEveryTask() {
+        for (TaskState state : TaskState.values()) {
+            for (int priority = 1; priority <= 3; priority++) {
+                for (String creator : CREATORS) {
+                    TaskQuery query = TaskQuery.builder().status(state).priority(priority).creator(creator).build();
+                    List<String> expected = tasks.stream().filter(query::matches).map(Task::getId)
+                            .collect(Collectors.toList());
+                    assertEquals(expected, ids(service.query(query).collect(Collectors.toList())),
+                            state + "/p" + priority + "/" + creator);
+                }
+            }
+        }
+    }
+
+    @Test
+    void pagesWalkEveryTaskOnceInOrder() {
+        for (TaskQuery.Sort sort : TaskQuery.Sort.values()) {
+            List<Task> seen = new ArrayList<>();
+            Task last = null;
+            while (true) {
+                TaskQuery.Builder page = TaskQuery.builder().sort(sort).limit(7);
+                if (last != null) {
+                    page.after(last.getId());
+                }
+                List<Task> tasksOnPage = service.query(page.build()).collect(Collectors.toList());
+                if (tasksOnPage.isEmpty()) {
+                    break;
+                }
+                assertTrue(tasksOnPage.size() <= 7);
+                seen.addAll(tasksOnPage);
+                last = tasksOnPage.get(tasksOnPage.size() - 1);
+            }
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.sort(order(sort));
+            assertEquals(ids(expected), ids(seen), sort.toString());
+        }
+    }
+
+    @Test
+    void indexesFollowEscalationsAndRollbacks() {
+        Task task = tasks.get(1);
+        int before = task.getPriority();
+        assertTrue(service.escalateTask(task));
+        assertEquals(before + 1, task.getPriority());
+        assertTrue(service.query(TaskQuery.builder().priority(before + 1).build())
+                .anyMatch(found -> found.getId().equals(task.getId())));
+        assertTrue(service.query(TaskQuery.builder().priority(before).build())
+                .noneMatch(found -> found.getId().equals(task.getId())));
+
+        Task decided = tasks.get(4);
+        assertTrue(service.rollbackTask(decided));
+        assertTrue(service.query(TaskQuery.builder().status(TaskState.PENDING).build())
+                .anyMatch(found -> found.getId().equals(decided.getId())));
+        assertEquals(tasks.stream().filter(t -> t.getState() == TaskState.REJECTED).count(),
+                service.query(TaskQuery.builder().status(TaskState.REJECTED).build()).count());
+    }
+
+    private static Comparator<Task> order(TaskQuery.Sort sort) {
+        Comparator<Task> oldest = Comparator.comparingLong(Task::getNumericId);
+        switch (sort) {
+            case NEWEST_FIRST:
+                return oldest.reversed();
+            case PRIORITY:
+                return Comparator.comparingInt(Task::getPriority).reversed().thenComparing(oldest);
+            default:
+                return oldest;
+        }
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,101 @@
+package com.workflow.services;
+
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextIndexTest {
+    private final TextIndex index = new TextIndex();
+    private final Map<Long, Task> tasks = new HashMap<>();
+
+    @Test
+    void allWordsMustMatchUnlessJoinedByOr() {
+        add(1, "Expense report for Q3");
+        add(2, "Expense claim for the Q3 offsite");
+        add(3, "Travel report");
+        add(4, "Receipt for the hotel");
+
+        assertEquals(Set.of(1L, 2L), ids("expense q3"));
+        assertEquals(Set.of(1L), ids("expense report"));
+        assertEquals(Set.of(1L, 3L, 4L), ids("report OR receipt"));
+        assertEquals(Set.of(1L, 4L), ids("report OR receipt for"));
+        assertEquals(Set.of(), ids("expense missing"));
+    }
+
+    @Test
+    void prefixesAndAccentsMatchAnyForm() {
+        add(1, "Reimbursement of travel");
+        add(2, "Reimburse the Café bill");
+        add(3, "Rebuild the server");
+
+        assertEquals(Set.of(1L, 2L), ids("reimburs*"));
+        assertEquals(Set.of(1L, 2L, 3L), ids("re*"));
+        assertEquals(Set.of(2L), ids("CAFE"));
+        assertEquals(Set.of(2L), ids("café reimburs*"));
+    }
+
+    @Test
+    void ranksCloserMatchesFirstAndAppliesFilters() {
+        add(1, "Printer paper for the office on the second floor near the kitchen");
+        add(2, "Printer ink");
+        add(3, "Printer printer toner");
+        tasks.get(3L).approve("Senior");
+        index.stateChanged(tasks.get(3L));
+
+        SearchResult result = index.search(TaskSearch.builder("printer").build(), tasks::get);
+        assertEquals(3, result.getTotalHits());
+        assertEquals(List.of(3L, 2L, 1L), result.getTasks().stream().map(Task::getNumericId)
+                .collect(Collectors.toList()));
+        assertTrue(result.getScore(0) > result.getScore(1));
+        assertEquals(Set.of(1L, 2L), ids(TaskSearch.builder("printer").status(TaskState.PENDING).build()));
+        assertEquals(Set.of(1L), ids(TaskSearch.builder("printer").priority(2).build()));
+        assertEquals(1, index.search(TaskSearch.builder("printer").limit(1).build(), tasks::get).getTasks().size());
+    }
+
+    @Test
+    void removedTasksArePurgedFromThePostings() throws InterruptedException {
+        int count = 70_000;
+        for (int i = 0; i < count; i++) {
+            add(i, "shared word" + i);
+        }
+        assertEquals(count + 1, index.getTermCount());
+        for (int i = 100; i < count; i++) {
+            index.remove(tasks.get((long) i));
+        }
+        assertEquals(100, index.size());
+        assertEquals(100, index.search(TaskSearch.builder("shared").limit(1000).build(), tasks::get).getTotalHits());
+
+        // The purge runs in the background once removed tasks outnumber the live ones
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (index.getTermCount() > 101 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(101, index.getTermCount());
+        assertEquals(Set.of(99L), ids("word99"));
+        assertEquals(Set.of(), ids("word100"));
+    }
+
+    private void add(long id, String description) {
+        Task task = new Task(id, description, 1 + (int) (id % 3), "ana", 1_700_000_000_000L + id);
+        tasks.put(id, task);
+        index.add(task);
+    }
+
+    private Set<Long> ids(String text) {
+        return ids(TaskSearch.builder(text).limit(TaskSearch.MAX_LIMIT).build());
+    }
+
+    private Set<Long> ids(TaskSearch search) {
+        return index.search(search, tasks::get).getTasks().stream().map(Task::getNumericId)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,130 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransitionLogTest {
+    private static final String[] ACTORS = {"ana", "ben", "cleo", null};
+    private static final String[] ROLES = {"Junior", "Manager", "Senior", null};
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final TransitionLog log = new TransitionLog(now::get);
+
+    @Test
+    void answersTheStateOfATaskAtAnyTime() {
+        log.record(7, Transition.Kind.CREATED, null, TaskState.PENDING, "ana", "Senior", null);
+        now.set(2_000);
+        log.record(7, Transition.Kind.DECIDED, TaskState.PENDING, TaskState.REJECTED, "ben", "Manager",
+                "Too dear");
+        now.set(3_000);
+        log.record(7, Transition.Kind.ROLLED_BACK, TaskState.REJECTED, TaskState.PENDING, "ana", "Senior", null);
+
+        assertNull(log.stateAt(7, 999));
+        assertEquals(TaskState.PENDING, log.stateAt(7, 1_999));
+        assertEquals(TaskState.REJECTED, log.stateAt(7, 2_000));
+        assertEquals(TaskState.PENDING, log.stateAt(7, 5_000));
+        assertNull(log.stateAt(8, 5_000));
+
+        List<Transition> history = log.history(7);
+        assertEquals(3, history.size());
+        assertEquals("Too dear", history.get(1).getReason());
+        assertEquals(Transition.Kind.ROLLED_BACK, history.get(2).getKind());
+    }
+
+    @Test
+    void timesNeverGoBackwards() {
+        now.set(5_000);
+        log.record(1, Transition.Kind.CREATED, null, TaskState.PENDING, "ana", "Senior", null);
+        now.set(4_000);
+        log.record(2, Transition.Kind.CREATED, null, TaskState.PENDING, "ana", "Senior", null);
+        assertEquals(5_000, log.history(2).get(0).getTime());
+    }
+
+    @Test
+    void countsAgreeWithAScanAcrossChunks() {
+        Random random = new Random(42);
+        TaskState[] targets = {TaskState.APPROVED, TaskState.REJECTED, TaskState.PENDING};
+        Transition.Kind[] kinds = Transition.Kind.values();
+        for (int i = 0; i < 10_000; i++) {
+            now.addAndGet(random.nextInt(3));
+            log.record(random.nextInt(500), kinds[random.nextInt(kinds.length)], TaskState.PENDING,
+                    targets[random.nextInt(targets.length)], ACTORS[random.nextInt(ACTORS.length)],
+                    ROLES[random.nextInt(ROLES.length)], null);
+        }
+        long end = now.get() + 1;
+        long[][] ranges = {{0, end}, {1_000, 1_001}, {2_500, 9_000}, {5_000, end}, {7_000, 7_000}};
+        for (long[] range : ranges) {
+            List<Transition> scanned = log.between(range[0], range[1]).collect(Collectors.toList());
+            long approvalsByAna = scanned.stream()
+                    .filter(t -> t.getKind() == Transition.Kind.DECIDED && t.getTo() == TaskState.APPROVED)
+                    .filter(t -> "ana".equals(t.getActor()))
+                    .count();
+            assertEquals(approvalsByAna,
+                    log.count(range[0], range[1], Transition.Kind.DECIDED, TaskState.APPROVED, "ana"));
+            assertEquals(scanned.size(), log.count(range[0], range[1], null, null, null));
+
+            Map<String, Long> byActor = scanned.stream()
+                    .filter(t -> t.getActor() != null && t.getTo() == TaskState.REJECTED)
+                    .collect(Collectors.groupingBy(Transition::getActor, Collectors.counting()));
+            assertEquals(byActor, log.countByActor(range[0], range[1], null, TaskState.REJECTED));
+
+            long approvalsByManagers = scanned.stream()
+                    .filter(t -> t.getTo() == TaskState.APPROVED && "Manager".equals(t.getRole()))
+                    .count();
+            assertEquals(approvalsByManagers, log.count(range[0], range[1], null, TaskState.APPROVED, null, "Manager"));
+            long byAnaAsJunior = scanned.stream()
+                    .filter(t -> "ana".equals(t.getActor()) && "Junior".equals(t.getRole()))
+                    .count();
+            assertEquals(byAnaAsJunior, log.count(range[0], range[1], null, null, "ana", "Junior"));
+            Map<String, Long> byRole = scanned.stream()
+                    .filter(t -> t.getRole() != null && t.getKind() == Transition.Kind.DECIDED)
+                    .collect(Collectors.groupingBy(Transition::getRole, Collectors.counting()));
+            assertEquals(byRole, log.countByRole(range[0], range[1], Transition.Kind.DECIDED, null));
+        }
+        assertEquals(0, log.count(0, end, null, null, "nobody"));
+        assertEquals(0, log.count(0, end, null, null, null, "Director"));
+    }
+
+    @Test
+    void workflowRecordsTheUsernameAndRoleOfEveryTransition() {
+        Log.setLevel(Level.OFF);
+        WorkflowService workflow = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+        workflow.setTransitionLog(log);
+        User ana = new User("ana", "unused-hash", "Junior");
+        User sam = new User("sam", "unused-hash", "Senior");
+        Task task = workflow.createTask("Buy desks", 3, ana);
+        workflow.processTask(sam, task, true, null);
+        workflow.rollbackTask(ana, task, 1);
+        workflow.processTask(sam, task, false, "Too dear");
+
+        List<Transition> history = log.history(task.getNumericId());
+        assertEquals(List.of("ana", "sam", "ana", "sam"),
+                history.stream().map(Transition::getActor).collect(Collectors.toList()));
+        assertEquals(List.of("Junior", "Senior", "Junior", "Senior"),
+                history.stream().map(Transition::getRole).collect(Collectors.toList()));
+        assertEquals(Map.of("sam", 2L), log.countByActor(0, Long.MAX_VALUE, Transition.Kind.DECIDED, null));
+    }
+
+    @Test
+    void rejectsEntriesWithoutKindOrTarget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> log.record(1, null, null, TaskState.PENDING, "ana", "Senior", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> log.record(1, Transition.Kind.CREATED, null, null, "ana", "Senior", null));
+    }
+}
@@ -0,0 +1,119 @@
+package com.workflow.services;
+
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkflowDefinitionTest {
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    @Test
+    void aVoteNeedsItsQuorumOfDistinctRoles() {
+        WorkflowDefinition definition = WorkflowDefinition.builder()
+                .step("Junior")
+                .stage(2, "Manager", "Senior", "Director")
+                .build();
+        Task task = new Task(1, "Buy desks", 1);
+
+        assertEquals(WorkflowDefinition.REFUSED, definition.approve(task, 0, "Manager"));
+        int progress = definition.approve(task, 0, "Junior");
+        assertFalse(definition.isComplete(progress));
+        assertEquals(WorkflowDefinition.REFUSED, definition.approve(task, progress, "Junior"));
+
+        progress = definition.approve(task, progress, "Manager");
+        assertFalse(definition.isComplete(progress));
+        assertEquals(WorkflowDefinition.REFUSED, definition.approve(task, progress, "Manager"),
+                "one role cannot meet the quorum alone");
+        assertEquals(WorkflowDefinition.REFUSED, definition.approve(task, progress, "Intern"));
+        assertTrue(definition.isComplete(definition.approve(task, progress, "Director")));
+
+        // The system completes whichever stage the task is in
+        assertTrue(definition.isComplete(definition.approve(task, definition.approve(task, 0, null), null)));
+    }
+
+    @Test
+    void conditionalStagesOnlyApplyToMatchingTasks() {
+        WorkflowDefinition definition = WorkflowDefinition.parse("Manager > p3: 2/Senior+Director");
+        assertEquals(2, definition.getStageCount());
+        assertEquals(3, definition.getStepCount());
+
+        Task routine = new Task(1, "Buy pens", 2);
+        assertTrue(definition.isComplete(definition.approve(routine, 0, "Manager")));
+
+        Task urgent = new Task(2, "Buy servers", 3);
+        int progress = definition.approve(urgent, 0, "Manager");
+        assertFalse(definition.isComplete(progress));
+        assertFalse(definition.isComplete(definition.approve(urgent, progress, "Senior")));
+
+        WorkflowDefinition skipped = WorkflowDefinition.builder()
+                .stageWhen(task -> task.getPriority() == 3, 1, "Director")
+                .step("Manager")
+                .build();
+        assertEquals(WorkflowDefinition.REFUSED, skipped.approve(routine, 0, "Director"));
+        assertTrue(skipped.isComplete(skipped.approve(routine, 0, "Manager")));
+    }
+
+    @Test
+    void refusesInvalidDefinitions() {
+        assertThrows(IllegalArgumentException.class, () -> WorkflowDefinition.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> WorkflowDefinition.parse("x/Manager+Senior"));
+        assertThrows(IllegalArgumentException.class, () -> WorkflowDefinition.parse("3/Manager+Senior"));
+        assertThrows(IllegalArgumentException.class, () -> WorkflowDefinition.parse("Manager+Manager"));
+        assertThrows(IllegalArgumentException.class, () -> WorkflowDefinition.builder().build());
+    }
+
+    @Test
+    void workQueuesOfferTasksToTheRolesTheirStageIsWaitingFor() {
+        WorkflowDefinition definition = WorkflowDefinition.parse("Junior > p3:Senior");
+        WorkflowService workflow = new WorkflowService(new TaskStore(), new SnowflakeIdGenerator(0));
+        WorkQueueService queues = new WorkQueueService();
+        workflow.setWorkflowDefinition(definition);
+        queues.setWorkflowDefinition(definition);
+        workflow.setWorkQueues(queues);
+        User junior = new User("jo", "unused-hash", "Junior");
+        User senior = new User("sam", "unused-hash", "Senior");
+
+        Task servers = workflow.createTask("Buy servers", 3, senior);
+        Task pens = workflow.createTask("Buy pens", 1, senior);
+        Task desks = workflow.createTask("Buy desks", 3, senior);
+        assertEquals(List.of(), queues.claimBatch(senior, 10), "no stage is waiting for a Senior yet");
+
+        Lease lease = queues.claimNext(junior);
+        assertEquals(servers, lease.getTask());
+        assertTrue(workflow.processTask(junior, servers, true, null));
+        assertEquals(TaskState.PENDING, servers.getState());
+        assertEquals(List.of("Senior"), definition.getWaitingRoles(servers));
+        assertTrue(definition.canApprove(servers, "Senior"));
+        assertFalse(definition.canApprove(servers, "Junior"));
+
+        // The junior's lease ended with their step, so the senior can claim the task straight away
+        assertEquals(List.of(servers), tasks(queues.claimBatch(senior, 10)));
+        assertEquals(List.of(desks, pens), tasks(queues.claimBatch(junior, 10)));
+        assertFalse(workflow.processTask(junior, servers, true, null));
+        assertTrue(workflow.processTask(senior, servers, true, null));
+        assertEquals(TaskState.APPROVED, servers.getState());
+        assertTrue(workflow.processTask(junior, pens, true, null));
+        assertEquals(TaskState.APPROVED, pens.getState());
+        assertEquals(TaskState.PENDING, desks.getState());
+    }
+
+    private static List<Task> tasks(List<Lease> leases) {
+        return leases.stream().map(Lease::getTask).collect(Collectors.toList());
+    }
+}
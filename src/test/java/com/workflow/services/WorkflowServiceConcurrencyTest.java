@@ -0,0 +1,181 @@
+package com.workflow.services;
+
+import com.workflow.concurrent.Clock;
+import com.workflow.core.SnowflakeIdGenerator;
+import com.workflow.core.Task;
+import com.workflow.core.TaskState;
+import com.workflow.core.User;
+import com.workflow.logging.Level;
+import com.workflow.logging.Log;
+import com.workflow.persistence.WorkflowJournal;
+import com.workflow.persistence.WriteAheadLog;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races approvals, rejections and rollbacks on the same tasks from several threads, then checks that the
+ * outcome is consistent: one decision per task, indexes and work queues agreeing with the tasks, and a journal
+ * that replays to the same states.
+ */
+class WorkflowServiceConcurrencyTest {
+    private static final int TASKS = 300;
+    private static final int THREADS = 4;
+    private static final int OPERATIONS = 3_000;
+    private static final User CREATOR = new User("mia", "unused-hash", "Manager");
+
+    @TempDir
+    Path directory;
+
+    private TaskStore store;
+    private WorkflowService service;
+    private WorkQueueService queues;
+    private WorkflowJournal journal;
+    private List<Task> tasks;
+
+    @BeforeAll
+    static void silenceLogging() {
+        Log.setLevel(Level.OFF);
+    }
+
+    private void createTasks() {
+        store = new TaskStore();
+        service = new WorkflowService(store, new SnowflakeIdGenerator(0));
+        queues = new WorkQueueService(Clock.SYSTEM, 60_000, 1_000, 4);
+        service.setWorkQueues(queues);
+        journal = new WorkflowJournal(new WriteAheadLog(directory, 4 << 20, 1), false);
+        service.setJournal(journal);
+        tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            tasks.add(service.createTask("Concurrent task " + i, 1 + i % 3, CREATOR));
+        }
+    }
+
+    @Test
+    void exactlyOneRacingDecisionWins() throws Exception {
+        createTasks();
+        AtomicIntegerArray wins = new AtomicIntegerArray(TASKS);
+        CountDownLatch start = new CountDownLatch(1);
+        runConcurrently(thread -> {
+            start.await();
+            for (int i = 0; i < TASKS; i++) {
+                boolean approve = (thread + i) % 2 == 0;
+                if (service.processTask(tasks.get(i), approve, approve ? null : "Rejected by thread " + thread)) {
+                    wins.incrementAndGet(i);
+                }
+            }
+        }, start);
+
+        for (int i = 0; i < TASKS; i++) {
+            assertEquals(1, wins.get(i), "decisions won for task " + i);
+            assertTrue(tasks.get(i).isTerminal());
+        }
+        assertConsistent();
+    }
+
+    @Test
+    void decisionsAndRollbacksStayConsistent() throws Exception {
+        createTasks();
+        AtomicIntegerArray decided = new AtomicIntegerArray(TASKS);
+        AtomicIntegerArray rolledBack = new AtomicIntegerArray(TASKS);
+        CountDownLatch start = new CountDownLatch(1);
+        runConcurrently(thread -> {
+            start.await();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int n = 0; n < OPERATIONS; n++) {
+                int i = random.nextInt(TASKS);
+                Task task = tasks.get(i);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        if (service.processTask(task, true, null)) {
+                            decided.incrementAndGet(i);
+                        }
+                        break;
+                    case 1:
+                        if (service.processTask(task, false, "Reason " + n)) {
+                            decided.incrementAndGet(i);
+                        }
+                        break;
+                    default:
+                        if (service.rollbackTask(task)) {
+                            rolledBack.incrementAndGet(i);
+                        }
+                }
+            }
+        }, start);
+
+        for (int i = 0; i < TASKS; i++) {
+            int open = decided.get(i) - rolledBack.get(i);
+            assertEquals(tasks.get(i).isTerminal() ? 1 : 0, open, "decisions not rolled back for task " + i);
+        }
+        assertConsistent();
+    }
+
+    private void assertConsistent() {
+        for (TaskState state : TaskState.values()) {
+            long expected = tasks.stream().filter(task -> task.getState() == state).count();
+            assertEquals(expected, service.query(TaskQuery.builder().status(state).build()).count(),
+                    "indexed " + state + " tasks");
+        }
+        for (int priority = 1; priority <= 3; priority++) {
+            int level = priority;
+            long pending = tasks.stream()
+                    .filter(task -> task.getPriority() == level && task.getState() == TaskState.PENDING)
+                    .count();
+            assertEquals(pending, queues.getQueuedCount(priority), "queued tasks of priority " + priority);
+        }
+
+        journal.close();
+        TaskStore recovered = new TaskStore();
+        WorkflowJournal reopened = new WorkflowJournal(new WriteAheadLog(directory, 4 << 20, 1), false);
+        try {
+            reopened.recover(new AuthenticationService(), recovered);
+        } finally {
+            reopened.close();
+        }
+        assertEquals(TASKS, recovered.size());
+        for (Task task : tasks) {
+            Task replayed = recovered.get(task.getNumericId());
+            assertEquals(task.getStatus(), replayed.getStatus(), "replayed status of " + task.getId());
+            assertEquals(task.getPriority(), replayed.getPriority());
+        }
+    }
+
+    private static void runConcurrently(Worker worker, CountDownLatch start) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(pool.submit(() -> {
+                    worker.run(id);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}